@@ -0,0 +1,125 @@
+package shortestpath;
+
+import java.awt.image.BufferedImage;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import shortestpath.pathfinder.CollisionDelta;
+import shortestpath.pathfinder.CollisionMap;
+import shortestpath.pathfinder.SplitFlagMap;
+
+/**
+ * The blocked tiles of the collision map as one image per 64x64 region and plane, with a pixel per
+ * tile, so the world map overlay draws a few images scaled to the zoom instead of a rectangle per
+ * blocked tile.
+ * <p>
+ * The images are rendered for one static collision map and colour, and are all rendered again once
+ * the static map is replaced or the colour changes. A change of the live scene collision, which
+ * publishes a new map on every door or gate toggled, only drops the images of the regions with a
+ * tile it changed. Only the least recently drawn regions are kept, but never fewer than the regions
+ * drawn since {@link #beginFrame()}, so a frame showing more regions than the capacity does not evict
+ * the images the next frame draws again.
+ */
+class CollisionRasterCache
+{
+	static final int DEFAULT_CAPACITY = 256;
+	static final int REGION_SIZE = 64;
+	private static final int REGION_SHIFT = 6;
+	// Stands in for the regions without blocked tiles, which are not drawn.
+	private static final BufferedImage EMPTY = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+
+	private final int capacity;
+	// By region x, region y and plane, see key(int, int, int).
+	private final Map<Integer, BufferedImage> images;
+	private SplitFlagMap staticMap;
+	private CollisionDelta delta;
+	private int colour;
+	private int drawnThisFrame;
+
+	CollisionRasterCache(int capacity)
+	{
+		this.capacity = capacity;
+		// Access order, so the eldest entry is the least recently drawn one.
+		images = new LinkedHashMap<>(16, 0.75f, true)
+		{
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Integer, BufferedImage> eldest)
+			{
+				return size() > Math.max(CollisionRasterCache.this.capacity, drawnThisFrame);
+			}
+		};
+	}
+
+	private static int key(int regionX, int regionY, int plane)
+	{
+		return (regionX << 16 | regionY) << 2 | plane;
+	}
+
+	/**
+	 * Starts a frame, before the first region of the frame is drawn.
+	 */
+	void beginFrame()
+	{
+		drawnThisFrame = 0;
+	}
+
+	/**
+	 * The image of the region with the lowest tile coordinates {@code regionX << 6} and
+	 * {@code regionY << 6}. Its first row is the northernmost row of tiles. Null if the region
+	 * has no blocked tiles on the plane.
+	 *
+	 * @param colour the ARGB colour of the blocked tiles
+	 */
+	BufferedImage get(CollisionMap map, int colour, int regionX, int regionY, int plane)
+	{
+		if (map.getCollisionData() != staticMap || colour != this.colour)
+		{
+			images.clear();
+			staticMap = map.getCollisionData();
+			delta = map.getCollisionDelta();
+			this.colour = colour;
+		}
+		else if (map.getCollisionDelta() != delta)
+		{
+			for (int tile : map.getCollisionDelta().changedTiles(delta))
+			{
+				images.remove(key(WorldPointUtil.unpackWorldX(tile) >> REGION_SHIFT,
+					WorldPointUtil.unpackWorldY(tile) >> REGION_SHIFT, WorldPointUtil.unpackWorldPlane(tile)));
+			}
+			delta = map.getCollisionDelta();
+		}
+		drawnThisFrame++;
+		BufferedImage image = images.computeIfAbsent(key(regionX, regionY, plane),
+			key -> render(map, colour, regionX << REGION_SHIFT, regionY << REGION_SHIFT, plane));
+		return image == EMPTY ? null : image;
+	}
+
+	int size()
+	{
+		return images.size();
+	}
+
+	private static BufferedImage render(CollisionMap map, int colour, int baseX, int baseY, int plane)
+	{
+		int[] pixels = new int[REGION_SIZE * REGION_SIZE];
+		boolean blocked = false;
+		for (int row = 0; row < REGION_SIZE; row++)
+		{
+			int y = baseY + REGION_SIZE - 1 - row;
+			for (int column = 0; column < REGION_SIZE; column++)
+			{
+				if (map.isBlocked(baseX + column, y, plane))
+				{
+					pixels[row * REGION_SIZE + column] = colour;
+					blocked = true;
+				}
+			}
+		}
+		if (!blocked)
+		{
+			return EMPTY;
+		}
+		BufferedImage image = new BufferedImage(REGION_SIZE, REGION_SIZE, BufferedImage.TYPE_INT_ARGB);
+		image.setRGB(0, 0, REGION_SIZE, REGION_SIZE, pixels, 0, REGION_SIZE);
+		return image;
+	}
+}
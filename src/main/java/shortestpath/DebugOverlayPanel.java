@@ -16,6 +16,9 @@ import net.runelite.client.ui.overlay.components.LayoutableRenderableEntity;
 import net.runelite.client.ui.overlay.components.LineComponent;
 import net.runelite.client.ui.overlay.components.TitleComponent;
 import shortestpath.pathfinder.Pathfinder;
+import shortestpath.pathfinder.PathfinderConfig;
+import shortestpath.pathfinder.RouteCache;
+import shortestpath.pathfinder.SearchScheduler;
 
 public class DebugOverlayPanel extends OverlayPanel
 {
@@ -82,6 +85,32 @@ public class DebugOverlayPanel extends OverlayPanel
 		String time = String.format("%.2fms", milliTime);
 		components.add(makeLine("Time:", time));
 
+		PathfinderConfig pathfinderConfig = plugin.getPathfinderConfig();
+		if (pathfinderConfig != null)
+		{
+			double refreshMilliTime = pathfinderConfig.getRefreshNanos() / 1000000.0;
+			String refreshTime = String.format("%.2fms", refreshMilliTime);
+			components.add(makeLine("Refresh:", refreshTime));
+
+			String coalesced = Integer.toString(plugin.getRefreshScheduler().getCoalescedEvents());
+			components.add(makeLine("Coalesced:", coalesced));
+		}
+
+		SearchScheduler searchScheduler = plugin.getSearchScheduler();
+		if (searchScheduler != null)
+		{
+			String queued = Integer.toString(searchScheduler.getQueueDepth());
+			components.add(makeLine("Queued:", queued));
+
+			double waitMilliTime = searchScheduler.getLastWaitNanos() / 1000000.0;
+			String waitTime = String.format("%.2fms", waitMilliTime);
+			components.add(makeLine("Wait:", waitTime));
+
+			RouteCache routeCache = searchScheduler.getRouteCache();
+			String cached = String.format("%d (%.0f%% hits)", routeCache.size(), routeCache.getHitRate() * 100);
+			components.add(makeLine("Cached:", cached));
+		}
+
 		return super.render(graphics);
 	}
 
@@ -1,24 +1,24 @@
 package shortestpath;
 
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Scanner;
 import java.util.Set;
 
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.Quest;
 import net.runelite.api.Skill;
+import shortestpath.transport.Transport;
 import shortestpath.transport.parser.FieldParser;
 import shortestpath.transport.parser.QuestParser;
 import shortestpath.transport.parser.SkillRequirementParser;
+import shortestpath.transport.parser.TsvParser;
 import shortestpath.transport.parser.VarRequirement;
 import shortestpath.transport.parser.VarRequirementParser;
+import shortestpath.transport.parser.WorldPointParser;
 
 /**
  * Utility loader for destination coordinate sets grouped by feature category.
@@ -40,11 +40,20 @@ public class Destination
 	private static final FieldParser<Set<Quest>> QUEST_PARSER = new QuestParser();
 	private static final FieldParser<Set<VarRequirement>> VARBIT_PARSER = VarRequirementParser.forVarbits();
 	private static final FieldParser<Set<VarRequirement>> VARPLAYER_PARSER = VarRequirementParser.forVarPlayers();
-	private static final String DELIM_COLUMN = "\t";
-	private static final String PREFIX_COMMENT = "#";
+	private static final WorldPointParser WORLD_POINT_PARSER = new WorldPointParser();
+	private static final String DESTINATION_COLUMN = "Destination";
 	private static final String FILE_EXTENSION = ".";
 	private static final String DELIM_PATH = "/";
-	private static final String DELIM = " ";
+	private static final String BANK_PATH = "/destinations/game_features/bank.tsv";
+	/**
+	 * Every destination resource loaded by {@link #loadAllFromResources()}, including the bank file
+	 * also read by {@link #loadBankRequirementsFromResources()}.
+	 */
+	public static final List<String> RESOURCE_PATHS = List.of(
+		"/destinations/game_features/altar.tsv",
+		BANK_PATH,
+		"/destinations/training/anvil.tsv",
+		"/destinations/shopping/apothecary.tsv");
 
 	/**
 	 * Parses a TSV resource of destination coordinates and merges them into the provided map.
@@ -57,67 +66,26 @@ public class Destination
 	 */
 	private static void addDestinations(Map<String, Set<Integer>> destinations, String path)
 	{
-		try
-		{
-			String s = new String(Util.readAllBytes(Objects.requireNonNull(ShortestPathPlugin.class.getResourceAsStream(path))),
-				StandardCharsets.UTF_8);
-			Scanner scanner = new Scanner(s);
+		String[] parts = path.replace(FILE_EXTENSION, DELIM_PATH).split(DELIM_PATH);
+		String entry = parts[parts.length - 2];
 
-			// Header line is the first line in the file and will start with either '#' or
-			// '# '
-			String[] headers = parse_header_line(scanner);
-
-			String[] parts = path.replace(FILE_EXTENSION, DELIM_PATH).split(DELIM_PATH);
-			String entry = parts[parts.length - 2];
-
-			while (scanner.hasNextLine())
+		TsvParser parser = new TsvParser(readResource(path));
+		int destinationColumn = parser.columnIndex(DESTINATION_COLUMN);
+		while (parser.next())
+		{
+			int packed = parseDestination(parser, destinationColumn, false);
+			if (packed != Transport.LOCATION_PERMUTATION)
 			{
-				String line = scanner.nextLine();
-
-				if (line.startsWith(PREFIX_COMMENT) || line.isBlank())
-				{
-					continue;
-				}
-
-				String[] fields = line.split(DELIM_COLUMN);
-				Map<String, List<String>> fieldMap = new HashMap<>();
-				for (int i = 0; i < headers.length; i++)
-				{
-					if (i < fields.length)
-					{
-						List<String> values = fieldMap.getOrDefault(headers[i], new ArrayList<>());
-						values.add(fields[i]);
-						fieldMap.put(headers[i], values);
-					}
-				}
-				for (String field : fieldMap.keySet())
-				{
-					if ("Destination".equals(field))
-					{
-						for (String value : fieldMap.get(field))
-						{
-							try
-							{
-								String[] destinationArray = value.split(DELIM);
-								if (destinationArray.length == 3)
-								{
-									Set<Integer> entryDestinations = destinations.getOrDefault(entry, new HashSet<>());
-									entryDestinations.add(WorldPointUtil.packWorldPoint(
-										Integer.parseInt(destinationArray[0]),
-										Integer.parseInt(destinationArray[1]),
-										Integer.parseInt(destinationArray[2])));
-									destinations.put(entry, entryDestinations);
-								}
-							}
-							catch (NumberFormatException e)
-							{
-								log.error("Invalid destination coordinate", e);
-							}
-						}
-					}
-				}
+				destinations.computeIfAbsent(entry, k -> new HashSet<>()).add(packed);
 			}
-			scanner.close();
+		}
+	}
+
+	private static byte[] readResource(String path)
+	{
+		try
+		{
+			return Util.readAllBytes(Objects.requireNonNull(ShortestPathPlugin.class.getResourceAsStream(path)));
 		}
 		catch (IOException e)
 		{
@@ -125,14 +93,41 @@ public class Destination
 		}
 	}
 
-	private static String[] parse_header_line(Scanner scanner)
+	/**
+	 * Parses the destination field of the current row, or returns
+	 * {@link Transport#LOCATION_PERMUTATION} if it is missing or not a coordinate. Only a coordinate
+	 * with three parts that are not all integers is logged; the bank file trims the field first.
+	 */
+	private static int parseDestination(TsvParser parser, int column, boolean bankFile)
 	{
-		String headerLine = scanner.nextLine();
-		headerLine = headerLine.startsWith(PREFIX_COMMENT + " ")
-			? headerLine.replace(PREFIX_COMMENT + " ", PREFIX_COMMENT)
-			: headerLine;
-		headerLine = headerLine.startsWith(PREFIX_COMMENT) ? headerLine.replace(PREFIX_COMMENT, "") : headerLine;
-		return headerLine.split(DELIM_COLUMN);
+		if (!parser.has(column))
+		{
+			return Transport.LOCATION_PERMUTATION;
+		}
+		byte[] data = parser.getData();
+		int start = parser.getFieldStart(column);
+		int end = parser.getFieldEnd(column);
+		if (bankFile)
+		{
+			// Like String.trim()
+			while (start < end && (data[start] & 0xFF) <= ' ')
+			{
+				start++;
+			}
+			while (end > start && (data[end - 1] & 0xFF) <= ' ')
+			{
+				end--;
+			}
+		}
+		try
+		{
+			return WORLD_POINT_PARSER.parsePacked(data, start, end);
+		}
+		catch (NumberFormatException e)
+		{
+			log.error(bankFile ? "Invalid destination coordinate in bank.tsv" : "Invalid destination coordinate", e);
+			return Transport.LOCATION_PERMUTATION;
+		}
 	}
 
 	/**
@@ -143,10 +138,10 @@ public class Destination
 	public static Map<String, Set<Integer>> loadAllFromResources()
 	{
 		Map<String, Set<Integer>> destinations = new HashMap<>(10);
-		addDestinations(destinations, "/destinations/game_features/altar.tsv");
-		addDestinations(destinations, "/destinations/game_features/bank.tsv");
-		addDestinations(destinations, "/destinations/training/anvil.tsv");
-		addDestinations(destinations, "/destinations/shopping/apothecary.tsv");
+		for (String path : RESOURCE_PATHS)
+		{
+			addDestinations(destinations, path);
+		}
 		return destinations;
 	}
 
@@ -158,109 +153,34 @@ public class Destination
 	public static Map<Integer, DestinationRequirements> loadBankRequirementsFromResources()
 	{
 		Map<Integer, DestinationRequirements> requirements = new HashMap<>();
-		final String path = "/destinations/game_features/bank.tsv";
-		final String DELIM_COLUMN = "\t";
-		final String PREFIX_COMMENT = "#";
-		final String DELIM = " ";
-
-		try
-		{
-			String s = new String(Util.readAllBytes(Objects.requireNonNull(ShortestPathPlugin.class.getResourceAsStream(path))), StandardCharsets.UTF_8);
-			try (Scanner scanner = new Scanner(s))
-			{
-				String[] headers = parse_header_line(scanner);
-				for (int i = 0; i < headers.length; i++)
-				{
-					headers[i] = headers[i].trim();
-				}
-
-				int destCol = indexOf(headers, "Destination");
-				int skillsCol = indexOf(headers, "Skills");
-				int questsCol = indexOf(headers, "Quests");
-				int varbitsCol = indexOf(headers, "Varbits");
-				int varPlayersCol = indexOf(headers, "VarPlayers");
-				if (destCol < 0)
-				{
-					return requirements;
-				}
-
-				while (scanner.hasNextLine())
-				{
-					String line = scanner.nextLine();
-					if (line.startsWith(PREFIX_COMMENT) || line.isBlank())
-					{
-						continue;
-					}
-					String[] fields = line.split(DELIM_COLUMN, -1);
-					if (fields.length <= destCol)
-					{
-						continue;
-					}
-					String destField = fields[destCol].trim();
-					String[] destinationArray = destField.split(DELIM);
-					if (destinationArray.length != 3)
-					{
-						continue;
-					}
-					int packed;
-					try
-					{
-						packed = WorldPointUtil.packWorldPoint(
-							Integer.parseInt(destinationArray[0]),
-							Integer.parseInt(destinationArray[1]),
-							Integer.parseInt(destinationArray[2]));
-					}
-					catch (NumberFormatException e)
-					{
-						log.error("Invalid destination coordinate in bank.tsv", e);
-						continue;
-					}
-
-					String skillsStr = fieldAt(fields, skillsCol);
-					String questsStr = fieldAt(fields, questsCol);
-					String varbitsStr = fieldAt(fields, varbitsCol);
-					String varPlayersStr = fieldAt(fields, varPlayersCol);
 
-					int[] skillLevels = skillsCol >= 0 ? SKILL_PARSER.parse(blankToNull(skillsStr)) : new int[Skill.values().length + 3];
-					Set<Quest> quests = questsCol >= 0 ? QUEST_PARSER.parse(blankToNull(questsStr)) : Set.of();
-					Set<VarRequirement> varbits = varbitsCol >= 0 ? VARBIT_PARSER.parse(blankToNull(varbitsStr)) : Set.of();
-					Set<VarRequirement> varPlayers = varPlayersCol >= 0 ? VARPLAYER_PARSER.parse(blankToNull(varPlayersStr)) : Set.of();
-
-					DestinationRequirements rowReq = new DestinationRequirements(skillLevels, quests, varbits, varPlayers);
-					requirements.merge(packed, rowReq, DestinationRequirements::merge);
-				}
-			}
-		}
-		catch (IOException e)
+		TsvParser parser = new TsvParser(readResource(BANK_PATH));
+		int destCol = parser.columnIndex(DESTINATION_COLUMN);
+		int skillsCol = parser.columnIndex("Skills");
+		int questsCol = parser.columnIndex("Quests");
+		int varbitsCol = parser.columnIndex("Varbits");
+		int varPlayersCol = parser.columnIndex("VarPlayers");
+		if (destCol < 0)
 		{
-			throw new RuntimeException(e);
+			return requirements;
 		}
-		return requirements;
-	}
 
-	private static int indexOf(String[] headers, String name)
-	{
-		for (int i = 0; i < headers.length; i++)
+		while (parser.next())
 		{
-			if (name.equals(headers[i]))
+			int packed = parseDestination(parser, destCol, true);
+			if (packed == Transport.LOCATION_PERMUTATION)
 			{
-				return i;
+				continue;
 			}
-		}
-		return -1;
-	}
 
-	private static String fieldAt(String[] fields, int col)
-	{
-		if (col < 0 || col >= fields.length)
-		{
-			return "";
-		}
-		return fields[col];
-	}
+			int[] skillLevels = parser.has(skillsCol) ? parser.parse(skillsCol, SKILL_PARSER) : new int[Skill.values().length + 3];
+			Set<Quest> quests = parser.has(questsCol) ? parser.parse(questsCol, QUEST_PARSER) : Set.of();
+			Set<VarRequirement> varbits = parser.has(varbitsCol) ? parser.parse(varbitsCol, VARBIT_PARSER) : Set.of();
+			Set<VarRequirement> varPlayers = parser.has(varPlayersCol) ? parser.parse(varPlayersCol, VARPLAYER_PARSER) : Set.of();
 
-	private static String blankToNull(String s)
-	{
-		return s == null || s.isBlank() ? null : s;
+			DestinationRequirements rowReq = new DestinationRequirements(skillLevels, quests, varbits, varPlayers);
+			requirements.merge(packed, rowReq, DestinationRequirements::merge);
+		}
+		return requirements;
 	}
 }
@@ -0,0 +1,139 @@
+package shortestpath;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import net.runelite.api.Client;
+import shortestpath.pathfinder.PathStep;
+import shortestpath.pathfinder.Pathfinder;
+import shortestpath.pathfinder.PathfinderConfig;
+import shortestpath.transport.BankPickupRequirements;
+import shortestpath.transport.Transport;
+
+/**
+ * The bank pickup and transport labels drawn on the steps of one finished path. Each step's labels
+ * are worked out the first time it is drawn and kept until the path, the transports or the items on
+ * the player or in the bank change, instead of collecting the player's items and walking the rest
+ * of the path for every step on every frame.
+ * <p>
+ * Only used on the client thread.
+ */
+class PathHints
+{
+	private final Client client;
+	private final ShortestPathPlugin plugin;
+	private final Pathfinder pathfinder;
+	private final List<PathStep> path;
+	private final int itemsVersion;
+	private final int searchVersion;
+	// By path index, null until the step is drawn; see getBankPickup and getTransportLabels.
+	private final String[] bankPickups;
+	private final List<List<String>> transportLabels;
+	private Map<Integer, Integer> playerHas;
+
+	PathHints(Client client, ShortestPathPlugin plugin, Pathfinder pathfinder, int itemsVersion, int searchVersion)
+	{
+		this.client = client;
+		this.plugin = plugin;
+		this.pathfinder = pathfinder;
+		this.path = pathfinder.getPath();
+		this.itemsVersion = itemsVersion;
+		this.searchVersion = searchVersion;
+		this.bankPickups = new String[path.size()];
+		this.transportLabels = new ArrayList<>(Collections.nCopies(path.size(), null));
+	}
+
+	boolean isFor(Pathfinder pathfinder, int itemsVersion, int searchVersion)
+	{
+		return this.pathfinder == pathfinder
+			&& path == pathfinder.getPath()
+			&& this.itemsVersion == itemsVersion
+			&& this.searchVersion == searchVersion;
+	}
+
+	/**
+	 * The items to pick up at the step if it is a bank, as a label, or an empty string.
+	 */
+	String getBankPickup(int pathIndex)
+	{
+		if (bankPickups[pathIndex] == null)
+		{
+			bankPickups[pathIndex] = bankPickup(pathIndex);
+		}
+		return bankPickups[pathIndex];
+	}
+
+	private String bankPickup(int pathIndex)
+	{
+		PathfinderConfig pathfinderConfig = plugin.getPathfinderConfig();
+		Set<Integer> bankLocations = pathfinderConfig.getDestinations("bank");
+		if (bankLocations == null || pathfinderConfig.bank == null)
+		{
+			return "";
+		}
+		List<String> bankPickupItems = BankPickupRequirements.getRequiredBankItems(
+			client,
+			pathfinderConfig.bank,
+			pathfinderConfig,
+			bankLocations,
+			path,
+			pathIndex
+		);
+		return bankPickupItems.isEmpty() ? "" : "Pick up: " + String.join(", ", bankPickupItems);
+	}
+
+	/**
+	 * The labels of the transports taken from the step that the player can currently use, or of
+	 * all of them if none are usable, with the exit of the house when the transport goes there.
+	 */
+	List<String> getTransportLabels(int pathIndex, Set<Transport> candidateTransports)
+	{
+		List<String> labels = transportLabels.get(pathIndex);
+		if (labels == null)
+		{
+			labels = transportLabels(pathIndex, candidateTransports);
+			transportLabels.set(pathIndex, labels);
+		}
+		return labels;
+	}
+
+	private List<String> transportLabels(int pathIndex, Set<Transport> candidateTransports)
+	{
+		if (playerHas == null)
+		{
+			playerHas = BankPickupRequirements.collectPlayerItems(client);
+		}
+		List<Transport> usableTransports = new ArrayList<>();
+		for (Transport t : candidateTransports)
+		{
+			if (BankPickupRequirements.transportSatisfiedBy(t, playerHas))
+			{
+				usableTransports.add(t);
+			}
+		}
+		Collection<Transport> transportsToShow = usableTransports.isEmpty() ? candidateTransports : usableTransports;
+
+		List<String> labels = new ArrayList<>(transportsToShow.size());
+		for (Transport transport : transportsToShow)
+		{
+			String text = transport.getDisplayInfo();
+			if (text == null || text.isEmpty())
+			{
+				continue;
+			}
+
+			// Check if this transport goes to POH - if so, look ahead to find the exit
+			// transport
+			String pohExitInfo = plugin.getPohExitInfo(path.get(pathIndex + 1).getPackedPosition(), path, pathIndex);
+			if (pohExitInfo != null)
+			{
+				text = text + " (Exit: " + pohExitInfo + ")";
+			}
+			labels.add(text);
+		}
+		return labels;
+	}
+}
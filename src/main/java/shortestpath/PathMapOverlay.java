@@ -7,6 +7,7 @@ import java.awt.Dimension;
 import java.awt.Graphics2D;
 import java.awt.Rectangle;
 import java.awt.geom.Area;
+import java.awt.image.BufferedImage;
 import java.util.Objects;
 import net.runelite.api.Client;
 import net.runelite.api.Point;
@@ -16,14 +17,14 @@ import net.runelite.client.ui.overlay.Overlay;
 import net.runelite.client.ui.overlay.OverlayLayer;
 import net.runelite.client.ui.overlay.OverlayPosition;
 import shortestpath.pathfinder.CollisionMap;
-import shortestpath.pathfinder.PathStep;
-import shortestpath.pathfinder.TransportAvailability;
+import shortestpath.pathfinder.PackedPath;
 import shortestpath.transport.Transport;
 
 public class PathMapOverlay extends Overlay
 {
 	private final Client client;
 	private final ShortestPathPlugin plugin;
+	private final CollisionRasterCache collisionRaster = new CollisionRasterCache(CollisionRasterCache.DEFAULT_CAPACITY);
 
 	@Inject
 	private PathMapOverlay(Client client, ShortestPathPlugin plugin)
@@ -53,9 +54,8 @@ public class PathMapOverlay extends Overlay
 		Area worldMapClipArea = getWorldMapClipArea(worldMapRectangle);
 		graphics.setClip(worldMapClipArea);
 
-		if (plugin.drawCollisionMap)
+		if (plugin.drawCollisionMap && plugin.getPathfinderConfig() != null)
 		{
-			graphics.setColor(plugin.colourCollisionMap);
 			int mapWorldPoint = plugin.calculateMapPoint(worldMapRectangle.x, worldMapRectangle.y);
 			int extentX = WorldPointUtil.unpackWorldX(mapWorldPoint);
 			int extentY = WorldPointUtil.unpackWorldY(mapWorldPoint);
@@ -63,50 +63,43 @@ public class PathMapOverlay extends Overlay
 			int extentHeight = getWorldMapExtentHeight(worldMapRectangle);
 			final CollisionMap map = plugin.getMap();
 			final int z = client.getTopLevelWorldView().getPlane();
-			for (int x = extentX; x < (extentX + extentWidth + 1); x++)
+			final int colour = plugin.colourCollisionMap.getRGB();
+			collisionRaster.beginFrame();
+			for (int regionX = Math.max(0, extentX) >> 6; regionX <= (extentX + extentWidth) >> 6; regionX++)
 			{
-				for (int y = extentY - extentHeight; y < (extentY + 1); y++)
+				for (int regionY = Math.max(0, extentY - extentHeight) >> 6; regionY <= extentY >> 6; regionY++)
 				{
-					if (map.isBlocked(x, y, z))
+					BufferedImage image = collisionRaster.get(map, colour, regionX, regionY, z);
+					if (image != null)
 					{
-						drawOnMap(graphics, WorldPointUtil.packWorldPoint(x, y, z), false, null);
+						drawRegionOnMap(graphics, image, regionX << 6, regionY << 6, z);
 					}
 				}
 			}
 		}
 
-		if (plugin.drawTransports)
+		if (plugin.drawTransports && plugin.getPathfinderConfig() != null)
 		{
 			graphics.setColor(Color.WHITE);
-			for (int a : plugin.getTransports().keys())
+			// Only the regions in view can have origins inside the clip area; teleports have no origin.
+			int mapWorldPoint = plugin.calculateMapPoint(worldMapRectangle.x, worldMapRectangle.y);
+			int extentX = WorldPointUtil.unpackWorldX(mapWorldPoint);
+			int extentY = WorldPointUtil.unpackWorldY(mapWorldPoint);
+			int extentWidth = getWorldMapExtentWidth(worldMapRectangle);
+			int extentHeight = getWorldMapExtentHeight(worldMapRectangle);
+			int fromRegionX = Math.max(0, extentX - 1) >> 6;
+			int toRegionX = (extentX + extentWidth + 1) >> 6;
+			int fromRegionY = Math.max(0, extentY - extentHeight - 1) >> 6;
+			int toRegionY = (extentY + 1) >> 6;
+			for (int regionX = fromRegionX; regionX <= toRegionX; regionX++)
 			{
-				if (a == Transport.UNDEFINED_ORIGIN)
-				{
-					continue; // skip teleports
-				}
-
-				int mapAX = plugin.mapWorldPointToGraphicsPointX(a);
-				int mapAY = plugin.mapWorldPointToGraphicsPointY(a);
-				if (!worldMapClipArea.contains(mapAX, mapAY))
-				{
-					continue;
-				}
-
-				for (Transport b : plugin.getTransports().getOrDefault(a, TransportAvailability.EMPTY_TRANSPORTS))
+				for (int regionY = fromRegionY; regionY <= toRegionY; regionY++)
 				{
-					if (b == null || (b.getType() != null && b.getType().isTeleport()))
+					int regionId = WorldPointUtil.regionId(regionX << 6, regionY << 6);
+					for (int a : plugin.getTransportOriginsInRegion(regionId))
 					{
-						continue; // skip teleports
+						drawTransports(graphics, worldMapClipArea, a);
 					}
-
-					int mapBX = plugin.mapWorldPointToGraphicsPointX(b.getDestination());
-					int mapBY = plugin.mapWorldPointToGraphicsPointY(b.getDestination());
-					if (!worldMapClipArea.contains(mapBX, mapBY))
-					{
-						continue;
-					}
-
-					graphics.drawLine(mapAX, mapAY, mapBX, mapBY);
 				}
 			}
 		}
@@ -114,13 +107,13 @@ public class PathMapOverlay extends Overlay
 		if (plugin.getPathfinder() != null)
 		{
 			Color colour = plugin.getPathColor();
-			java.util.List<PathStep> path = plugin.getPathfinder().getPath();
+			PackedPath path = plugin.getPathfinder().getPath();
 			Point cursorPos = client.getMouseCanvasPosition();
 			for (int i = 0; i < path.size(); i++)
 			{
 				graphics.setColor(colour);
-				int point = path.get(i).getPackedPosition();
-				int lastPoint = (i > 0) ? path.get(i - 1).getPackedPosition() : point;
+				int point = path.getPackedPosition(i);
+				int lastPoint = (i > 0) ? path.getPackedPosition(i - 1) : point;
 				if (WorldPointUtil.distanceBetween(point, lastPoint) > 1)
 				{
 					drawOnMap(graphics, lastPoint, point, true, cursorPos);
@@ -129,7 +122,7 @@ public class PathMapOverlay extends Overlay
 			}
 			for (int target : plugin.getPathfinder().getTargets())
 			{
-				if (!path.isEmpty() && target != path.get(path.size() - 1).getPackedPosition())
+				if (!path.isEmpty() && target != path.getPackedPosition(path.size() - 1))
 				{
 					graphics.setColor(plugin.colourPathCalculating);
 					drawOnMap(graphics, target, true, cursorPos);
@@ -140,6 +133,31 @@ public class PathMapOverlay extends Overlay
 		return null;
 	}
 
+	/**
+	 * Draws the image of a region over its tiles, each scaled to the rectangle drawOnMap fills for a tile.
+	 */
+	private void drawRegionOnMap(Graphics2D graphics, BufferedImage image, int baseX, int baseY, int z)
+	{
+		// The north-west tile of the region, and the tile diagonally past its south-east tile
+		int northWest = WorldPointUtil.packWorldPoint(baseX, baseY + CollisionRasterCache.REGION_SIZE - 1, z);
+		int pastSouthEast = WorldPointUtil.packWorldPoint(baseX + CollisionRasterCache.REGION_SIZE, baseY - 1, z);
+		int startX = plugin.mapWorldPointToGraphicsPointX(northWest);
+		int startY = plugin.mapWorldPointToGraphicsPointY(northWest);
+		int endX = plugin.mapWorldPointToGraphicsPointX(pastSouthEast);
+		int endY = plugin.mapWorldPointToGraphicsPointY(pastSouthEast);
+		if (startX == Integer.MIN_VALUE || startY == Integer.MIN_VALUE ||
+			endX == Integer.MIN_VALUE || endY == Integer.MIN_VALUE)
+		{
+			return;
+		}
+
+		int tileWidth = (endX - startX) / CollisionRasterCache.REGION_SIZE;
+		int tileHeight = (endY - startY) / CollisionRasterCache.REGION_SIZE;
+		graphics.drawImage(image,
+			startX - tileWidth / 2, startY - tileHeight / 2, endX - tileWidth / 2, endY - tileHeight / 2,
+			0, 0, image.getWidth(), image.getHeight(), null);
+	}
+
 	private void drawOnMap(Graphics2D graphics, int point, boolean checkHover, Point cursorPos)
 	{
 		drawOnMap(graphics, point, WorldPointUtil.dxdy(point, 1, -1), checkHover, cursorPos);
@@ -202,6 +220,33 @@ public class PathMapOverlay extends Overlay
 		return clipArea;
 	}
 
+	private void drawTransports(Graphics2D graphics, Area worldMapClipArea, int a)
+	{
+		int mapAX = plugin.mapWorldPointToGraphicsPointX(a);
+		int mapAY = plugin.mapWorldPointToGraphicsPointY(a);
+		if (!worldMapClipArea.contains(mapAX, mapAY))
+		{
+			return;
+		}
+
+		for (Transport b : plugin.getTransportsAt(a))
+		{
+			if (b == null || (b.getType() != null && b.getType().isTeleport()))
+			{
+				continue; // skip teleports
+			}
+
+			int mapBX = plugin.mapWorldPointToGraphicsPointX(b.getDestination());
+			int mapBY = plugin.mapWorldPointToGraphicsPointY(b.getDestination());
+			if (!worldMapClipArea.contains(mapBX, mapBY))
+			{
+				continue;
+			}
+
+			graphics.drawLine(mapAX, mapAY, mapBX, mapBY);
+		}
+	}
+
 	private int getWorldMapExtentWidth(Rectangle baseRectangle)
 	{
 		return (WorldPointUtil.unpackWorldX(
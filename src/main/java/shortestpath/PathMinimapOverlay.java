@@ -15,7 +15,7 @@ import net.runelite.api.coords.LocalPoint;
 import net.runelite.client.ui.overlay.Overlay;
 import net.runelite.client.ui.overlay.OverlayLayer;
 import net.runelite.client.ui.overlay.OverlayPosition;
-import shortestpath.pathfinder.PathStep;
+import shortestpath.pathfinder.PackedPath;
 
 public class PathMinimapOverlay extends Overlay
 {
@@ -65,11 +65,11 @@ public class PathMinimapOverlay extends Overlay
 		}
 		graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_OFF);
 
-		java.util.List<PathStep> pathPoints = plugin.getPathfinder().getPath();
+		PackedPath pathPoints = plugin.getPathfinder().getPath();
 		Color pathColor = plugin.getPathColor();
-		for (PathStep point : pathPoints)
+		for (int i = 0; i < pathPoints.size(); i++)
 		{
-			int pathPoint = point.getPackedPosition();
+			int pathPoint = pathPoints.getPackedPosition(i);
 			if (WorldPointUtil.unpackWorldPlane(pathPoint) != client.getTopLevelWorldView().getPlane())
 			{
 				continue;
@@ -79,7 +79,7 @@ public class PathMinimapOverlay extends Overlay
 		}
 		for (int target : plugin.getPathfinder().getTargets())
 		{
-			if (!pathPoints.isEmpty() && target != pathPoints.get(pathPoints.size() - 1).getPackedPosition())
+			if (!pathPoints.isEmpty() && target != pathPoints.getPackedPosition(pathPoints.size() - 1))
 			{
 				drawOnMinimap(graphics, target, plugin.colourPathCalculating);
 			}
@@ -5,12 +5,14 @@ import com.google.inject.Inject;
 import java.awt.BasicStroke;
 import java.awt.Color;
 import java.awt.Dimension;
+import java.awt.Font;
 import java.awt.Graphics2D;
 import java.awt.Polygon;
 import java.awt.geom.Line2D;
 import java.awt.geom.Rectangle2D;
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -18,15 +20,16 @@ import java.util.Set;
 import net.runelite.api.Client;
 import net.runelite.api.Perspective;
 import net.runelite.api.Point;
+import net.runelite.api.Scene;
 import net.runelite.api.Tile;
+import net.runelite.api.WorldView;
 import net.runelite.api.coords.LocalPoint;
 import net.runelite.client.ui.overlay.Overlay;
 import net.runelite.client.ui.overlay.OverlayLayer;
 import net.runelite.client.ui.overlay.OverlayPosition;
 import shortestpath.pathfinder.CollisionMap;
 import shortestpath.pathfinder.PathStep;
-import shortestpath.pathfinder.TransportAvailability;
-import shortestpath.transport.BankPickupRequirements;
+import shortestpath.pathfinder.Pathfinder;
 import shortestpath.transport.Transport;
 
 public class PathTileOverlay extends Overlay
@@ -35,6 +38,9 @@ public class PathTileOverlay extends Overlay
 	private final Client client;
 	private final ShortestPathPlugin plugin;
 	private int playerTileLabelOffset = 0;
+	private SceneTransports sceneTransports;
+	private SceneCollision sceneCollision;
+	private PathHints pathHints;
 
 	@Inject
 	public PathTileOverlay(Client client, ShortestPathPlugin plugin)
@@ -48,110 +54,85 @@ public class PathTileOverlay extends Overlay
 
 	private void renderTransports(Graphics2D graphics)
 	{
-		for (int a : plugin.getTransports().keys())
+		WorldView worldView = client.getTopLevelWorldView();
+		PrimitiveIntHashMap<int[]> transports = plugin.getTransports();
+		if (sceneTransports == null || !sceneTransports.isFor(worldView, transports))
 		{
-			if (a == Transport.UNDEFINED_ORIGIN)
-			{
-				continue; // skip teleports
-			}
-
-			boolean drawStart = false;
-
-			Point ca = tileCenter(a);
+			sceneTransports = new SceneTransports(worldView, transports);
+		}
+		sceneTransports.project();
 
+		for (int i = 0; i < sceneTransports.origins.length; i++)
+		{
+			Point ca = sceneTransports.originPoints[i];
 			if (ca == null)
 			{
 				continue;
 			}
 
-			StringBuilder s = new StringBuilder();
-			for (Transport b : plugin.getTransports().getOrDefault(a, TransportAvailability.EMPTY_TRANSPORTS))
+			boolean drawStart = false;
+			for (Point cb : sceneTransports.destinationPoints[i])
 			{
-				if (b == null || (b.getType() != null && b.getType().isTeleport()))
-				{
-					continue; // skip teleports
-				}
-				PrimitiveIntList destinations = WorldPointUtil.toLocalInstance(client, b.getDestination());
-				for (int i = 0; i < destinations.size(); i++)
+				if (cb != null)
 				{
-					int destination = destinations.get(i);
-					if (destination == Transport.UNDEFINED_DESTINATION)
-					{
-						continue;
-					}
-					Point cb = tileCenter(destination);
-					if (cb != null)
-					{
-						graphics.drawLine(ca.getX(), ca.getY(), cb.getX(), cb.getY());
-						drawStart = true;
-					}
-					if (WorldPointUtil.unpackWorldPlane(destination) > WorldPointUtil.unpackWorldPlane(a))
-					{
-						s.append("+");
-					}
-					else if (WorldPointUtil.unpackWorldPlane(destination) < WorldPointUtil.unpackWorldPlane(a))
-					{
-						s.append("-");
-					}
-					else
-					{
-						s.append("=");
-					}
+					graphics.drawLine(ca.getX(), ca.getY(), cb.getX(), cb.getY());
+					drawStart = true;
 				}
 			}
 
 			if (drawStart)
 			{
-				drawTile(graphics, a, plugin.colourTransports, -1, true);
+				drawTile(graphics, sceneTransports.origins[i], plugin.colourTransports, -1, true);
 			}
 
 			graphics.setColor(Color.WHITE);
-			graphics.drawString(s.toString(), ca.getX(), ca.getY());
+			graphics.drawString(sceneTransports.labels[i], ca.getX(), ca.getY());
 		}
 	}
 
 	private void renderCollisionMap(Graphics2D graphics)
 	{
+		WorldView worldView = client.getTopLevelWorldView();
 		CollisionMap map = plugin.getMap();
-		for (Tile[] row : client.getTopLevelWorldView().getScene().getTiles()[client.getTopLevelWorldView().getPlane()])
+		if (sceneCollision == null || !sceneCollision.isFor(worldView, map))
 		{
-			for (Tile tile : row)
-			{
-				if (tile == null)
-				{
-					continue;
-				}
-
-				Polygon tilePolygon = Perspective.getCanvasTilePoly(client, tile.getLocalLocation());
+			sceneCollision = new SceneCollision(worldView, map);
+		}
 
-				if (tilePolygon == null)
-				{
-					continue;
-				}
+		// Tiles centred this far outside the viewport can still reach into it when close to the camera
+		int margin = Math.max(client.getViewportWidth(), client.getViewportHeight()) / 4;
+		int minX = client.getViewportXOffset() - margin;
+		int minY = client.getViewportYOffset() - margin;
+		int maxX = client.getViewportXOffset() + client.getViewportWidth() + margin;
+		int maxY = client.getViewportYOffset() + client.getViewportHeight() + margin;
+		for (int i = 0; i < sceneCollision.locations.length; i++)
+		{
+			LocalPoint location = sceneCollision.locations[i];
+			Point center = Perspective.localToCanvas(client, location, sceneCollision.plane);
+			if (center == null || center.getX() < minX || center.getX() > maxX || center.getY() < minY || center.getY() > maxY)
+			{
+				continue;
+			}
 
-				int location = WorldPointUtil.fromLocalInstance(client, tile.getLocalLocation());
-				int x = WorldPointUtil.unpackWorldX(location);
-				int y = WorldPointUtil.unpackWorldY(location);
-				int z = WorldPointUtil.unpackWorldPlane(location);
+			Polygon tilePolygon = Perspective.getCanvasTilePoly(client, location);
 
-				String s = (!map.n(x, y, z) ? "n" : "") +
-					(!map.s(x, y, z) ? "s" : "") +
-					(!map.e(x, y, z) ? "e" : "") +
-					(!map.w(x, y, z) ? "w" : "");
+			if (tilePolygon == null)
+			{
+				continue;
+			}
 
-				if (map.isBlocked(x, y, z))
-				{
-					graphics.setColor(plugin.colourCollisionMap);
-					graphics.fill(tilePolygon);
-				}
-				if (!s.isEmpty() && !s.equals("nsew"))
-				{
-					graphics.setColor(Color.WHITE);
-					int stringX = (int) (tilePolygon.getBounds().getCenterX()
-						- graphics.getFontMetrics().getStringBounds(s, graphics).getWidth() / 2);
-					int stringY = (int) tilePolygon.getBounds().getCenterY();
-					graphics.drawString(s, stringX, stringY);
-				}
+			if (sceneCollision.blocked[i])
+			{
+				graphics.setColor(plugin.colourCollisionMap);
+				graphics.fill(tilePolygon);
+			}
+			String s = sceneCollision.labels[i];
+			if (s != null)
+			{
+				graphics.setColor(Color.WHITE);
+				int stringX = (int) (tilePolygon.getBounds().getCenterX() - sceneCollision.labelWidth(graphics, s) / 2);
+				int stringY = (int) tilePolygon.getBounds().getCenterY();
+				graphics.drawString(s, stringX, stringY);
 			}
 		}
 	}
@@ -161,14 +142,17 @@ public class PathTileOverlay extends Overlay
 	{
 		playerTileLabelOffset = 0;
 
-		if (plugin.drawTransports)
+		if (plugin.getPathfinderConfig() != null)
 		{
-			renderTransports(graphics);
-		}
+			if (plugin.drawTransports)
+			{
+				renderTransports(graphics);
+			}
 
-		if (plugin.drawCollisionMap)
-		{
-			renderCollisionMap(graphics);
+			if (plugin.drawCollisionMap)
+			{
+				renderCollisionMap(graphics);
+			}
 		}
 
 		if (plugin.drawTiles && plugin.getPathfinder() != null && plugin.getPathfinder().getPath() != null)
@@ -434,6 +418,18 @@ public class PathTileOverlay extends Overlay
 		return drawLabelAtCanvasPoint(graphics, playerPoint, text, verticalOffset);
 	}
 
+	private PathHints getPathHints()
+	{
+		Pathfinder pathfinder = plugin.getPathfinder();
+		int itemsVersion = plugin.getItemsVersion();
+		int searchVersion = plugin.getPathfinderConfig().getSearchVersion();
+		if (pathHints == null || !pathHints.isFor(pathfinder, itemsVersion, searchVersion))
+		{
+			pathHints = new PathHints(client, plugin, pathfinder, itemsVersion, searchVersion);
+		}
+		return pathHints;
+	}
+
 	private void drawTransportInfo(Graphics2D graphics, PathStep currentStep, PathStep nextStep, List<PathStep> path, int pathIndex)
 	{
 		int location = currentStep.getPackedPosition();
@@ -508,60 +504,247 @@ public class PathTileOverlay extends Overlay
 		}
 
 		// Check if this is a bank step and items need to be picked up
-		Set<Integer> bankLocations = plugin.getPathfinderConfig().getDestinations("bank");
-		if (bankLocations != null && plugin.getPathfinderConfig().bank != null)
-		{
-			List<String> bankPickupItems = BankPickupRequirements.getRequiredBankItems(
-				client,
-				plugin.getPathfinderConfig().bank,
-				plugin.getPathfinderConfig(),
-				bankLocations,
-				path,
-				pathIndex
-			);
-			if (!bankPickupItems.isEmpty())
-			{
-				String pickupText = "Pick up: " + String.join(", ", bankPickupItems);
-				playerTileLabelOffset = drawLabelAtPackedLocation(graphics, location, pickupText, playerTileLabelOffset);
-
-				// By default, bank pickup info replaces the default transport hint text;
-				// enable the option to show both
-				if (!plugin.showBankPickupInfo)
+		PathHints hints = getPathHints();
+		String pickupText = hints.getBankPickup(pathIndex);
+		if (!pickupText.isEmpty())
+		{
+			playerTileLabelOffset = drawLabelAtPackedLocation(graphics, location, pickupText, playerTileLabelOffset);
+
+			// By default, bank pickup info replaces the default transport hint text;
+			// enable the option to show both
+			if (!plugin.showBankPickupInfo)
+			{
+				return;
+			}
+		}
+
+		// Only show transports the player can currently use; fall back to all if none are usable.
+		for (String text : hints.getTransportLabels(pathIndex, candidateTransports))
+		{
+			playerTileLabelOffset = drawLabelAtPackedLocation(graphics, location, text, playerTileLabelOffset);
+		}
+	}
+
+	/**
+	 * The transports drawn by {@link #renderTransports(Graphics2D)} for one loaded scene: the origins
+	 * on the scene's plane, found through the region index of the display transports instead of
+	 * going through every origin in the world, with their destinations and labels. Their canvas
+	 * positions are only projected again when the camera moves.
+	 */
+	private final class SceneTransports
+	{
+		private final Scene scene;
+		private final int baseX;
+		private final int baseY;
+		private final int plane;
+		private final PrimitiveIntHashMap<int[]> transports;
+		private final int[] origins;
+		private final int[][] destinations;
+		private final String[] labels;
+		private final Point[] originPoints;
+		private final Point[][] destinationPoints;
+		private final int[] camera = new int[10];
+		private final int[] projectedCamera = new int[10];
+		private boolean projected;
+
+		private SceneTransports(WorldView worldView, PrimitiveIntHashMap<int[]> transports)
+		{
+			this.scene = worldView.getScene();
+			this.baseX = worldView.getBaseX();
+			this.baseY = worldView.getBaseY();
+			this.plane = worldView.getPlane();
+			this.transports = transports;
+
+			int maxX = baseX + worldView.getSizeX();
+			int maxY = baseY + worldView.getSizeY();
+			PrimitiveIntList sceneOrigins = new PrimitiveIntList();
+			for (int regionX = baseX >> 6; regionX <= (maxX - 1) >> 6; regionX++)
+			{
+				for (int regionY = baseY >> 6; regionY <= (maxY - 1) >> 6; regionY++)
+				{
+					for (int origin : plugin.getTransportOriginsInRegion(WorldPointUtil.regionId(regionX << 6, regionY << 6)))
+					{
+						int x = WorldPointUtil.unpackWorldX(origin);
+						int y = WorldPointUtil.unpackWorldY(origin);
+						// Anywhere else the origin has no tile to draw on
+						if (WorldPointUtil.unpackWorldPlane(origin) == plane && x >= baseX && x < maxX && y >= baseY && y < maxY)
+						{
+							sceneOrigins.add(origin);
+						}
+					}
+				}
+			}
+
+			origins = sceneOrigins.toArray();
+			destinations = new int[origins.length][];
+			labels = new String[origins.length];
+			originPoints = new Point[origins.length];
+			destinationPoints = new Point[origins.length][];
+			for (int i = 0; i < origins.length; i++)
+			{
+				int a = origins[i];
+				PrimitiveIntList originDestinations = new PrimitiveIntList();
+				StringBuilder s = new StringBuilder();
+				for (Transport b : plugin.getTransportsAt(a))
 				{
-					return;
+					if (b == null || (b.getType() != null && b.getType().isTeleport()))
+					{
+						continue; // skip teleports
+					}
+					PrimitiveIntList localDestinations = WorldPointUtil.toLocalInstance(client, b.getDestination());
+					for (int j = 0; j < localDestinations.size(); j++)
+					{
+						int destination = localDestinations.get(j);
+						if (destination == Transport.UNDEFINED_DESTINATION)
+						{
+							continue;
+						}
+						originDestinations.add(destination);
+						if (WorldPointUtil.unpackWorldPlane(destination) > WorldPointUtil.unpackWorldPlane(a))
+						{
+							s.append("+");
+						}
+						else if (WorldPointUtil.unpackWorldPlane(destination) < WorldPointUtil.unpackWorldPlane(a))
+						{
+							s.append("-");
+						}
+						else
+						{
+							s.append("=");
+						}
+					}
 				}
+				destinations[i] = originDestinations.toArray();
+				destinationPoints[i] = new Point[destinations[i].length];
+				labels[i] = s.toString();
 			}
 		}
 
-		// Only show transports the player can currently use; fall back to all if none are usable.
-		Map<Integer, Integer> playerHas = BankPickupRequirements.collectPlayerItems(client);
-		List<Transport> usableTransports = new ArrayList<>();
-		for (Transport t : candidateTransports)
+		private boolean isFor(WorldView worldView, PrimitiveIntHashMap<int[]> transports)
+		{
+			return this.transports == transports
+				&& scene == worldView.getScene()
+				&& baseX == worldView.getBaseX()
+				&& baseY == worldView.getBaseY()
+				&& plane == worldView.getPlane();
+		}
+
+		private void project()
 		{
-			if (BankPickupRequirements.transportSatisfiedBy(t, playerHas))
+			camera[0] = client.getCameraX();
+			camera[1] = client.getCameraY();
+			camera[2] = client.getCameraZ();
+			camera[3] = client.getCameraPitch();
+			camera[4] = client.getCameraYaw();
+			camera[5] = client.getScale();
+			camera[6] = client.getViewportXOffset();
+			camera[7] = client.getViewportYOffset();
+			camera[8] = client.getViewportWidth();
+			camera[9] = client.getViewportHeight();
+			if (projected && Arrays.equals(camera, projectedCamera))
 			{
-				usableTransports.add(t);
+				return;
 			}
+
+			for (int i = 0; i < origins.length; i++)
+			{
+				originPoints[i] = tileCenter(origins[i]);
+				for (int j = 0; j < destinations[i].length; j++)
+				{
+					destinationPoints[i][j] = tileCenter(destinations[i][j]);
+				}
+			}
+			System.arraycopy(camera, 0, projectedCamera, 0, camera.length);
+			projected = true;
 		}
-		Collection<Transport> transportsToShow = usableTransports.isEmpty() ? candidateTransports : usableTransports;
+	}
 
-		for (Transport transport : transportsToShow)
+	/**
+	 * The collision drawn by {@link #renderCollisionMap(Graphics2D)} for one loaded scene and plane:
+	 * the tiles that are blocked or have a blocked direction, with their labels. Only the tiles near
+	 * the viewport are projected each frame.
+	 */
+	private final class SceneCollision
+	{
+		private final Scene scene;
+		private final int baseX;
+		private final int baseY;
+		private final int plane;
+		private final CollisionMap map;
+		private final LocalPoint[] locations;
+		private final boolean[] blocked;
+		// The blocked directions, or null if there are none or all of them are blocked.
+		private final String[] labels;
+		private final Map<String, Double> labelWidths = new HashMap<>();
+		private Font labelFont;
+
+		private SceneCollision(WorldView worldView, CollisionMap map)
 		{
-			String text = transport.getDisplayInfo();
-			if (text == null || text.isEmpty())
+			this.scene = worldView.getScene();
+			this.baseX = worldView.getBaseX();
+			this.baseY = worldView.getBaseY();
+			this.plane = worldView.getPlane();
+			this.map = map;
+
+			List<LocalPoint> tileLocations = new ArrayList<>();
+			List<Boolean> tileBlocked = new ArrayList<>();
+			List<String> tileLabels = new ArrayList<>();
+			for (Tile[] row : scene.getTiles()[plane])
 			{
-				continue;
+				for (Tile tile : row)
+				{
+					if (tile == null)
+					{
+						continue;
+					}
+
+					int location = WorldPointUtil.fromLocalInstance(client, tile.getLocalLocation());
+					int x = WorldPointUtil.unpackWorldX(location);
+					int y = WorldPointUtil.unpackWorldY(location);
+					int z = WorldPointUtil.unpackWorldPlane(location);
+
+					String s = (!map.n(x, y, z) ? "n" : "") +
+						(!map.s(x, y, z) ? "s" : "") +
+						(!map.e(x, y, z) ? "e" : "") +
+						(!map.w(x, y, z) ? "w" : "");
+					boolean isBlocked = map.isBlocked(x, y, z);
+					String label = !s.isEmpty() && !s.equals("nsew") ? s : null;
+					if (isBlocked || label != null)
+					{
+						tileLocations.add(tile.getLocalLocation());
+						tileBlocked.add(isBlocked);
+						tileLabels.add(label);
+					}
+				}
 			}
 
-			// Check if this transport goes to POH - if so, look ahead to find the exit
-			// transport
-			String pohExitInfo = plugin.getPohExitInfo(locationEnd, path, pathIndex);
-			if (pohExitInfo != null)
+			locations = tileLocations.toArray(new LocalPoint[0]);
+			blocked = new boolean[locations.length];
+			for (int i = 0; i < blocked.length; i++)
 			{
-				text = text + " (Exit: " + pohExitInfo + ")";
+				blocked[i] = tileBlocked.get(i);
 			}
+			labels = tileLabels.toArray(new String[0]);
+		}
 
-			playerTileLabelOffset = drawLabelAtPackedLocation(graphics, location, text, playerTileLabelOffset);
+		private boolean isFor(WorldView worldView, CollisionMap map)
+		{
+			return this.map == map
+				&& scene == worldView.getScene()
+				&& baseX == worldView.getBaseX()
+				&& baseY == worldView.getBaseY()
+				&& plane == worldView.getPlane();
+		}
+
+		private double labelWidth(Graphics2D graphics, String label)
+		{
+			if (!graphics.getFont().equals(labelFont))
+			{
+				labelWidths.clear();
+				labelFont = graphics.getFont();
+			}
+			return labelWidths.computeIfAbsent(label,
+				s -> graphics.getFontMetrics().getStringBounds(s, graphics).getWidth());
 		}
 	}
 }
@@ -288,6 +288,16 @@ public class PrimitiveIntList
 		size = 0;
 	}
 
+	/**
+	 * Copies the elements into a new array of exactly {@link #size()} length.
+	 *
+	 * @return a new {@code int[]} holding the elements in list order.
+	 */
+	public int[] toArray()
+	{
+		return Arrays.copyOf(elementData, size);
+	}
+
 	private void rangeCheck(int index)
 	{
 		if (index >= size)
@@ -0,0 +1,104 @@
+package shortestpath;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Coalesces the pathfinder refreshes and search restarts requested by config, game state, world,
+ * widget and item container events.
+ * <p>
+ * A burst of such events (several config edits, or a login firing game state and world changes)
+ * used to refresh the transports and restart the search once per event. Requests are now collected,
+ * and once {@link #WINDOW_CLIENT_TICKS} client ticks have passed since the first of them, a single
+ * refresh runs, or a single search restart when any of the requests asked for one (a restart
+ * refreshes first anyway). Every refresh is a full one: it only re-evaluates the transports whose
+ * requirements changed, whatever the event was.
+ * <p>
+ * Events may arrive on the client thread or, for config changes, on the Swing thread.
+ */
+@Slf4j
+class RefreshScheduler
+{
+	// 100 ms; short enough to go unnoticed, long enough to cover a burst of config edits
+	static final int WINDOW_CLIENT_TICKS = 5;
+
+	private final Runnable refresh;
+	private final Runnable restart;
+	private boolean restartRequested;
+	private int pendingEvents;
+	private int ticksLeft;
+	private int coalescedEvents;
+
+	/**
+	 * @param refresh refreshes the pathfinder config
+	 * @param restart restarts the current search, or only refreshes if there is none
+	 */
+	RefreshScheduler(Runnable refresh, Runnable restart)
+	{
+		this.refresh = refresh;
+		this.restart = restart;
+	}
+
+	/**
+	 * Requests a refresh, or a search restart if {@code restartSearch} is set.
+	 */
+	synchronized void request(boolean restartSearch)
+	{
+		if (pendingEvents == 0)
+		{
+			ticksLeft = WINDOW_CLIENT_TICKS;
+		}
+		restartRequested |= restartSearch;
+		pendingEvents++;
+	}
+
+	/**
+	 * Runs the pending refresh or restart once the window has passed. Called every client tick.
+	 */
+	void onClientTick()
+	{
+		boolean restartSearch;
+		synchronized (this)
+		{
+			if (pendingEvents == 0 || --ticksLeft > 0)
+			{
+				return;
+			}
+			restartSearch = restartRequested;
+			log.debug("{} after {} requests", restartSearch ? "Restarting" : "Refreshing", pendingEvents);
+			coalescedEvents += pendingEvents - 1;
+			clear();
+		}
+
+		if (restartSearch)
+		{
+			restart.run();
+		}
+		else
+		{
+			refresh.run();
+		}
+	}
+
+	/**
+	 * Drops the pending requests because the search was restarted, which refreshes too.
+	 */
+	synchronized void restarted()
+	{
+		coalescedEvents += pendingEvents;
+		clear();
+	}
+
+	/**
+	 * The number of requests that were served by a refresh or restart made for another request.
+	 */
+	synchronized int getCoalescedEvents()
+	{
+		return coalescedEvents;
+	}
+
+	private void clear()
+	{
+		restartRequested = false;
+		pendingEvents = 0;
+	}
+}
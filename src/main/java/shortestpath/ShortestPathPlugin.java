@@ -12,20 +12,20 @@ import java.awt.geom.Ellipse2D;
 import java.awt.image.BufferedImage;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
 import java.util.concurrent.ThreadFactory;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.Client;
 import net.runelite.api.GameState;
 import net.runelite.api.KeyCode;
@@ -41,6 +41,7 @@ import net.runelite.api.events.ItemContainerChanged;
 import net.runelite.api.events.MenuEntryAdded;
 import net.runelite.api.events.MenuOpened;
 import net.runelite.api.events.PostClientTick;
+import net.runelite.api.events.VarbitChanged;
 import net.runelite.api.events.WidgetClosed;
 import net.runelite.api.events.WidgetLoaded;
 import net.runelite.api.events.WorldChanged;
@@ -69,13 +70,18 @@ import net.runelite.client.util.ColorUtil;
 import net.runelite.client.util.ImageUtil;
 import net.runelite.client.util.Text;
 import shortestpath.pathfinder.CollisionMap;
+import shortestpath.pathfinder.PathIndex;
 import shortestpath.pathfinder.PathStep;
+import shortestpath.pathfinder.PathTerminationReason;
 import shortestpath.pathfinder.Pathfinder;
 import shortestpath.pathfinder.PathfinderConfig;
-import shortestpath.pathfinder.TransportAvailability;
+import shortestpath.pathfinder.PathfinderResult;
+import shortestpath.pathfinder.SearchScheduler;
+import shortestpath.pathfinder.SearchSnapshot;
 import shortestpath.transport.Transport;
 import shortestpath.transport.TransportType;
 
+@Slf4j
 @SuppressWarnings("SameParameterValue")
 @PluginDescriptor(name = "Shortest Path", description = "Draws the shortest path to a chosen destination on the map<br>"
 	+
@@ -97,6 +103,9 @@ public class ShortestPathPlugin extends Plugin
 	private static final String PLUGIN_MESSAGE_TARGET = "target";
 	private static final String PLUGIN_MESSAGE_CONFIG_OVERRIDE = "config";
 	private static final String PLUGIN_MESSAGE_TRANSPORTS = "transports";
+	private static final String PLUGIN_MESSAGE_QUERY = "query";
+	private static final String PLUGIN_MESSAGE_QUERY_RESULT = "queryResult";
+	private static final String PLUGIN_MESSAGE_ID = "id";
 	private static final String CLEAR = "Clear";
 	private static final String PATH = ColorUtil.wrapWithColorTag("Path", JagexColors.MENU_TARGET);
 	private static final String SET = "Set";
@@ -109,8 +118,18 @@ public class ShortestPathPlugin extends Plugin
 	private static final Map<String, Object> configOverride = new HashMap<>(50);
 	private static final Pattern SPIRIT_TREE_LABEL_PATTERN_MENU = Pattern.compile("<col=735a28>(.+)</col>: (<col=5f5f5f>)?(.+)");
 	private static final Pattern SPIRIT_TREE_LABEL_PATTERN_MENU_NEW = Pattern.compile("<col=ffffff>(.+)</col>: (<col=5f5f5f>)?(.+)");
+	// The collision map, transports, destinations and bank requirements are loaded in parallel.
+	private static final int LOADER_THREADS = 4;
+	// For the searches of other plugins; the displayed path has a worker of its own.
+	private static final int SEARCH_THREADS = 1;
 	private final List<PendingTask> pendingTasks = new ArrayList<>(3);
+	@Getter
+	private final RefreshScheduler refreshScheduler = new RefreshScheduler(this::refreshPathfinderConfig, this::restartCurrentPath);
 	private final Object pathfinderMutex = new Object();
+	// Requests that arrived before the pathfinder resources finished loading, and what to do with
+	// those that wait for an answer if the loading fails, guarded by pathfinderMutex.
+	private final List<Runnable> requestsUntilReady = new ArrayList<>();
+	private final List<Runnable> rejectionsUntilReady = new ArrayList<>();
 	boolean drawCollisionMap;
 	boolean drawMap;
 	boolean drawMinimap;
@@ -166,14 +185,28 @@ public class ShortestPathPlugin extends Plugin
 	private Rectangle minimapRectangle = new Rectangle();
 	private GameState lastGameState = null;
 	private GameState lastLastGameState = null;
-	private ExecutorService pathfindingExecutor = Executors.newSingleThreadExecutor();
-	private Future<?> pathfinderFuture;
+	@Getter
+	private SearchScheduler searchScheduler;
+	private ExecutorService loaderExecutor;
+	private ExecutorService transportExecutor;
+	/**
+	 * Completes once the pathfinder resources have loaded in the background and
+	 * {@link #getPathfinderConfig()} is available, or exceptionally if they failed to load, in which
+	 * case the pathfinder stays unavailable until the plugin is restarted.
+	 */
+	@Getter
+	private CompletableFuture<PathfinderConfig> pathfinderConfigReady;
 	@Getter
 	private Pathfinder pathfinder;
 	@Getter
-	private PathfinderConfig pathfinderConfig;
+	private volatile PathfinderConfig pathfinderConfig;
 	@Getter
 	private boolean startPointSet = false;
+	/**
+	 * Changes whenever the items on the player or in the bank may have changed.
+	 */
+	@Getter
+	private int itemsVersion;
 	private final KeyListener clearPathKeylistener = new KeyListener()
 	{
 		@Override
@@ -298,11 +331,20 @@ public class ShortestPathPlugin extends Plugin
 	{
 		cacheConfigValues();
 
-		pathfinderConfig = new PathfinderConfig(client, config);
-		if (GameState.LOGGED_IN.equals(client.getGameState()))
+		ThreadFactory loaderNaming = new ThreadFactoryBuilder().setNameFormat("shortest-path-loader-%d").build();
+		loaderExecutor = Executors.newFixedThreadPool(LOADER_THREADS, loaderNaming);
+		final CompletableFuture<PathfinderConfig> ready = PathfinderConfig.loadAsync(client, config, loaderExecutor);
+		pathfinderConfigReady = ready;
+		ready.whenComplete((loadedConfig, ex) ->
 		{
-			clientThread.invokeLater(pathfinderConfig::refresh);
-		}
+			if (ex != null)
+			{
+				log.error("Failed to load the pathfinder resources", ex);
+				clientThread.invokeLater(() -> onPathfinderConfigFailed(ready));
+				return;
+			}
+			clientThread.invokeLater(() -> onPathfinderConfigLoaded(ready, loadedConfig));
+		});
 
 		overlayManager.add(pathOverlay);
 		overlayManager.add(pathMinimapOverlay);
@@ -317,6 +359,98 @@ public class ShortestPathPlugin extends Plugin
 		keyManager.registerKeyListener(clearPathKeylistener);
 	}
 
+	private void onPathfinderConfigLoaded(CompletableFuture<PathfinderConfig> ready, PathfinderConfig loadedConfig)
+	{
+		if (ready != pathfinderConfigReady || loaderExecutor == null)
+		{
+			return; // The plugin was shut down while loading
+		}
+		loaderExecutor.shutdown();
+		loaderExecutor = null;
+
+		ThreadFactory transportNaming = new ThreadFactoryBuilder().setNameFormat("shortest-path-transports-%d").build();
+		transportExecutor = Executors.newSingleThreadExecutor(transportNaming);
+		loadedConfig.setTransportExecutor(transportExecutor);
+		if (GameState.LOGGED_IN.equals(client.getGameState()))
+		{
+			loadedConfig.refresh();
+		}
+
+		final List<Runnable> requests;
+		synchronized (pathfinderMutex)
+		{
+			pathfinderConfig = loadedConfig;
+			requests = new ArrayList<>(requestsUntilReady);
+			requestsUntilReady.clear();
+			rejectionsUntilReady.clear();
+		}
+		requests.forEach(Runnable::run);
+	}
+
+	private void onPathfinderConfigFailed(CompletableFuture<PathfinderConfig> ready)
+	{
+		if (ready != pathfinderConfigReady || loaderExecutor == null)
+		{
+			return; // The plugin was shut down while loading
+		}
+		loaderExecutor.shutdown();
+		loaderExecutor = null;
+
+		final List<Runnable> rejections;
+		synchronized (pathfinderMutex)
+		{
+			if (!requestsUntilReady.isEmpty())
+			{
+				log.warn("Dropping {} requests made while the pathfinder resources were loading", requestsUntilReady.size());
+			}
+			rejections = new ArrayList<>(rejectionsUntilReady);
+			requestsUntilReady.clear();
+			rejectionsUntilReady.clear();
+		}
+		rejections.forEach(Runnable::run);
+	}
+
+	/**
+	 * Queues the request until the pathfinder resources have loaded. Requests made after the
+	 * resources failed to load are dropped.
+	 *
+	 * @return true if the request was queued or dropped, false if the resources are ready and the
+	 * caller can go ahead
+	 */
+	private boolean deferUntilReady(Runnable request)
+	{
+		return deferUntilReady(request, null);
+	}
+
+	/**
+	 * Same as {@link #deferUntilReady(Runnable)}, but runs {@code rejection} instead of the request
+	 * if the resources fail to load, or already have.
+	 */
+	private boolean deferUntilReady(Runnable request, Runnable rejection)
+	{
+		synchronized (pathfinderMutex)
+		{
+			if (pathfinderConfig != null)
+			{
+				return false;
+			}
+			if (pathfinderConfigReady != null && pathfinderConfigReady.isCompletedExceptionally())
+			{
+				if (rejection != null)
+				{
+					rejection.run();
+				}
+				return true;
+			}
+			requestsUntilReady.add(request);
+			if (rejection != null)
+			{
+				rejectionsUntilReady.add(rejection);
+			}
+			return true;
+		}
+	}
+
 	@Override
 	protected void shutDown()
 	{
@@ -326,10 +460,27 @@ public class ShortestPathPlugin extends Plugin
 		overlayManager.remove(pathMapTooltipOverlay);
 		overlayManager.remove(debugOverlayPanel);
 
-		if (pathfindingExecutor != null)
+		if (searchScheduler != null)
+		{
+			searchScheduler.shutdownNow();
+			searchScheduler = null;
+		}
+
+		if (loaderExecutor != null)
 		{
-			pathfindingExecutor.shutdownNow();
-			pathfindingExecutor = null;
+			loaderExecutor.shutdownNow();
+			loaderExecutor = null;
+		}
+
+		if (transportExecutor != null)
+		{
+			transportExecutor.shutdownNow();
+			transportExecutor = null;
+		}
+		synchronized (pathfinderMutex)
+		{
+			requestsUntilReady.clear();
+			rejectionsUntilReady.clear();
 		}
 
 		keyManager.unregisterKeyListener(clearPathKeylistener);
@@ -337,20 +488,12 @@ public class ShortestPathPlugin extends Plugin
 
 	public void restartPathfinding(int start, Set<Integer> ends, boolean canReviveFiltered)
 	{
-		synchronized (pathfinderMutex)
+		if (deferUntilReady(() -> restartPathfinding(start, ends, canReviveFiltered)))
 		{
-			if (pathfinder != null)
-			{
-				pathfinder.cancel();
-				pathfinderFuture.cancel(true);
-			}
-
-			if (pathfindingExecutor == null)
-			{
-				ThreadFactory shortestPathNaming = new ThreadFactoryBuilder().setNameFormat("shortest-path-%d").build();
-				pathfindingExecutor = Executors.newSingleThreadExecutor(shortestPathNaming);
-			}
+			return;
 		}
+		refreshScheduler.restarted();
+		startSearchScheduler();
 
 		getClientThread().invokeLater(() ->
 		{
@@ -364,8 +507,9 @@ public class ShortestPathPlugin extends Plugin
 				}
 				else
 				{
-					pathfinder = new Pathfinder(pathfinderConfig, start, ends, this::postPluginMessages);
-					pathfinderFuture = pathfindingExecutor.submit(pathfinder);
+					// Replaces the previous displayed search, unless it is for the same request.
+					pathfinder = searchScheduler.submit(SearchScheduler.Priority.DISPLAY, pathfinderConfig,
+						start, ends, Map.of(), this::postPluginMessages);
 				}
 			}
 		});
@@ -376,6 +520,38 @@ public class ShortestPathPlugin extends Plugin
 		restartPathfinding(start, ends, true);
 	}
 
+	private void startSearchScheduler()
+	{
+		synchronized (pathfinderMutex)
+		{
+			if (searchScheduler == null)
+			{
+				ThreadFactory shortestPathNaming = new ThreadFactoryBuilder().setNameFormat("shortest-path-%d").build();
+				searchScheduler = new SearchScheduler(SEARCH_THREADS, shortestPathNaming);
+			}
+		}
+	}
+
+	private void refreshPathfinderConfig()
+	{
+		if (pathfinderConfig != null)
+		{
+			pathfinderConfig.refresh();
+		}
+	}
+
+	private void restartCurrentPath()
+	{
+		if (pathfinder != null)
+		{
+			restartPathfinding(pathfinder.getStart(), pathfinder.getTargets());
+		}
+		else
+		{
+			refreshPathfinderConfig();
+		}
+	}
+
 	public boolean isNearPath(int location)
 	{
 		List<PathStep> path;
@@ -385,6 +561,13 @@ public class ShortestPathPlugin extends Plugin
 			return true;
 		}
 
+		PathIndex pathIndex = pathfinder.getPathIndex();
+		if (pathIndex != null)
+		{
+			return pathIndex.isWithin(location, config.recalculateDistance());
+		}
+
+		// The path is still being calculated and changes until it is done.
 		for (PathStep pathStep : path)
 		{
 			if (WorldPointUtil.distanceBetween(location, pathStep.getPackedPosition()) < config.recalculateDistance())
@@ -464,12 +647,9 @@ public class ShortestPathPlugin extends Plugin
 		}
 
 		// Transport option changed; rerun pathfinding
-		if (TRANSPORT_OPTIONS_REGEX.matcher(event.getKey()).find())
+		if (TRANSPORT_OPTIONS_REGEX.matcher(event.getKey()).find() && pathfinder != null)
 		{
-			if (pathfinder != null)
-			{
-				restartPathfinding(pathfinder.getStart(), pathfinder.getTargets());
-			}
+			refreshScheduler.request(true);
 		}
 	}
 
@@ -486,7 +666,8 @@ public class ShortestPathPlugin extends Plugin
 			return;
 		}
 
-		pendingTasks.add(new PendingTask(client.getTickCount() + 1, pathfinderConfig::refresh));
+		pendingTasks.add(new PendingTask(client.getTickCount() + 1,
+			() -> refreshScheduler.request(false)));
 	}
 
 	/**
@@ -502,7 +683,8 @@ public class ShortestPathPlugin extends Plugin
 		{
 			return;
 		}
-		pendingTasks.add(new PendingTask(client.getTickCount() + 1, pathfinderConfig::refresh));
+		pendingTasks.add(new PendingTask(client.getTickCount() + 1,
+			() -> refreshScheduler.request(false)));
 	}
 
 	@Subscribe
@@ -512,6 +694,15 @@ public class ShortestPathPlugin extends Plugin
 		{
 			return;
 		}
+		// A query is answered even when the resources fail to load, so its sender is not left waiting.
+		Runnable rejection = PLUGIN_MESSAGE_QUERY.equals(event.getName())
+			? () -> postQueryFailure(event.getData().get(PLUGIN_MESSAGE_ID), PathTerminationReason.CANCELLED,
+				"resources failed to load")
+			: null;
+		if (deferUntilReady(() -> onPluginMessage(event), rejection))
+		{
+			return;
+		}
 
 		String action = event.getName();
 		if (PLUGIN_MESSAGE_PATH.equals(action))
@@ -538,8 +729,7 @@ public class ShortestPathPlugin extends Plugin
 				return;
 			}
 
-			int start = (objStart instanceof WorldPoint) ? WorldPointUtil.packWorldPoint((WorldPoint) objStart)
-				: ((objStart instanceof Integer) ? ((int) objStart) : WorldPointUtil.UNDEFINED);
+			int start = packPoint(objStart);
 			if (start == WorldPointUtil.UNDEFINED)
 			{
 				if (client.getLocalPlayer() == null)
@@ -549,46 +739,10 @@ public class ShortestPathPlugin extends Plugin
 				start = WorldPointUtil.packWorldPoint(client.getLocalPlayer().getWorldLocation());
 			}
 
-			Set<Integer> targets = new HashSet<>();
-			if (objTarget instanceof Integer)
-			{
-				int packedPoint = (Integer) objTarget;
-				if (packedPoint == WorldPointUtil.UNDEFINED)
-				{
-					return;
-				}
-				targets.add(packedPoint);
-			}
-			else if (objTarget instanceof WorldPoint)
+			Set<Integer> targets = packTargets(objTarget);
+			if (targets == null)
 			{
-				int packedPoint = WorldPointUtil.packWorldPoint((WorldPoint) objTarget);
-				if (packedPoint == WorldPointUtil.UNDEFINED)
-				{
-					return;
-				}
-				targets.add(packedPoint);
-			}
-			else if (objTarget instanceof Set<?>)
-			{
-				@SuppressWarnings("unchecked")
-				Set<Object> objTargets = (Set<Object>) objTarget;
-				for (Object obj : objTargets)
-				{
-					int packedPoint = WorldPointUtil.UNDEFINED;
-					if (obj instanceof Integer)
-					{
-						packedPoint = (Integer) obj;
-					}
-					else if (obj instanceof WorldPoint)
-					{
-						packedPoint = WorldPointUtil.packWorldPoint((WorldPoint) obj);
-					}
-					if (packedPoint == WorldPointUtil.UNDEFINED)
-					{
-						return;
-					}
-					targets.add(packedPoint);
-				}
+				return;
 			}
 
 			boolean useOld = targets.isEmpty() && pathfinder != null;
@@ -600,14 +754,163 @@ public class ShortestPathPlugin extends Plugin
 			cacheConfigValues();
 			setTarget(WorldPointUtil.UNDEFINED);
 		}
+		else if (PLUGIN_MESSAGE_QUERY.equals(action))
+		{
+			query(event.getData());
+		}
 	}
 
-	public void postPluginMessages()
+	/**
+	 * Finds a path for another plugin without showing it or touching the displayed path and the
+	 * global config overrides. The search runs on the search workers against the last refreshed
+	 * config, with the request's {@code config} overrides of the search settings applied on top,
+	 * and its result is posted back as a {@code queryResult} message with the request's {@code id}.
+	 * Results with the same {@code fingerprint} were found with the same config and collision.
+	 * A request that cannot be searched, such as one overriding other settings or with a value of
+	 * the wrong type, is answered with {@code reached} false and an {@code error}.
+	 */
+	private void query(Map<String, Object> data)
 	{
-		if (pathfinder == null)
+		Object id = data.get(PLUGIN_MESSAGE_ID);
+		int start = packPoint(data.get(PLUGIN_MESSAGE_START));
+		if (start == WorldPointUtil.UNDEFINED)
 		{
+			if (client.getLocalPlayer() == null)
+			{
+				postQueryFailure(id, null, "no start and no local player");
+				return;
+			}
+			start = WorldPointUtil.packWorldPoint(client.getLocalPlayer().getWorldLocation());
+		}
+		Set<Integer> targets = packTargets(data.get(PLUGIN_MESSAGE_TARGET));
+		if (targets == null || targets.isEmpty())
+		{
+			postQueryFailure(id, null, "no targets");
 			return;
 		}
+
+		Map<String, Object> overrides = new HashMap<>();
+		Object objConfigOverride = data.get(PLUGIN_MESSAGE_CONFIG_OVERRIDE);
+		if (objConfigOverride != null)
+		{
+			if (!(objConfigOverride instanceof Map<?, ?>))
+			{
+				postQueryFailure(id, null, "config overrides are not a map");
+				return;
+			}
+			// Rejected rather than dropped, so the caller does not take a default for its setting.
+			Map<Object, Object> unsupported = SearchSnapshot.unsupportedOverrides((Map<?, ?>) objConfigOverride);
+			if (!unsupported.isEmpty())
+			{
+				postQueryFailure(id, null, "unsupported overrides: " + unsupported);
+				return;
+			}
+			for (Map.Entry<?, ?> entry : ((Map<?, ?>) objConfigOverride).entrySet())
+			{
+				overrides.put((String) entry.getKey(), entry.getValue());
+			}
+		}
+
+		startSearchScheduler();
+		searchScheduler.submit(SearchScheduler.Priority.QUERY, pathfinderConfig, start, targets, overrides,
+			query -> postQueryResult(id, query));
+	}
+
+	private void postQueryResult(Object id, Pathfinder query)
+	{
+		PathfinderResult result = query.getResult();
+		if (result == null)
+		{
+			postQueryFailure(id, PathTerminationReason.CANCELLED, "search cancelled");
+			return;
+		}
+		List<PathStep> pathSteps = result.getPathSteps();
+		int[] path = new int[pathSteps.size()];
+		for (int i = 0; i < path.length; i++)
+		{
+			path[i] = pathSteps.get(i).getPackedPosition();
+		}
+		Map<String, Object> data = new HashMap<>();
+		data.put(PLUGIN_MESSAGE_ID, id);
+		data.put("reached", result.isReached());
+		data.put("cost", result.getCost());
+		data.put("path", path);
+		data.put("terminationReason", result.getTerminationReason().name());
+		data.put("fingerprint", query.getConfigFingerprint());
+		eventBus.post(new PluginMessage(CONFIG_GROUP, PLUGIN_MESSAGE_QUERY_RESULT, data));
+	}
+
+	private void postQueryFailure(Object id, PathTerminationReason terminationReason, String error)
+	{
+		Map<String, Object> data = new HashMap<>();
+		data.put(PLUGIN_MESSAGE_ID, id);
+		data.put("reached", false);
+		if (terminationReason != null)
+		{
+			data.put("terminationReason", terminationReason.name());
+		}
+		data.put("error", error);
+		eventBus.post(new PluginMessage(CONFIG_GROUP, PLUGIN_MESSAGE_QUERY_RESULT, data));
+	}
+
+	/**
+	 * @return the packed point of a {@link WorldPoint} or packed point in a plugin message, or
+	 * {@link WorldPointUtil#UNDEFINED} if it is neither
+	 */
+	private static int packPoint(Object obj)
+	{
+		if (obj instanceof WorldPoint)
+		{
+			return WorldPointUtil.packWorldPoint((WorldPoint) obj);
+		}
+		return (obj instanceof Integer) ? (int) obj : WorldPointUtil.UNDEFINED;
+	}
+
+	/**
+	 * @return the packed points of a target or set of targets in a plugin message, which is empty
+	 * if there is no target, or null if any of the targets is invalid
+	 */
+	private static Set<Integer> packTargets(Object objTarget)
+	{
+		Set<Integer> targets = new HashSet<>();
+		if (objTarget instanceof Integer || objTarget instanceof WorldPoint)
+		{
+			int packedPoint = packPoint(objTarget);
+			if (packedPoint == WorldPointUtil.UNDEFINED)
+			{
+				return null;
+			}
+			targets.add(packedPoint);
+		}
+		else if (objTarget instanceof Set<?>)
+		{
+			for (Object obj : (Set<?>) objTarget)
+			{
+				int packedPoint = packPoint(obj);
+				if (packedPoint == WorldPointUtil.UNDEFINED)
+				{
+					return null;
+				}
+				targets.add(packedPoint);
+			}
+		}
+		return targets;
+	}
+
+	public void postPluginMessages()
+	{
+		if (pathfinder != null)
+		{
+			postPluginMessages(pathfinder);
+		}
+	}
+
+	/**
+	 * Posts the transports of a finished search, which may be answered before it is assigned to
+	 * {@link #pathfinder} when its route was cached.
+	 */
+	private void postPluginMessages(Pathfinder finished)
+	{
 		if (override("postTransports", config.postTransports()))
 		{
 			Map<String, Object> data = new HashMap<>();
@@ -615,7 +918,7 @@ public class ShortestPathPlugin extends Plugin
 			List<WorldPoint> transportDestinations = new ArrayList<>();
 			List<String> transportObjectInfos = new ArrayList<>();
 			List<String> transportDisplayInfos = new ArrayList<>();
-			List<PathStep> currentPath = pathfinder.getPath();
+			List<PathStep> currentPath = finished.getPath();
 			for (int i = 1; i < currentPath.size(); i++)
 			{
 				PathStep currentStep = currentPath.get(i - 1);
@@ -653,6 +956,11 @@ public class ShortestPathPlugin extends Plugin
 			}
 		}
 
+		if (pathfinderConfig != null)
+		{
+			pathfinderConfig.refreshSceneCollision();
+		}
+
 		Player localPlayer = client.getLocalPlayer();
 		if (localPlayer == null || pathfinder == null)
 		{
@@ -660,13 +968,10 @@ public class ShortestPathPlugin extends Plugin
 		}
 
 		int currentLocation = WorldPointUtil.fromLocalInstance(client, localPlayer);
-		for (int target : pathfinder.getTargets())
+		if (pathfinder.getTargetIndex().isWithin(currentLocation, config.reachedDistance()))
 		{
-			if (WorldPointUtil.distanceBetween(currentLocation, target) < config.reachedDistance())
-			{
-				setTarget(WorldPointUtil.UNDEFINED);
-				return;
-			}
+			setTarget(WorldPointUtil.UNDEFINED);
+			return;
 		}
 
 		if (!startPointSet && !isNearPath(currentLocation))
@@ -744,7 +1049,8 @@ public class ShortestPathPlugin extends Plugin
 					}
 				}
 			}
-			if (event.getOption().equals(FLASH_ICONS) && pathfinderConfig.hasDestination(simplify(event.getTarget())))
+			if (event.getOption().equals(FLASH_ICONS) && pathfinderConfig != null
+				&& pathfinderConfig.hasDestination(simplify(event.getTarget())))
 			{
 				addMenuEntry(event, FIND_CLOSEST, event.getTarget(), 1);
 			}
@@ -771,11 +1077,28 @@ public class ShortestPathPlugin extends Plugin
 	@Subscribe
 	public void onItemContainerChanged(ItemContainerChanged event)
 	{
-		if (event.getContainerId() != InventoryID.BANK)
+		itemsVersion++;
+		if (event.getContainerId() != InventoryID.BANK || deferUntilReady(() -> onItemContainerChanged(event)))
 		{
 			return;
 		}
 		pathfinderConfig.bank = event.getItemContainer();
+		refreshScheduler.request(false);
+	}
+
+	@Subscribe
+	public void onVarbitChanged(VarbitChanged event)
+	{
+		// The runes in a rune pouch count as items on the player
+		for (int i = 0; i < PathfinderConfig.RUNE_POUCH_RUNE_VARBITS.length; i++)
+		{
+			if (event.getVarbitId() == PathfinderConfig.RUNE_POUCH_RUNE_VARBITS[i]
+				|| event.getVarbitId() == PathfinderConfig.RUNE_POUCH_AMOUNT_VARBITS[i])
+			{
+				itemsVersion++;
+				return;
+			}
+		}
 	}
 
 	@Subscribe
@@ -788,7 +1111,7 @@ public class ShortestPathPlugin extends Plugin
 
 		// Populate spirit tree cache, but only once.
 		// The values here almost never change, we only need to load it once.
-		if (pathfinderConfig.availableSpiritTrees == null)
+		if (pathfinderConfig != null && pathfinderConfig.availableSpiritTrees == null)
 		{
 			switch (event.getGroupId())
 			{
@@ -814,6 +1137,8 @@ public class ShortestPathPlugin extends Plugin
 	@Subscribe
 	public void onPostClientTick(PostClientTick event)
 	{
+		refreshScheduler.onClientTick();
+
 		if (fairyRingPanelOpen && pathfinder != null)
 		{
 			scrollFairyRingPanel();
@@ -882,7 +1207,7 @@ public class ShortestPathPlugin extends Plugin
 
 		if (pathfinder != null)
 		{
-			restartPathfinding(pathfinder.getStart(), pathfinder.getTargets());
+			refreshScheduler.request(true);
 		}
 	}
 
@@ -986,9 +1311,13 @@ public class ShortestPathPlugin extends Plugin
 		);
 	}
 
+	/**
+	 * The collision map, or null until the pathfinder resources have loaded.
+	 */
 	public CollisionMap getMap()
 	{
-		return pathfinderConfig.getMap();
+		PathfinderConfig loaded = pathfinderConfig;
+		return loaded == null ? null : loaded.getMap();
 	}
 
 	/**
@@ -1001,13 +1330,39 @@ public class ShortestPathPlugin extends Plugin
 	 * step of a path. Use PathfinderConfig.getTransportAvailability(boolean) and the
 	 * path's PathStep state instead.
 	 */
-	public PrimitiveIntHashMap<Transport[]> getTransports()
+	public PrimitiveIntHashMap<int[]> getTransports()
+	{
+		PathfinderConfig loaded = pathfinderConfig;
+		return loaded == null ? new PrimitiveIntHashMap<>(0) : loaded.getTransports();
+	}
+
+	/**
+	 * The transports that start at the given origin tile in the same coarse display view as
+	 * {@link #getTransports()}, with permutation network edges materialised. Display use only.
+	 */
+	public Transport[] getTransportsAt(int origin)
+	{
+		PathfinderConfig loaded = pathfinderConfig;
+		return loaded == null ? new Transport[0] : loaded.getTransportsAt(origin);
+	}
+
+	/**
+	 * The origin tiles of {@link #getTransports()} in the map region with the given
+	 * {@link WorldPointUtil#regionId(int, int) id}. Display use only.
+	 */
+	public int[] getTransportOriginsInRegion(int regionId)
 	{
-		return pathfinderConfig.getTransports();
+		PathfinderConfig loaded = pathfinderConfig;
+		return loaded == null ? new int[0] : loaded.getTransportOriginsInRegion(regionId);
 	}
 
 	/**
-	 * This reconstructs the candidate transports for a rendered path edge from the current path state.
+	 * The transports of a rendered path edge. A finished path is annotated when the search finishes:
+	 * each step carries every usable transport from the previous step to it, including the one the
+	 * search took, which is returned as is. Edges that were walked have none.
+	 * <p>
+	 * While the search is still running the steps are not annotated yet, and this reconstructs the
+	 * candidate transports for the edge from the current path state.
 	 * <p>
 	 * The important detail is that path display logic is edge-based, not node-based:
 	 * - origin position comes from currentStep
@@ -1021,11 +1376,8 @@ public class ShortestPathPlugin extends Plugin
 	 * nextStep loses the origin tile of the edge. This helper therefore takes both steps and resolves
 	 * transports for the edge between them.
 	 * <p>
-	 * This is still only a fallback for display code and remains inherently ambiguous when multiple
-	 * valid transports share the same origin/destination pair under the same edge state. The more
-	 * structural fix would be to model reconstructed paths in terms of explicit edges, or otherwise
-	 * carry richer per-edge metadata, instead of repeatedly re-deriving transport candidates from
-	 * adjacent path steps.
+	 * This reconstruction remains inherently ambiguous when multiple valid transports share the same
+	 * origin/destination pair under the same edge state.
 	 * <p>
 	 * Note that this function also performs filtering by the transport target, so callers of this
 	 * function can directly iterate over the returned transports.
@@ -1036,46 +1388,18 @@ public class ShortestPathPlugin extends Plugin
 		{
 			return Set.of();
 		}
-		boolean bankVisited = currentStep.isBankVisited() || nextStep.isBankVisited();
-		// Get the transports which start from the position of starting step.
-		Set<Transport> stepTransports = new HashSet<>(Arrays.asList(
-			pathfinderConfig.getTransportsPacked(bankVisited)
-				.getOrDefault(currentStep.getPackedPosition(), TransportAvailability.EMPTY_TRANSPORTS)));
-		// Add the teleports, which might be used from anywhere.
-		stepTransports.addAll(Arrays.asList(pathfinderConfig.getUsableTeleports(bankVisited)));
-		// Remove transports which do not target the correct location.
-		stepTransports.removeIf(transport -> transport.getDestination() != nextStep.getPackedPosition());
-		// Remove teleports that share destinations with a local transport type on this edge.
-		// For example, if the path uses a QUETZAL (local) transport, suppress QUETZAL_WHISTLE hints.
-		// Also suppress them when the edge distance is within the shared type's radius threshold,
-		// which occurs when the path is simply walking to a landing site (not teleporting to it).
-		Set<TransportType> localTypes = EnumSet.noneOf(TransportType.class);
-		for (Transport t : stepTransports)
-		{
-			if (t.getOrigin() != Transport.UNDEFINED_ORIGIN && t.getType() != null)
-			{
-				localTypes.add(t.getType());
-			}
+		if (nextStep.isAnnotated())
+		{
+			return nextStep.getTransports();
 		}
-		int edgeDistance = WorldPointUtil.distanceBetween2D(currentStep.getPackedPosition(), nextStep.getPackedPosition());
-		stepTransports.removeIf(t ->
+		PathfinderConfig loaded = pathfinderConfig;
+		if (loaded == null)
 		{
-			if (t.getOrigin() != Transport.UNDEFINED_ORIGIN || t.getType() == null)
-			{
-				return false; // keep local transports
-			}
-			TransportType sharedType = t.getType().sharesDestinationsWith();
-			if (sharedType == null)
-			{
-				return false; // not a shared-destination teleport, keep it
-			}
-			// Suppress if a local transport of the shared type is present on this edge (Issue 1),
-			// or if the edge is within the shared type's radius threshold, meaning the path is
-			// walking to the landing site rather than teleporting there (Issue 2).
-			return localTypes.contains(sharedType)
-				|| (sharedType.getRadiusThreshold() != null && edgeDistance <= sharedType.getRadiusThreshold());
-		});
-		return stepTransports;
+			return Set.of();
+		}
+		boolean bankVisited = currentStep.isBankVisited() || nextStep.isBankVisited();
+		return loaded.getTransportAvailability(bankVisited)
+			.getTransportsBetween(currentStep.getPackedPosition(), nextStep.getPackedPosition());
 	}
 
 	public PathStep nextPathStep(List<PathStep> path, int index)
@@ -1345,9 +1669,9 @@ public class ShortestPathPlugin extends Plugin
 		{
 			synchronized (pathfinderMutex)
 			{
-				if (pathfinder != null)
+				if (pathfinder != null && searchScheduler != null)
 				{
-					pathfinder.cancel();
+					searchScheduler.cancel(pathfinder);
 				}
 				pathfinder = null;
 			}
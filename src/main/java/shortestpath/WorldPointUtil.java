@@ -112,6 +112,18 @@ public class WorldPointUtil
 		return (packedPoint >> 30) & 0x3;
 	}
 
+	/**
+	 * The id of the 64x64 map region containing the tile, same as {@link WorldPoint#getRegionID()}.
+	 *
+	 * @param x world x.
+	 * @param y world y.
+	 * @return region id.
+	 */
+	public static int regionId(int x, int y)
+	{
+		return ((x >> 6) << 8) | (y >> 6);
+	}
+
 	/**
 	 * Offsets a packed world point by {@code (dx, dy)} on the same plane.
 	 *
@@ -1,5 +1,6 @@
 package shortestpath.leagues;
 
+import java.util.Collections;
 import java.util.EnumSet;
 import java.util.Map;
 import java.util.Set;
@@ -122,6 +123,26 @@ public class LeagueModeState
 		unlockedRegions = next;
 	}
 
+	/**
+	 * A copy of the current state that later refreshes do not affect, for
+	 * evaluating transports off the game thread.
+	 */
+	public LeagueModeState copy()
+	{
+		LeagueModeState copy = new LeagueModeState();
+		copy.seasonal = seasonal;
+		copy.unlockedRegions = unlockedRegions;
+		return copy;
+	}
+
+	/**
+	 * The regions unlocked as of the last refresh. Replaced, never mutated, on every refresh.
+	 */
+	public Set<LeagueRegion> getUnlockedRegions()
+	{
+		return Collections.unmodifiableSet(unlockedRegions);
+	}
+
 	/**
 	 * Whether the supplied region is currently traversable. Outside of
 	 * seasonal mode every region is considered unlocked.
@@ -0,0 +1,247 @@
+package shortestpath.pathfinder;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import net.runelite.api.CollisionDataFlag;
+import shortestpath.PrimitiveIntHashMap;
+import shortestpath.WorldPointUtil;
+
+import static net.runelite.api.Constants.REGION_SIZE;
+
+/**
+ * Live collision read from the loaded scene, layered copy-on-write over the static {@link SplitFlagMap}.
+ * <p>
+ * Only region planes where the scene differs from the static map are copied; every other tile keeps
+ * answering from the static map. A delta is immutable once built and carries a version, so a search
+ * that pinned one keeps a consistent view while a newer delta is published for the next search.
+ * <p>
+ * The scene can only open edges that the static map has closed (e.g. a door that is modelled as a
+ * transport but is currently open). The static map already treats ordinary doors as passable, so
+ * letting a closed door in the scene block an edge would make routes worse rather than better.
+ */
+public final class CollisionDelta
+{
+	public static final CollisionDelta EMPTY = new CollisionDelta(null, 0, 0, 0, -1, -1, new PrimitiveIntHashMap<>(0));
+
+	private static final int REGION_MASK = REGION_SIZE - 1;
+	private static final int BLOCK_FULL = CollisionDataFlag.BLOCK_MOVEMENT_FULL;
+	// The client marks the outermost scene tiles as blocked, so only the interior carries real data.
+	private static final int SCENE_BORDER_LOW = 1;
+	private static final int SCENE_BORDER_HIGH = 5;
+
+	private final SplitFlagMap base;
+	private final int version;
+	// Tile bounds of the scene the delta was read from, used to skip the region lookup entirely
+	// for tiles outside the loaded scene.
+	private final int minX, minY, maxX, maxY;
+	// Region plane words in the SplitFlagMap plane layout, keyed by regionPlaneKey.
+	private final PrimitiveIntHashMap<long[]> planes;
+
+	private CollisionDelta(SplitFlagMap base, int version, int minX, int minY, int maxX, int maxY,
+		PrimitiveIntHashMap<long[]> planes)
+	{
+		this.base = base;
+		this.version = version;
+		this.minX = minX;
+		this.minY = minY;
+		this.maxX = maxX;
+		this.maxY = maxY;
+		this.planes = planes;
+	}
+
+	/**
+	 * Builds a delta from the collision flags of the loaded scene.
+	 *
+	 * @param base       the static collision map
+	 * @param version    the version to stamp on the delta
+	 * @param baseX      world x of scene tile (0, 0)
+	 * @param baseY      world y of scene tile (0, 0)
+	 * @param sceneFlags client collision flags indexed [plane][sceneX][sceneY]; planes may be null
+	 */
+	public static CollisionDelta fromScene(SplitFlagMap base, int version, int baseX, int baseY, int[][][] sceneFlags)
+	{
+		final PrimitiveIntHashMap<long[]> planes = new PrimitiveIntHashMap<>(16);
+		int minX = Integer.MAX_VALUE;
+		int minY = Integer.MAX_VALUE;
+		int maxX = -1;
+		int maxY = -1;
+
+		for (int z = 0; z < sceneFlags.length; z++)
+		{
+			final int[][] flags = sceneFlags[z];
+			if (flags == null)
+			{
+				continue;
+			}
+
+			final int lastX = flags.length - SCENE_BORDER_HIGH - 1;
+			for (int sceneX = SCENE_BORDER_LOW; sceneX <= lastX; sceneX++)
+			{
+				final int lastY = flags[sceneX].length - SCENE_BORDER_HIGH - 1;
+				for (int sceneY = SCENE_BORDER_LOW; sceneY <= lastY; sceneY++)
+				{
+					final int x = baseX + sceneX;
+					final int y = baseY + sceneY;
+					final int tile = flags[sceneX][sceneY];
+
+					final boolean north = sceneY < lastY
+						&& (tile & (CollisionDataFlag.BLOCK_MOVEMENT_NORTH | BLOCK_FULL)) == 0
+						&& (flags[sceneX][sceneY + 1] & (CollisionDataFlag.BLOCK_MOVEMENT_SOUTH | BLOCK_FULL)) == 0;
+					final boolean east = sceneX < lastX
+						&& (tile & (CollisionDataFlag.BLOCK_MOVEMENT_EAST | BLOCK_FULL)) == 0
+						&& (flags[sceneX + 1][sceneY] & (CollisionDataFlag.BLOCK_MOVEMENT_WEST | BLOCK_FULL)) == 0;
+
+					final boolean openNorth = north && !base.get(x, y, z, 0);
+					final boolean openEast = east && !base.get(x, y, z, 1);
+					if (!openNorth && !openEast)
+					{
+						continue;
+					}
+
+					final long[] words = planeFor(planes, base, x, y, z);
+					if (openNorth)
+					{
+						setBit(words, x, y, 0);
+					}
+					if (openEast)
+					{
+						setBit(words, x, y, 1);
+					}
+					minX = Math.min(minX, x);
+					minY = Math.min(minY, y);
+					maxX = Math.max(maxX, x);
+					maxY = Math.max(maxY, y);
+				}
+			}
+		}
+
+		return new CollisionDelta(base, version, minX, minY, maxX, maxY, planes);
+	}
+
+	private static long[] planeFor(PrimitiveIntHashMap<long[]> planes, SplitFlagMap base, int x, int y, int z)
+	{
+		final int key = regionPlaneKey(x, y, z);
+		long[] words = planes.get(key);
+		if (words == null)
+		{
+			// Copy the static plane once; only the edges the scene opens are changed afterwards.
+			words = new long[SplitFlagMap.WORDS_PER_PLANE];
+			final int regionBaseX = x & ~REGION_MASK;
+			final int regionBaseY = y & ~REGION_MASK;
+			for (int localY = 0; localY < REGION_SIZE; localY++)
+			{
+				for (int localX = 0; localX < REGION_SIZE; localX++)
+				{
+					for (int flag = 0; flag < SplitFlagMap.FLAG_COUNT; flag++)
+					{
+						if (base.get(regionBaseX + localX, regionBaseY + localY, z, flag))
+						{
+							setBit(words, localX, localY, flag);
+						}
+					}
+				}
+			}
+			planes.put(key, words);
+		}
+		return words;
+	}
+
+	private static int regionPlaneKey(int x, int y, int z)
+	{
+		return (((x / REGION_SIZE) << 8 | (y / REGION_SIZE)) << 2) | z;
+	}
+
+	private static int localBit(int x, int y, int flag)
+	{
+		return ((y & REGION_MASK) * REGION_SIZE + (x & REGION_MASK)) * SplitFlagMap.FLAG_COUNT + flag;
+	}
+
+	private static void setBit(long[] words, int x, int y, int flag)
+	{
+		final int bit = localBit(x, y, flag);
+		words[bit >> 6] |= 1L << (bit & 63);
+	}
+
+	public int getVersion()
+	{
+		return version;
+	}
+
+	/**
+	 * Whether the tile lies inside the part of the scene where this delta changed anything.
+	 */
+	public boolean covers(int x, int y)
+	{
+		return x >= minX && x <= maxX && y >= minY && y <= maxY;
+	}
+
+	/**
+	 * The packed positions of the tiles at both ends of every edge that is open in one of the two
+	 * deltas and closed in the other, so a path that steps on none of them crosses no changed edge.
+	 */
+	public Set<Integer> changedTiles(CollisionDelta previous)
+	{
+		final SplitFlagMap map = base != null ? base : previous.base;
+		final Set<Integer> tiles = new HashSet<>();
+		if (map == null)
+		{
+			return tiles;
+		}
+		final Set<Integer> keys = new HashSet<>();
+		for (int key : planes.keys())
+		{
+			keys.add(key);
+		}
+		for (int key : previous.planes.keys())
+		{
+			keys.add(key);
+		}
+		for (int key : keys)
+		{
+			final long[] words = planes.get(key);
+			final long[] previousWords = previous.planes.get(key);
+			if (words != null && Arrays.equals(words, previousWords))
+			{
+				continue;
+			}
+			final int regionBaseX = (key >>> 10) * REGION_SIZE;
+			final int regionBaseY = ((key >>> 2) & 0xFF) * REGION_SIZE;
+			final int z = key & 3;
+			for (int localY = 0; localY < REGION_SIZE; localY++)
+			{
+				for (int localX = 0; localX < REGION_SIZE; localX++)
+				{
+					final int x = regionBaseX + localX;
+					final int y = regionBaseY + localY;
+					for (int flag = 0; flag < SplitFlagMap.FLAG_COUNT; flag++)
+					{
+						if (get(words, map, x, y, z, flag) != get(previousWords, map, x, y, z, flag))
+						{
+							tiles.add(WorldPointUtil.packWorldPoint(x, y, z));
+							tiles.add(flag == 0
+								? WorldPointUtil.packWorldPoint(x, y + 1, z)
+								: WorldPointUtil.packWorldPoint(x + 1, y, z));
+						}
+					}
+				}
+			}
+		}
+		return tiles;
+	}
+
+	private static boolean get(long[] words, SplitFlagMap base, int x, int y, int z, int flag)
+	{
+		if (words == null)
+		{
+			return base.get(x, y, z, flag);
+		}
+		final int bit = localBit(x, y, flag);
+		return (words[bit >> 6] >>> (bit & 63) & 1L) != 0L;
+	}
+
+	public boolean get(int x, int y, int z, int flag)
+	{
+		return get(planes.get(regionPlaneKey(x, y, z)), base, x, y, z, flag);
+	}
+}
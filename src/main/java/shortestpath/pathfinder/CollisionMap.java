@@ -3,21 +3,45 @@ package shortestpath.pathfinder;
 import shortestpath.PrimitiveIntList;
 import shortestpath.WorldPointUtil;
 import shortestpath.transport.Transport;
+import shortestpath.transport.TransportTable;
 
+/**
+ * The collision of the world, plus the live scene collision, and the neighbour expansion of the search.
+ * <p>
+ * Never modified after construction: {@link #getNeighbors} keeps no state between calls and writes into a
+ * list owned by the calling search, so any number of searches can share one map.
+ */
 public class CollisionMap
 {
 	// Enum.values() makes copies every time which hurts performance in the hotpath
 	private static final OrdinalDirection[] ORDINAL_VALUES = OrdinalDirection.values();
 
 	private final SplitFlagMap collisionData;
-	// This is only safe if pathfinding is single-threaded. Holds the ids of the neighbour nodes
-	// appended to the NodeGraph during the most recent getNeighbors call.
-	private final PrimitiveIntList neighbors = new PrimitiveIntList(16);
-	private final boolean[] traversable = new boolean[8];
+	// Live scene collision pinned for the lifetime of this map, so a search never sees it change.
+	private final CollisionDelta collisionDelta;
 
 	public CollisionMap(SplitFlagMap collisionData)
+	{
+		this(collisionData, CollisionDelta.EMPTY);
+	}
+
+	public CollisionMap(SplitFlagMap collisionData, CollisionDelta collisionDelta)
 	{
 		this.collisionData = collisionData;
+		this.collisionDelta = collisionDelta;
+	}
+
+	/**
+	 * The static collision map, without the live scene collision.
+	 */
+	public SplitFlagMap getCollisionData()
+	{
+		return collisionData;
+	}
+
+	public CollisionDelta getCollisionDelta()
+	{
+		return collisionDelta;
 	}
 
 	private static int packedPointFromOrdinal(int startPacked, OrdinalDirection direction)
@@ -35,6 +59,10 @@ public class CollisionMap
 
 	private boolean get(int x, int y, int z, int flag)
 	{
+		if (collisionDelta.covers(x, y))
+		{
+			return collisionDelta.get(x, y, z, flag);
+		}
 		return collisionData.get(x, y, z, flag);
 	}
 
@@ -83,15 +111,20 @@ public class CollisionMap
 		return !n(x, y, z) && !s(x, y, z) && !e(x, y, z) && !w(x, y, z);
 	}
 
-	public PrimitiveIntList getNeighbors(int node, VisitedTiles visited, PathfinderConfig config, int wildernessLevel, boolean targetInWilderness, NodeGraph graph)
+	/**
+	 * Replaces the contents of {@code neighbors} with the ids of the neighbour nodes of the node,
+	 * which are appended to the graph.
+	 */
+	public void getNeighbors(int node, VisitedTiles visited, SearchSnapshot snapshot, int wildernessLevel, boolean targetInWilderness, NodeGraph graph, PrimitiveIntList neighbors)
 	{
+		neighbors.clear();
 		if (graph.isTile(node))
 		{
-			return getTileNeighbors(node, visited, config, wildernessLevel, graph);
+			addTileNeighbors(node, visited, snapshot, wildernessLevel, graph, neighbors);
 		}
 		else
 		{
-			return getAbstractNodeNeighbors(node, visited, config, targetInWilderness, graph);
+			addAbstractNodeNeighbors(node, visited, snapshot, targetInWilderness, graph, neighbors);
 		}
 	}
 
@@ -99,22 +132,23 @@ public class CollisionMap
 	//      * Neighbouring tiles we can walk to
 	//      * A transition into banked state, if the current tile is a bank.
 	//      * Transition into abstract global teleport nodes, if we haven't tried that yet.
-	private PrimitiveIntList getTileNeighbors(int node, VisitedTiles visited, PathfinderConfig config, int wildernessLevel, NodeGraph graph)
+	private void addTileNeighbors(int node, VisitedTiles visited, SearchSnapshot snapshot, int wildernessLevel, NodeGraph graph,
+		PrimitiveIntList neighbors)
 	{
 		final int packedPosition = graph.packedPosition(node);
 		final int x = WorldPointUtil.unpackWorldX(packedPosition);
 		final int y = WorldPointUtil.unpackWorldY(packedPosition);
 		final int z = WorldPointUtil.unpackWorldPlane(packedPosition);
 
-		neighbors.clear();
-
 		// Either we have already visited a bank, if the current tile is a bank switch into the bankVisited state for the
 		// rest of the path.
 		boolean pathBankVisited = graph.bankVisited(node)
-			|| (config.isBankPathEnabled() && config.bankAccessible(packedPosition));
+			|| (snapshot.isBankPathEnabled() && snapshot.bankAccessible(packedPosition));
 
 		// Firstly check if there are any transports or teleports which are applicable from the current tile.
-		Transport[] transports = config.getTransportsPacked(pathBankVisited).getOrDefault(packedPosition, TransportAvailability.EMPTY_TRANSPORTS);
+		TransportAvailability availability = snapshot.getTransportAvailability(pathBankVisited);
+		TransportTable table = availability.getTable();
+		int[] transports = availability.getTransportIds(packedPosition);
 		// If this tile was itself reached via a delayed-visit teleport (e.g. QUETZAL_WHISTLE), propagate its
 		// differential cost to any competing delayed-visit transports emitted from here. This prevents the
 		// pathfinder from choosing a chain (e.g. whistle → landing site A → fly to B) over a direct teleport
@@ -122,29 +156,26 @@ public class CollisionMap
 		int inheritedDifferential = (graph.isTransport(node) && graph.isDelayedVisit(node))
 			? graph.differentialCost(node)
 			: 0;
-		for (Transport transport : transports)
+		for (int transport : transports)
 		{
-			boolean delayedVisit = transport.getType().sharesDestinationsWith() != null;
-			// Do not consider a transport if we have already visited its target tile.
-			// For transports that share destinations with a teleport, skip this check
-			// so both can compete in the priority queue (delayed visit).
-			if (!delayedVisit && visited.get(transport.getDestination(), pathBankVisited))
+			int network = table.getNetwork(transport);
+			if (network == TransportTable.NO_NETWORK)
 			{
+				addTransport(node, transport, transport, table.getDestination(transport), table.getDuration(transport),
+					table, visited, snapshot, pathBankVisited, inheritedDifferential, graph, neighbors);
 				continue;
 			}
-			// Inherit the parent teleport's differential as a real cost on chained shared-destination transports,
-			// so that chaining (e.g. fly to landing site A then use station to B) is always more expensive than
-			// a direct teleport to B.
-			int chainPenalty = (delayedVisit && inheritedDifferential > 0) ? inheritedDifferential : 0;
-			// NB: Do not need to check for wilderness level for transports, since transports have specific origin tile.
-			neighbors.add(graph.createTransport(
-				transport.getDestination(),
-				node,
-				transport.getDuration(),
-				config.getAdditionalTransportCost(transport) + chainPenalty,
-				pathBankVisited,
-				delayedVisit,
-				delayedVisit ? config.getDifferentialCost(transport) : 0));
+			// A permutation network origin leads into the network's hub; expand the hub's usable
+			// destinations in place rather than materialising every origin/destination pair.
+			for (int destination : availability.getHubDestinations(network))
+			{
+				if (table.connects(transport, destination))
+				{
+					addTransport(node, transport, destination, table.getDestination(destination),
+						Math.max(table.getDuration(transport), table.getDuration(destination)),
+						table, visited, snapshot, pathBankVisited, inheritedDifferential, graph, neighbors);
+				}
+			}
 		}
 
 		// Global teleports are only considered from an abstract node, so each
@@ -156,6 +187,8 @@ public class CollisionMap
 		}
 
 		// Then add tiles which we can walk to, which go into the FIFO boundary queue.
+		// Bit i is set if the tile in ORDINAL_VALUES[i] can be walked to.
+		final int traversable;
 		if (isBlocked(x, y, z))
 		{
 			boolean westBlocked = isBlocked(x - 1, y, z);
@@ -166,28 +199,28 @@ public class CollisionMap
 			boolean southEastBlocked = isBlocked(x + 1, y - 1, z);
 			boolean northWestBlocked = isBlocked(x - 1, y + 1, z);
 			boolean northEastBlocked = isBlocked(x + 1, y + 1, z);
-			traversable[0] = !westBlocked;
-			traversable[1] = !eastBlocked;
-			traversable[2] = !southBlocked;
-			traversable[3] = !northBlocked;
-			traversable[4] = !southWestBlocked && !westBlocked && !southBlocked;
-			traversable[5] = !southEastBlocked && !eastBlocked && !southBlocked;
-			traversable[6] = !northWestBlocked && !westBlocked && !northBlocked;
-			traversable[7] = !northEastBlocked && !eastBlocked && !northBlocked;
+			traversable = bit(0, !westBlocked)
+				| bit(1, !eastBlocked)
+				| bit(2, !southBlocked)
+				| bit(3, !northBlocked)
+				| bit(4, !southWestBlocked && !westBlocked && !southBlocked)
+				| bit(5, !southEastBlocked && !eastBlocked && !southBlocked)
+				| bit(6, !northWestBlocked && !westBlocked && !northBlocked)
+				| bit(7, !northEastBlocked && !eastBlocked && !northBlocked);
 		}
 		else
 		{
-			traversable[0] = w(x, y, z);
-			traversable[1] = e(x, y, z);
-			traversable[2] = s(x, y, z);
-			traversable[3] = n(x, y, z);
-			traversable[4] = sw(x, y, z);
-			traversable[5] = se(x, y, z);
-			traversable[6] = nw(x, y, z);
-			traversable[7] = ne(x, y, z);
+			traversable = bit(0, w(x, y, z))
+				| bit(1, e(x, y, z))
+				| bit(2, s(x, y, z))
+				| bit(3, n(x, y, z))
+				| bit(4, sw(x, y, z))
+				| bit(5, se(x, y, z))
+				| bit(6, nw(x, y, z))
+				| bit(7, ne(x, y, z));
 		}
 
-		for (int i = 0; i < traversable.length; i++)
+		for (int i = 0; i < ORDINAL_VALUES.length; i++)
 		{
 			OrdinalDirection d = ORDINAL_VALUES[i];
 			int neighborPacked = packedPointFromOrdinal(packedPosition, d);
@@ -196,7 +229,7 @@ public class CollisionMap
 				continue;
 			}
 
-			if (traversable[i])
+			if ((traversable & 1 << i) != 0)
 			{
 				neighbors.add(graph.createTile(neighborPacked, node, pathBankVisited));
 			}
@@ -205,44 +238,78 @@ public class CollisionMap
 				// The transport starts from a blocked adjacent tile, e.g. fairy ring
 				// Only checks non-teleport transports (includes portals and levers, but not
 				// items and spells)
-				Transport[] neighborTransports = config.getTransportsPacked(pathBankVisited).getOrDefault(neighborPacked,
-					TransportAvailability.EMPTY_TRANSPORTS);
-				for (Transport transport : neighborTransports)
+				for (int transport : availability.getTransportIds(neighborPacked))
 				{
-					if (transport.getOrigin() == Transport.UNDEFINED_ORIGIN
-						|| !(transport.isUsableAtWildernessLevel(wildernessLevel))
-						|| visited.get(transport.getOrigin(), pathBankVisited))
+					int origin = table.getOrigin(transport);
+					if (origin == Transport.UNDEFINED_ORIGIN
+						|| !(table.isUsableAtWildernessLevel(transport, wildernessLevel))
+						|| visited.get(origin, pathBankVisited))
 					{
 						continue;
 					}
-					neighbors.add(graph.createTile(transport.getOrigin(), node, pathBankVisited));
+					neighbors.add(graph.createTile(origin, node, pathBankVisited));
 				}
 			}
 		}
+	}
 
-		return neighbors;
+	private static int bit(int index, boolean value)
+	{
+		return value ? 1 << index : 0;
+	}
+
+	// The edge is the row recorded on the transport node: the transport itself, or the network
+	// destination row for an edge through a hub.
+	private void addTransport(int node, int transport, int edge, int destination, int duration, TransportTable table,
+		VisitedTiles visited, SearchSnapshot snapshot, boolean pathBankVisited, int inheritedDifferential, NodeGraph graph,
+		PrimitiveIntList neighbors)
+	{
+		boolean delayedVisit = table.isDelayedVisit(transport);
+		// Do not consider a transport if we have already visited its target tile.
+		// For transports that share destinations with a teleport, skip this check
+		// so both can compete in the priority queue (delayed visit).
+		if (!delayedVisit && visited.get(destination, pathBankVisited))
+		{
+			return;
+		}
+		// Inherit the parent teleport's differential as a real cost on chained shared-destination transports,
+		// so that chaining (e.g. fly to landing site A then use station to B) is always more expensive than
+		// a direct teleport to B.
+		int chainPenalty = (delayedVisit && inheritedDifferential > 0) ? inheritedDifferential : 0;
+		// NB: Do not need to check for wilderness level for transports, since transports have specific origin tile.
+		neighbors.add(graph.createTransport(
+			destination,
+			node,
+			edge,
+			duration,
+			snapshot.getAdditionalTransportCost(transport) + chainPenalty,
+			pathBankVisited,
+			delayedVisit,
+			delayedVisit ? snapshot.getDifferentialCost(transport) : 0));
 	}
 
 	// The only abstract nodes are currently for global teleports
-	private PrimitiveIntList getAbstractNodeNeighbors(int node, VisitedTiles visited, PathfinderConfig config,
-		boolean targetInWilderness, NodeGraph graph)
+	private void addAbstractNodeNeighbors(int node, VisitedTiles visited, SearchSnapshot snapshot,
+		boolean targetInWilderness, NodeGraph graph, PrimitiveIntList neighbors)
 	{
-		neighbors.clear();
 		int sourceTile = graph.getClosestTilePosition(node);
 		boolean bankVisited = graph.bankVisited(node);
 		int maxWildernessLevel = graph.abstractKind(node).maxWildernessLevel();
-		for (Transport transport : config.getUsableTeleports(bankVisited))
+		TransportAvailability availability = snapshot.getTransportAvailability(bankVisited);
+		TransportTable table = availability.getTable();
+		for (int transport : availability.getUsableTeleportIds())
 		{
-			boolean delayedVisit = transport.getType().sharesDestinationsWith() != null;
-			if (!delayedVisit && visited.get(transport.getDestination(), bankVisited))
+			boolean delayedVisit = table.isDelayedVisit(transport);
+			int destination = table.getDestination(transport);
+			if (!delayedVisit && visited.get(destination, bankVisited))
 			{
 				continue;
 			}
-			if (!transport.isUsableAtWildernessLevel(maxWildernessLevel))
+			if (!table.isUsableAtWildernessLevel(transport, maxWildernessLevel))
 			{
 				continue;
 			}
-			if (config.avoidWilderness(sourceTile, transport.getDestination(), targetInWilderness))
+			if (snapshot.avoidWilderness(sourceTile, destination, targetInWilderness))
 			{
 				continue;
 			}
@@ -250,16 +317,16 @@ public class CollisionMap
 			// propagated as real cost, so applying it unconditionally is safe: a nearby partner
 			// station can still win the dequeue race, and a far-away whistle still resolves as the
 			// cheapest path because no competitor has a lower real cost to the same destination.
-			int differentialCost = delayedVisit ? config.getDifferentialCost(transport) : 0;
+			int differentialCost = delayedVisit ? snapshot.getDifferentialCost(transport) : 0;
 			neighbors.add(graph.createTransport(
-				transport.getDestination(),
+				destination,
 				node,
-				transport.getDuration(),
-				config.getAdditionalTransportCost(transport),
+				transport,
+				table.getDuration(transport),
+				snapshot.getAdditionalTransportCost(transport),
 				bankVisited,
 				delayedVisit,
 				differentialCost));
 		}
-		return neighbors;
 	}
 }
@@ -0,0 +1,146 @@
+package shortestpath.pathfinder;
+
+import shortestpath.transport.requirement.ItemRequirement;
+import shortestpath.transport.requirement.TransportItems;
+
+/**
+ * The item requirements of a {@link TransportItems}, flattened into primitive arrays once when
+ * the transports are loaded and evaluated against an {@link ItemSnapshot} on every refresh.
+ * <p>
+ * Requirement {@code r} accepts the item ids {@code itemIds[itemStart[r], itemStart[r + 1])}, and
+ * likewise for the staff and offhand ids. {@link #evaluate} checks the unbanked and the banked
+ * state in the same pass and returns the states in which every requirement is met.
+ */
+final class CompiledItems
+{
+	private final int[] quantities;
+	private final int[] itemStart;
+	private final int[] itemIds;
+	private final boolean[] currencies;
+	private final int[] staffStart;
+	private final int[] staffIds;
+	private final int[] offhandStart;
+	private final int[] offhandIds;
+
+	CompiledItems(TransportItems transportItems)
+	{
+		int count = transportItems.getRequirements().size();
+		quantities = new int[count];
+		itemStart = new int[count + 1];
+		staffStart = new int[count + 1];
+		offhandStart = new int[count + 1];
+		for (int r = 0; r < count; r++)
+		{
+			ItemRequirement requirement = transportItems.getRequirements().get(r);
+			quantities[r] = requirement.getQuantity();
+			itemStart[r + 1] = itemStart[r] + length(requirement.getItemIds());
+			staffStart[r + 1] = staffStart[r] + length(requirement.getStaffIds());
+			offhandStart[r + 1] = offhandStart[r] + length(requirement.getOffhandIds());
+		}
+		itemIds = new int[itemStart[count]];
+		currencies = new boolean[itemIds.length];
+		staffIds = new int[staffStart[count]];
+		offhandIds = new int[offhandStart[count]];
+		for (int r = 0; r < count; r++)
+		{
+			ItemRequirement requirement = transportItems.getRequirements().get(r);
+			copy(requirement.getItemIds(), itemIds, itemStart[r]);
+			copy(requirement.getStaffIds(), staffIds, staffStart[r]);
+			copy(requirement.getOffhandIds(), offhandIds, offhandStart[r]);
+		}
+		for (int i = 0; i < itemIds.length; i++)
+		{
+			currencies[i] = PathfinderConfig.CURRENCIES.contains(itemIds[i]);
+		}
+	}
+
+	/**
+	 * Checks every requirement against the snapshot. A currency required in a quantity above the
+	 * threshold fails the requirement, and a staff or an offhand can each stand in for at most one
+	 * requirement.
+	 *
+	 * @return the {@link ItemSnapshot#WITHOUT_BANK} and {@link ItemSnapshot#WITH_BANK} states in
+	 * which all requirements are met
+	 */
+	int evaluate(ItemSnapshot items, int currencyThreshold)
+	{
+		int usable = ItemSnapshot.BOTH;
+		int usingStaff = 0;
+		int usingOffhand = 0;
+		for (int r = 0; r < quantities.length && usable != 0; r++)
+		{
+			int requiredQuantity = quantities[r];
+			int met = 0;
+			for (int i = itemStart[r]; i < itemStart[r + 1] && (usable & ~met) != 0; i++)
+			{
+				int matches = matching(items, itemIds[i], requiredQuantity, requiredQuantity) & usable & ~met;
+				if (currencies[i] && requiredQuantity > currencyThreshold)
+				{
+					usable &= ~matches;
+				}
+				else
+				{
+					met |= matches;
+				}
+			}
+			int staff = usable & ~met & ~usingStaff;
+			for (int i = staffStart[r]; i < staffStart[r + 1] && staff != 0; i++)
+			{
+				int matches = matching(items, staffIds[i], requiredQuantity, 1) & staff;
+				usingStaff |= matches;
+				met |= matches;
+				staff &= ~matches;
+			}
+			int offhand = usable & ~met & ~usingOffhand;
+			for (int i = offhandStart[r]; i < offhandStart[r + 1] && offhand != 0; i++)
+			{
+				int matches = matching(items, offhandIds[i], requiredQuantity, 1) & offhand;
+				usingOffhand |= matches;
+				met |= matches;
+				offhand &= ~matches;
+			}
+			usable &= met;
+		}
+		return usable;
+	}
+
+	/**
+	 * Every item, staff and offhand id any requirement accepts.
+	 */
+	int[] getAllItemIds()
+	{
+		int[] ids = new int[itemIds.length + staffIds.length + offhandIds.length];
+		System.arraycopy(itemIds, 0, ids, 0, itemIds.length);
+		System.arraycopy(staffIds, 0, ids, itemIds.length, staffIds.length);
+		System.arraycopy(offhandIds, 0, ids, itemIds.length + staffIds.length, offhandIds.length);
+		return ids;
+	}
+
+	/**
+	 * The states in which the quantity of the item meets the requirement: at least
+	 * {@code minimumQuantity} of it if any is required, or none of it if the required quantity is 0.
+	 */
+	private static int matching(ItemSnapshot items, int itemId, int requiredQuantity, int minimumQuantity)
+	{
+		return matches(items.getWithoutBank(itemId), requiredQuantity, minimumQuantity) * ItemSnapshot.WITHOUT_BANK
+			| matches(items.getWithBank(itemId), requiredQuantity, minimumQuantity) * ItemSnapshot.WITH_BANK;
+	}
+
+	private static int matches(int quantity, int requiredQuantity, int minimumQuantity)
+	{
+		return requiredQuantity > 0 && quantity >= minimumQuantity || requiredQuantity == 0 && quantity == 0 ? 1 : 0;
+	}
+
+	private static int length(int[] ids)
+	{
+		return ids == null ? 0 : ids.length;
+	}
+
+	private static void copy(int[] ids, int[] target, int offset)
+	{
+		if (ids != null)
+		{
+			System.arraycopy(ids, 0, target, offset, ids.length);
+		}
+	}
+}
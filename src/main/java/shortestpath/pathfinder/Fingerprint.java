@@ -0,0 +1,55 @@
+package shortestpath.pathfinder;
+
+/**
+ * 64-bit hashing for fingerprints of search inputs. Sets are hashed as the sum of their mixed
+ * elements, so a set hash can be built in any order and updated by subtracting the elements it
+ * loses and adding the ones it gains.
+ */
+final class Fingerprint
+{
+	private Fingerprint()
+	{
+	}
+
+	/**
+	 * The splitmix64 finalizer: every input bit affects every output bit.
+	 */
+	static long mix(long value)
+	{
+		value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+		value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+		return value ^ (value >>> 31);
+	}
+
+	/**
+	 * Appends a value to an ordered hash.
+	 */
+	static long combine(long hash, long value)
+	{
+		return mix(hash ^ mix(value));
+	}
+
+	/**
+	 * The hash of one id of a set hash.
+	 */
+	static long ofId(long salt, int id)
+	{
+		return mix(salt ^ id);
+	}
+
+	/**
+	 * The set hash of the ids, salted so the same ids in another role hash differently.
+	 */
+	static long ofIds(long salt, int[] ids)
+	{
+		long hash = 0;
+		if (ids != null)
+		{
+			for (int id : ids)
+			{
+				hash += ofId(salt, id);
+			}
+		}
+		return hash;
+	}
+}
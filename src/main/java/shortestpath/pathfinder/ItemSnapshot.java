@@ -0,0 +1,180 @@
+package shortestpath.pathfinder;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+import net.runelite.api.Item;
+
+/**
+ * Item id to quantity snapshot of the player's items, read once per refresh.
+ * <p>
+ * Every item has two quantities: one for the unbanked state (inventory, worn items and rune
+ * pouch) and one for the banked state (the same plus the bank, when bank items may be used). Both
+ * are stored in one open-addressing table keyed by item id, so checking the item requirements of a
+ * transport looks each item up once for both states. Like the map this replaces, a later source
+ * overwrites the quantity of an earlier one instead of adding to it.
+ */
+final class ItemSnapshot
+{
+	static final int WITHOUT_BANK = 1;    // bit0
+	static final int WITH_BANK = 1 << 1;  // bit1
+	static final int BOTH = WITHOUT_BANK | WITH_BANK;
+
+	private static final int EMPTY = -1;
+
+	private int[] keys;
+	// Two quantities per slot: [2 * slot] without bank, [2 * slot + 1] with bank.
+	private int[] quantities;
+	private int size;
+
+	ItemSnapshot()
+	{
+		keys = new int[64];
+		quantities = new int[keys.length * 2];
+		Arrays.fill(keys, EMPTY);
+	}
+
+	void clear()
+	{
+		Arrays.fill(keys, EMPTY);
+		Arrays.fill(quantities, 0);
+		size = 0;
+	}
+
+	/**
+	 * Adds the items with a valid id and a positive quantity to the given states.
+	 */
+	void putAll(Item[] items, int states)
+	{
+		if (items == null)
+		{
+			return;
+		}
+		for (Item item : items)
+		{
+			if (item.getId() >= 0 && item.getQuantity() > 0)
+			{
+				put(item.getId(), item.getQuantity(), states);
+			}
+		}
+	}
+
+	void put(int itemId, int quantity, int states)
+	{
+		if ((size + 1) * 2 > keys.length)
+		{
+			grow();
+		}
+		int slot = slot(itemId);
+		if (keys[slot] == EMPTY)
+		{
+			keys[slot] = itemId;
+			size++;
+		}
+		if ((states & WITHOUT_BANK) != 0)
+		{
+			quantities[2 * slot] = quantity;
+		}
+		if ((states & WITH_BANK) != 0)
+		{
+			quantities[2 * slot + 1] = quantity;
+		}
+	}
+
+	/**
+	 * The states in which the player holds any of the items.
+	 */
+	int holdsAny(int[] itemIds)
+	{
+		int states = 0;
+		for (int itemId : itemIds)
+		{
+			int slot = slot(itemId);
+			if (keys[slot] != EMPTY)
+			{
+				states |= (quantities[2 * slot] > 0 ? WITHOUT_BANK : 0)
+					| (quantities[2 * slot + 1] > 0 ? WITH_BANK : 0);
+			}
+		}
+		return states;
+	}
+
+	/**
+	 * The quantity of the item in the unbanked state, or 0.
+	 */
+	int getWithoutBank(int itemId)
+	{
+		int slot = slot(itemId);
+		return keys[slot] == EMPTY ? 0 : quantities[2 * slot];
+	}
+
+	/**
+	 * The quantity of the item in the banked state, or 0.
+	 */
+	int getWithBank(int itemId)
+	{
+		int slot = slot(itemId);
+		return keys[slot] == EMPTY ? 0 : quantities[2 * slot + 1];
+	}
+
+	/**
+	 * Calls {@code changed} for every item whose quantity in either state differs from the
+	 * previous snapshot. An item may be reported more than once.
+	 */
+	void forEachChange(ItemSnapshot previous, IntConsumer changed)
+	{
+		reportChanges(this, previous, changed);
+		reportChanges(previous, this, changed);
+	}
+
+	boolean hasSameQuantities(ItemSnapshot other)
+	{
+		boolean[] changed = {false};
+		forEachChange(other, itemId -> changed[0] = true);
+		return !changed[0];
+	}
+
+	private static void reportChanges(ItemSnapshot from, ItemSnapshot other, IntConsumer changed)
+	{
+		for (int i = 0; i < from.keys.length; i++)
+		{
+			int itemId = from.keys[i];
+			if (itemId != EMPTY
+				&& (from.quantities[2 * i] != other.getWithoutBank(itemId)
+				|| from.quantities[2 * i + 1] != other.getWithBank(itemId)))
+			{
+				changed.accept(itemId);
+			}
+		}
+	}
+
+	private int slot(int itemId)
+	{
+		int mask = keys.length - 1;
+		int slot = (itemId * 0x9E3779B9) >>> 16 & mask;
+		while (keys[slot] != EMPTY && keys[slot] != itemId)
+		{
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	private void grow()
+	{
+		int[] oldKeys = keys;
+		int[] oldQuantities = quantities;
+		keys = new int[oldKeys.length * 2];
+		quantities = new int[keys.length * 2];
+		Arrays.fill(keys, EMPTY);
+		for (int i = 0; i < oldKeys.length; i++)
+		{
+			if (oldKeys[i] != EMPTY)
+			{
+				int slot = slot(oldKeys[i]);
+				keys[slot] = oldKeys[i];
+				quantities[2 * slot] = oldQuantities[2 * i];
+				quantities[2 * slot + 1] = oldQuantities[2 * i + 1];
+			}
+		}
+	}
+}
@@ -1,7 +1,7 @@
 package shortestpath.pathfinder;
 
-import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
 
 import shortestpath.WorldPointUtil;
@@ -32,6 +32,7 @@ import shortestpath.WorldPointUtil;
 public class NodeGraph
 {
 	public static final int NO_NODE = -1;
+	public static final int NO_TRANSPORT = -1;
 
 	private static final byte FLAG_BANK_VISITED = 1;       // bit0
 	private static final byte FLAG_ABSTRACT = 1 << 1;      // bit1
@@ -57,6 +58,8 @@ public class NodeGraph
 	private int[] differentialCost;
 	private byte[] flags;
 	private byte[] abstractKind;
+	// The transport table id behind each transport node, see transportId(int).
+	private int[] transport;
 	private int size;
 
 	public NodeGraph(int initialCapacity)
@@ -68,6 +71,7 @@ public class NodeGraph
 		differentialCost = new int[capacity];
 		flags = new byte[capacity];
 		abstractKind = new byte[capacity];
+		transport = new int[capacity];
 	}
 
 	public int size()
@@ -91,13 +95,15 @@ public class NodeGraph
 		differentialCost = Arrays.copyOf(differentialCost, newCapacity);
 		flags = Arrays.copyOf(flags, newCapacity);
 		abstractKind = Arrays.copyOf(abstractKind, newCapacity);
+		transport = Arrays.copyOf(transport, newCapacity);
 	}
 
-	private int append(int packed, int prev, int nodeCost, int diffCost, byte flagBits, byte kind)
+	private int append(int packed, int prev, int nodeCost, int diffCost, byte flagBits, byte kind, int transportId)
 	{
 		ensureCapacity();
 		final int id = size;
 		packedPosition[id] = packed;
+		transport[id] = transportId;
 		previous[id] = prev;
 		cost[id] = nodeCost;
 		differentialCost[id] = diffCost;
@@ -117,7 +123,7 @@ public class NodeGraph
 	 */
 	public int createStart(int packedPosition)
 	{
-		return append(packedPosition, NO_NODE, 0, 0, (byte) 0, (byte) 0);
+		return append(packedPosition, NO_NODE, 0, 0, (byte) 0, (byte) 0, NO_TRANSPORT);
 	}
 
 	/**
@@ -131,14 +137,16 @@ public class NodeGraph
 			? WorldPointUtil.distanceBetween(this.packedPosition[previous], packedPosition)
 			: 0;
 		final byte flagBits = bankVisited ? FLAG_BANK_VISITED : 0;
-		return append(packedPosition, previous, costOf(previous) + travelTime, 0, flagBits, (byte) 0);
+		return append(packedPosition, previous, costOf(previous) + travelTime, 0, flagBits, (byte) 0, NO_TRANSPORT);
 	}
 
 	/**
 	 * A transport destination tile. Cost is the previous cost plus the transport's travel time and
 	 * any additional cost; there is no walking-distance term (mirrors the old {@code TransportNode}).
+	 *
+	 * @param transportId see {@link #transportId(int)}
 	 */
-	public int createTransport(int packedPosition, int previous, int travelTime, int additionalCost,
+	public int createTransport(int packedPosition, int previous, int transportId, int travelTime, int additionalCost,
 		boolean bankVisited, boolean delayedVisit, int differentialCost)
 	{
 		byte flagBits = FLAG_TRANSPORT;
@@ -151,7 +159,7 @@ public class NodeGraph
 			flagBits |= FLAG_DELAYED_VISIT;
 		}
 		return append(packedPosition, previous, costOf(previous) + travelTime + additionalCost,
-			differentialCost, flagBits, (byte) 0);
+			differentialCost, flagBits, (byte) 0, transportId);
 	}
 
 	/**
@@ -166,7 +174,7 @@ public class NodeGraph
 			flagBits |= FLAG_BANK_VISITED;
 		}
 		return append(WorldPointUtil.UNDEFINED, previous, costOf(previous), 0, flagBits,
-			(byte) abstractKind.ordinal());
+			(byte) abstractKind.ordinal(), NO_TRANSPORT);
 	}
 
 	public int packedPosition(int id)
@@ -222,6 +230,16 @@ public class NodeGraph
 		return (flags[id] & FLAG_DELAYED_VISIT) != 0;
 	}
 
+	/**
+	 * The transport table id of the transport that produced a transport node: the row itself, or
+	 * for a permutation network the destination row the hub led to. {@link #NO_TRANSPORT} for every
+	 * other node.
+	 */
+	public int transportId(int id)
+	{
+		return transport[id];
+	}
+
 	public AbstractNodeKind abstractKind(int id)
 	{
 		return ABSTRACT_KINDS[abstractKind[id]];
@@ -236,13 +254,28 @@ public class NodeGraph
 	 * or one-frame-stale result rather than throwing.
 	 */
 	public List<PathStep> getPathSteps(int id)
+	{
+		return getPackedPath(id, PackedPath.EMPTY);
+	}
+
+	/**
+	 * Same as {@link #getPathSteps(int)}, but stops reading the steps from the graph where the chain
+	 * reaches a node of the {@code previousPath} of this graph at the same step, and copies the
+	 * steps before it from that path with array copies, along with the steps it has made.
+	 * <p>
+	 * This is still O(path length): the chain is counted in full to size the arrays, and the new
+	 * path has arrays of its own. What it saves is reading the positions, flags and transports of
+	 * the shared steps from the graph, and making their {@link PathStep} objects again.
+	 */
+	public PackedPath getPackedPath(int id, PackedPath previousPath)
 	{
 		final int[] prev = previous;
 		final int[] packed = packedPosition;
 		final byte[] flg = flags;
-		if (prev == null || packed == null || flg == null || id == NO_NODE)
+		final int[] transportIds = transport;
+		if (prev == null || packed == null || flg == null || transportIds == null || id == NO_NODE)
 		{
-			return new ArrayList<>();
+			return PackedPath.EMPTY;
 		}
 		final int len = prev.length;
 
@@ -257,24 +290,34 @@ public class NodeGraph
 			node = prev[node];
 		}
 
-		final List<PathStep> pathSteps = new ArrayList<>(n);
-		for (int i = 0; i < n; i++)
-		{
-			pathSteps.add(null);
-		}
-
+		final int[] positions = new int[n];
+		final BitSet bankVisited = new BitSet(n);
+		final int[] stepTransportIds = new int[n];
+		final int[] nodes = new int[n];
+		final PathStep[] steps = new PathStep[n];
+		final int[] previousNodes = previousPath.getNodes();
 		node = id;
 		int i = n;
 		while (node != NO_NODE && node < len && i > 0)
 		{
 			if ((flg[node] & FLAG_ABSTRACT) == 0)
 			{
-				pathSteps.set(--i, new PathStep(packed[node], (flg[node] & FLAG_BANK_VISITED) != 0));
+				--i;
+				// A node has one chain to the start, so the steps up to here are those of the previous path.
+				if (previousNodes != null && i < previousNodes.length && previousNodes[i] == node)
+				{
+					previousPath.copyPrefix(i + 1, positions, bankVisited, stepTransportIds, nodes, steps);
+					break;
+				}
+				positions[i] = packed[node];
+				bankVisited.set(i, (flg[node] & FLAG_BANK_VISITED) != 0);
+				stepTransportIds[i] = node < transportIds.length ? transportIds[node] : NO_TRANSPORT;
+				nodes[i] = node;
 			}
 			node = prev[node];
 		}
 
-		return pathSteps;
+		return new PackedPath(positions, bankVisited, stepTransportIds, null, nodes, steps);
 	}
 
 	/**
@@ -315,6 +358,7 @@ public class NodeGraph
 		differentialCost = null;
 		flags = null;
 		abstractKind = null;
+		transport = null;
 		size = 0;
 	}
 }
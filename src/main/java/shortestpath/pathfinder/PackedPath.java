@@ -0,0 +1,150 @@
+package shortestpath.pathfinder;
+
+import java.util.AbstractList;
+import java.util.BitSet;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import shortestpath.transport.Transport;
+
+/**
+ * An immutable path, stored as the packed positions of its steps, the steps reached after a bank
+ * visit as set bits and the transport ids of the steps, instead of a {@link PathStep} per step
+ * (issue #491). As a list, each step is only made into a {@link PathStep} the first time it is
+ * read, and the same object is returned from then on.
+ * <p>
+ * Every path has its own {@link #getVersion() version}, so the render thread can keep whatever it
+ * derives from the path a search returns until the version changes. While a search runs, each
+ * better path copies the steps it shares with the previous one, including the steps already made,
+ * instead of reading them from the graph again, see {@link NodeGraph#getPackedPath(int, PackedPath)}.
+ */
+public final class PackedPath extends AbstractList<PathStep> implements RandomAccess
+{
+	private static final AtomicInteger VERSIONS = new AtomicInteger();
+
+	public static final PackedPath EMPTY = new PackedPath(new int[0], new BitSet(), new int[0], null, null, new PathStep[0]);
+
+	private final int version;
+	private final int[] positions;
+	private final BitSet bankVisited;
+	private final int[] transportIds;
+	// The usable transports of each step, once the search has finished, with null for walked
+	// steps; null while it runs.
+	private final Set<Transport>[] transports;
+	// The graph node of each step, only while the search runs; see NodeGraph.getPackedPath.
+	private final int[] nodes;
+	// Filled in as the steps are read; racing readers at worst make the same step twice.
+	private final PathStep[] steps;
+
+	PackedPath(int[] positions, BitSet bankVisited, int[] transportIds, Set<Transport>[] transports, int[] nodes,
+		PathStep[] steps)
+	{
+		this.version = VERSIONS.incrementAndGet();
+		this.positions = positions;
+		this.bankVisited = bankVisited;
+		this.transportIds = transportIds;
+		this.transports = transports;
+		this.nodes = nodes;
+		this.steps = steps;
+	}
+
+	/**
+	 * Differs from the version of every other path.
+	 */
+	public int getVersion()
+	{
+		return version;
+	}
+
+	@Override
+	public int size()
+	{
+		return positions.length;
+	}
+
+	@Override
+	public PathStep get(int index)
+	{
+		PathStep step = steps[index];
+		if (step == null)
+		{
+			Set<Transport> stepTransports = null;
+			if (transports != null)
+			{
+				stepTransports = transports[index] == null ? Set.of() : transports[index];
+			}
+			step = new PathStep(positions[index], bankVisited.get(index), transportIds[index], stepTransports);
+			steps[index] = step;
+		}
+		return step;
+	}
+
+	/**
+	 * Same as {@code get(index).getPackedPosition()}, without making the step.
+	 */
+	public int getPackedPosition(int index)
+	{
+		return positions[index];
+	}
+
+	/**
+	 * Same as {@code get(index).isBankVisited()}, without making the step.
+	 */
+	public boolean isBankVisited(int index)
+	{
+		return bankVisited.get(index);
+	}
+
+	/**
+	 * Same as {@code get(index).getTransportId()}, without making the step.
+	 */
+	public int getTransportId(int index)
+	{
+		return transportIds[index];
+	}
+
+	/**
+	 * Whether the steps carry the transports resolved when the search finished, see
+	 * {@link PathStep#isAnnotated()}.
+	 */
+	public boolean isAnnotated()
+	{
+		return transports != null;
+	}
+
+	int[] getNodes()
+	{
+		return nodes;
+	}
+
+	/**
+	 * Copies the first {@code length} steps, with the steps made so far, into the arrays of a path
+	 * that shares them.
+	 */
+	void copyPrefix(int length, int[] positions, BitSet bankVisited, int[] transportIds, int[] nodes, PathStep[] steps)
+	{
+		System.arraycopy(this.positions, 0, positions, 0, length);
+		bankVisited.or(this.bankVisited.get(0, length));
+		System.arraycopy(this.transportIds, 0, transportIds, 0, length);
+		System.arraycopy(this.nodes, 0, nodes, 0, length);
+		System.arraycopy(this.steps, 0, steps, 0, length);
+	}
+
+	/**
+	 * This path annotated with the usable transports of each step, null for walked steps, and
+	 * without the graph nodes.
+	 */
+	PackedPath withTransports(Set<Transport>[] transports)
+	{
+		return new PackedPath(positions, bankVisited, transportIds, transports, null, new PathStep[positions.length]);
+	}
+
+	/**
+	 * This path without the steps made so far and without the graph nodes, to be kept or shared
+	 * without keeping the steps of whoever reads it.
+	 */
+	PackedPath detached()
+	{
+		return new PackedPath(positions, bankVisited, transportIds, transports, null, new PathStep[positions.length]);
+	}
+}
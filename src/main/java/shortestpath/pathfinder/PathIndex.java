@@ -0,0 +1,232 @@
+package shortestpath.pathfinder;
+
+import java.util.Collection;
+import java.util.List;
+import shortestpath.PrimitiveIntHashMap;
+import shortestpath.PrimitiveIntList;
+import shortestpath.WorldPointUtil;
+
+/**
+ * The tiles of a path, or any other set of points, bucketed by plane and 8x8 tile cell. The points
+ * near a location are found by looking at the few cells around it instead of measuring the
+ * distance to every point.
+ * <p>
+ * Distances are the same as {@link WorldPointUtil#distanceBetween(int, int)}: Chebyshev on the
+ * same plane, and never near on another plane.
+ */
+public final class PathIndex
+{
+	public static final PathIndex EMPTY = new PathIndex(new int[0]);
+
+	private static final int CELL_SHIFT = 3;
+	private static final int CELL_SIZE = 1 << CELL_SHIFT;
+
+	private final int[] points;
+	// Indices into points, by cell key.
+	private final PrimitiveIntHashMap<int[]> cells;
+	private final int minCellX;
+	private final int minCellY;
+	private final int maxCellX;
+	private final int maxCellY;
+
+	public PathIndex(int[] points)
+	{
+		this.points = points;
+		PrimitiveIntHashMap<PrimitiveIntList> building = new PrimitiveIntHashMap<>(Math.max(1, points.length / CELL_SIZE));
+		int minX = Integer.MAX_VALUE;
+		int minY = Integer.MAX_VALUE;
+		int maxX = Integer.MIN_VALUE;
+		int maxY = Integer.MIN_VALUE;
+		for (int i = 0; i < points.length; i++)
+		{
+			int cellX = WorldPointUtil.unpackWorldX(points[i]) >> CELL_SHIFT;
+			int cellY = WorldPointUtil.unpackWorldY(points[i]) >> CELL_SHIFT;
+			int key = cellKey(cellX, cellY, WorldPointUtil.unpackWorldPlane(points[i]));
+			PrimitiveIntList indices = building.get(key);
+			if (indices == null)
+			{
+				indices = new PrimitiveIntList(CELL_SIZE);
+				building.put(key, indices);
+			}
+			indices.add(i);
+			minX = Math.min(minX, cellX);
+			minY = Math.min(minY, cellY);
+			maxX = Math.max(maxX, cellX);
+			maxY = Math.max(maxY, cellY);
+		}
+
+		cells = new PrimitiveIntHashMap<>(Math.max(1, building.size()));
+		for (int key : building.keys())
+		{
+			cells.put(key, building.get(key).toArray());
+		}
+		minCellX = minX;
+		minCellY = minY;
+		maxCellX = maxX;
+		maxCellY = maxY;
+	}
+
+	public static PathIndex ofPath(List<PathStep> path)
+	{
+		int[] points = new int[path.size()];
+		for (int i = 0; i < points.length; i++)
+		{
+			points[i] = path.get(i).getPackedPosition();
+		}
+		return new PathIndex(points);
+	}
+
+	public static PathIndex ofPath(PackedPath path)
+	{
+		int[] points = new int[path.size()];
+		for (int i = 0; i < points.length; i++)
+		{
+			points[i] = path.getPackedPosition(i);
+		}
+		return new PathIndex(points);
+	}
+
+	public static PathIndex ofPoints(Collection<Integer> points)
+	{
+		return new PathIndex(points.stream().mapToInt(Integer::intValue).toArray());
+	}
+
+	private static int cellKey(int cellX, int cellY, int plane)
+	{
+		return WorldPointUtil.packWorldPoint(cellX, cellY, plane);
+	}
+
+	public int size()
+	{
+		return points.length;
+	}
+
+	/**
+	 * Whether any point is closer than {@code distance} to the location.
+	 */
+	public boolean isWithin(int location, int distance)
+	{
+		if (distance <= 0 || points.length == 0)
+		{
+			return false;
+		}
+		final int x = WorldPointUtil.unpackWorldX(location);
+		final int y = WorldPointUtil.unpackWorldY(location);
+		final int plane = WorldPointUtil.unpackWorldPlane(location);
+		final int fromX = Math.max(minCellX, (x - distance + 1) >> CELL_SHIFT);
+		final int toX = Math.min(maxCellX, (x + distance - 1) >> CELL_SHIFT);
+		final int fromY = Math.max(minCellY, (y - distance + 1) >> CELL_SHIFT);
+		final int toY = Math.min(maxCellY, (y + distance - 1) >> CELL_SHIFT);
+		if (fromX > toX || fromY > toY)
+		{
+			return false;
+		}
+
+		// A distance that spans more cells than there are is answered by going through the cells.
+		if ((long) (toX - fromX + 1) * (toY - fromY + 1) > cells.size())
+		{
+			for (int key : cells.keys())
+			{
+				if (anyWithin(cells.get(key), location, distance))
+				{
+					return true;
+				}
+			}
+			return false;
+		}
+
+		for (int cellX = fromX; cellX <= toX; cellX++)
+		{
+			for (int cellY = fromY; cellY <= toY; cellY++)
+			{
+				int[] indices = cells.get(cellKey(cellX, cellY, plane));
+				if (indices != null && anyWithin(indices, location, distance))
+				{
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private boolean anyWithin(int[] indices, int location, int distance)
+	{
+		for (int index : indices)
+		{
+			if (WorldPointUtil.distanceBetween(location, points[index]) < distance)
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * The index of the point closest to the location, the lowest one if several are as close, or
+	 * -1 if no point is on the location's plane.
+	 */
+	public int closestIndex(int location)
+	{
+		if (points.length == 0)
+		{
+			return -1;
+		}
+		final int cellX = WorldPointUtil.unpackWorldX(location) >> CELL_SHIFT;
+		final int cellY = WorldPointUtil.unpackWorldY(location) >> CELL_SHIFT;
+		final int plane = WorldPointUtil.unpackWorldPlane(location);
+		final int maxRing = Math.max(Math.max(cellX - minCellX, maxCellX - cellX), Math.max(cellY - minCellY, maxCellY - cellY));
+
+		int closest = -1;
+		int closestDistance = Integer.MAX_VALUE;
+		int lookups = 0;
+		// The cells of ring r are r cells away, so none of their points is closer than
+		// (r - 1) * CELL_SIZE + 1 tiles: after ring r nothing further out can beat r * CELL_SIZE.
+		for (int ring = 0; ring <= maxRing && closestDistance > (ring - 1) * CELL_SIZE; ring++)
+		{
+			for (int dx = -ring; dx <= ring; dx++)
+			{
+				// Only the border of the ring; the inside was covered by the previous rings.
+				int step = (dx == -ring || dx == ring) ? 1 : Math.max(1, 2 * ring);
+				for (int dy = -ring; dy <= ring; dy += step)
+				{
+					// Far from the points it is cheaper to measure them all than to visit the empty cells.
+					if (++lookups > cells.size())
+					{
+						return closestIndexOfAll(location);
+					}
+					int[] indices = cells.get(cellKey(cellX + dx, cellY + dy, plane));
+					if (indices == null)
+					{
+						continue;
+					}
+					for (int index : indices)
+					{
+						int distance = WorldPointUtil.distanceBetween(location, points[index]);
+						if (distance < closestDistance || (distance == closestDistance && index < closest))
+						{
+							closest = index;
+							closestDistance = distance;
+						}
+					}
+				}
+			}
+		}
+		return closest;
+	}
+
+	private int closestIndexOfAll(int location)
+	{
+		int closest = -1;
+		int closestDistance = Integer.MAX_VALUE;
+		for (int i = 0; i < points.length; i++)
+		{
+			int distance = WorldPointUtil.distanceBetween(location, points[i]);
+			if (distance < closestDistance)
+			{
+				closest = i;
+				closestDistance = distance;
+			}
+		}
+		return closest;
+	}
+}
@@ -1,16 +1,42 @@
 package shortestpath.pathfinder;
 
+import java.util.Set;
 import lombok.Getter;
+import shortestpath.transport.Transport;
 
 @Getter
 public final class PathStep
 {
 	private final int packedPosition;
 	private final boolean bankVisited;
+	/**
+	 * The transport table id of the transport taken from the previous step, see
+	 * {@link NodeGraph#transportId(int)}, or {@link NodeGraph#NO_TRANSPORT} if the step was walked to.
+	 */
+	private final int transportId;
+	/**
+	 * Whether the step belongs to a finished path, whose transports were resolved when the search
+	 * finished.
+	 */
+	private final boolean annotated;
+	/**
+	 * Every usable transport from the previous step to this one, including the one the search took,
+	 * resolved once when the search finishes. Empty for steps that were walked to, and null for the
+	 * steps of a path that is still being searched.
+	 */
+	private final Set<Transport> transports;
 
 	public PathStep(int packedPosition, boolean bankVisited)
+	{
+		this(packedPosition, bankVisited, NodeGraph.NO_TRANSPORT, null);
+	}
+
+	PathStep(int packedPosition, boolean bankVisited, int transportId, Set<Transport> transports)
 	{
 		this.packedPosition = packedPosition;
 		this.bankVisited = bankVisited;
+		this.transportId = transportId;
+		this.annotated = transports != null;
+		this.transports = transports;
 	}
 }
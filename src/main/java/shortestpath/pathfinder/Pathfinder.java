@@ -1,12 +1,16 @@
 package shortestpath.pathfinder;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import lombok.Getter;
 import shortestpath.PrimitiveIntList;
 import shortestpath.WorldPointUtil;
 import shortestpath.leagues.LeagueModeState;
+import shortestpath.transport.Transport;
 
 public class Pathfinder implements Runnable
 {
@@ -15,36 +19,48 @@ public class Pathfinder implements Runnable
 	private final int start;
 	@Getter
 	private final Set<Integer> targets;
+	@Getter
+	private final PathIndex targetIndex;
 	private final PathfinderConfig config;
 	private final CollisionMap map;
 	private final boolean targetInWilderness;
-	private final boolean targetInBlockedRegion;
+	// Search settings of this request only, applied to the pinned snapshot.
+	private final Map<String, Object> overrides;
+	// The snapshot of the refresh this search was submitted after, pinned when it starts; see SearchSnapshot.
+	private final CompletableFuture<SearchSnapshot> pendingSnapshot;
+	private SearchSnapshot snapshot;
+	private boolean targetInBlockedRegion;
 	private final Runnable completionCallback;
 	// Nodes are stored structure-of-arrays style: each node is an int id into the graph, instead of
 	// an object per explored tile. This keeps a whole search to a handful of arrays (issue #491).
-	private final NodeGraph graph = new NodeGraph(1 << 14);
-	// Capacities should be enough to store all nodes without requiring the queue to grow
-	// They were found by checking the max queue size
-	private final IntDeque boundary = new IntDeque(4096);
-	private final IntMinHeap pending = new IntMinHeap(graph, 256);
+	// The search structures are null for a route answered from the RouteCache.
+	private final NodeGraph graph;
+	private final IntDeque boundary;
+	private final IntMinHeap pending;
 	private final VisitedTiles visited;
+	// The neighbours of the node being expanded, filled by CollisionMap.getNeighbors.
+	private final PrimitiveIntList neighbors;
 	@Getter
 	private volatile boolean done = false;
 	private volatile boolean cancelled = false;
 	// Read by the render thread during the search to draw the partial path; written by the worker.
 	private volatile int bestLastNode = NodeGraph.NO_NODE;
 	// The path the render thread builds progressively while the search runs.
-	private List<PathStep> pathSteps = List.of();
+	private PackedPath pathSteps = PackedPath.EMPTY;
 	private boolean pathNeedsUpdate = false;
 	// Built once on the worker thread when the search finishes, then served to the render thread so
 	// it never walks the node chain (which is released) after the search is done.
-	private volatile List<PathStep> finalPath = null;
+	private volatile PackedPath finalPath = null;
+	// Indexes finalPath; built on the worker thread with it.
+	private PathIndex pathIndex = PathIndex.EMPTY;
 	private volatile int closestReachedPoint = WorldPointUtil.UNDEFINED;
 	private int bestRemainingDistance = Integer.MAX_VALUE;
 	private int bestTravelledDistance = Integer.MAX_VALUE;
 	private int bestX = Integer.MAX_VALUE;
 	private int bestY = Integer.MAX_VALUE;
 	private int reachedTarget = WorldPointUtil.UNDEFINED;
+	private int cost;
+	private long configFingerprint;
 	private PathTerminationReason terminationReason;
 	/**
 	 * Teleportation transports are updated when this changes.
@@ -56,20 +72,62 @@ public class Pathfinder implements Runnable
 	 */
 	private int wildernessLevel;
 
-	public Pathfinder(PathfinderConfig config, int start, Set<Integer> targets, Runnable completionCallback)
+	public Pathfinder(PathfinderConfig config, int start, Set<Integer> targets, Map<String, Object> overrides,
+		Runnable completionCallback)
 	{
 		stats = new PathfinderStats();
 		this.config = config;
 		this.map = config.getMap();
 		this.start = start;
 		this.targets = targets;
+		this.overrides = overrides;
 		this.completionCallback = completionCallback;
+		pendingSnapshot = config.getPendingSearchSnapshot();
+		targetIndex = PathIndex.ofPoints(targets);
+		graph = new NodeGraph(1 << 14);
+		// Capacities should be enough to store all nodes without requiring the queue to grow
+		// They were found by checking the max queue size
+		boundary = new IntDeque(4096);
+		pending = new IntMinHeap(graph, 256);
 		visited = new VisitedTiles(map);
+		neighbors = new PrimitiveIntList(16);
 		targetInWilderness = WildernessChecker.isInWilderness(targets);
-		targetInBlockedRegion = anyInBlockedRegion(config.getLeagueModeState(), targets);
 		wildernessLevel = 31;
 	}
 
+	/**
+	 * A search that is already done with a route from the {@link RouteCache}. It allocates none
+	 * of the search structures and must not be run.
+	 */
+	Pathfinder(int start, Set<Integer> targets, long configFingerprint, RouteCache.Route route)
+	{
+		stats = new PathfinderStats();
+		config = null;
+		map = null;
+		this.start = start;
+		this.targets = targets;
+		targetIndex = PathIndex.ofPoints(targets);
+		overrides = Map.of();
+		completionCallback = null;
+		pendingSnapshot = null;
+		graph = null;
+		boundary = null;
+		pending = null;
+		visited = null;
+		neighbors = null;
+		targetInWilderness = false;
+		finalPath = route.getPath();
+		pathIndex = PathIndex.ofPath(finalPath);
+		cost = route.getCost();
+		reachedTarget = route.getReachedTarget();
+		closestReachedPoint = route.getClosestReachedPoint();
+		terminationReason = route.getTerminationReason();
+		this.configFingerprint = configFingerprint;
+		stats.start();
+		stats.end();
+		done = true;
+	}
+
 	private static boolean anyInBlockedRegion(LeagueModeState league, Set<Integer> packed)
 	{
 		if (!league.isSeasonal() || packed == null || packed.isEmpty())
@@ -86,11 +144,78 @@ public class Pathfinder implements Runnable
 		return false;
 	}
 
+	public Pathfinder(PathfinderConfig config, int start, Set<Integer> targets, Runnable completionCallback)
+	{
+		this(config, start, targets, Map.of(), completionCallback);
+	}
+
 	public Pathfinder(PathfinderConfig config, int start, Set<Integer> targets)
 	{
 		this(config, start, targets, null);
 	}
 
+	/**
+	 * Resolves every usable transport of each transport step of the finished path once, including
+	 * the one the search took, so the display reads them from the step instead of deriving
+	 * candidates from the positions of adjacent steps on every frame.
+	 */
+	private PackedPath annotate(PackedPath path)
+	{
+		@SuppressWarnings("unchecked")
+		Set<Transport>[] transports = (Set<Transport>[]) new Set<?>[path.size()];
+		for (int i = 1; i < path.size(); i++)
+		{
+			if (path.getTransportId(i) == NodeGraph.NO_TRANSPORT)
+			{
+				continue;
+			}
+			int origin = path.getPackedPosition(i - 1);
+			// The transport was taken in the bank state of its node, see CollisionMap.addTransport.
+			TransportAvailability availability = snapshot.getTransportAvailability(path.isBankVisited(i));
+			Set<Transport> usable = availability.getTransportsBetween(origin, path.getPackedPosition(i));
+			Transport taken = availability.resolveTransport(origin, path.getTransportId(i));
+			if (taken != null)
+			{
+				usable.add(taken);
+			}
+			transports[i] = Collections.unmodifiableSet(usable);
+		}
+		return path.withTransports(transports);
+	}
+
+	/**
+	 * The route of the finished search for the {@link RouteCache}, or null if it was cancelled or
+	 * stopped at the calculation cutoff, where the path found depends on timing.
+	 */
+	RouteCache.Route getRoute()
+	{
+		if (!done || terminationReason == PathTerminationReason.CUTOFF_REACHED)
+		{
+			return null;
+		}
+		return new RouteCache.Route(finalPath, cost, reachedTarget, closestReachedPoint, terminationReason,
+			map.getCollisionDelta());
+	}
+
+	/**
+	 * The {@link RouteCache#fingerprint(long, int) fingerprint} of the snapshot and collision the
+	 * search ran with, once it has started. Searches for the same start and targets with the same
+	 * fingerprint find the same path.
+	 */
+	public long getConfigFingerprint()
+	{
+		return configFingerprint;
+	}
+
+	/**
+	 * The {@link SearchSnapshot#getFingerprint() fingerprint} of the snapshot the search ran with,
+	 * once it has started.
+	 */
+	long getSnapshotFingerprint()
+	{
+		return snapshot.getFingerprint();
+	}
+
 	public void cancel()
 	{
 		cancelled = true;
@@ -107,19 +232,23 @@ public class Pathfinder implements Runnable
 		return null;
 	}
 
-	public List<PathStep> getPath()
+	/**
+	 * The best path so far, the same instance until a better one is found, see
+	 * {@link PackedPath#getVersion()}.
+	 */
+	public PackedPath getPath()
 	{
 		int lastNode = bestLastNode; // For thread safety, read bestLastNode once
 		if (lastNode == NodeGraph.NO_NODE)
 		{
-			List<PathStep> finalised = finalPath;
+			PackedPath finalised = finalPath;
 			return finalised != null ? finalised : pathSteps;
 		}
 
 		// Once the search is finished the node graph is released, so serve the pre-built snapshot.
 		if (done)
 		{
-			List<PathStep> finalised = finalPath;
+			PackedPath finalised = finalPath;
 			if (finalised != null)
 			{
 				return finalised;
@@ -128,7 +257,8 @@ public class Pathfinder implements Runnable
 
 		if (pathNeedsUpdate)
 		{
-			List<PathStep> walked = graph.getPathSteps(lastNode);
+			// Only the steps after those shared with the current path are read from the graph
+			PackedPath walked = graph.getPackedPath(lastNode, pathSteps);
 			// An empty result means the graph was released mid-walk; keep the last good path.
 			if (!walked.isEmpty())
 			{
@@ -140,6 +270,14 @@ public class Pathfinder implements Runnable
 		return pathSteps;
 	}
 
+	/**
+	 * The index of the final path, or null while the search runs.
+	 */
+	public PathIndex getPathIndex()
+	{
+		return done ? pathIndex : null;
+	}
+
 	public PathfinderResult getResult()
 	{
 		PathfinderStats currentStats = getStats();
@@ -157,6 +295,7 @@ public class Pathfinder implements Runnable
 			target,
 			reached,
 			currentPath,
+			cost,
 			closestReachedPoint,
 			currentStats.getNodesChecked(),
 			currentStats.getTransportsChecked(),
@@ -167,11 +306,11 @@ public class Pathfinder implements Runnable
 
 	private void addNeighbors(int node, boolean nodeIsTile, int nodePacked)
 	{
-		PrimitiveIntList nodes = map.getNeighbors(node, visited, config, wildernessLevel, targetInWilderness, graph);
-		final int count = nodes.size();
+		map.getNeighbors(node, visited, snapshot, wildernessLevel, targetInWilderness, graph, neighbors);
+		final int count = neighbors.size();
 		for (int i = 0; i < count; i++)
 		{
-			int neighbor = nodes.get(i);
+			int neighbor = neighbors.get(i);
 			// Each graph.xxx(id) re-indexes a backing array, so read each neighbour field once and
 			// reuse the loop-invariant node fields passed in (the JIT cached these for free when nodes
 			// were objects, but not when they are int ids into structure-of-arrays storage).
@@ -179,11 +318,11 @@ public class Pathfinder implements Runnable
 			if (nodeIsTile && neighborIsTile)
 			{
 				final int neighborPacked = graph.packedPosition(neighbor);
-				if (config.avoidWilderness(nodePacked, neighborPacked, targetInWilderness))
+				if (snapshot.avoidWilderness(nodePacked, neighborPacked, targetInWilderness))
 				{
 					continue;
 				}
-				if (config.avoidBlockedRegion(nodePacked, neighborPacked, targetInBlockedRegion))
+				if (snapshot.avoidBlockedRegion(nodePacked, neighborPacked, targetInBlockedRegion))
 				{
 					continue;
 				}
@@ -274,10 +413,15 @@ public class Pathfinder implements Runnable
 	@Override
 	public void run()
 	{
+		// Use the transports of the refresh this search was submitted after, not the previous ones
+		// and not those of a refresh made while it was queued.
+		snapshot = pendingSnapshot.join().withOverrides(overrides);
+		configFingerprint = RouteCache.fingerprint(snapshot.getFingerprint(), map.getCollisionDelta().getVersion());
+		targetInBlockedRegion = anyInBlockedRegion(snapshot.getLeagueModeState(), targets);
 		stats.start();
 		boundary.addFirst(graph.createStart(start));
 
-		long cutoffDurationMillis = config.getCalculationCutoffMillis();
+		long cutoffDurationMillis = snapshot.getCalculationCutoffMillis();
 		long cutoffTimeMillis = System.currentTimeMillis() + cutoffDurationMillis;
 
 		while (!cancelled && (!boundary.isEmpty() || !pending.isEmpty()))
@@ -359,7 +503,8 @@ public class Pathfinder implements Runnable
 		int lastNode = bestLastNode;
 		if (lastNode != NodeGraph.NO_NODE)
 		{
-			finalPath = graph.getPathSteps(lastNode);
+			finalPath = annotate(graph.getPackedPath(lastNode, PackedPath.EMPTY));
+			cost = graph.cost(lastNode);
 			closestReachedPoint = graph.getClosestTilePosition(lastNode);
 		}
 		else
@@ -367,6 +512,7 @@ public class Pathfinder implements Runnable
 			finalPath = pathSteps;
 			closestReachedPoint = start;
 		}
+		pathIndex = PathIndex.ofPath(finalPath);
 
 		done = !cancelled;
 
@@ -1,34 +1,45 @@
 package shortestpath.pathfinder;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 
 import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.Client;
+import net.runelite.api.CollisionData;
 import net.runelite.api.Constants;
 import net.runelite.api.EnumComposition;
 import net.runelite.api.EnumID;
 import net.runelite.api.GameState;
-import net.runelite.api.Item;
 import net.runelite.api.ItemContainer;
 import net.runelite.api.Quest;
 import net.runelite.api.QuestState;
 import net.runelite.api.Skill;
+import net.runelite.api.WorldView;
 import net.runelite.api.gameval.InventoryID;
 import net.runelite.api.gameval.ItemID;
-import net.runelite.api.gameval.VarPlayerID;
 import net.runelite.api.gameval.VarbitID;
 import shortestpath.Destination;
 import shortestpath.DestinationRequirements;
 import shortestpath.ItemVariations;
 import shortestpath.JewelleryBoxTier;
 import shortestpath.PrimitiveIntHashMap;
+import shortestpath.PrimitiveIntList;
 import shortestpath.ShortestPathConfig;
 import shortestpath.ShortestPathPlugin;
 import shortestpath.TeleportationItem;
@@ -36,14 +47,17 @@ import shortestpath.WorldPointUtil;
 import shortestpath.leagues.LeagueModeState;
 import shortestpath.leagues.LeagueRegion;
 import shortestpath.leagues.LeagueRegionChecker;
+import shortestpath.transport.PermutationNetwork;
 import shortestpath.transport.Transport;
 import shortestpath.transport.TransportLoader;
+import shortestpath.transport.TransportSnapshot;
+import shortestpath.transport.TransportTable;
 import shortestpath.transport.TransportType;
 import shortestpath.transport.TransportTypeConfig;
 import shortestpath.transport.parser.VarRequirement;
-import shortestpath.transport.requirement.ItemRequirement;
 import shortestpath.transport.requirement.TransportItems;
 
+@Slf4j
 @SuppressWarnings("SameParameterValue")
 public class PathfinderConfig
 {
@@ -63,37 +77,72 @@ public class PathfinderConfig
 		};
 	public static final Set<Integer> CURRENCIES = Set.of(
 		ItemID.COINS, ItemID.VILLAGE_TRADE_STICKS, ItemID.ECTOTOKEN, ItemID.WARGUILD_TOKENS);
-	private static final TransportItems DRAMEN_STAFF = new TransportItems(
+	private static final TransportType[] TRANSPORT_TYPES = TransportType.values();
+	private static final int[] RUNE_POUCH_IDS = RUNE_POUCHES.stream().mapToInt(Integer::intValue).toArray();
+	private static final CompiledItems DRAMEN_STAFF = new CompiledItems(new TransportItems(
 		new int[][]{null},
 		new int[][]{ItemVariations.DRAMEN_STAFF.getIds()},
 		new int[][]{null},
-		new int[]{1});
+		new int[]{1}));
 
 	private final SplitFlagMap mapData;
-	private final ThreadLocal<CollisionMap> map;
+	/**
+	 * The collision map with the live collision of the loaded scene. Replaced, never mutated,
+	 * whenever the scene changes; each search pins the map it started with.
+	 */
+	private volatile CollisionMap map;
+	private int[][][] lastSceneFlags;
+	private int lastSceneBaseX;
+	private int lastSceneBaseY;
+	// Never reused, so a collision version identifies the collision a search ran on; 0 is the static map.
+	private int lastCollisionVersion;
 	/**
 	 * All transports by origin. The WorldPointUtil.UNDEFINED key is used for transports centered on the player.
 	 */
-	// Flat list of every loaded transport. refreshTransports only ever iterates these (the origin
-	// is re-derived from each transport), so the per-origin Set/HashMap/Integer-key map the loader
+	// Every loaded transport, plus the destination rows of the permutation networks, as a columnar
+	// table indexed by transport id. refreshTransports only ever iterates these (the origin is
+	// re-derived from each transport), so the per-origin Set/HashMap/Integer-key map the loader
 	// produces is flattened here and not retained (issue #491).
-	private final Transport[] allTransports;
+	private final TransportTable transportTable;
 	private final Map<String, Set<Integer>> allDestinations;
 	private final Map<String, Set<Integer>> filteredDestinations;
 	/**
 	 * Per packed tile; only bank.tsv rows with Skills/Quests/Varbits/VarPlayers.
 	 */
 	private final Map<Integer, DestinationRequirements> bankRequirements;
-	private final Map<Integer, Integer> itemsAndQuantities = new HashMap<>(28 + 11 + 500);
+	/**
+	 * The item requirements of each transport id, compiled once, or null if it has none.
+	 */
+	private final CompiledItems[] itemRequirements;
+	/**
+	 * Which transports depend on which game state, and the ids to re-evaluate on the next refresh.
+	 */
+	private final TransportDependencies dependencies;
+	// The fields below are only used by the transport evaluation, which runs on one thread at a time.
+	/**
+	 * The state being evaluated, then the last one evaluated, which the next is compared against.
+	 */
+	private TransportState evaluating;
+	/**
+	 * Per transport id, the ItemSnapshot states it passes its checks in, and the states it is part
+	 * of the availability in. Null until the first evaluation.
+	 */
+	private byte[] verdicts;
+	private byte[] available;
+	// Per state (without, with bank) and network, the usable destination rows.
+	private int[][][] hubs;
+	// The availability without and with bank the last evaluation produced.
+	private TransportAvailability[] evaluated;
 	private final List<Integer> filteredTargets = new ArrayList<>(4);
 	private final Client client;
 	private final ShortestPathConfig config;
 	// Centralized transport type enable/disable config
 	private final TransportTypeConfig transportTypeConfig;
-	private final int[] boostedSkillLevelsAndMore = new int[Skill.values().length + 3];
-	private final Map<Quest, QuestState> questStates = new HashMap<>();
-	private final Map<Integer, Integer> varbitValues = new HashMap<>();
-	private final Map<Integer, Integer> varPlayerValues = new HashMap<>();
+	/**
+	 * The quest states, vars and levels the requirements depend on, read once per refresh, starting
+	 * from the unread index.
+	 */
+	private RequirementSnapshot requirements;
 	@Getter
 	private final LeagueModeState leagueModeState = new LeagueModeState();
 	public ItemContainer bank = null;
@@ -103,18 +152,31 @@ public class PathfinderConfig
 	 */
 	private Set<Integer> accessibleBankTiles = Set.of();
 	/**
-	 * Which transports are available for the current user configuration in the
-	 * unbanked/banked state.
-	 * - transportAvailabilityWithoutBank answers the question, which transport can a player take right now?
-	 * - transportAvailabilityWithBank answers the question, which transports can a player take if they visit a bank?
+	 * The search state of the last refresh whose transports have been evaluated, replaced as a whole.
+	 * Its availability answers which transports a player can take right now (without bank), and
+	 * which they can take if they visit a bank (with bank).
+	 */
+	private volatile SearchSnapshot searchSnapshot;
+	/**
+	 * The search snapshot and transport state the last refresh captured, to tell whether the next
+	 * one changes anything; see {@link SearchSnapshot#getVersion()}.
+	 */
+	private SearchSnapshot capturedSnapshot;
+	private TransportState capturedTransports;
+	/**
+	 * Runs the transport evaluation of each refresh off the client thread, in order. Null to
+	 * evaluate on the refreshing thread.
 	 */
-	private TransportAvailability transportAvailabilityWithoutBank;
-	private TransportAvailability transportAvailabilityWithBank;
+	private Executor transportExecutor;
+	/**
+	 * Completes with the snapshot the last refresh published once its transports have been
+	 * evaluated; with null before the first refresh.
+	 */
+	private volatile CompletableFuture<SearchSnapshot> transportRefresh = CompletableFuture.completedFuture(null);
 	/**
 	 * Reference that points to either allDestinations or filteredDestinations
 	 */
 	private Map<String, Set<Integer>> destinations;
-	@Getter
 	private long calculationCutoffMillis;
 	@Getter
 	private boolean avoidWilderness;
@@ -130,23 +192,98 @@ public class PathfinderConfig
 	private int currencyThreshold;
 	@Getter
 	private boolean isOnSailingBoat;
+	/**
+	 * Client thread time spent in the last {@link #refresh()}, for the debug panel.
+	 */
+	@Getter
+	private volatile long refreshNanos;
 
 	public PathfinderConfig(Client client, ShortestPathConfig config)
+	{
+		this(client, config, SplitFlagMap.fromResources(), loadTransports(),
+			Destination.loadAllFromResources(), Destination.loadBankRequirementsFromResources());
+	}
+
+	private PathfinderConfig(Client client, ShortestPathConfig config,
+		SplitFlagMap mapData, Transport[] allTransports,
+		Map<String, Set<Integer>> allDestinations, Map<Integer, DestinationRequirements> bankRequirements)
 	{
 		this.client = client;
 		this.config = config;
 		this.transportTypeConfig = new TransportTypeConfig(config);
-		this.mapData = SplitFlagMap.fromResources();
-		this.map = ThreadLocal.withInitial(() -> new CollisionMap(mapData));
-		Map<Integer, Set<Transport>> loadedTransports = TransportLoader.loadAllFromResources();
-		remapPohDestinations(loadedTransports);
-		this.allTransports = flatten(loadedTransports);
-		this.transportAvailabilityWithoutBank = new TransportAvailability.Builder(allTransports.length).build();
-		this.transportAvailabilityWithBank = new TransportAvailability.Builder(allTransports.length).build();
-		this.allDestinations = Destination.loadAllFromResources();
+		this.mapData = mapData;
+		this.map = new CollisionMap(mapData);
+		this.transportTable = new TransportTable(allTransports);
+		this.searchSnapshot = emptySnapshot(transportTable);
+		this.allDestinations = allDestinations;
 		this.filteredDestinations = filterDestinations(allDestinations);
 		this.destinations = allDestinations;
-		this.bankRequirements = Destination.loadBankRequirementsFromResources();
+		this.bankRequirements = bankRequirements;
+		this.requirements = indexRequirements(transportTable, bankRequirements);
+		this.itemRequirements = compileItemRequirements(transportTable);
+		this.dependencies = indexDependencies(transportTable, itemRequirements);
+	}
+
+	/**
+	 * Loads the collision map, the transports, the destinations and the bank requirements
+	 * concurrently on the given executor. The collision map loads alongside the transport data,
+	 * which is read from the {@link TransportSnapshot} cache when it matches the bundled resources
+	 * and parsed (and cached for the next start) otherwise.
+	 */
+	public static CompletableFuture<PathfinderConfig> loadAsync(Client client, ShortestPathConfig config, Executor executor)
+	{
+		final CompletableFuture<SplitFlagMap> mapData =
+			CompletableFuture.supplyAsync(SplitFlagMap::fromResources, executor);
+		final CompletableFuture<TransportSnapshot> snapshot =
+			CompletableFuture.supplyAsync(() -> loadSnapshot(TransportSnapshot.CACHE_FILE, executor), executor).thenCompose(future -> future);
+
+		return mapData.thenCombine(snapshot, (map, data) -> new PathfinderConfig(client, config,
+			map, data.getTransports(), data.getDestinations(), data.getBankRequirements()));
+	}
+
+	/**
+	 * Reads the snapshot cache file, or parses the resources and writes the file again when it is
+	 * missing, stale or corrupt.
+	 */
+	static CompletableFuture<TransportSnapshot> loadSnapshot(File cacheFile, Executor executor)
+	{
+		// PathfinderConfig remaps and flattens the loaded transports.
+		final byte[] hash = TransportSnapshot.hashResources(PathfinderConfig.class);
+		final TransportSnapshot cached = TransportSnapshot.read(cacheFile, hash);
+		if (cached != null)
+		{
+			log.debug("Loaded {} transports from the snapshot cache", cached.getTransports().length);
+			return CompletableFuture.completedFuture(cached);
+		}
+
+		final CompletableFuture<Transport[]> transports =
+			CompletableFuture.supplyAsync(PathfinderConfig::loadTransports, executor);
+		final CompletableFuture<Map<String, Set<Integer>>> destinations =
+			CompletableFuture.supplyAsync(Destination::loadAllFromResources, executor);
+		final CompletableFuture<Map<Integer, DestinationRequirements>> bankRequirements =
+			CompletableFuture.supplyAsync(Destination::loadBankRequirementsFromResources, executor);
+
+		return CompletableFuture.allOf(transports, destinations, bankRequirements).thenApply(ignored ->
+		{
+			TransportSnapshot parsed = new TransportSnapshot(hash,
+				transports.join(), destinations.join(), bankRequirements.join());
+			try
+			{
+				parsed.write(cacheFile);
+			}
+			catch (IOException e)
+			{
+				log.warn("Failed to write the transport snapshot cache", e);
+			}
+			return parsed;
+		});
+	}
+
+	private static Transport[] loadTransports()
+	{
+		Map<Integer, Set<Transport>> loadedTransports = TransportLoader.loadAllFromResources();
+		remapPohDestinations(loadedTransports);
+		return flatten(loadedTransports);
 	}
 
 	protected PathfinderConfig(Client client, ShortestPathConfig config,
@@ -158,14 +295,78 @@ public class PathfinderConfig
 		this.config = config;
 		this.transportTypeConfig = new TransportTypeConfig(config);
 		this.mapData = mapData;
-		this.map = ThreadLocal.withInitial(() -> new CollisionMap(this.mapData));
-		this.allTransports = flatten(allTransports);
-		this.transportAvailabilityWithoutBank = new TransportAvailability.Builder(this.allTransports.length).build();
-		this.transportAvailabilityWithBank = new TransportAvailability.Builder(this.allTransports.length).build();
+		this.map = new CollisionMap(mapData);
+		this.transportTable = new TransportTable(flatten(allTransports));
+		this.searchSnapshot = emptySnapshot(transportTable);
 		this.allDestinations = allDestinations;
 		this.filteredDestinations = filteredDestinations;
 		this.destinations = allDestinations;
 		this.bankRequirements = bankRequirements;
+		this.requirements = indexRequirements(transportTable, bankRequirements);
+		this.itemRequirements = compileItemRequirements(transportTable);
+		this.dependencies = indexDependencies(transportTable, itemRequirements);
+	}
+
+	private static SearchSnapshot emptySnapshot(TransportTable transportTable)
+	{
+		TransportAvailability empty = new TransportAvailability.Builder(transportTable).build();
+		int[] noCosts = new int[TRANSPORT_TYPES.length];
+		return new SearchSnapshot(0, empty, empty, 0, false, false, Set.of(), new LeagueModeState(),
+			noCosts, 0, noCosts);
+	}
+
+	/**
+	 * Collects everything the requirement checks read from the client: the transports and bank
+	 * destinations, plus the quests and varbits the type gates in refreshTransports() depend on.
+	 */
+	private static RequirementSnapshot indexRequirements(TransportTable transportTable,
+		Map<Integer, DestinationRequirements> bankRequirements)
+	{
+		return new RequirementSnapshot.Builder()
+			.addTransports(transportTable)
+			.addDestinations(bankRequirements.values())
+			.quest(Quest.THE_GRAND_TREE)
+			.quest(Quest.BONE_VOYAGE)
+			.quest(Quest.TREE_GNOME_VILLAGE)
+			.varbit(VarbitID.FAIRY2_QUEENCURE_QUEST)
+			.varbit(VarbitID.LUMBRIDGE_DIARY_ELITE_COMPLETE)
+			.build();
+	}
+
+	/**
+	 * Compiles the item requirements of every id in the table. Transports sharing the same
+	 * requirements share one compiled instance.
+	 */
+	private static CompiledItems[] compileItemRequirements(TransportTable transportTable)
+	{
+		Map<TransportItems, CompiledItems> compiled = new IdentityHashMap<>();
+		CompiledItems[] itemRequirements = new CompiledItems[transportTable.getRowCount()];
+		for (int id = 0; id < itemRequirements.length; id++)
+		{
+			TransportItems transportItems = transportTable.getTransport(id).getItemRequirements();
+			if (transportItems != null)
+			{
+				itemRequirements[id] = compiled.computeIfAbsent(transportItems, CompiledItems::new);
+			}
+		}
+		return itemRequirements;
+	}
+
+	/**
+	 * Collects which transports each quest, var, skill, item and type affects, including the
+	 * fairy ring staff and diary checks of usableWithItems().
+	 */
+	private static TransportDependencies indexDependencies(TransportTable transportTable,
+		CompiledItems[] itemRequirements)
+	{
+		TransportDependencies.Builder builder = new TransportDependencies.Builder(transportTable)
+			.addTransports(itemRequirements)
+			.addType(TransportType.FAIRY_RING, TransportDependencies.VARBIT, VarbitID.LUMBRIDGE_DIARY_ELITE_COMPLETE);
+		for (int itemId : DRAMEN_STAFF.getAllItemIds())
+		{
+			builder.addType(TransportType.FAIRY_RING, TransportDependencies.ITEM, itemId);
+		}
+		return builder.build();
 	}
 
 	/**
@@ -208,7 +409,65 @@ public class PathfinderConfig
 
 	public CollisionMap getMap()
 	{
-		return map.get();
+		return map;
+	}
+
+	public int getCollisionVersion()
+	{
+		return map.getCollisionDelta().getVersion();
+	}
+
+	/**
+	 * Reads the collision flags of the loaded scene and publishes a new {@link CollisionMap} with
+	 * their {@link CollisionDelta} when they changed since the previous call. Must be called on the
+	 * client thread.
+	 */
+	public void refreshSceneCollision()
+	{
+		final WorldView worldView = client.getTopLevelWorldView();
+		final CollisionData[] collisionMaps = worldView == null ? null : worldView.getCollisionMaps();
+		if (!GameState.LOGGED_IN.equals(client.getGameState()) || collisionMaps == null || worldView.isInstance())
+		{
+			// Instanced scenes are not laid out like the static map, so they never feed the delta.
+			if (lastSceneFlags != null)
+			{
+				lastSceneFlags = null;
+				map = new CollisionMap(mapData);
+			}
+			return;
+		}
+
+		final int baseX = worldView.getBaseX();
+		final int baseY = worldView.getBaseY();
+		boolean changed = lastSceneFlags == null || lastSceneFlags.length != collisionMaps.length
+			|| lastSceneBaseX != baseX || lastSceneBaseY != baseY;
+		for (int z = 0; !changed && z < collisionMaps.length; z++)
+		{
+			final int[][] flags = collisionMaps[z] == null ? null : collisionMaps[z].getFlags();
+			changed = !Arrays.deepEquals(lastSceneFlags[z], flags);
+		}
+		if (!changed)
+		{
+			return;
+		}
+
+		final int[][][] sceneFlags = new int[collisionMaps.length][][];
+		for (int z = 0; z < collisionMaps.length; z++)
+		{
+			final int[][] flags = collisionMaps[z] == null ? null : collisionMaps[z].getFlags();
+			if (flags != null)
+			{
+				sceneFlags[z] = new int[flags.length][];
+				for (int x = 0; x < flags.length; x++)
+				{
+					sceneFlags[z][x] = flags[x].clone();
+				}
+			}
+		}
+		lastSceneFlags = sceneFlags;
+		lastSceneBaseX = baseX;
+		lastSceneBaseY = baseY;
+		map = new CollisionMap(mapData, CollisionDelta.fromScene(mapData, ++lastCollisionVersion, baseX, baseY, sceneFlags));
 	}
 
 	/**
@@ -218,17 +477,33 @@ public class PathfinderConfig
 	 * "currently relevant" set of transports to render. It must not be used for path-state-sensitive
 	 * logic, because transport availability now depends on whether a path has visited a bank.
 	 * <p>
-	 * Use {@link #getTransportAvailability(boolean)}, {@link #getTransportsPacked(boolean)}, or
-	 * {@link #getUsableTeleports(boolean)} for pathfinding and path analysis code.
+	 * Use {@link #getTransportAvailability(boolean)} or {@link #getUsableTeleports(boolean)} for
+	 * pathfinding and path analysis code.
+	 * <p>
+	 * The values are transport ids into {@link #getTransportTable()}; use
+	 * {@link #getTransportsAt(int)} for the transports of an origin.
 	 */
-	public PrimitiveIntHashMap<Transport[]> getTransports()
+	public PrimitiveIntHashMap<int[]> getTransports()
 	{
 		return getTransportAvailability(includeBankPath).getDisplayTransports();
 	}
 
-	public PrimitiveIntHashMap<Transport[]> getTransportsPacked(boolean bankVisited)
+	/**
+	 * The transports that start at the given origin tile in the same coarse display view as
+	 * {@link #getTransports()}, with permutation network edges materialised.
+	 */
+	public Transport[] getTransportsAt(int origin)
 	{
-		return getTransportAvailability(bankVisited).getTransportsPacked();
+		return getTransportAvailability(includeBankPath).getTransportsAt(origin);
+	}
+
+	/**
+	 * The origin tiles of {@link #getTransports()} in the map region with the given
+	 * {@link WorldPointUtil#regionId(int, int) id}.
+	 */
+	public int[] getTransportOriginsInRegion(int regionId)
+	{
+		return getTransportAvailability(includeBankPath).getDisplayOriginsInRegion(regionId);
 	}
 
 	public Transport[] getUsableTeleports(boolean bankVisited)
@@ -236,36 +511,82 @@ public class PathfinderConfig
 		return getTransportAvailability(bankVisited).getUsableTeleports();
 	}
 
+	public TransportTable getTransportTable()
+	{
+		return transportTable;
+	}
+
 	public TransportAvailability getTransportAvailability(boolean bankVisited)
 	{
-		return bankVisited ? transportAvailabilityWithBank : transportAvailabilityWithoutBank;
+		return searchSnapshot.getTransportAvailability(bankVisited);
 	}
 
-	public boolean isBankPathEnabled()
+	/**
+	 * The search state published by the last refresh whose transports have been evaluated.
+	 */
+	public SearchSnapshot getSearchSnapshot()
 	{
-		return includeBankPath;
+		return searchSnapshot;
 	}
 
-	public boolean hasDestination(String destinationType)
+	/**
+	 * Evaluates the transports of every following {@link #refresh()} on the executor instead of
+	 * the client thread. Until the evaluation finishes, the previous search snapshot stays published.
+	 */
+	public void setTransportExecutor(Executor transportExecutor)
 	{
-		return destinations.containsKey(destinationType);
+		this.transportExecutor = transportExecutor;
 	}
 
-	public Set<Integer> getDestinations(String destinationType)
+	/**
+	 * Waits until the transports captured by the last {@link #refresh()} have been evaluated and
+	 * its search snapshot published. Searches wait for {@link #getPendingSearchSnapshot()} instead;
+	 * everything else reads the last published snapshot without waiting.
+	 */
+	public void awaitTransportRefresh()
 	{
-		return destinations.get(destinationType);
+		try
+		{
+			transportRefresh.join();
+		}
+		catch (CompletionException | CancellationException e)
+		{
+			log.warn("Transport evaluation failed, using the previous availability", e);
+		}
 	}
 
 	/**
-	 * Whether standing on this tile may flip the path into {@code bankVisited} (inventory-from-bank) state.
+	 * The snapshot the last {@link #refresh()} publishes, once its transports have been evaluated,
+	 * or the one published before if the evaluation fails. A search takes this when it is
+	 * submitted and waits for it when it starts, so it runs on the refresh it was submitted after
+	 * even if a later refresh has published another snapshot by then.
 	 */
-	public boolean bankAccessible(int packedPosition)
+	public CompletableFuture<SearchSnapshot> getPendingSearchSnapshot()
+	{
+		final SearchSnapshot previous = searchSnapshot;
+		return transportRefresh.handle((snapshot, e) ->
+		{
+			if (e != null)
+			{
+				log.warn("Transport evaluation failed, using the previous availability", e);
+			}
+			return snapshot != null ? snapshot : previous;
+		});
+	}
+
+	public boolean hasDestination(String destinationType)
+	{
+		return destinations.containsKey(destinationType);
+	}
+
+	public Set<Integer> getDestinations(String destinationType)
 	{
-		return accessibleBankTiles.contains(packedPosition);
+		return destinations.get(destinationType);
 	}
 
 	public void refresh()
 	{
+		final long startNanos = System.nanoTime();
 		calculationCutoffMillis = (long) config.calculationCutoff() * Constants.GAME_TICK_LENGTH;
 		avoidWilderness = ShortestPathPlugin.override("avoidWilderness", config.avoidWilderness());
 		usePoh = ShortestPathPlugin.override("usePoh", config.usePoh());
@@ -287,24 +608,99 @@ public class PathfinderConfig
 		// Note: Transport type costs are now managed by transportTypeConfig.getCost()
 		costConsumableTeleportationItems = ShortestPathPlugin.override("costConsumableTeleportationItems", config.costConsumableTeleportationItems());
 
+		LeagueModeState league = leagueModeState.copy();
+		TransportState transports = null;
 		if (GameState.LOGGED_IN.equals(client.getGameState()))
 		{
 			isOnSailingBoat = client.getVarbitValue(VarbitID.SAILING_BOARDED_BOAT) != 0;
+			requirements = requirements.read(client, this);
 
-			int i = 0;
-			for (; i < Skill.values().length; i++)
-			{
-				boostedSkillLevelsAndMore[i] = client.getBoostedSkillLevel(Skill.values()[i]);
-			}
-			boostedSkillLevelsAndMore[i++] = client.getTotalLevel(); // skill total level
-			boostedSkillLevelsAndMore[i++] = getCombatLevel(); // combat level
-			boostedSkillLevelsAndMore[i] = client.getVarpValue(VarPlayerID.QP); // quest points
-
-			refreshTransports();
+			transports = refreshTransports(league);
 		}
 
 		refreshDestinations();
 		rebuildAccessibleBankTiles();
+		publish(transports, captureSearchSnapshot(league, transports));
+		refreshNanos = System.nanoTime() - startNanos;
+	}
+
+	/**
+	 * The version of the search snapshot the last {@link #refresh()} publishes, which may not be
+	 * published yet. Searches made after refreshes with the same version find the same paths.
+	 */
+	public int getSearchVersion()
+	{
+		return capturedSnapshot == null ? searchSnapshot.getVersion() : capturedSnapshot.getVersion();
+	}
+
+	/**
+	 * The snapshot a search started now would pin, or null while the last {@link #refresh()} with
+	 * changes has not been published yet.
+	 */
+	public SearchSnapshot getCurrentSearchSnapshot()
+	{
+		SearchSnapshot published = searchSnapshot;
+		return published.getVersion() == getSearchVersion() ? published : null;
+	}
+
+	/**
+	 * The search settings and costs of this refresh, with the transports of the last one, and a
+	 * new version if they or the captured transport state changed.
+	 */
+	private SearchSnapshot captureSearchSnapshot(LeagueModeState league, TransportState transports)
+	{
+		int[] additionalCosts = new int[TRANSPORT_TYPES.length];
+		int[] differentialCosts = new int[TRANSPORT_TYPES.length];
+		for (TransportType type : TRANSPORT_TYPES)
+		{
+			additionalCosts[type.ordinal()] = transportTypeConfig.getCost(type);
+			differentialCosts[type.ordinal()] = getDifferentialCost(type);
+		}
+		SearchSnapshot published = searchSnapshot;
+		SearchSnapshot previous = capturedSnapshot == null ? published : capturedSnapshot;
+		SearchSnapshot snapshot = new SearchSnapshot(previous.getVersion(), published.getTransportAvailability(false),
+			published.getTransportAvailability(true), calculationCutoffMillis, avoidWilderness, includeBankPath,
+			accessibleBankTiles, league, additionalCosts, costConsumableTeleportationItems, differentialCosts);
+
+		boolean changed = capturedSnapshot == null || !snapshot.hasSameSettings(capturedSnapshot);
+		if (transports != null)
+		{
+			changed |= capturedTransports == null || !transports.hasSameValues(capturedTransports);
+			capturedTransports = transports;
+		}
+		capturedSnapshot = changed ? snapshot.withVersion(previous.getVersion() + 1) : snapshot;
+		return capturedSnapshot;
+	}
+
+	/**
+	 * Publishes the search snapshot of a refresh once its transports, if it captured any, have been
+	 * evaluated: on the transport executor, or right away if there is none. Refreshes that did not
+	 * capture transports keep those of the last evaluation.
+	 */
+	private void publish(TransportState transports, SearchSnapshot snapshot)
+	{
+		Supplier<SearchSnapshot> task = () ->
+		{
+			if (transports != null)
+			{
+				TransportAvailability[] availability = evaluateTransports(transports);
+				searchSnapshot = snapshot.withTransportAvailability(availability[0], availability[1]);
+			}
+			else
+			{
+				SearchSnapshot published = searchSnapshot;
+				searchSnapshot = snapshot.withTransportAvailability(published.getTransportAvailability(false),
+					published.getTransportAvailability(true));
+			}
+			return searchSnapshot;
+		};
+		if (transportExecutor == null)
+		{
+			transportRefresh = CompletableFuture.completedFuture(task.get());
+			return;
+		}
+		// The executor runs one evaluation at a time, in submission order.
+		transportRefresh = CompletableFuture.supplyAsync(task, transportExecutor);
 	}
 
 	private void refreshDestinations()
@@ -347,31 +743,31 @@ public class PathfinderConfig
 			return true;
 		}
 		int[] requiredLevels = dr.getSkillLevels();
-		for (int i = 0; i < boostedSkillLevelsAndMore.length; i++)
+		for (int i = 0; i < RequirementSnapshot.LEVEL_COUNT; i++)
 		{
 			int need = i < requiredLevels.length ? requiredLevels[i] : 0;
-			if (boostedSkillLevelsAndMore[i] < need)
+			if (requirements.getSkillLevel(i) < need)
 			{
 				return false;
 			}
 		}
 		for (Quest quest : dr.getQuests())
 		{
-			if (!QuestState.FINISHED.equals(getQuestState(quest)))
+			if (!requirements.isQuestFinished(quest))
 			{
 				return false;
 			}
 		}
 		for (VarRequirement req : dr.getVarbits())
 		{
-			if (!req.checkValue(client.getVarbitValue(req.getId())))
+			if (!requirements.check(req))
 			{
 				return false;
 			}
 		}
 		for (VarRequirement req : dr.getVarPlayers())
 		{
-			if (!req.checkValue(client.getVarpValue(req.getId())))
+			if (!requirements.check(req))
 			{
 				return false;
 			}
@@ -409,32 +805,16 @@ public class PathfinderConfig
 		}
 	}
 
-	/**
-	 * Returns the user-configured additional cost for a given transport
-	 */
-	public int getAdditionalTransportCost(Transport transport)
-	{
-		if (transport.isConsumable() && TransportType.TELEPORTATION_ITEM.equals(transport.getType()))
-		{
-			return costConsumableTeleportationItems;
-		}
-		if (transport.isConsumable() && TransportType.QUETZAL_WHISTLE.equals(transport.getType()))
-		{
-			return transportTypeConfig.getCost(transport.getType()) + costConsumableTeleportationItems;
-		}
-		return transportTypeConfig.getCost(transport.getType());
-	}
-
 	/**
 	 * Returns the differential cost for a transport type that shares destinations with another type.
 	 * This cost is only applied when the transport is in delayed-visit competition with its partner,
 	 * not globally against all other transport types.
 	 */
-	public int getDifferentialCost(Transport transport)
+	private int getDifferentialCost(TransportType type)
 	{
-		if (transport.getType().differentialCostFunction() != null)
+		if (type.differentialCostFunction() != null)
 		{
-			return transport.getType().differentialCostFunction().apply(config);
+			return ShortestPathPlugin.override(type, type.differentialCostFunction().apply(config));
 		}
 		return 0;
 	}
@@ -464,96 +844,329 @@ public class PathfinderConfig
 		return filteredDestinations;
 	}
 
-	private void refreshTransports()
+	/**
+	 * Captures the state the transport checks read, for {@link #publish} to evaluate. Null when
+	 * not called on the client thread.
+	 */
+	private TransportState refreshTransports(LeagueModeState league)
 	{
 		if (!Thread.currentThread().equals(client.getClientThread()))
 		{
-			return; // Has to run on the client thread; data will be refreshed when path finding commences
+			return null; // Has to run on the client thread; data will be refreshed when path finding commences
 		}
 
-		// Fairy ring staff/diary requirements are enforced later in hasRequiredItems().
+		// Fairy ring staff/diary requirements are enforced later in usableWithItems().
 		transportTypeConfig.disableUnless(TransportType.FAIRY_RING,
-			client.getVarbitValue(VarbitID.FAIRY2_QUEENCURE_QUEST) > 39);
+			requirements.getVarbitValue(VarbitID.FAIRY2_QUEENCURE_QUEST) > 39);
 		transportTypeConfig.disableUnless(TransportType.GNOME_GLIDER,
-			QuestState.FINISHED.equals(getQuestState(Quest.THE_GRAND_TREE)));
+			requirements.isQuestFinished(Quest.THE_GRAND_TREE));
 		transportTypeConfig.disableUnless(TransportType.MAGIC_MUSHTREE,
-			QuestState.FINISHED.equals(getQuestState(Quest.BONE_VOYAGE)));
+			requirements.isQuestFinished(Quest.BONE_VOYAGE));
 		transportTypeConfig.disableUnless(TransportType.SPIRIT_TREE,
-			QuestState.FINISHED.equals(getQuestState(Quest.TREE_GNOME_VILLAGE)));
+			requirements.isQuestFinished(Quest.TREE_GNOME_VILLAGE));
+		boolean[] enabledTypes = new boolean[TRANSPORT_TYPES.length];
+		for (TransportType type : TRANSPORT_TYPES)
+		{
+			enabledTypes[type.ordinal()] = transportTypeConfig.isEnabled(type);
+		}
+
+		return new TransportState(requirements, readItems(), enabledTypes,
+			transportTypeConfig.getTeleportationItemSetting(), league, availableSpiritTrees,
+			isOnSailingBoat, usePoh, usePohFairyRing, usePohSpiritTree, usePohMountedItems, usePohObelisk,
+			pohJewelleryBoxTier, currencyThreshold, includeBankPath);
+	}
 
-		TransportAvailability.Builder withoutBank = new TransportAvailability.Builder(allTransports.length);
-		TransportAvailability.Builder withBank = new TransportAvailability.Builder(allTransports.length);
-		for (Transport transport : allTransports)
+	/**
+	 * Evaluates the captured state into the availability without and with bank. Only the
+	 * transports depending on something that changed since the last evaluated state are
+	 * re-evaluated, unless one of its settings changed.
+	 */
+	private synchronized TransportAvailability[] evaluateTransports(TransportState state)
+	{
+		TransportState previous = evaluating;
+		evaluating = state;
+		if (previous == null || verdicts == null || !state.getSettings().equals(previous.getSettings()))
 		{
-			for (Quest quest : transport.getQuests())
+			refreshAllTransports();
+		}
+		else
+		{
+			state.markChanges(previous, dependencies);
+			if (!dependencies.getDirty().isEmpty())
 			{
-				try
-				{
-					questStates.put(quest, getQuestState(quest));
-				}
-				catch (NullPointerException ignored)
-				{
-				}
+				refreshDirtyTransports();
 			}
+		}
+		dependencies.clearDirty();
+		return evaluated;
+	}
 
-			for (VarRequirement varRequirement : transport.getVarRequirements())
+	/**
+	 * The ItemSnapshot states in which the transport passes all of its checks, on its own.
+	 */
+	private byte evaluate(int id)
+	{
+		Transport transport = transportTable.getTransport(id);
+		return (byte) (useTransport(transport) ? usableWithItems(id, transport) : 0);
+	}
+
+	/**
+	 * The ItemSnapshot states in which the id is part of the availability: those it passes its
+	 * checks in, and for a network origin row, those in which it leads to a usable destination.
+	 */
+	private byte available(int id)
+	{
+		int network = transportTable.getNetwork(id);
+		if (id >= transportTable.size() || network == TransportTable.NO_NETWORK)
+		{
+			return verdicts[id];
+		}
+		int states = verdicts[id];
+		if (!leadsAnywhere(id, hubs[0][network]))
+		{
+			states &= ~ItemSnapshot.WITHOUT_BANK;
+		}
+		if (!leadsAnywhere(id, hubs[1][network]))
+		{
+			states &= ~ItemSnapshot.WITH_BANK;
+		}
+		return (byte) states;
+	}
+
+	private void refreshAllTransports()
+	{
+		verdicts = new byte[transportTable.getRowCount()];
+		available = new byte[transportTable.getRowCount()];
+		hubs = new int[2][transportTable.getNetworkCount()][];
+
+		// The destination rows of each permutation network are checked once here, instead of once
+		// per origin/destination pair. Every check passes for a merged pair exactly when it passes
+		// for both of its rows, so the origin rows are checked on their own below.
+		for (int network = 0; network < transportTable.getNetworkCount(); network++)
+		{
+			int firstId = transportTable.getFirstDestinationId(network);
+			int count = transportTable.getNetworkAt(network).getDestinations().length;
+			for (int id = firstId; id < firstId + count; id++)
 			{
-				if (varRequirement.isVarbit())
-				{
-					varbitValues.put(varRequirement.getId(), client.getVarbitValue(varRequirement.getId()));
-				}
-				else
+				verdicts[id] = evaluate(id);
+				available[id] = verdicts[id];
+			}
+			refreshHub(network);
+		}
+
+		for (int id = 0; id < transportTable.size(); id++)
+		{
+			verdicts[id] = evaluate(id);
+			available[id] = available(id);
+		}
+
+		evaluated = new TransportAvailability[]{
+			buildAvailability(ItemSnapshot.WITHOUT_BANK),
+			buildAvailability(ItemSnapshot.WITH_BANK)};
+	}
+
+	/**
+	 * Re-evaluates only the ids marked dirty since the last refresh, and patches the availability
+	 * of the origins whose ids changed. The new availability is built next to the old one, so
+	 * running searches are not affected.
+	 */
+	private void refreshDirtyTransports()
+	{
+		BitSet dirty = dependencies.getDirty();
+		boolean[] changedNetworks = new boolean[transportTable.getNetworkCount()];
+		PrimitiveIntList changed = new PrimitiveIntList(16);
+		for (int id = dirty.nextSetBit(0); id >= 0; id = dirty.nextSetBit(id + 1))
+		{
+			byte verdict = evaluate(id);
+			if (verdict == verdicts[id])
+			{
+				continue;
+			}
+			verdicts[id] = verdict;
+			if (id >= transportTable.size())
+			{
+				available[id] = verdict;
+				changedNetworks[networkOfDestination(id)] = true;
+			}
+			else
+			{
+				changed.add(id);
+			}
+		}
+
+		for (int network = 0; network < changedNetworks.length; network++)
+		{
+			if (changedNetworks[network])
+			{
+				refreshHub(network);
+				for (int id : dependencies.getNetworkOrigins(network))
 				{
-					varPlayerValues.put(varRequirement.getId(), client.getVarpValue(varRequirement.getId()));
+					changed.add(id);
 				}
 			}
+		}
 
-			if (!useTransport(transport))
+		PrimitiveIntList changedWithoutBank = new PrimitiveIntList(changed.size());
+		PrimitiveIntList changedWithBank = new PrimitiveIntList(changed.size());
+		for (int i = 0; i < changed.size(); i++)
+		{
+			int id = changed.get(i);
+			byte states = available(id);
+			int difference = states ^ available[id];
+			available[id] = states;
+			if ((difference & ItemSnapshot.WITHOUT_BANK) != 0)
 			{
-				continue;
+				changedWithoutBank.add(id);
+			}
+			if ((difference & ItemSnapshot.WITH_BANK) != 0)
+			{
+				changedWithBank.add(id);
+			}
+		}
+
+		evaluated = new TransportAvailability[]{
+			patchAvailability(evaluated[0], ItemSnapshot.WITHOUT_BANK, changedWithoutBank, changedNetworks),
+			patchAvailability(evaluated[1], ItemSnapshot.WITH_BANK, changedWithBank, changedNetworks)};
+	}
+
+	/**
+	 * Recomputes the usable destination rows of the network in both states.
+	 */
+	private void refreshHub(int network)
+	{
+		int firstId = transportTable.getFirstDestinationId(network);
+		int count = transportTable.getNetworkAt(network).getDestinations().length;
+		PrimitiveIntList usableWithoutBank = new PrimitiveIntList(count);
+		PrimitiveIntList usableWithBank = new PrimitiveIntList(count);
+		for (int id = firstId; id < firstId + count; id++)
+		{
+			if ((verdicts[id] & ItemSnapshot.WITHOUT_BANK) != 0)
+			{
+				usableWithoutBank.add(id);
+			}
+			if ((verdicts[id] & ItemSnapshot.WITH_BANK) != 0)
+			{
+				usableWithBank.add(id);
+			}
+		}
+		hubs[0][network] = usableWithoutBank.toArray();
+		hubs[1][network] = usableWithBank.toArray();
+	}
+
+	private int[][] hubs(int state)
+	{
+		return hubs[state == ItemSnapshot.WITHOUT_BANK ? 0 : 1];
+	}
+
+	private int networkOfDestination(int id)
+	{
+		int network = transportTable.getNetworkCount() - 1;
+		while (transportTable.getFirstDestinationId(network) > id)
+		{
+			network--;
+		}
+		return network;
+	}
+
+	private TransportAvailability buildAvailability(int state)
+	{
+		TransportAvailability.Builder builder = new TransportAvailability.Builder(transportTable);
+		int[][] stateHubs = hubs(state);
+		for (int network = 0; network < stateHubs.length; network++)
+		{
+			builder.addHub(network, stateHubs[network]);
+		}
+		for (int id = 0; id < transportTable.size(); id++)
+		{
+			if ((available[id] & state) != 0)
+			{
+				builder.add(id);
 			}
+		}
+		builder.remapPohTransports();
+		return builder.build();
+	}
+
+	/**
+	 * Copy-on-write update of the availability for one state: only the origins of the changed ids
+	 * get new arrays. Falls back to a full build when a POH origin is involved.
+	 */
+	private TransportAvailability patchAvailability(TransportAvailability availability, int state,
+		PrimitiveIntList changedIds, boolean[] changedNetworks)
+	{
+		boolean networksChanged = false;
+		for (boolean changedNetwork : changedNetworks)
+		{
+			networksChanged |= changedNetwork;
+		}
+		if (changedIds.size() == 0 && !networksChanged)
+		{
+			return availability;
+		}
 
-			boolean usableWithoutBank = hasRequiredItems(transport, true, true, false, true);
-			boolean usableWithBank = hasRequiredItems(transport, true, true, includeBankPath, true);
-			if (usableWithoutBank)
+		PrimitiveIntHashMap<int[]> replaced = new PrimitiveIntHashMap<>(Math.max(1, changedIds.size()));
+		boolean teleportsChanged = false;
+		for (int i = 0; i < changedIds.size(); i++)
+		{
+			int origin = transportTable.getOrigin(changedIds.get(i));
+			if (origin == WorldPointUtil.UNDEFINED)
+			{
+				teleportsChanged = true;
+			}
+			else if (!TransportAvailability.isPatchable(origin))
 			{
-				withoutBank.add(transport);
+				return buildAvailability(state);
 			}
-			if (usableWithBank)
+			else if (replaced.get(origin) == null)
 			{
-				withBank.add(transport);
+				replaced.put(origin, availableIds(dependencies.getCandidates(origin), state));
 			}
 		}
+		int[] usableTeleports = teleportsChanged
+			? availableIds(dependencies.getCandidates(WorldPointUtil.UNDEFINED), state)
+			: availability.getUsableTeleportIds();
+		return availability.withTransportIds(replaced, usableTeleports, hubs(state).clone());
+	}
 
-		withoutBank.remapPohTransports();
-		withBank.remapPohTransports();
-		transportAvailabilityWithoutBank = withoutBank.build();
-		transportAvailabilityWithBank = withBank.build();
+	private int[] availableIds(int[] candidates, int state)
+	{
+		PrimitiveIntList ids = new PrimitiveIntList(candidates.length);
+		for (int id : candidates)
+		{
+			if ((available[id] & state) != 0)
+			{
+				ids.add(id);
+			}
+		}
+		return ids.toArray();
 	}
 
-	public boolean avoidWilderness(int packedPosition, int packedNeighborPosition, boolean targetInWilderness)
+	/**
+	 * Whether the origin row of a permutation network connects to at least one usable destination
+	 * row. Origin rows that lead nowhere are left out, as the merged pairs used to be.
+	 */
+	private boolean leadsAnywhere(int originId, int[] usableDestinations)
 	{
-		return avoidWilderness
-			&& !targetInWilderness
-			&& !WildernessChecker.isInWilderness(packedPosition)
-			&& WildernessChecker.isInWilderness(packedNeighborPosition);
+		for (int destinationId : usableDestinations)
+		{
+			if (transportTable.connects(originId, destinationId))
+			{
+				return true;
+			}
+		}
+		return false;
 	}
 
 	/**
-	 * League-mode neighbour gate: parallels {@link #avoidWilderness} but
+	 * League-mode neighbour gate: parallels {@link SearchSnapshot#avoidWilderness} but
 	 * blocks crossing into the always-blocked Misthalin region. Always
 	 * returns {@code false} on non-seasonal worlds so vanilla pathfinding is
 	 * unaffected.
 	 */
 	public boolean avoidBlockedRegion(int packedPosition, int packedNeighborPosition, boolean targetInBlockedRegion)
 	{
-		if (!leagueModeState.isSeasonal())
-		{
-			return false;
-		}
-		return !targetInBlockedRegion
-			&& !leagueModeState.isInBlockedRegion(packedPosition)
-			&& leagueModeState.isInBlockedRegion(packedNeighborPosition);
+		return SearchSnapshot.avoidBlockedRegion(leagueModeState, packedPosition, packedNeighborPosition,
+			targetInBlockedRegion);
 	}
 
 	/**
@@ -570,14 +1183,23 @@ public class PathfinderConfig
 	 */
 	private boolean isTransportRegionAllowed(Transport transport)
 	{
+		LeagueModeState leagueModeState = evaluating.getLeagueModeState();
 		if (!leagueModeState.isSeasonal())
 		{
 			return true;
 		}
-		LeagueRegion origin = LeagueRegionChecker.getRegion(transport.getOrigin());
-		if (!leagueModeState.isUnlocked(origin))
+		// The hub side of a permutation network row is checked with the row on the other side.
+		if (transport.getOrigin() != Transport.LOCATION_PERMUTATION)
 		{
-			return false;
+			LeagueRegion origin = LeagueRegionChecker.getRegion(transport.getOrigin());
+			if (!leagueModeState.isUnlocked(origin))
+			{
+				return false;
+			}
+		}
+		if (transport.getDestination() == Transport.LOCATION_PERMUTATION)
+		{
+			return true;
 		}
 		LeagueRegion destination = transport.getRegionOverride() != null
 			? transport.getRegionOverride()
@@ -603,22 +1225,35 @@ public class PathfinderConfig
 
 	static void remapPohDestinations(Map<Integer, Set<Transport>> transports)
 	{
-		int pohLanding = WorldPointUtil.packWorldPoint(1923, 5709, 0);
+		Set<PermutationNetwork> networks = Collections.newSetFromMap(new IdentityHashMap<>());
 		for (Set<Transport> transportSet : transports.values())
 		{
 			for (Transport transport : transportSet)
 			{
-				int destination = transport.getDestination();
-				int destX = WorldPointUtil.unpackWorldX(destination);
-				int destY = WorldPointUtil.unpackWorldY(destination);
-				if (destination != pohLanding && ShortestPathPlugin.isInsidePoh(destX, destY))
+				remapPohDestination(transport);
+				if (transport.getNetwork() != null && networks.add(transport.getNetwork()))
 				{
-					transport.setDestination(pohLanding);
+					for (Transport destination : transport.getNetwork().getDestinations())
+					{
+						remapPohDestination(destination);
+					}
 				}
 			}
 		}
 	}
 
+	private static void remapPohDestination(Transport transport)
+	{
+		int pohLanding = WorldPointUtil.packWorldPoint(1923, 5709, 0);
+		int destination = transport.getDestination();
+		int destX = WorldPointUtil.unpackWorldX(destination);
+		int destY = WorldPointUtil.unpackWorldY(destination);
+		if (destination != pohLanding && ShortestPathPlugin.isInsidePoh(destX, destY))
+		{
+			transport.setDestination(pohLanding);
+		}
+	}
+
 	public QuestState getQuestState(Quest quest)
 	{
 		return quest.getState(client);
@@ -628,7 +1263,7 @@ public class PathfinderConfig
 	{
 		for (Quest quest : transport.getQuests())
 		{
-			if (!QuestState.FINISHED.equals(questStates.getOrDefault(quest, QuestState.NOT_STARTED)))
+			if (!evaluating.getRequirements().isQuestFinished(quest))
 			{
 				return false;
 			}
@@ -640,7 +1275,7 @@ public class PathfinderConfig
 	{
 		for (VarRequirement varRequirement : transport.getVarbits())
 		{
-			if (!varRequirement.check(varbitValues))
+			if (!evaluating.getRequirements().check(varRequirement))
 			{
 				return true;
 			}
@@ -652,7 +1287,7 @@ public class PathfinderConfig
 	{
 		for (VarRequirement varRequirement : transport.getVarPlayers())
 		{
-			if (!varRequirement.check(varPlayerValues))
+			if (!evaluating.getRequirements().check(varRequirement))
 			{
 				return true;
 			}
@@ -665,13 +1300,13 @@ public class PathfinderConfig
 		// Sailing: suppress teleports while the player is aboard a boat.
 		// We don't model sailing navigation, so teleporting away mid-ocean would produce
 		// confusing suggestions. Pathfinding resumes normally after disembarking.
-		if (isOnSailingBoat && transport.getType().isTeleport())
+		if (evaluating.isOnSailingBoat() && transport.getType().isTeleport())
 		{
 			return false;
 		}
 
 		// Master POH gate - if POH is disabled, reject all POH transports
-		if (!usePoh)
+		if (!evaluating.isUsePoh())
 		{
 			int originX = WorldPointUtil.unpackWorldX(transport.getOrigin());
 			int originY = WorldPointUtil.unpackWorldY(transport.getOrigin());
@@ -694,7 +1329,7 @@ public class PathfinderConfig
 		TransportType type = transport.getType();
 
 		// Check if transport type is enabled in config
-		if (!transportTypeConfig.isEnabled(type))
+		if (!evaluating.isEnabled(type))
 		{
 			return false;
 		}
@@ -785,17 +1420,17 @@ public class PathfinderConfig
 		// POH fairy ring
 		if (TransportType.FAIRY_RING.equals(type))
 		{
-			return usePohFairyRing;
+			return evaluating.isUsePohFairyRing();
 		}
 		// POH spirit tree
 		if (TransportType.SPIRIT_TREE.equals(type))
 		{
-			return usePohSpiritTree;
+			return evaluating.isUsePohSpiritTree();
 		}
 		// POH obelisk
 		if (TransportType.WILDERNESS_OBELISK.equals(type))
 		{
-			return usePohObelisk;
+			return evaluating.isUsePohObelisk();
 		}
 
 		return true;
@@ -814,7 +1449,7 @@ public class PathfinderConfig
 			return true; // Not a teleportation item type
 		}
 
-		switch (transportTypeConfig.getTeleportationItemSetting())
+		switch (evaluating.getTeleportationItemSetting())
 		{
 			case ALL:
 				return true;
@@ -839,6 +1474,7 @@ public class PathfinderConfig
 	 */
 	private boolean checkJewelleryBoxTier(Transport transport)
 	{
+		JewelleryBoxTier pohJewelleryBoxTier = evaluating.getPohJewelleryBoxTier();
 		String objectInfo = transport.getObjectInfo();
 		if (objectInfo == null)
 		{
@@ -860,7 +1496,7 @@ public class PathfinderConfig
 			{
 				return false;
 			}
-			return usePohMountedItems;
+			return evaluating.isUsePohMountedItems();
 		}
 
 		// Filter jewellery boxes by tier
@@ -900,14 +1536,16 @@ public class PathfinderConfig
 		// the standard 2376. Holding the item (e.g. Max cape) already proves the
 		// player is maxed for the available skills, so skip the total-level check.
 		final int totalLevelIndex = Skill.values().length;
+		final boolean seasonal = evaluating.getLeagueModeState().isSeasonal();
+		RequirementSnapshot requirements = evaluating.getRequirements();
 		int[] requiredLevels = transport.getSkillLevels();
-		for (int i = 0; i < boostedSkillLevelsAndMore.length; i++)
+		for (int i = 0; i < RequirementSnapshot.LEVEL_COUNT; i++)
 		{
-			if (leagueModeState.isSeasonal() && i == totalLevelIndex)
+			if (seasonal && i == totalLevelIndex)
 			{
 				continue;
 			}
-			int boostedLevel = boostedSkillLevelsAndMore[i];
+			int boostedLevel = requirements.getSkillLevel(i);
 			int requiredLevel = requiredLevels[i];
 			if (boostedLevel < requiredLevel)
 			{
@@ -918,191 +1556,99 @@ public class PathfinderConfig
 	}
 
 	/**
-	 * Checks if the player has all the required equipment and inventory items for the transport
+	 * Reads the inventory, equipment, bank and rune pouch into a new item snapshot. The bank only
+	 * counts towards the banked state, and only if bank items may be used for the path.
 	 */
-	private boolean hasRequiredItems(
-		Transport transport,
-		boolean checkInventory,
-		boolean checkEquipment,
-		boolean checkBank,
-		boolean checkRunePouch)
+	private ItemSnapshot readItems()
 	{
-		if (TransportType.TELEPORTATION_ITEM.equals(transport.getType()) ||
-			TransportType.SEASONAL_TRANSPORTS.equals(transport.getType()) ||
-			TransportType.QUETZAL_WHISTLE.equals(transport.getType()))
+		ItemSnapshot items = new ItemSnapshot();
+		ItemContainer inventory = client.getItemContainer(InventoryID.INV);
+		if (inventory != null)
 		{
-			switch (transportTypeConfig.getTeleportationItemSetting())
-			{
-				case ALL:
-				case ALL_NON_CONSUMABLE:
-				case UNLOCKED:
-				case UNLOCKED_NON_CONSUMABLE:
-					return true;
-				case NONE:
-					return false;
-				default:
-					break;
-			}
+			items.putAll(inventory.getItems(), ItemSnapshot.BOTH);
 		}
-
-		// Fairy rings require Dramen/Lunar staff unless Lumbridge Elite diary is complete
-		if (TransportType.FAIRY_RING.equals(transport.getType()))
+		ItemContainer equipment = client.getItemContainer(InventoryID.WORN);
+		if (equipment != null)
 		{
-			int lumbridgeDiaryComplete = varbitValues.getOrDefault(VarbitID.LUMBRIDGE_DIARY_ELITE_COMPLETE, 0);
-			if (lumbridgeDiaryComplete != 1)
-			{
-				if (!hasRequiredItems(DRAMEN_STAFF, checkInventory, checkEquipment, checkBank, checkRunePouch))
-				{
-					return false;
-				}
-			}
+			items.putAll(equipment.getItems(), ItemSnapshot.BOTH);
 		}
 
-		return hasRequiredItems(transport.getItemRequirements(),
-			checkInventory, checkEquipment, checkBank, checkRunePouch);
-	}
-
-	/**
-	 * Checks if the player has all the required equipment and inventory items for the transport
-	 */
-	private boolean hasRequiredItems(
-		TransportItems transportItems,
-		boolean checkInventory,
-		boolean checkEquipment,
-		boolean checkBank,
-		boolean checkRunePouch)
-	{
-		if (transportItems == null)
+		TeleportationItem teleportSetting = transportTypeConfig.getTeleportationItemSetting();
+		if (includeBankPath && bank != null
+			&& (TeleportationItem.INVENTORY_AND_BANK.equals(teleportSetting)
+			|| TeleportationItem.INVENTORY_AND_BANK_NON_CONSUMABLE.equals(teleportSetting)))
 		{
-			return true;
+			items.putAll(bank.getItems(), ItemSnapshot.WITH_BANK);
 		}
-		itemsAndQuantities.clear();
 
-		if (checkInventory)
+		int runePouchStates = items.holdsAny(RUNE_POUCH_IDS);
+		if (runePouchStates != 0)
 		{
-			ItemContainer inventory = client.getItemContainer(InventoryID.INV);
-			if (inventory != null)
+			EnumComposition runePouchEnum = client.getEnum(EnumID.RUNEPOUCH_RUNE);
+			for (int i = 0; i < RUNE_POUCH_RUNE_VARBITS.length; i++)
 			{
-				for (Item item : inventory.getItems())
+				int runeEnumId = client.getVarbitValue(RUNE_POUCH_RUNE_VARBITS[i]);
+				int runeId = runeEnumId > 0 ? runePouchEnum.getIntValue(runeEnumId) : 0;
+				int runeAmount = client.getVarbitValue(RUNE_POUCH_AMOUNT_VARBITS[i]);
+				if (runeId > 0 && runeAmount > 0)
 				{
-					if (item.getId() >= 0 && item.getQuantity() > 0)
-					{
-						itemsAndQuantities.put(item.getId(), item.getQuantity());
-					}
-				}
-			}
-		}
-
-		if (checkEquipment)
-		{
-			ItemContainer equipment = client.getItemContainer(InventoryID.WORN);
-			if (equipment != null)
-			{
-				for (Item item : equipment.getItems())
-				{
-					if (item.getId() >= 0 && item.getQuantity() > 0)
-					{
-						itemsAndQuantities.put(item.getId(), item.getQuantity());
-					}
+					items.put(runeId, runeAmount, runePouchStates);
 				}
 			}
 		}
+		return items;
+	}
 
-		if (checkBank)
+	/**
+	 * Checks if the player has all the required equipment and inventory items for the transport,
+	 * in the unbanked and the banked state at once.
+	 *
+	 * @return the {@link ItemSnapshot#WITHOUT_BANK} and {@link ItemSnapshot#WITH_BANK} states in
+	 * which the transport can be used
+	 */
+	private int usableWithItems(int id, Transport transport)
+	{
+		if (TransportType.TELEPORTATION_ITEM.equals(transport.getType()) ||
+			TransportType.SEASONAL_TRANSPORTS.equals(transport.getType()) ||
+			TransportType.QUETZAL_WHISTLE.equals(transport.getType()))
 		{
-			TeleportationItem teleportSetting = transportTypeConfig.getTeleportationItemSetting();
-			if (bank != null
-				&& (TeleportationItem.INVENTORY_AND_BANK.equals(teleportSetting)
-				|| TeleportationItem.INVENTORY_AND_BANK_NON_CONSUMABLE.equals(teleportSetting)))
+			switch (evaluating.getTeleportationItemSetting())
 			{
-				for (Item item : bank.getItems())
-				{
-					if (item.getId() >= 0 && item.getQuantity() > 0)
-					{
-						itemsAndQuantities.put(item.getId(), item.getQuantity());
-					}
-				}
+				case ALL:
+				case ALL_NON_CONSUMABLE:
+				case UNLOCKED:
+				case UNLOCKED_NON_CONSUMABLE:
+					return ItemSnapshot.BOTH;
+				case NONE:
+					return 0;
+				default:
+					break;
 			}
 		}
 
-		if (checkRunePouch)
+		int usable = ItemSnapshot.BOTH;
+		// Fairy rings require Dramen/Lunar staff unless Lumbridge Elite diary is complete
+		if (TransportType.FAIRY_RING.equals(transport.getType()))
 		{
-			if (RUNE_POUCHES.stream().anyMatch(itemsAndQuantities::containsKey))
+			int lumbridgeDiaryComplete = evaluating.getRequirements().getVarbitValue(VarbitID.LUMBRIDGE_DIARY_ELITE_COMPLETE);
+			if (lumbridgeDiaryComplete != 1)
 			{
-				EnumComposition runePouchEnum = client.getEnum(EnumID.RUNEPOUCH_RUNE);
-				for (int i = 0; i < RUNE_POUCH_RUNE_VARBITS.length; i++)
-				{
-					int runeEnumId = client.getVarbitValue(RUNE_POUCH_RUNE_VARBITS[i]);
-					int runeId = runeEnumId > 0 ? runePouchEnum.getIntValue(runeEnumId) : 0;
-					int runeAmount = client.getVarbitValue(RUNE_POUCH_AMOUNT_VARBITS[i]);
-					if (runeId > 0 && runeAmount > 0)
-					{
-						itemsAndQuantities.put(runeId, runeAmount);
-					}
-				}
+				usable &= DRAMEN_STAFF.evaluate(evaluating.getItems(), evaluating.getCurrencyThreshold());
 			}
 		}
 
-		boolean usingStaff = false;
-		boolean usingOffhand = false;
-		for (ItemRequirement req : transportItems.getRequirements())
+		CompiledItems itemRequirement = itemRequirements[id];
+		if (itemRequirement != null && usable != 0)
 		{
-			boolean missing = true;
-			int requiredQuantity = req.getQuantity();
-			if (req.getItemIds() != null)
-			{
-				for (int itemId : req.getItemIds())
-				{
-					int quantity = itemsAndQuantities.getOrDefault(itemId, 0);
-					if (requiredQuantity > 0 && quantity >= requiredQuantity || requiredQuantity == 0 && quantity == 0)
-					{
-						if (CURRENCIES.contains(itemId) && requiredQuantity > currencyThreshold)
-						{
-							return false;
-						}
-						missing = false;
-						break;
-					}
-				}
-			}
-			if (missing && !usingStaff && req.getStaffIds() != null)
-			{
-				for (int itemId : req.getStaffIds())
-				{
-					int quantity = itemsAndQuantities.getOrDefault(itemId, 0);
-					if (requiredQuantity > 0 && quantity >= 1 || requiredQuantity == 0 && quantity == 0)
-					{
-						usingStaff = true;
-						missing = false;
-						break;
-					}
-				}
-			}
-			if (missing && !usingOffhand && req.getOffhandIds() != null)
-			{
-				for (int itemId : req.getOffhandIds())
-				{
-					int quantity = itemsAndQuantities.getOrDefault(itemId, 0);
-					if (requiredQuantity > 0 && quantity >= 1 || requiredQuantity == 0 && quantity == 0)
-					{
-						usingOffhand = true;
-						missing = false;
-						break;
-					}
-				}
-			}
-			if (missing)
-			{
-				return false;
-			}
+			usable &= itemRequirement.evaluate(evaluating.getItems(), evaluating.getCurrencyThreshold());
 		}
-		return true;
+		return usable;
 	}
 
 	/**
 	 * Calculates the combat level of the player
 	 */
-	private int getCombatLevel()
+	int getCombatLevel()
 	{
 		int attack = client.getRealSkillLevel(Skill.ATTACK);
 		int strength = client.getRealSkillLevel(Skill.STRENGTH);
@@ -1121,6 +1667,7 @@ public class PathfinderConfig
 		{
 			return false; // 
 		}
+		Set<String> availableSpiritTrees = evaluating.getAvailableSpiritTrees();
 		if (availableSpiritTrees == null)
 		{
 			return true;
@@ -10,6 +10,10 @@ public class PathfinderResult
 	private final int target;
 	private final boolean reached;
 	private final List<PathStep> pathSteps;
+	/**
+	 * The cost of the path in ticks, including the additional costs of its transports.
+	 */
+	private final int cost;
 	private final int closestReachedPoint;
 	private final int nodesChecked;
 	private final int transportsChecked;
@@ -21,6 +25,7 @@ public class PathfinderResult
 		int target,
 		boolean reached,
 		List<PathStep> pathSteps,
+		int cost,
 		int closestReachedPoint,
 		int nodesChecked,
 		int transportsChecked,
@@ -31,6 +36,7 @@ public class PathfinderResult
 		this.target = target;
 		this.reached = reached;
 		this.pathSteps = pathSteps;
+		this.cost = cost;
 		this.closestReachedPoint = closestReachedPoint;
 		this.nodesChecked = nodesChecked;
 		this.transportsChecked = transportsChecked;
@@ -0,0 +1,298 @@
+package shortestpath.pathfinder;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+import net.runelite.api.Client;
+import net.runelite.api.Quest;
+import net.runelite.api.QuestState;
+import net.runelite.api.Skill;
+import net.runelite.api.gameval.VarPlayerID;
+import shortestpath.DestinationRequirements;
+import shortestpath.transport.PermutationNetwork;
+import shortestpath.transport.Transport;
+import shortestpath.transport.TransportTable;
+import shortestpath.transport.parser.VarRequirement;
+
+/**
+ * The client state the transport and bank destination requirements depend on, read once per
+ * {@link PathfinderConfig#refresh()}.
+ * <p>
+ * The dependency index, i.e. the unique quests, varbits, varps and skills referenced by any
+ * transport or bank destination, is built once when the transports are loaded. Each refresh reads
+ * every indexed value exactly once into primitive arrays, and the requirement checks look them up
+ * there instead of querying the client (and running the quest state scripts) for every transport.
+ * <p>
+ * Every {@link #read} returns a new snapshot sharing the index, which is never modified afterwards,
+ * so it can be evaluated off the client thread while the next one is being read.
+ */
+final class RequirementSnapshot
+{
+	private static final Skill[] SKILLS = Skill.values();
+	private static final int TOTAL_LEVEL = SKILLS.length;
+	private static final int COMBAT_LEVEL = SKILLS.length + 1;
+	private static final int QUEST_POINTS = SKILLS.length + 2;
+	/**
+	 * The number of levels: the skills, then total level, combat level and quest points.
+	 */
+	static final int LEVEL_COUNT = SKILLS.length + 3;
+
+	private final Quest[] quests;
+	private final int[] varbitIds;
+	private final int[] varPlayerIds;
+	private final boolean[] skills;
+
+	// Indexed by Quest ordinal, parallel to varbitIds/varPlayerIds, and by level index.
+	private final boolean[] finishedQuests = new boolean[Quest.values().length];
+	private final int[] varbitValues;
+	private final int[] varPlayerValues;
+	private final int[] levels = new int[LEVEL_COUNT];
+
+	private RequirementSnapshot(Quest[] quests, int[] varbitIds, int[] varPlayerIds, boolean[] skills)
+	{
+		this.quests = quests;
+		this.varbitIds = varbitIds;
+		this.varPlayerIds = varPlayerIds;
+		this.skills = skills;
+		this.varbitValues = new int[varbitIds.length];
+		this.varPlayerValues = new int[varPlayerIds.length];
+	}
+
+	/**
+	 * Reads every indexed quest state and var, and the boosted levels anything depends on, into a
+	 * new snapshot with the same index. Levels nothing depends on are 0.
+	 */
+	RequirementSnapshot read(Client client, PathfinderConfig config)
+	{
+		RequirementSnapshot snapshot = new RequirementSnapshot(quests, varbitIds, varPlayerIds, skills);
+		for (Quest quest : quests)
+		{
+			try
+			{
+				snapshot.finishedQuests[quest.ordinal()] = QuestState.FINISHED.equals(config.getQuestState(quest));
+			}
+			catch (NullPointerException ignored)
+			{
+			}
+		}
+		for (int i = 0; i < varbitIds.length; i++)
+		{
+			snapshot.varbitValues[i] = client.getVarbitValue(varbitIds[i]);
+		}
+		for (int i = 0; i < varPlayerIds.length; i++)
+		{
+			snapshot.varPlayerValues[i] = client.getVarpValue(varPlayerIds[i]);
+		}
+
+		for (int i = 0; i < SKILLS.length; i++)
+		{
+			if (skills[i])
+			{
+				snapshot.levels[i] = client.getBoostedSkillLevel(SKILLS[i]);
+			}
+		}
+		if (skills[TOTAL_LEVEL])
+		{
+			snapshot.levels[TOTAL_LEVEL] = client.getTotalLevel();
+		}
+		if (skills[COMBAT_LEVEL])
+		{
+			snapshot.levels[COMBAT_LEVEL] = config.getCombatLevel();
+		}
+		if (skills[QUEST_POINTS])
+		{
+			snapshot.levels[QUEST_POINTS] = client.getVarpValue(VarPlayerID.QP);
+		}
+		return snapshot;
+	}
+
+	/**
+	 * Marks the transports depending on every value that differs from {@code previous}, which
+	 * must have been read with the same index.
+	 */
+	void markChanges(RequirementSnapshot previous, TransportDependencies changes)
+	{
+		for (Quest quest : quests)
+		{
+			if (finishedQuests[quest.ordinal()] != previous.finishedQuests[quest.ordinal()])
+			{
+				changes.mark(TransportDependencies.QUEST, quest.ordinal());
+			}
+		}
+		for (int i = 0; i < varbitIds.length; i++)
+		{
+			if (varbitValues[i] != previous.varbitValues[i])
+			{
+				changes.mark(TransportDependencies.VARBIT, varbitIds[i]);
+			}
+		}
+		for (int i = 0; i < varPlayerIds.length; i++)
+		{
+			if (varPlayerValues[i] != previous.varPlayerValues[i])
+			{
+				changes.mark(TransportDependencies.VARPLAYER, varPlayerIds[i]);
+			}
+		}
+		for (int i = 0; i < LEVEL_COUNT; i++)
+		{
+			if (levels[i] != previous.levels[i])
+			{
+				changes.mark(TransportDependencies.SKILL, i);
+			}
+		}
+	}
+
+	/**
+	 * Whether every quest state, var and level is the same as in {@code other}, which was read
+	 * from the same index.
+	 */
+	boolean hasSameValues(RequirementSnapshot other)
+	{
+		return Arrays.equals(finishedQuests, other.finishedQuests)
+			&& Arrays.equals(varbitValues, other.varbitValues)
+			&& Arrays.equals(varPlayerValues, other.varPlayerValues)
+			&& Arrays.equals(levels, other.levels);
+	}
+
+	/**
+	 * The level at the index, see {@link #LEVEL_COUNT}, or 0 if nothing depends on it.
+	 */
+	int getSkillLevel(int index)
+	{
+		return levels[index];
+	}
+
+	boolean isQuestFinished(Quest quest)
+	{
+		return finishedQuests[quest.ordinal()];
+	}
+
+	/**
+	 * The value of the varbit as of the last read, or 0 if it is not in the index.
+	 */
+	int getVarbitValue(int varbitId)
+	{
+		int index = Arrays.binarySearch(varbitIds, varbitId);
+		return index < 0 ? 0 : varbitValues[index];
+	}
+
+	/**
+	 * Checks the requirement against the last read value. Unindexed vars never pass.
+	 */
+	boolean check(VarRequirement requirement)
+	{
+		int[] ids = requirement.isVarbit() ? varbitIds : varPlayerIds;
+		int index = Arrays.binarySearch(ids, requirement.getId());
+		if (index < 0)
+		{
+			return false;
+		}
+		return requirement.checkValue(requirement.isVarbit() ? varbitValues[index] : varPlayerValues[index]);
+	}
+
+	int getQuestCount()
+	{
+		return quests.length;
+	}
+
+	int getVarbitCount()
+	{
+		return varbitIds.length;
+	}
+
+	int getVarPlayerCount()
+	{
+		return varPlayerIds.length;
+	}
+
+	/**
+	 * Build the dependency index by adding everything requirements are checked against.
+	 */
+	static final class Builder
+	{
+		private final Set<Quest> quests = EnumSet.noneOf(Quest.class);
+		private final Set<Integer> varbits = new TreeSet<>();
+		private final Set<Integer> varPlayers = new TreeSet<>();
+		private final boolean[] skills = new boolean[SKILLS.length + 3];
+
+		Builder addTransports(TransportTable table)
+		{
+			for (int id = 0; id < table.size(); id++)
+			{
+				add(table.getTransport(id));
+			}
+			for (int network = 0; network < table.getNetworkCount(); network++)
+			{
+				PermutationNetwork permutationNetwork = table.getNetworkAt(network);
+				for (Transport destination : permutationNetwork.getDestinations())
+				{
+					add(destination);
+				}
+			}
+			return this;
+		}
+
+		Builder add(Transport transport)
+		{
+			quests.addAll(transport.getQuests());
+			addVars(transport.getVarRequirements());
+			addSkills(transport.getSkillLevels());
+			return this;
+		}
+
+		Builder addDestinations(Collection<DestinationRequirements> requirements)
+		{
+			for (DestinationRequirements requirement : requirements)
+			{
+				quests.addAll(requirement.getQuests());
+				addVars(requirement.getVarbits());
+				addVars(requirement.getVarPlayers());
+				addSkills(requirement.getSkillLevels());
+			}
+			return this;
+		}
+
+		Builder quest(Quest quest)
+		{
+			quests.add(quest);
+			return this;
+		}
+
+		Builder varbit(int varbitId)
+		{
+			varbits.add(varbitId);
+			return this;
+		}
+
+		private void addVars(Collection<VarRequirement> requirements)
+		{
+			for (VarRequirement requirement : requirements)
+			{
+				(requirement.isVarbit() ? varbits : varPlayers).add(requirement.getId());
+			}
+		}
+
+		private void addSkills(int[] levels)
+		{
+			for (int i = 0; i < levels.length && i < skills.length; i++)
+			{
+				skills[i] |= levels[i] > 0;
+			}
+		}
+
+		/**
+		 * A snapshot with nothing read yet, to {@link #read} every refresh from.
+		 */
+		RequirementSnapshot build()
+		{
+			return new RequirementSnapshot(
+				quests.toArray(new Quest[0]),
+				varbits.stream().mapToInt(Integer::intValue).toArray(),
+				varPlayers.stream().mapToInt(Integer::intValue).toArray(),
+				skills.clone());
+		}
+	}
+}
@@ -0,0 +1,223 @@
+package shortestpath.pathfinder;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import shortestpath.WorldPointUtil;
+
+/**
+ * The paths of recently finished searches, so a search for the same start and targets on the same
+ * config and collision can be answered without running a {@link Pathfinder}.
+ * <p>
+ * Entries are only valid for one {@link SearchSnapshot#getFingerprint() snapshot fingerprint}: the
+ * first lookup or route with another fingerprint, after a refresh, drops them all. A change of the
+ * live scene collision, such as a door being opened, only drops the routes that walk next to one of
+ * the edges it opened or closed, and the routes that did not reach a target. A route elsewhere can
+ * at worst miss a shortcut the change opened, as the displayed path does, which is not searched
+ * again when the scene changes either. Within a fingerprint the least recently used route is
+ * evicted once there are more than {@code capacity}.
+ */
+public class RouteCache
+{
+	public static final int DEFAULT_CAPACITY = 64;
+
+	private final int capacity;
+	private final Map<Key, Route> routes;
+	private long fingerprint;
+	private CollisionDelta collision = CollisionDelta.EMPTY;
+	private long hits;
+	private long misses;
+
+	public RouteCache(int capacity)
+	{
+		this.capacity = capacity;
+		// Access order, so the eldest entry is the least recently used one.
+		routes = new LinkedHashMap<>(16, 0.75f, true)
+		{
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, Route> eldest)
+			{
+				return size() > RouteCache.this.capacity;
+			}
+		};
+	}
+
+	/**
+	 * The search settings and transports are identified by the {@link SearchSnapshot#getFingerprint()
+	 * fingerprint} of the snapshot, the collision by the version of its {@link CollisionDelta}.
+	 */
+	public static long fingerprint(long snapshotFingerprint, int collisionVersion)
+	{
+		return Fingerprint.combine(snapshotFingerprint, collisionVersion);
+	}
+
+	/**
+	 * @return the cached route, or null if there is none for this snapshot fingerprint and collision
+	 */
+	public synchronized Route get(long snapshotFingerprint, CollisionDelta collision, int start, Set<Integer> targets)
+	{
+		useFingerprint(snapshotFingerprint);
+		useCollision(collision);
+		Route route = routes.get(new Key(start, targets));
+		if (route == null)
+		{
+			misses++;
+		}
+		else
+		{
+			hits++;
+		}
+		return route;
+	}
+
+	/**
+	 * Caches the route of a search that ran with the snapshot of this fingerprint.
+	 */
+	public synchronized void put(long snapshotFingerprint, int start, Set<Integer> targets, Route route)
+	{
+		useFingerprint(snapshotFingerprint);
+		useCollision(route.collision);
+		routes.put(new Key(start, targets), route);
+	}
+
+	/**
+	 * Counts a lookup that could not be made.
+	 */
+	synchronized void recordMiss()
+	{
+		misses++;
+	}
+
+	private void useFingerprint(long fingerprint)
+	{
+		if (fingerprint != this.fingerprint)
+		{
+			routes.clear();
+			this.fingerprint = fingerprint;
+		}
+	}
+
+	private void useCollision(CollisionDelta collision)
+	{
+		if (collision == this.collision)
+		{
+			return;
+		}
+		Set<Integer> changedTiles = collision.changedTiles(this.collision);
+		routes.values().removeIf(route -> route.reachedTarget == WorldPointUtil.UNDEFINED || route.walksOn(changedTiles));
+		this.collision = collision;
+	}
+
+	public synchronized int size()
+	{
+		return routes.size();
+	}
+
+	/**
+	 * The share of lookups that found a route.
+	 */
+	public synchronized double getHitRate()
+	{
+		long lookups = hits + misses;
+		return lookups == 0 ? 0 : (double) hits / lookups;
+	}
+
+	/**
+	 * A finished path stored as packed positions, with the steps taken after a bank visit as set
+	 * bits and the transports of the few transport steps by index, instead of a {@link PathStep}
+	 * per step.
+	 */
+	public static final class Route
+	{
+		// Kept detached, so the steps made by one reader are not kept with the route.
+		private final PackedPath path;
+		private final int cost;
+		private final int reachedTarget;
+		private final int closestReachedPoint;
+		private final PathTerminationReason terminationReason;
+		// The live scene collision the route was found with.
+		private final CollisionDelta collision;
+
+		Route(PackedPath path, int cost, int reachedTarget, int closestReachedPoint,
+			PathTerminationReason terminationReason, CollisionDelta collision)
+		{
+			this.path = path.detached();
+			this.cost = cost;
+			this.reachedTarget = reachedTarget;
+			this.closestReachedPoint = closestReachedPoint;
+			this.terminationReason = terminationReason;
+			this.collision = collision;
+		}
+
+		private boolean walksOn(Set<Integer> tiles)
+		{
+			if (tiles.isEmpty())
+			{
+				return false;
+			}
+			for (int i = 0; i < path.size(); i++)
+			{
+				if (tiles.contains(path.getPackedPosition(i)))
+				{
+					return true;
+				}
+			}
+			return false;
+		}
+
+		PackedPath getPath()
+		{
+			return path.detached();
+		}
+
+		int getCost()
+		{
+			return cost;
+		}
+
+		int getReachedTarget()
+		{
+			return reachedTarget;
+		}
+
+		int getClosestReachedPoint()
+		{
+			return closestReachedPoint;
+		}
+
+		PathTerminationReason getTerminationReason()
+		{
+			return terminationReason;
+		}
+	}
+
+	private static final class Key
+	{
+		private final int start;
+		private final int[] targets;
+
+		private Key(int start, Set<Integer> targets)
+		{
+			this.start = start;
+			this.targets = targets.stream().mapToInt(Integer::intValue).sorted().toArray();
+		}
+
+		@Override
+		public boolean equals(Object o)
+		{
+			if (!(o instanceof Key))
+			{
+				return false;
+			}
+			Key other = (Key) o;
+			return start == other.start && Arrays.equals(targets, other.targets);
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return 31 * start + Arrays.hashCode(targets);
+		}
+	}
+}
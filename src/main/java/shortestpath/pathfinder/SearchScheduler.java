@@ -0,0 +1,309 @@
+package shortestpath.pathfinder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import lombok.Getter;
+
+/**
+ * Runs searches on a bounded pool of worker threads.
+ * <p>
+ * The {@link Priority#DISPLAY} search has a worker of its own, so the path shown to the player
+ * never waits behind the searches of other plugins. The {@link Priority#QUERY} searches share the
+ * remaining workers, which take the queued searches in submission order.
+ * <p>
+ * Requests for the same start, targets and overrides, with the same priority and after refreshes
+ * with the same {@link SearchSnapshot#getVersion() version}, share one search, and each is called
+ * back when it finishes. Requests without overrides are answered from the {@link RouteCache} when it
+ * has the route, without a search. A new {@link Priority#DISPLAY}
+ * search replaces the previous one: it is dropped from the queue if it has not started yet, and
+ * cancelled if it has. Searches of the other priorities run until they finish.
+ */
+public class SearchScheduler
+{
+	public enum Priority
+	{
+		/**
+		 * The path shown to the player.
+		 */
+		DISPLAY,
+		/**
+		 * Paths requested by other plugins.
+		 */
+		QUERY,
+	}
+
+	// Reserved for the DISPLAY search, which replaces rather than queues behind the previous one.
+	private final ThreadPoolExecutor displayExecutor;
+	private final ThreadPoolExecutor executor;
+	@Getter
+	private final RouteCache routeCache = new RouteCache(RouteCache.DEFAULT_CAPACITY);
+	// Every queued or running search that has not been cancelled, guarded by this.
+	private final Map<Key, Task> active = new HashMap<>();
+	private Task display;
+	private int coalescedRequests;
+	private volatile long lastWaitNanos;
+
+	/**
+	 * @param threads the number of workers for the {@link Priority#QUERY} searches, besides the
+	 *                worker of the {@link Priority#DISPLAY} search
+	 */
+	public SearchScheduler(int threads, ThreadFactory threadFactory)
+	{
+		displayExecutor = newExecutor(1, threadFactory);
+		executor = newExecutor(threads, threadFactory);
+	}
+
+	private static ThreadPoolExecutor newExecutor(int threads, ThreadFactory threadFactory)
+	{
+		return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+			new LinkedBlockingQueue<>(), threadFactory);
+	}
+
+	private ThreadPoolExecutor executorFor(Task task)
+	{
+		return task.key.priority == Priority.DISPLAY ? displayExecutor : executor;
+	}
+
+	/**
+	 * Queues a search after the latest {@link PathfinderConfig#refresh()}, or returns the search
+	 * already queued or running for the same request.
+	 */
+	public Pathfinder submit(Priority priority, PathfinderConfig config, int start, Set<Integer> targets,
+		Runnable completionCallback)
+	{
+		return submit(priority, config, start, targets, Map.of(),
+			completionCallback == null ? null : pathfinder -> completionCallback.run());
+	}
+
+	/**
+	 * Queues a search with the search settings of {@link SearchSnapshot#withOverrides(Map)}
+	 * overridden for this request only. A route from the cache is returned already done, and the
+	 * callback is called before this returns.
+	 */
+	public Pathfinder submit(Priority priority, PathfinderConfig config, int start, Set<Integer> targets,
+		Map<String, Object> overrides, Consumer<Pathfinder> completionCallback)
+	{
+		Pathfinder cached = overrides.isEmpty() ? findCached(priority, config, start, targets) : null;
+		if (cached == null)
+		{
+			return enqueue(priority, config, start, targets, overrides, completionCallback);
+		}
+		if (completionCallback != null)
+		{
+			completionCallback.accept(cached);
+		}
+		return cached;
+	}
+
+	private synchronized Pathfinder findCached(Priority priority, PathfinderConfig config, int start, Set<Integer> targets)
+	{
+		SearchSnapshot snapshot = config.getCurrentSearchSnapshot();
+		if (snapshot == null)
+		{
+			// Its fingerprint is not known until the transports have been evaluated.
+			routeCache.recordMiss();
+			return null;
+		}
+		CollisionDelta collision = config.getMap().getCollisionDelta();
+		RouteCache.Route route = routeCache.get(snapshot.getFingerprint(), collision, start, targets);
+		if (route == null)
+		{
+			return null;
+		}
+		if (priority == Priority.DISPLAY && display != null)
+		{
+			cancel(display);
+		}
+		long fingerprint = RouteCache.fingerprint(snapshot.getFingerprint(), collision.getVersion());
+		return new Pathfinder(start, targets, fingerprint, route);
+	}
+
+	private synchronized Pathfinder enqueue(Priority priority, PathfinderConfig config, int start, Set<Integer> targets,
+		Map<String, Object> overrides, Consumer<Pathfinder> completionCallback)
+	{
+		Key key = new Key(priority, start, targets, overrides, config.getSearchVersion());
+		Task existing = active.get(key);
+		if (existing != null)
+		{
+			coalescedRequests++;
+			existing.addCallback(completionCallback);
+			return existing.pathfinder;
+		}
+
+		if (priority == Priority.DISPLAY && display != null)
+		{
+			cancel(display);
+		}
+		Task task = new Task(key, new Pathfinder(config, start, targets, key.overrides, null));
+		task.addCallback(completionCallback);
+		if (priority == Priority.DISPLAY)
+		{
+			display = task;
+		}
+		active.put(key, task);
+		executorFor(task).execute(task);
+		return task.pathfinder;
+	}
+
+	/**
+	 * Stops the search: drops it from the queue if it has not started, or cancels it.
+	 */
+	public synchronized void cancel(Pathfinder pathfinder)
+	{
+		for (Task task : active.values())
+		{
+			if (task.pathfinder == pathfinder)
+			{
+				cancel(task);
+				return;
+			}
+		}
+		pathfinder.cancel();
+	}
+
+	private void cancel(Task task)
+	{
+		executorFor(task).remove(task);
+		task.pathfinder.cancel();
+		active.remove(task.key, task);
+		if (display == task)
+		{
+			display = null;
+		}
+	}
+
+	public void shutdownNow()
+	{
+		displayExecutor.shutdownNow();
+		executor.shutdownNow();
+	}
+
+	/**
+	 * The number of searches waiting for a worker.
+	 */
+	public int getQueueDepth()
+	{
+		return displayExecutor.getQueue().size() + executor.getQueue().size();
+	}
+
+	/**
+	 * How long the last search to start waited for a worker.
+	 */
+	public long getLastWaitNanos()
+	{
+		return lastWaitNanos;
+	}
+
+	/**
+	 * The number of requests that were given a search already queued or running.
+	 */
+	public synchronized int getCoalescedRequests()
+	{
+		return coalescedRequests;
+	}
+
+	/**
+	 * @return the callbacks of the requests the task ran for, which no further request can join
+	 */
+	private synchronized List<Consumer<Pathfinder>> finished(Task task)
+	{
+		active.remove(task.key, task);
+		if (display == task)
+		{
+			display = null;
+		}
+		return task.callbacks;
+	}
+
+	private static final class Key
+	{
+		private final Priority priority;
+		private final int start;
+		private final Set<Integer> targets;
+		private final Map<String, Object> overrides;
+		private final int version;
+
+		private Key(Priority priority, int start, Set<Integer> targets, Map<String, Object> overrides, int version)
+		{
+			this.priority = priority;
+			this.start = start;
+			this.targets = Set.copyOf(targets);
+			this.overrides = Map.copyOf(overrides);
+			this.version = version;
+		}
+
+		@Override
+		public boolean equals(Object o)
+		{
+			if (!(o instanceof Key))
+			{
+				return false;
+			}
+			Key other = (Key) o;
+			return priority == other.priority && start == other.start && version == other.version
+				&& targets.equals(other.targets) && overrides.equals(other.overrides);
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return Objects.hash(priority, start, targets, overrides, version);
+		}
+	}
+
+	private final class Task implements Runnable
+	{
+		private final Key key;
+		private final Pathfinder pathfinder;
+		private final long submitNanos = System.nanoTime();
+		// Guarded by the scheduler.
+		private final List<Consumer<Pathfinder>> callbacks = new ArrayList<>(1);
+
+		private Task(Key key, Pathfinder pathfinder)
+		{
+			this.key = key;
+			this.pathfinder = pathfinder;
+		}
+
+		private void addCallback(Consumer<Pathfinder> callback)
+		{
+			if (callback != null)
+			{
+				callbacks.add(callback);
+			}
+		}
+
+		@Override
+		public void run()
+		{
+			lastWaitNanos = System.nanoTime() - submitNanos;
+			List<Consumer<Pathfinder>> finishedCallbacks;
+			try
+			{
+				pathfinder.run();
+				RouteCache.Route route = key.overrides.isEmpty() ? pathfinder.getRoute() : null;
+				if (route != null)
+				{
+					routeCache.put(pathfinder.getSnapshotFingerprint(), key.start, key.targets, route);
+				}
+			}
+			finally
+			{
+				finishedCallbacks = finished(this);
+			}
+			for (Consumer<Pathfinder> callback : finishedCallbacks)
+			{
+				callback.accept(pathfinder);
+			}
+		}
+	}
+}
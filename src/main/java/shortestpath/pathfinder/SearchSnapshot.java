@@ -0,0 +1,288 @@
+package shortestpath.pathfinder;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import lombok.Getter;
+import net.runelite.api.Constants;
+import shortestpath.leagues.LeagueModeState;
+import shortestpath.leagues.LeagueRegion;
+import shortestpath.transport.TransportTable;
+import shortestpath.transport.TransportType;
+
+/**
+ * Everything a search reads from the {@link PathfinderConfig}, as of one refresh.
+ * <p>
+ * A refresh builds a new snapshot and, once its transports have been evaluated, publishes it with a
+ * single volatile write. Each {@link Pathfinder} pins the snapshot published when it starts, so a
+ * later refresh never changes the settings, costs or transports of a running search, and any number
+ * of searches may run at the same time.
+ */
+public final class SearchSnapshot
+{
+	// The type of the value of each key withOverrides applies.
+	private static final Map<String, Class<?>> OVERRIDE_TYPES = new HashMap<>();
+
+	static
+	{
+		OVERRIDE_TYPES.put("calculationCutoff", Integer.class);
+		OVERRIDE_TYPES.put("avoidWilderness", Boolean.class);
+		OVERRIDE_TYPES.put("costConsumableTeleportationItems", Integer.class);
+		for (TransportType type : TransportType.values())
+		{
+			if (type.getCostKey() != null)
+			{
+				OVERRIDE_TYPES.put(type.getCostKey(), Integer.class);
+			}
+		}
+	}
+
+	/**
+	 * Changes only when a refresh captured settings or transport state different from the last
+	 * one, so searches for the same start and targets with the same version find the same path.
+	 */
+	@Getter
+	private final int version;
+	/**
+	 * Identifies what a search reads from this snapshot: the usable transports with and without a
+	 * bank visit, the costs, the search settings, the league unlocks and the accessible bank tiles.
+	 * Unlike the version it does not change when a refresh captures different requirements that
+	 * allow the same transports, so searches with the same fingerprint, start, targets and
+	 * collision find the same path.
+	 */
+	@Getter
+	private final long fingerprint;
+	private final TransportAvailability withoutBank;
+	private final TransportAvailability withBank;
+	@Getter
+	private final long calculationCutoffMillis;
+	private final boolean avoidWilderness;
+	private final boolean includeBankPath;
+	private final Set<Integer> accessibleBankTiles;
+	@Getter
+	private final LeagueModeState leagueModeState;
+	// Indexed by TransportType ordinal.
+	private final int[] additionalCosts;
+	private final int costConsumableTeleportationItems;
+	private final int[] consumableCosts;
+	private final int[] differentialCosts;
+
+	SearchSnapshot(int version, TransportAvailability withoutBank, TransportAvailability withBank, long calculationCutoffMillis,
+		boolean avoidWilderness, boolean includeBankPath, Set<Integer> accessibleBankTiles,
+		LeagueModeState leagueModeState, int[] additionalCosts, int costConsumableTeleportationItems, int[] differentialCosts)
+	{
+		this.version = version;
+		this.withoutBank = withoutBank;
+		this.withBank = withBank;
+		this.calculationCutoffMillis = calculationCutoffMillis;
+		this.avoidWilderness = avoidWilderness;
+		this.includeBankPath = includeBankPath;
+		this.accessibleBankTiles = accessibleBankTiles;
+		this.leagueModeState = leagueModeState;
+		this.additionalCosts = additionalCosts;
+		this.costConsumableTeleportationItems = costConsumableTeleportationItems;
+		this.consumableCosts = consumableCosts(additionalCosts, costConsumableTeleportationItems);
+		this.differentialCosts = differentialCosts;
+		this.fingerprint = fingerprint();
+	}
+
+	private long fingerprint()
+	{
+		long hash = Fingerprint.combine(withoutBank.getFingerprint(), withBank.getFingerprint());
+		hash = Fingerprint.combine(hash, calculationCutoffMillis);
+		hash = Fingerprint.combine(hash, (avoidWilderness ? 1 : 0) | (includeBankPath ? 2 : 0)
+			| (leagueModeState.isSeasonal() ? 4 : 0));
+		for (int i = 0; i < additionalCosts.length; i++)
+		{
+			hash = Fingerprint.combine(hash, ((long) additionalCosts[i] << 32) | (differentialCosts[i] & 0xFFFFFFFFL));
+		}
+		hash = Fingerprint.combine(hash, costConsumableTeleportationItems);
+		long unlocked = 0;
+		for (LeagueRegion region : leagueModeState.getUnlockedRegions())
+		{
+			unlocked |= 1L << region.ordinal();
+		}
+		hash = Fingerprint.combine(hash, unlocked);
+		long bankTiles = 0;
+		for (int tile : accessibleBankTiles)
+		{
+			bankTiles += Fingerprint.mix(tile);
+		}
+		return Fingerprint.combine(hash, bankTiles);
+	}
+
+	private static int[] consumableCosts(int[] additionalCosts, int costConsumableTeleportationItems)
+	{
+		int[] consumableCosts = additionalCosts.clone();
+		consumableCosts[TransportType.TELEPORTATION_ITEM.ordinal()] = costConsumableTeleportationItems;
+		consumableCosts[TransportType.QUETZAL_WHISTLE.ordinal()] += costConsumableTeleportationItems;
+		return consumableCosts;
+	}
+
+	/**
+	 * The same snapshot with the given transports.
+	 */
+	SearchSnapshot withTransportAvailability(TransportAvailability withoutBank, TransportAvailability withBank)
+	{
+		return new SearchSnapshot(version, withoutBank, withBank, calculationCutoffMillis, avoidWilderness, includeBankPath,
+			accessibleBankTiles, leagueModeState, additionalCosts, costConsumableTeleportationItems, differentialCosts);
+	}
+
+	/**
+	 * The same snapshot with another version.
+	 */
+	SearchSnapshot withVersion(int version)
+	{
+		return new SearchSnapshot(version, withoutBank, withBank, calculationCutoffMillis, avoidWilderness, includeBankPath,
+			accessibleBankTiles, leagueModeState, additionalCosts, costConsumableTeleportationItems, differentialCosts);
+	}
+
+	/**
+	 * This snapshot with the search settings of a single request overridden, using the same keys as
+	 * the config overrides of the plugin messages: {@code avoidWilderness}, {@code calculationCutoff},
+	 * the transport type costs and {@code costConsumableTeleportationItems}. Other keys change which
+	 * transports are available, which is only decided by a refresh, and are ignored; requests check
+	 * their overrides with {@link #unsupportedOverrides(Map)} first.
+	 */
+	SearchSnapshot withOverrides(Map<String, Object> overrides)
+	{
+		if (overrides.isEmpty())
+		{
+			return this;
+		}
+		long cutoffMillis = calculationCutoffMillis;
+		Object cutoff = overrides.get("calculationCutoff");
+		if (cutoff instanceof Integer)
+		{
+			cutoffMillis = (long) (int) cutoff * Constants.GAME_TICK_LENGTH;
+		}
+		Object avoid = overrides.get("avoidWilderness");
+		boolean avoidWild = avoid instanceof Boolean ? (boolean) avoid : avoidWilderness;
+		Object consumable = overrides.get("costConsumableTeleportationItems");
+		int consumableCost = consumable instanceof Integer ? (int) consumable : costConsumableTeleportationItems;
+		int[] costs = additionalCosts.clone();
+		int[] differential = differentialCosts.clone();
+		for (TransportType type : TransportType.values())
+		{
+			Object cost = type.getCostKey() == null ? null : overrides.get(type.getCostKey());
+			if (cost instanceof Integer)
+			{
+				costs[type.ordinal()] = (int) cost;
+				// The differential cost is read from the same setting, e.g. costQuetzalWhistle.
+				if (type.differentialCostFunction() != null)
+				{
+					differential[type.ordinal()] = (int) cost;
+				}
+			}
+		}
+		return new SearchSnapshot(version, withoutBank, withBank, cutoffMillis, avoidWild, includeBankPath,
+			accessibleBankTiles, leagueModeState, costs, consumableCost, differential);
+	}
+
+	/**
+	 * The overrides {@link #withOverrides(Map)} would ignore, in the order of {@code overrides}: the
+	 * keys other than its search settings, and the values that are not of the setting's type, such
+	 * as a {@code Long} or {@code String} cost.
+	 */
+	public static Map<Object, Object> unsupportedOverrides(Map<?, ?> overrides)
+	{
+		Map<Object, Object> unsupported = new LinkedHashMap<>();
+		for (Map.Entry<?, ?> entry : overrides.entrySet())
+		{
+			Class<?> type = OVERRIDE_TYPES.get(entry.getKey());
+			if (type == null || !type.isInstance(entry.getValue()))
+			{
+				unsupported.put(entry.getKey(), entry.getValue());
+			}
+		}
+		return unsupported;
+	}
+
+	/**
+	 * Whether everything but the version and the transports is the same as in {@code other}.
+	 */
+	boolean hasSameSettings(SearchSnapshot other)
+	{
+		return calculationCutoffMillis == other.calculationCutoffMillis
+			&& avoidWilderness == other.avoidWilderness
+			&& includeBankPath == other.includeBankPath
+			&& accessibleBankTiles.equals(other.accessibleBankTiles)
+			&& leagueModeState.isSeasonal() == other.leagueModeState.isSeasonal()
+			&& leagueModeState.getUnlockedRegions().equals(other.leagueModeState.getUnlockedRegions())
+			&& Arrays.equals(additionalCosts, other.additionalCosts)
+			&& costConsumableTeleportationItems == other.costConsumableTeleportationItems
+			&& Arrays.equals(differentialCosts, other.differentialCosts);
+	}
+
+	/**
+	 * The transports a path can take before (false) or after (true) it has visited a bank.
+	 */
+	public TransportAvailability getTransportAvailability(boolean bankVisited)
+	{
+		return bankVisited ? withBank : withoutBank;
+	}
+
+	public boolean isBankPathEnabled()
+	{
+		return includeBankPath;
+	}
+
+	/**
+	 * Whether standing on this tile may flip the path into {@code bankVisited} (inventory-from-bank) state.
+	 */
+	public boolean bankAccessible(int packedPosition)
+	{
+		return accessibleBankTiles.contains(packedPosition);
+	}
+
+	public boolean avoidWilderness(int packedPosition, int packedNeighborPosition, boolean targetInWilderness)
+	{
+		return avoidWilderness
+			&& !targetInWilderness
+			&& !WildernessChecker.isInWilderness(packedPosition)
+			&& WildernessChecker.isInWilderness(packedNeighborPosition);
+	}
+
+	/**
+	 * See {@link PathfinderConfig#avoidBlockedRegion(int, int, boolean)}.
+	 */
+	public boolean avoidBlockedRegion(int packedPosition, int packedNeighborPosition, boolean targetInBlockedRegion)
+	{
+		return avoidBlockedRegion(leagueModeState, packedPosition, packedNeighborPosition, targetInBlockedRegion);
+	}
+
+	static boolean avoidBlockedRegion(LeagueModeState leagueModeState, int packedPosition, int packedNeighborPosition,
+		boolean targetInBlockedRegion)
+	{
+		if (!leagueModeState.isSeasonal())
+		{
+			return false;
+		}
+		return !targetInBlockedRegion
+			&& !leagueModeState.isInBlockedRegion(packedPosition)
+			&& leagueModeState.isInBlockedRegion(packedNeighborPosition);
+	}
+
+	/**
+	 * Returns the user-configured additional cost for a transport id of the transport table
+	 */
+	public int getAdditionalTransportCost(int transportId)
+	{
+		TransportTable table = withoutBank.getTable();
+		int type = table.getType(transportId).ordinal();
+		return table.isConsumable(transportId) ? consumableCosts[type] : additionalCosts[type];
+	}
+
+	/**
+	 * Returns the differential cost for a transport id of the transport table, when its type shares
+	 * destinations with another type. This cost is only applied when the transport is in
+	 * delayed-visit competition with its partner, not globally against all other transport types.
+	 */
+	public int getDifferentialCost(int transportId)
+	{
+		return differentialCosts[withoutBank.getTable().getType(transportId).ordinal()];
+	}
+}
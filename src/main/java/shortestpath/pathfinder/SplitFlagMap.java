@@ -2,9 +2,11 @@ package shortestpath.pathfinder;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.BitSet;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.zip.ZipEntry;
@@ -12,17 +14,19 @@ import java.util.zip.ZipInputStream;
 
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
 import static net.runelite.api.Constants.REGION_SIZE;
 
 import shortestpath.ShortestPathPlugin;
 import shortestpath.Util;
 
+@Slf4j
 public class SplitFlagMap
 {
-	private static final int FLAG_COUNT = 2;
+	static final int FLAG_COUNT = 2;
 	private static final int BITS_PER_PLANE = REGION_SIZE * REGION_SIZE * FLAG_COUNT;
-	private static final int WORDS_PER_PLANE = BITS_PER_PLANE / Long.SIZE;
+	static final int WORDS_PER_PLANE = BITS_PER_PLANE / Long.SIZE;
 	private static final int REGION_MASK = REGION_SIZE - 1;
 
 	@Getter
@@ -30,24 +34,28 @@ public class SplitFlagMap
 
 	private final byte[] regionMapPlaneCounts;
 	// Every region's collision bits are packed into one shared word array instead of a separate
-	// FlagMap + BitSet + long[] per region. regionWordOffset gives each region's start word, or -1
-	// when the region has no collision data (issue #491).
+	// FlagMap + BitSet + long[] per region. regionWordOffset gives the start word of each region
+	// plane (issue #491). Planes with identical contents share one slice, and planes that are
+	// entirely clear or entirely set are not stored at all but marked with a sentinel offset.
 	private final long[] flags;
 	private final int[] regionWordOffset;
+	private final int planeStride;
 	private final int widthInclusive;
 
+	private static final int EMPTY_PLANE = -1;
+	private static final int FULL_PLANE = -2;
+
 	public SplitFlagMap(Map<Integer, byte[]> compressedRegions)
 	{
 		widthInclusive = regionExtents.getWidth() + 1;
 		final int heightInclusive = regionExtents.getHeight() + 1;
 		final int regionCount = widthInclusive * heightInclusive;
 		regionMapPlaneCounts = new byte[regionCount];
-		regionWordOffset = new int[regionCount];
-		Arrays.fill(regionWordOffset, -1);
 
-		// First pass: decode each region and reserve it a slice of the shared word array.
+		// First pass: decode each region to find how many planes the widest region needs.
 		final Map<Integer, long[]> regionWords = new HashMap<>(compressedRegions.size());
-		int totalWords = 0;
+		int maxPlaneCount = 0;
+		int undeduplicatedWords = 0;
 		for (Map.Entry<Integer, byte[]> entry : compressedRegions.entrySet())
 		{
 			final int pos = entry.getKey();
@@ -56,21 +64,94 @@ public class SplitFlagMap
 			// Same plane-count derivation the old FlagMap used.
 			final int planeCount = (bits.size() + BITS_PER_PLANE - 1) / BITS_PER_PLANE;
 			regionMapPlaneCounts[index] = (byte) planeCount;
-			regionWordOffset[index] = totalWords;
 			regionWords.put(index, bits.toLongArray());
-			totalWords += planeCount * WORDS_PER_PLANE;
+			maxPlaneCount = Math.max(maxPlaneCount, planeCount);
+			undeduplicatedWords += planeCount * WORDS_PER_PLANE;
 		}
 
-		// Second pass: copy each region's words into its reserved slice (trailing zero words from
-		// BitSet.toLongArray are left as the zero-filled remainder of the slice).
-		flags = new long[totalWords];
+		planeStride = maxPlaneCount;
+		regionWordOffset = new int[regionCount * planeStride];
+		Arrays.fill(regionWordOffset, EMPTY_PLANE);
+
+		// Second pass: classify every plane and give each distinct non-trivial plane one slice.
+		final Map<PlaneWords, Integer> sliceOffsets = new HashMap<>();
+		final List<long[]> slices = new ArrayList<>();
+		int emptyPlanes = 0;
+		int fullPlanes = 0;
+		int sharedPlanes = 0;
 		for (Map.Entry<Integer, long[]> entry : regionWords.entrySet())
 		{
+			final int index = entry.getKey();
 			final long[] words = entry.getValue();
-			System.arraycopy(words, 0, flags, regionWordOffset[entry.getKey()], words.length);
+			for (int z = 0; z < regionMapPlaneCounts[index]; z++)
+			{
+				final long[] plane = new long[WORDS_PER_PLANE];
+				final int from = z * WORDS_PER_PLANE;
+				if (from < words.length)
+				{
+					// Trailing zero words from BitSet.toLongArray are left as zeroes.
+					System.arraycopy(words, from, plane, 0, Math.min(WORDS_PER_PLANE, words.length - from));
+				}
+
+				final int offset;
+				if (isFilled(plane, 0L))
+				{
+					offset = EMPTY_PLANE;
+					emptyPlanes++;
+				}
+				else if (isFilled(plane, -1L))
+				{
+					offset = FULL_PLANE;
+					fullPlanes++;
+				}
+				else
+				{
+					final PlaneWords key = new PlaneWords(plane);
+					final Integer existing = sliceOffsets.get(key);
+					if (existing != null)
+					{
+						offset = existing;
+						sharedPlanes++;
+					}
+					else
+					{
+						offset = slices.size() * WORDS_PER_PLANE;
+						sliceOffsets.put(key, offset);
+						slices.add(plane);
+					}
+				}
+				regionWordOffset[index * planeStride + z] = offset;
+			}
+		}
+
+		flags = new long[slices.size() * WORDS_PER_PLANE];
+		for (int i = 0; i < slices.size(); i++)
+		{
+			System.arraycopy(slices.get(i), 0, flags, i * WORDS_PER_PLANE, WORDS_PER_PLANE);
+		}
+
+		if (log.isDebugEnabled())
+		{
+			final long bytesBefore = (long) undeduplicatedWords * Long.BYTES + (long) regionCount * Integer.BYTES;
+			final long bytesAfter = (long) flags.length * Long.BYTES + (long) regionWordOffset.length * Integer.BYTES;
+			log.debug("Collision map resident size {} bytes before and {} bytes after deduplication "
+				+ "({} stored planes, {} shared, {} empty, {} full)",
+				bytesBefore, bytesAfter, slices.size(), sharedPlanes, emptyPlanes, fullPlanes);
 		}
 	}
 
+	private static boolean isFilled(long[] words, long value)
+	{
+		for (long word : words)
+		{
+			if (word != value)
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
 	public static int unpackX(int position)
 	{
 		return position & 0xFFFF;
@@ -128,21 +209,21 @@ public class SplitFlagMap
 	public boolean get(int x, int y, int z, int flag)
 	{
 		final int index = getIndex(x / REGION_SIZE, y / REGION_SIZE);
-		if (index < 0 || index >= regionWordOffset.length)
+		if (index < 0 || index >= regionMapPlaneCounts.length
+			|| z < 0 || z >= regionMapPlaneCounts[index])
 		{
 			return false;
 		}
 
-		final int wordOffset = regionWordOffset[index];
-		if (wordOffset < 0 || z < 0 || z >= regionMapPlaneCounts[index])
+		final int wordOffset = regionWordOffset[index * planeStride + z];
+		if (wordOffset < 0)
 		{
-			return false;
+			return wordOffset == FULL_PLANE;
 		}
 
 		// SplitFlagMap routes (x, y) to the region that contains it, so the in-region coordinates
-		// are simply the low REGION_SIZE bits; this matches the old FlagMap.index arithmetic.
-		final int localBit = (z * REGION_SIZE * REGION_SIZE
-			+ (y & REGION_MASK) * REGION_SIZE
+		// are simply the low REGION_SIZE bits; the plane is already folded into wordOffset.
+		final int localBit = ((y & REGION_MASK) * REGION_SIZE
 			+ (x & REGION_MASK)) * FLAG_COUNT + flag;
 		return (flags[wordOffset + (localBit >> 6)] >>> (localBit & 63) & 1L) != 0L;
 	}
@@ -152,6 +233,33 @@ public class SplitFlagMap
 		return (regionX - regionExtents.getMinX()) + (regionY - regionExtents.getMinY()) * widthInclusive;
 	}
 
+	/**
+	 * Hash key for one decoded plane so byte-identical planes can share a slice.
+	 */
+	private static final class PlaneWords
+	{
+		private final long[] words;
+		private final int hash;
+
+		PlaneWords(long[] words)
+		{
+			this.words = words;
+			this.hash = Arrays.hashCode(words);
+		}
+
+		@Override
+		public boolean equals(Object o)
+		{
+			return o instanceof PlaneWords && Arrays.equals(words, ((PlaneWords) o).words);
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return hash;
+		}
+	}
+
 	@RequiredArgsConstructor
 	@Getter
 	public static class RegionExtent
@@ -1,61 +1,413 @@
 package shortestpath.pathfinder;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 import shortestpath.PrimitiveIntHashMap;
+import shortestpath.PrimitiveIntList;
 import shortestpath.WorldPointUtil;
 import shortestpath.transport.Transport;
+import shortestpath.transport.TransportTable;
+import shortestpath.transport.TransportType;
 
 public final class TransportAvailability
 {
 	public static final Transport[] EMPTY_TRANSPORTS = new Transport[0];
+	public static final int[] NO_TRANSPORT_IDS = new int[0];
+	private static final int POH_LANDING = WorldPointUtil.packWorldPoint(1923, 5709, 0);
+	// Salts of the id sets in the fingerprint.
+	private static final long ORIGIN_IDS = 0x6f726967696eL;
+	private static final long TELEPORT_IDS = 0x74656c65706fL;
+	private static final long HUB_IDS = 0x687562L;
 
-	// Transports grouped by origin tile, stored as flat arrays. The per-origin HashSet/HashMap
-	// wrappers used while building are not retained (issue #491).
+	// Transport ids (see TransportTable) grouped by origin tile, stored as flat int arrays. The
+	// per-origin HashSet/HashMap wrappers used while building are not retained (issue #491), and the
+	// search reads the table's primitive columns instead of the Transport objects.
 	//
 	// transportsPacked is the pathfinding view: a transport is reachable from its literal origin
 	// tile, and POH transports are additionally reachable from the canonical landing tile.
 	// displayTransports is the coarse display view used by overlays and getTransports(): POH origin
-	// tiles are collapsed into the landing tile only. The two maps share their Transport[] arrays
-	// for every non-POH origin.
-	private final PrimitiveIntHashMap<Transport[]> transportsPacked;
-	private final PrimitiveIntHashMap<Transport[]> displayTransports;
-	private final Transport[] usableTeleports;
+	// tiles are collapsed into the landing tile only. The two maps share their int[] arrays for
+	// every non-POH origin.
+	//
+	// Permutation networks (fairy rings, spirit trees, ...) only contribute their origin rows to
+	// these maps. Each origin row leads into the network's hub, and hubDestinations holds, per
+	// network index, the ids of the network's destination rows that are usable in this state.
+	private final TransportTable table;
+	private final PrimitiveIntHashMap<int[]> transportsPacked;
+	private final PrimitiveIntHashMap<int[]> displayTransports;
+	private final int[] usableTeleports;
+	private final int[][] hubDestinations;
+	// The origin tiles of displayTransports by map region, so the overlays only visit the origins in view.
+	private final PrimitiveIntHashMap<int[]> displayOriginsByRegion;
+	// The set hash of the ids added at an origin, kept apart so a patch only rehashes the origins it replaces.
+	private final long originFingerprint;
+	private final long fingerprint;
+	// Per-origin Transport arrays with the hub edges materialised, filled lazily for display and
+	// path analysis only.
+	private final Map<int[], Transport[]> materialised = Collections.synchronizedMap(new IdentityHashMap<>());
 
 	TransportAvailability(
-		PrimitiveIntHashMap<Transport[]> transportsPacked,
-		PrimitiveIntHashMap<Transport[]> displayTransports,
-		Transport[] usableTeleports)
+		TransportTable table,
+		PrimitiveIntHashMap<int[]> transportsPacked,
+		PrimitiveIntHashMap<int[]> displayTransports,
+		int[] usableTeleports,
+		int[][] hubDestinations,
+		long originFingerprint)
 	{
+		this(table, transportsPacked, displayTransports, indexByRegion(displayTransports), usableTeleports,
+			hubDestinations, originFingerprint);
+	}
+
+	private TransportAvailability(
+		TransportTable table,
+		PrimitiveIntHashMap<int[]> transportsPacked,
+		PrimitiveIntHashMap<int[]> displayTransports,
+		PrimitiveIntHashMap<int[]> displayOriginsByRegion,
+		int[] usableTeleports,
+		int[][] hubDestinations,
+		long originFingerprint)
+	{
+		this.table = table;
 		this.transportsPacked = transportsPacked;
 		this.displayTransports = displayTransports;
+		this.displayOriginsByRegion = displayOriginsByRegion;
 		this.usableTeleports = usableTeleports;
+		this.hubDestinations = hubDestinations;
+		this.originFingerprint = originFingerprint;
+		long hubs = 0;
+		for (int[] destinations : hubDestinations)
+		{
+			hubs += Fingerprint.ofIds(HUB_IDS, destinations);
+		}
+		fingerprint = originFingerprint + Fingerprint.ofIds(TELEPORT_IDS, usableTeleports) + hubs;
+	}
+
+	private static PrimitiveIntHashMap<int[]> indexByRegion(PrimitiveIntHashMap<int[]> transports)
+	{
+		PrimitiveIntHashMap<PrimitiveIntList> building = new PrimitiveIntHashMap<>(Math.max(1, transports.size() / 16));
+		for (int origin : transports.keys())
+		{
+			if (origin == Transport.UNDEFINED_ORIGIN)
+			{
+				continue;
+			}
+			int region = regionOf(origin);
+			PrimitiveIntList origins = building.get(region);
+			if (origins == null)
+			{
+				origins = new PrimitiveIntList();
+				building.put(region, origins);
+			}
+			origins.add(origin);
+		}
+		PrimitiveIntHashMap<int[]> regions = new PrimitiveIntHashMap<>(Math.max(1, building.size()));
+		for (int region : building.keys())
+		{
+			regions.put(region, building.get(region).toArray());
+		}
+		return regions;
 	}
 
-	public PrimitiveIntHashMap<Transport[]> getTransportsPacked()
+	/**
+	 * A copy of the region index with only the regions of the replaced origins indexed again; every
+	 * other region shares its array with the given index.
+	 */
+	private static PrimitiveIntHashMap<int[]> patchRegions(PrimitiveIntHashMap<int[]> regions, PrimitiveIntHashMap<int[]> replaced)
 	{
-		return transportsPacked;
+		Set<Integer> patched = new HashSet<>();
+		for (int origin : replaced.keys())
+		{
+			if (origin != Transport.UNDEFINED_ORIGIN)
+			{
+				patched.add(regionOf(origin));
+			}
+		}
+		PrimitiveIntHashMap<int[]> copy = new PrimitiveIntHashMap<>(Math.max(1, regions.size() + patched.size()));
+		for (int region : regions.keys())
+		{
+			if (!patched.contains(region))
+			{
+				copy.put(region, regions.get(region));
+			}
+		}
+		for (int region : patched)
+		{
+			PrimitiveIntList origins = new PrimitiveIntList();
+			for (int origin : regions.getOrDefault(region, NO_TRANSPORT_IDS))
+			{
+				if (replaced.get(origin) == null)
+				{
+					origins.add(origin);
+				}
+			}
+			for (int origin : replaced.keys())
+			{
+				if (origin != Transport.UNDEFINED_ORIGIN && regionOf(origin) == region && replaced.get(origin).length > 0)
+				{
+					origins.add(origin);
+				}
+			}
+			if (origins.size() > 0)
+			{
+				copy.put(region, origins.toArray());
+			}
+		}
+		return copy;
 	}
 
-	public PrimitiveIntHashMap<Transport[]> getDisplayTransports()
+	private static int regionOf(int origin)
+	{
+		return WorldPointUtil.regionId(WorldPointUtil.unpackWorldX(origin), WorldPointUtil.unpackWorldY(origin));
+	}
+
+	/**
+	 * Identifies the usable transports: availabilities with the same fingerprint allow the same
+	 * transports from the same origins, and the same teleports and network destinations.
+	 */
+	public long getFingerprint()
+	{
+		return fingerprint;
+	}
+
+	public TransportTable getTable()
+	{
+		return table;
+	}
+
+	/**
+	 * The ids of the transports that start at the given origin tile in the pathfinding view, or an
+	 * empty array. Network origin rows are not expanded, see {@link #getHubDestinations(int)}.
+	 */
+	public int[] getTransportIds(int origin)
+	{
+		return transportsPacked.getOrDefault(origin, NO_TRANSPORT_IDS);
+	}
+
+	public PrimitiveIntHashMap<int[]> getDisplayTransports()
 	{
 		return displayTransports;
 	}
 
-	public Transport[] getUsableTeleports()
+	/**
+	 * The origin tiles of {@link #getDisplayTransports()} in the map region, on every plane, or an
+	 * empty array. Teleports have no origin tile and are never included.
+	 */
+	public int[] getDisplayOriginsInRegion(int regionId)
+	{
+		return displayOriginsByRegion.getOrDefault(regionId, NO_TRANSPORT_IDS);
+	}
+
+	public int[] getUsableTeleportIds()
 	{
 		return usableTeleports;
 	}
 
+	/**
+	 * The ids of the destination rows of the network at {@code networkIndex} that are usable in
+	 * this state.
+	 */
+	public int[] getHubDestinations(int networkIndex)
+	{
+		return hubDestinations[networkIndex];
+	}
+
+	public Transport[] getUsableTeleports()
+	{
+		return materialise(usableTeleports);
+	}
+
 	/**
 	 * The transports that start at the given origin tile in the display view, or an empty array.
+	 * Permutation network edges are materialised as merged transports.
 	 */
 	public Transport[] getTransportsAt(int origin)
 	{
-		return displayTransports.getOrDefault(origin, EMPTY_TRANSPORTS);
+		return materialise(displayTransports.getOrDefault(origin, NO_TRANSPORT_IDS));
+	}
+
+	/**
+	 * The transports that start at the given origin tile in the pathfinding view, or an empty array.
+	 * Permutation network edges are materialised as merged transports.
+	 */
+	public Transport[] getTransportsFrom(int origin)
+	{
+		return materialise(transportsPacked.getOrDefault(origin, NO_TRANSPORT_IDS));
+	}
+
+	/**
+	 * The transports and teleports that lead from the origin tile to the destination tile, without
+	 * the teleports that share destinations with a local transport type on this edge. For example,
+	 * if the edge has a QUETZAL (local) transport, the QUETZAL_WHISTLE teleports are left out. They
+	 * are also left out when the edge is within the shared type's radius threshold, which occurs
+	 * when the path is simply walking to a landing site (not teleporting to it).
+	 */
+	public Set<Transport> getTransportsBetween(int origin, int destination)
+	{
+		Set<Transport> transports = new HashSet<>();
+		for (Transport transport : getTransportsFrom(origin))
+		{
+			if (transport.getDestination() == destination)
+			{
+				transports.add(transport);
+			}
+		}
+		// Teleports might be used from anywhere.
+		for (Transport transport : getUsableTeleports())
+		{
+			if (transport.getDestination() == destination)
+			{
+				transports.add(transport);
+			}
+		}
+		Set<TransportType> localTypes = EnumSet.noneOf(TransportType.class);
+		for (Transport transport : transports)
+		{
+			if (transport.getOrigin() != Transport.UNDEFINED_ORIGIN && transport.getType() != null)
+			{
+				localTypes.add(transport.getType());
+			}
+		}
+		int edgeDistance = WorldPointUtil.distanceBetween2D(origin, destination);
+		transports.removeIf(transport ->
+		{
+			if (transport.getOrigin() != Transport.UNDEFINED_ORIGIN || transport.getType() == null)
+			{
+				return false; // keep local transports
+			}
+			TransportType sharedType = transport.getType().sharesDestinationsWith();
+			if (sharedType == null)
+			{
+				return false; // not a shared-destination teleport, keep it
+			}
+			return localTypes.contains(sharedType)
+				|| (sharedType.getRadiusThreshold() != null && edgeDistance <= sharedType.getRadiusThreshold());
+		});
+		return transports;
+	}
+
+	/**
+	 * The transport a path took from the origin tile through the row recorded on its transport
+	 * node, see {@link NodeGraph#transportId(int)}. For a network destination row this is the edge
+	 * from the network origin row at the origin, or null if there is none.
+	 */
+	public Transport resolveTransport(int origin, int transportId)
+	{
+		if (transportId < table.size())
+		{
+			return table.getTransport(transportId);
+		}
+		for (int originId : getTransportIds(origin))
+		{
+			int network = table.getNetwork(originId);
+			if (network == TransportTable.NO_NETWORK)
+			{
+				continue;
+			}
+			int firstDestinationId = table.getFirstDestinationId(network);
+			if (transportId >= firstDestinationId
+				&& transportId < firstDestinationId + table.getNetworkAt(network).getDestinations().length
+				&& table.connects(originId, transportId))
+			{
+				return table.edge(originId, transportId);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Whether {@link #withTransportIds} can replace the ids at the origin. POH origins and the POH
+	 * landing tile are merged across origins by the builder and have to be rebuilt in full.
+	 */
+	static boolean isPatchable(int origin)
+	{
+		return origin != POH_LANDING
+			&& !shortestpath.ShortestPathPlugin.isInsidePoh(WorldPointUtil.unpackWorldX(origin), WorldPointUtil.unpackWorldY(origin));
+	}
+
+	/**
+	 * A copy of this availability with the ids at the given origins replaced, and the usable
+	 * teleports and hub destinations swapped for the given ones. An empty array removes the origin.
+	 * Every other origin shares its array with this instance, which is left untouched so that
+	 * searches still holding it keep a consistent view.
+	 *
+	 * @param replaced ids by origin, only for origins that are {@link #isPatchable}
+	 */
+	TransportAvailability withTransportIds(PrimitiveIntHashMap<int[]> replaced, int[] usableTeleports, int[][] hubDestinations)
+	{
+		long patchedFingerprint = originFingerprint;
+		for (int origin : replaced.keys())
+		{
+			patchedFingerprint += Fingerprint.ofIds(ORIGIN_IDS, replaced.get(origin))
+				- Fingerprint.ofIds(ORIGIN_IDS, transportsPacked.get(origin));
+		}
+		return new TransportAvailability(table,
+			copyReplacing(transportsPacked, replaced),
+			copyReplacing(displayTransports, replaced),
+			patchRegions(displayOriginsByRegion, replaced),
+			usableTeleports,
+			hubDestinations,
+			patchedFingerprint);
+	}
+
+	private static PrimitiveIntHashMap<int[]> copyReplacing(PrimitiveIntHashMap<int[]> transports, PrimitiveIntHashMap<int[]> replaced)
+	{
+		PrimitiveIntHashMap<int[]> copy = new PrimitiveIntHashMap<>(Math.max(1, transports.size() + replaced.size()));
+		for (int origin : transports.keys())
+		{
+			if (replaced.get(origin) == null)
+			{
+				copy.put(origin, transports.get(origin));
+			}
+		}
+		for (int origin : replaced.keys())
+		{
+			int[] ids = replaced.get(origin);
+			if (ids.length > 0)
+			{
+				copy.put(origin, ids);
+			}
+		}
+		return copy;
+	}
+
+	private Transport[] materialise(int[] ids)
+	{
+		if (ids.length == 0)
+		{
+			return EMPTY_TRANSPORTS;
+		}
+		return materialised.computeIfAbsent(ids, this::materialiseEdges);
+	}
+
+	private Transport[] materialiseEdges(int[] ids)
+	{
+		List<Transport> transports = new ArrayList<>(ids.length);
+		for (int id : ids)
+		{
+			int network = table.getNetwork(id);
+			if (network == TransportTable.NO_NETWORK)
+			{
+				transports.add(table.getTransport(id));
+				continue;
+			}
+			for (int destinationId : hubDestinations[network])
+			{
+				if (table.connects(id, destinationId))
+				{
+					transports.add(table.edge(id, destinationId));
+				}
+			}
+		}
+		return transports.toArray(EMPTY_TRANSPORTS);
 	}
 
 	/*
@@ -63,68 +415,93 @@ public final class TransportAvailability
 	 */
 	static final class Builder
 	{
+		private final TransportTable table;
 		// Temporary accumulation; converted to flat arrays in build() and not retained afterwards.
-		private final Map<Integer, Set<Transport>> transportsByOrigin;
-		private final Set<Transport> usableTeleports;
+		private final Map<Integer, PrimitiveIntList> transportsByOrigin;
+		private final PrimitiveIntList usableTeleports;
 		private final Set<Integer> pohOrigins = new HashSet<>();
+		private final int[][] hubDestinations;
+		private long originFingerprint;
 
-		Builder(int expectedTransportCount)
+		Builder(TransportTable table)
 		{
-			this.transportsByOrigin = new HashMap<>(expectedTransportCount / 2);
-			this.usableTeleports = new HashSet<>(expectedTransportCount / 20);
+			this.table = table;
+			this.transportsByOrigin = new HashMap<>(table.size() / 2);
+			this.usableTeleports = new PrimitiveIntList(table.size() / 20);
+			this.hubDestinations = new int[table.getNetworkCount()][];
+			Arrays.fill(hubDestinations, NO_TRANSPORT_IDS);
 		}
 
-		void add(Transport transport)
+		void add(int id)
 		{
-			if (transport.getOrigin() == WorldPointUtil.UNDEFINED)
+			int origin = table.getOrigin(id);
+			if (origin == WorldPointUtil.UNDEFINED)
 			{
-				usableTeleports.add(transport);
+				usableTeleports.add(id);
 				return;
 			}
 
-			transportsByOrigin.computeIfAbsent(transport.getOrigin(), ignored -> new HashSet<>()).add(transport);
+			transportsByOrigin.computeIfAbsent(origin, ignored -> new PrimitiveIntList(4)).add(id);
+			originFingerprint += Fingerprint.ofId(ORIGIN_IDS, id);
+		}
+
+		void addHub(int networkIndex, int[] usableDestinations)
+		{
+			hubDestinations[networkIndex] = usableDestinations;
 		}
 
 		void remapPohTransports()
 		{
-			int pohLanding = WorldPointUtil.packWorldPoint(1923, 5709, 0);
-			Set<Transport> pohTransports = new HashSet<>();
+			PrimitiveIntList pohTransports = new PrimitiveIntList(16);
 
-			for (Map.Entry<Integer, Set<Transport>> entry : transportsByOrigin.entrySet())
+			for (Map.Entry<Integer, PrimitiveIntList> entry : transportsByOrigin.entrySet())
 			{
 				int origin = entry.getKey();
 				int originX = WorldPointUtil.unpackWorldX(origin);
 				int originY = WorldPointUtil.unpackWorldY(origin);
 				if (shortestpath.ShortestPathPlugin.isInsidePoh(originX, originY))
 				{
-					pohTransports.addAll(entry.getValue());
+					PrimitiveIntList ids = entry.getValue();
+					for (int i = 0; i < ids.size(); i++)
+					{
+						pohTransports.add(ids.get(i));
+					}
 					// Kept in the pathfinding view, collapsed out of the display view.
 					pohOrigins.add(origin);
 				}
 			}
 
-			if (!pohTransports.isEmpty())
+			if (pohTransports.size() > 0)
 			{
-				transportsByOrigin.computeIfAbsent(pohLanding, ignored -> new HashSet<>()).addAll(pohTransports);
+				PrimitiveIntList landing = transportsByOrigin.computeIfAbsent(POH_LANDING, ignored -> new PrimitiveIntList(pohTransports.size()));
+				for (int i = 0; i < pohTransports.size(); i++)
+				{
+					int id = pohTransports.get(i);
+					if (!landing.contains(id))
+					{
+						landing.add(id);
+					}
+				}
 			}
 		}
 
 		TransportAvailability build()
 		{
 			int expected = Math.max(1, transportsByOrigin.size());
-			PrimitiveIntHashMap<Transport[]> packed = new PrimitiveIntHashMap<>(expected);
-			PrimitiveIntHashMap<Transport[]> display = new PrimitiveIntHashMap<>(expected);
-			for (Map.Entry<Integer, Set<Transport>> entry : transportsByOrigin.entrySet())
+			PrimitiveIntHashMap<int[]> packed = new PrimitiveIntHashMap<>(expected);
+			PrimitiveIntHashMap<int[]> display = new PrimitiveIntHashMap<>(expected);
+			for (Map.Entry<Integer, PrimitiveIntList> entry : transportsByOrigin.entrySet())
 			{
 				int origin = entry.getKey();
-				Transport[] transports = entry.getValue().toArray(EMPTY_TRANSPORTS);
-				packed.put(origin, transports);
+				int[] ids = entry.getValue().toArray();
+				packed.put(origin, ids);
 				if (!pohOrigins.contains(origin))
 				{
-					display.put(origin, transports);
+					display.put(origin, ids);
 				}
 			}
-			return new TransportAvailability(packed, display, usableTeleports.toArray(EMPTY_TRANSPORTS));
+			return new TransportAvailability(table, packed, display, usableTeleports.toArray(), hubDestinations,
+				originFingerprint);
 		}
 	}
 }
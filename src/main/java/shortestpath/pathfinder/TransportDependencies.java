@@ -0,0 +1,209 @@
+package shortestpath.pathfinder;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+import net.runelite.api.Quest;
+import shortestpath.PrimitiveIntHashMap;
+import shortestpath.PrimitiveIntList;
+import shortestpath.transport.Transport;
+import shortestpath.transport.TransportTable;
+import shortestpath.transport.TransportType;
+import shortestpath.transport.parser.VarRequirement;
+
+/**
+ * Which transport ids depend on which piece of game state, for refreshing the transport
+ * availability incrementally.
+ * <p>
+ * Every quest, varbit, varp, skill, item and transport type maps to the ids whose verdict can
+ * change with it. When a refresh sees one of them change it {@link #mark}s those ids dirty, and
+ * only the dirty ids are re-evaluated. Settings that apply to many transports at once (POH,
+ * teleportation items, leagues, ...) are not tracked here; a change to any of them makes
+ * {@link PathfinderConfig} re-evaluate everything instead.
+ * <p>
+ * Also holds the per-origin candidate ids and the origin rows of every network, which the
+ * availability is patched from.
+ */
+final class TransportDependencies
+{
+	static final int QUEST = 0;
+	static final int VARBIT = 1;
+	static final int VARPLAYER = 2;
+	static final int SKILL = 3;
+	static final int ITEM = 4;
+	static final int TYPE = 5;
+
+	private final PrimitiveIntHashMap<int[]> dependants;
+	// Every id below TransportTable.size() by origin, ascending, i.e. the ids a full build puts
+	// under each origin when all of them are usable.
+	private final PrimitiveIntHashMap<int[]> candidates;
+	private final int[][] networkOrigins;
+	private final BitSet dirty;
+
+	private TransportDependencies(PrimitiveIntHashMap<int[]> dependants, PrimitiveIntHashMap<int[]> candidates,
+		int[][] networkOrigins, int rowCount)
+	{
+		this.dependants = dependants;
+		this.candidates = candidates;
+		this.networkOrigins = networkOrigins;
+		this.dirty = new BitSet(rowCount);
+	}
+
+	private static int key(int kind, int id)
+	{
+		return kind << 26 | id;
+	}
+
+	/**
+	 * Marks every id depending on the given quest ordinal, var id, skill index, item id or type
+	 * ordinal as dirty.
+	 */
+	void mark(int kind, int id)
+	{
+		int[] ids = dependants.get(key(kind, id));
+		if (ids != null)
+		{
+			for (int transportId : ids)
+			{
+				dirty.set(transportId);
+			}
+		}
+	}
+
+	BitSet getDirty()
+	{
+		return dirty;
+	}
+
+	void clearDirty()
+	{
+		dirty.clear();
+	}
+
+	/**
+	 * The ids below {@link TransportTable#size()} starting at the origin, ascending.
+	 */
+	int[] getCandidates(int origin)
+	{
+		return candidates.getOrDefault(origin, TransportAvailability.NO_TRANSPORT_IDS);
+	}
+
+	/**
+	 * The ids of the origin rows leading into the network.
+	 */
+	int[] getNetworkOrigins(int networkIndex)
+	{
+		return networkOrigins[networkIndex];
+	}
+
+	/*
+	 * Build the dependency index by adding every transport with what its checks read.
+	 */
+	static final class Builder
+	{
+		private final TransportTable table;
+		private final Map<Integer, PrimitiveIntList> dependants = new HashMap<>();
+
+		Builder(TransportTable table)
+		{
+			this.table = table;
+		}
+
+		/**
+		 * Adds the quests, vars, skills, type and required items of every id in the table.
+		 */
+		Builder addTransports(CompiledItems[] itemRequirements)
+		{
+			for (int id = 0; id < table.getRowCount(); id++)
+			{
+				Transport transport = table.getTransport(id);
+				for (Quest quest : transport.getQuests())
+				{
+					add(QUEST, quest.ordinal(), id);
+				}
+				for (VarRequirement requirement : transport.getVarRequirements())
+				{
+					add(requirement.isVarbit() ? VARBIT : VARPLAYER, requirement.getId(), id);
+				}
+				int[] levels = transport.getSkillLevels();
+				for (int i = 0; i < levels.length; i++)
+				{
+					if (levels[i] > 0)
+					{
+						add(SKILL, i, id);
+					}
+				}
+				add(TYPE, transport.getType().ordinal(), id);
+				if (itemRequirements[id] != null)
+				{
+					for (int itemId : itemRequirements[id].getAllItemIds())
+					{
+						add(ITEM, itemId, id);
+					}
+				}
+			}
+			return this;
+		}
+
+		/**
+		 * Makes every id of the type depend on the given state too, for checks that apply to a
+		 * whole type.
+		 */
+		Builder addType(TransportType type, int kind, int id)
+		{
+			for (int transportId = 0; transportId < table.getRowCount(); transportId++)
+			{
+				if (table.getType(transportId) == type)
+				{
+					add(kind, id, transportId);
+				}
+			}
+			return this;
+		}
+
+		private void add(int kind, int id, int transportId)
+		{
+			PrimitiveIntList ids = dependants.computeIfAbsent(key(kind, id), ignored -> new PrimitiveIntList(4));
+			if (ids.size() == 0 || ids.get(ids.size() - 1) != transportId)
+			{
+				ids.add(transportId);
+			}
+		}
+
+		TransportDependencies build()
+		{
+			PrimitiveIntHashMap<int[]> dependantIds = new PrimitiveIntHashMap<>(Math.max(1, dependants.size()));
+			for (Map.Entry<Integer, PrimitiveIntList> entry : dependants.entrySet())
+			{
+				dependantIds.put(entry.getKey(), entry.getValue().toArray());
+			}
+
+			Map<Integer, PrimitiveIntList> byOrigin = new HashMap<>(table.size() / 2);
+			PrimitiveIntList[] origins = new PrimitiveIntList[table.getNetworkCount()];
+			for (int i = 0; i < origins.length; i++)
+			{
+				origins[i] = new PrimitiveIntList(16);
+			}
+			for (int id = 0; id < table.size(); id++)
+			{
+				byOrigin.computeIfAbsent(table.getOrigin(id), ignored -> new PrimitiveIntList(4)).add(id);
+				if (table.getNetwork(id) != TransportTable.NO_NETWORK)
+				{
+					origins[table.getNetwork(id)].add(id);
+				}
+			}
+			PrimitiveIntHashMap<int[]> candidates = new PrimitiveIntHashMap<>(Math.max(1, byOrigin.size()));
+			for (Map.Entry<Integer, PrimitiveIntList> entry : byOrigin.entrySet())
+			{
+				candidates.put(entry.getKey(), entry.getValue().toArray());
+			}
+			int[][] networkOrigins = new int[origins.length][];
+			for (int i = 0; i < origins.length; i++)
+			{
+				networkOrigins[i] = origins[i].toArray();
+			}
+			return new TransportDependencies(dependantIds, candidates, networkOrigins, table.getRowCount());
+		}
+	}
+}
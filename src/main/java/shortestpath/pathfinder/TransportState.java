@@ -0,0 +1,102 @@
+package shortestpath.pathfinder;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import lombok.Getter;
+import shortestpath.JewelleryBoxTier;
+import shortestpath.TeleportationItem;
+import shortestpath.leagues.LeagueModeState;
+import shortestpath.transport.TransportType;
+
+/**
+ * Everything the transport checks read, captured on the client thread by
+ * {@link PathfinderConfig#refresh()} and evaluated in the background.
+ * <p>
+ * Never modified after construction, so the evaluation does not race with the next refresh. The
+ * settings that apply to many transports at once are also collected in {@link #getSettings()};
+ * any change in them makes the evaluation start over instead of updating only the transports
+ * depending on what changed (see {@link TransportDependencies}).
+ */
+@Getter
+final class TransportState
+{
+	private final RequirementSnapshot requirements;
+	private final ItemSnapshot items;
+	// Indexed by TransportType ordinal.
+	private final boolean[] enabledTypes;
+	private final TeleportationItem teleportationItemSetting;
+	private final LeagueModeState leagueModeState;
+	private final Set<String> availableSpiritTrees;
+	private final boolean onSailingBoat;
+	private final boolean usePoh;
+	private final boolean usePohFairyRing;
+	private final boolean usePohSpiritTree;
+	private final boolean usePohMountedItems;
+	private final boolean usePohObelisk;
+	private final JewelleryBoxTier pohJewelleryBoxTier;
+	private final int currencyThreshold;
+	private final boolean includeBankPath;
+	private final List<Object> settings;
+
+	TransportState(RequirementSnapshot requirements, ItemSnapshot items, boolean[] enabledTypes,
+		TeleportationItem teleportationItemSetting, LeagueModeState leagueModeState, Set<String> availableSpiritTrees,
+		boolean onSailingBoat, boolean usePoh, boolean usePohFairyRing, boolean usePohSpiritTree,
+		boolean usePohMountedItems, boolean usePohObelisk, JewelleryBoxTier pohJewelleryBoxTier,
+		int currencyThreshold, boolean includeBankPath)
+	{
+		this.requirements = requirements;
+		this.items = items;
+		this.enabledTypes = enabledTypes;
+		this.teleportationItemSetting = teleportationItemSetting;
+		this.leagueModeState = leagueModeState;
+		this.availableSpiritTrees = availableSpiritTrees;
+		this.onSailingBoat = onSailingBoat;
+		this.usePoh = usePoh;
+		this.usePohFairyRing = usePohFairyRing;
+		this.usePohSpiritTree = usePohSpiritTree;
+		this.usePohMountedItems = usePohMountedItems;
+		this.usePohObelisk = usePohObelisk;
+		this.pohJewelleryBoxTier = pohJewelleryBoxTier;
+		this.currencyThreshold = currencyThreshold;
+		this.includeBankPath = includeBankPath;
+		this.settings = Arrays.asList(teleportationItemSetting, leagueModeState.isSeasonal(),
+			leagueModeState.getUnlockedRegions(), availableSpiritTrees, onSailingBoat, usePoh, usePohFairyRing,
+			usePohSpiritTree, usePohMountedItems, usePohObelisk, pohJewelleryBoxTier, currencyThreshold,
+			includeBankPath);
+	}
+
+	boolean isEnabled(TransportType type)
+	{
+		return enabledTypes[type.ordinal()];
+	}
+
+	/**
+	 * Whether evaluating this state gives the same transports as evaluating {@code previous}.
+	 */
+	boolean hasSameValues(TransportState previous)
+	{
+		return settings.equals(previous.settings)
+			&& Arrays.equals(enabledTypes, previous.enabledTypes)
+			&& requirements.hasSameValues(previous.requirements)
+			&& items.hasSameQuantities(previous.items);
+	}
+
+	/**
+	 * Marks the transports depending on every quest, var, level, item and type that differs from
+	 * {@code previous}.
+	 */
+	void markChanges(TransportState previous, TransportDependencies changes)
+	{
+		requirements.markChanges(previous.requirements, changes);
+		items.forEachChange(previous.items, itemId -> changes.mark(TransportDependencies.ITEM, itemId));
+		for (int type = 0; type < enabledTypes.length; type++)
+		{
+			if (enabledTypes[type] != previous.enabledTypes[type])
+			{
+				changes.mark(TransportDependencies.TYPE, type);
+			}
+		}
+	}
+}
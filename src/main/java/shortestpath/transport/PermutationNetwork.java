@@ -0,0 +1,131 @@
+package shortestpath.transport;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import lombok.Getter;
+import shortestpath.WorldPointUtil;
+
+/**
+ * A permutation network such as fairy rings or spirit trees, where every origin-only row can travel
+ * to every destination-only row of the same resource file.
+ * <p>
+ * Instead of materialising the origin x destination cross product as merged {@link Transport}
+ * objects, the network keeps the origin and destination rows and is modelled as a hub: each origin
+ * row leads into the hub and each destination row leads out of it. The requirements stay split
+ * across the two rows, so an edge is usable when both of its rows are.
+ */
+public final class PermutationNetwork
+{
+	private static final Transport[] NO_TRANSPORTS = new Transport[0];
+
+	@Getter
+	private final TransportType type;
+	/**
+	 * Origin/destination pairs no further apart than this are not connected, e.g. travelling from a
+	 * fairy ring to that same ring.
+	 */
+	@Getter
+	private final int radiusThreshold;
+	@Getter
+	private final Transport[] origins;
+	@Getter
+	private final Transport[] destinations;
+	/**
+	 * The destination of each destination row as loaded, before the POH landing remap, which the
+	 * radius threshold is measured against.
+	 */
+	private final int[] anchors;
+
+	PermutationNetwork(TransportType type, int radiusThreshold, Transport[] origins, Transport[] destinations)
+	{
+		this(type, radiusThreshold, origins, destinations, destinationsOf(destinations));
+	}
+
+	PermutationNetwork(TransportType type, int radiusThreshold, Transport[] origins, Transport[] destinations, int[] anchors)
+	{
+		this.type = type;
+		this.radiusThreshold = radiusThreshold;
+		this.origins = origins;
+		this.destinations = destinations;
+		this.anchors = anchors;
+		for (Transport origin : origins)
+		{
+			origin.setNetwork(this);
+		}
+	}
+
+	private static int[] destinationsOf(Transport[] transports)
+	{
+		int[] points = new int[transports.length];
+		for (int i = 0; i < transports.length; i++)
+		{
+			points[i] = transports[i].getDestination();
+		}
+		return points;
+	}
+
+	int getAnchor(int destinationIndex)
+	{
+		return anchors[destinationIndex];
+	}
+
+	/**
+	 * Whether the origin row is connected to the destination row at {@code destinationIndex}.
+	 */
+	public boolean connects(Transport origin, int destinationIndex)
+	{
+		return WorldPointUtil.distanceBetween2D(origin.getOrigin(), anchors[destinationIndex]) > radiusThreshold;
+	}
+
+	/**
+	 * Materialises the edges from the origin row to every connected destination row of the network.
+	 */
+	public Transport[] edgesFrom(Transport origin)
+	{
+		List<Transport> edges = new ArrayList<>(destinations.length);
+		for (int i = 0; i < destinations.length; i++)
+		{
+			if (connects(origin, i))
+			{
+				edges.add(new Transport(origin, destinations[i]));
+			}
+		}
+		return edges.toArray(NO_TRANSPORTS);
+	}
+
+	/**
+	 * A copy of the transports by origin with each permutation network origin row replaced by its
+	 * materialised edges, i.e. the origin x destination pairs the loader used to build. Origins left
+	 * without any transport are dropped.
+	 */
+	public static Map<Integer, Set<Transport>> materialise(Map<Integer, Set<Transport>> transports)
+	{
+		Map<Integer, Set<Transport>> materialised = new HashMap<>(transports.size() * 2);
+		for (Map.Entry<Integer, Set<Transport>> entry : transports.entrySet())
+		{
+			Set<Transport> edges = new HashSet<>();
+			for (Transport transport : entry.getValue())
+			{
+				if (transport.getNetwork() == null)
+				{
+					edges.add(transport);
+				}
+				else
+				{
+					edges.addAll(Arrays.asList(transport.getNetwork().edgesFrom(transport)));
+				}
+			}
+			if (!edges.isEmpty())
+			{
+				materialised.put(entry.getKey(), edges);
+			}
+		}
+		return materialised;
+	}
+}
@@ -120,6 +120,12 @@ public class Transport
 	 */
 	@Getter
 	private LeagueRegion regionOverride = null;
+	/**
+	 * The permutation network this origin-only row leads into, or null for an ordinary transport.
+	 * The row's destination is then {@link #LOCATION_PERMUTATION}, i.e. the network's hub.
+	 */
+	@Getter
+	private PermutationNetwork network = null;
 
 	/**
 	 * Creates a new transport from an origin-only transport
@@ -166,59 +172,42 @@ public class Transport
 		TransportBuilder builder = new TransportBuilder();
 		builder.type(transportType);
 
-		// Origin/Destination use hasKey because empty string means LOCATION_PERMUTATION
-		if (record.hasKey(TransportRecord.Fields.ORIGIN))
+		// Origin/Destination check for the field because empty string means LOCATION_PERMUTATION
+		if (record.hasOrigin())
 		{
 			builder.origin(record.getOrigin());
 		}
-		if (record.hasKey(TransportRecord.Fields.DESTINATION))
+		if (record.hasDestination())
 		{
 			builder.destination(record.getDestination());
 		}
-		if (record.has(TransportRecord.Fields.SKILLS))
-		{
-			builder.skillLevels(record.getSkills());
-		}
-		if (record.has(TransportRecord.Fields.ITEMS))
-		{
-			builder.itemRequirements(record.getItems());
-		}
-		if (record.has(TransportRecord.Fields.QUESTS))
-		{
-			builder.quests(record.getQuests());
-		}
-		if (record.has(TransportRecord.Fields.DURATION))
-		{
-			builder.duration(record.getDuration());
-		}
-		if (record.has(TransportRecord.Fields.DISPLAY_INFO))
-		{
-			builder.displayInfo(record.getDisplayInfo());
-		}
-		if (record.has(TransportRecord.Fields.CONSUMABLE))
+		int[] skills = record.getSkills();
+		if (skills != null)
 		{
-			builder.isConsumable(record.getConsumable());
+			builder.startSkillLevels(skills);
 		}
-		if (record.has(TransportRecord.Fields.WILDERNESS_LEVEL))
+		builder.itemRequirements(record.getItems());
+		Set<Quest> recordQuests = record.getQuests();
+		if (recordQuests != null)
 		{
-			builder.maxWildernessLevel(record.getWildernessLevel());
+			builder.quests(recordQuests);
 		}
-		if (record.has(TransportRecord.Fields.OBJECT_INFO))
+		builder.duration(record.getDuration());
+		builder.displayInfo(record.getDisplayInfo());
+		builder.isConsumable(record.getConsumable());
+		builder.maxWildernessLevel(record.getWildernessLevel());
+		builder.objectInfo(record.getObjectInfo());
+		Set<VarRequirement> varbits = record.getVarbits();
+		if (varbits != null)
 		{
-			builder.objectInfo(record.getObjectInfo());
+			builder.varRequirements(varbits);
 		}
-		if (record.has(TransportRecord.Fields.VARBITS))
+		Set<VarRequirement> varPlayers = record.getVarPlayers();
+		if (varPlayers != null)
 		{
-			builder.varbits(record.getVarbits());
-		}
-		if (record.has(TransportRecord.Fields.VAR_PLAYERS))
-		{
-			builder.varPlayers(record.getVarPlayers());
-		}
-		if (record.has(TransportRecord.Fields.REGION_OVERRIDE))
-		{
-			builder.regionOverride(record.getRegionOverride());
+			builder.varRequirements(varPlayers);
 		}
+		builder.regionOverride(record.getRegionOverride());
 
 		Transport builtTransport = builder.build();
 		this.origin = builtTransport.origin;
@@ -240,6 +229,36 @@ public class Transport
 	{
 	}
 
+	/**
+	 * Restores a transport read from a {@link TransportSnapshot}. The fields are assigned as-is
+	 * instead of going through the builder, so requirement instances shared between transports in
+	 * the snapshot stay shared (issue #491).
+	 */
+	Transport(int origin, int destination, TransportType type, int[] skillLevels, Set<Quest> quests,
+		TransportItems itemRequirements, Set<VarRequirement> varRequirements, int duration,
+		String displayInfo, boolean isConsumable, int maxWildernessLevel, String objectInfo,
+		LeagueRegion regionOverride)
+	{
+		this.origin = origin;
+		this.destination = destination;
+		this.type = type;
+		this.skillLevels = compactSkills(skillLevels);
+		this.quests = quests;
+		this.itemRequirements = itemRequirements;
+		this.varRequirements = varRequirements;
+		this.duration = duration;
+		this.displayInfo = displayInfo;
+		this.isConsumable = isConsumable;
+		this.maxWildernessLevel = maxWildernessLevel;
+		this.objectInfo = objectInfo;
+		this.regionOverride = regionOverride;
+	}
+
+	void setNetwork(PermutationNetwork network)
+	{
+		this.network = network;
+	}
+
 	/**
 	 * Hands back a shared immutable empty set when the builder accumulated nothing, so empty
 	 * requirement sets do not allocate a {@code HashSet}/{@code HashMap} per transport. A non-empty
@@ -404,12 +423,13 @@ public class Transport
 	{
 		private final int[] skillLevels = new int[Skill.values().length + 3];
 		private final Set<VarRequirement> varRequirements = new HashSet<>();
-		private final FieldParser<int[]> skillParser = new SkillRequirementParser();
-		private final FieldParser<TransportItems> itemParser = new ItemRequirementParser();
-		private final FieldParser<Set<Quest>> questParser = new QuestParser();
-		private final VarRequirementParser varbitParser = VarRequirementParser.forVarbits();
-		private final VarRequirementParser varPlayerParser = VarRequirementParser.forVarPlayers();
-		private final FieldParser<Integer> worldPointParser = new WorldPointParser();
+		// The parsers are stateless, so every builder shares one instance of each.
+		private static final FieldParser<int[]> SKILL_PARSER = new SkillRequirementParser();
+		private static final FieldParser<TransportItems> ITEM_PARSER = new ItemRequirementParser();
+		private static final FieldParser<Set<Quest>> QUEST_PARSER = new QuestParser();
+		private static final VarRequirementParser VARBIT_PARSER = VarRequirementParser.forVarbits();
+		private static final VarRequirementParser VARPLAYER_PARSER = VarRequirementParser.forVarPlayers();
+		private static final FieldParser<Integer> WORLD_POINT_PARSER = new WorldPointParser();
 		private final Set<Quest> quests = new HashSet<>();
 		private int origin = UNDEFINED_ORIGIN;
 		private int destination = UNDEFINED_DESTINATION;
@@ -430,7 +450,7 @@ public class Transport
 
 		public TransportBuilder origin(String value)
 		{
-			this.origin = worldPointParser.parse(value);
+			this.origin = WORLD_POINT_PARSER.parse(value);
 			return this;
 		}
 
@@ -442,13 +462,13 @@ public class Transport
 
 		public TransportBuilder destination(String value)
 		{
-			this.destination = worldPointParser.parse(value);
+			this.destination = WORLD_POINT_PARSER.parse(value);
 			return this;
 		}
 
 		public TransportBuilder skillLevels(String value)
 		{
-			int[] parsedSkills = skillParser.parse(value);
+			int[] parsedSkills = SKILL_PARSER.parse(value);
 			for (int i = 0; i < skillLevels.length; i++)
 			{
 				if (parsedSkills[i] > 0)
@@ -476,7 +496,7 @@ public class Transport
 
 		public TransportBuilder quests(String value)
 		{
-			this.quests.addAll(questParser.parse(value));
+			this.quests.addAll(QUEST_PARSER.parse(value));
 			return this;
 		}
 
@@ -488,7 +508,7 @@ public class Transport
 
 		public TransportBuilder itemRequirements(String value)
 		{
-			this.itemRequirements = itemParser.parse(value);
+			this.itemRequirements = ITEM_PARSER.parse(value);
 			return this;
 		}
 
@@ -599,13 +619,13 @@ public class Transport
 
 		public TransportBuilder varbits(String value)
 		{
-			this.varRequirements.addAll(varbitParser.parse(value));
+			this.varRequirements.addAll(VARBIT_PARSER.parse(value));
 			return this;
 		}
 
 		public TransportBuilder varPlayers(String value)
 		{
-			this.varRequirements.addAll(varPlayerParser.parse(value));
+			this.varRequirements.addAll(VARPLAYER_PARSER.parse(value));
 			return this;
 		}
 
@@ -1,7 +1,7 @@
 package shortestpath.transport;
 
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -14,25 +14,20 @@ import java.util.Set;
 import lombok.extern.slf4j.Slf4j;
 import shortestpath.ShortestPathPlugin;
 import shortestpath.Util;
-import shortestpath.WorldPointUtil;
 import shortestpath.transport.parser.TransportRecord;
 import shortestpath.transport.parser.TsvParser;
 
 @Slf4j
 public class TransportLoader
 {
-	private static final TsvParser tsvParser = new TsvParser();
-
 	private static void addTransports(
 		Map<Integer, Set<Transport>> transports, String path, TransportType transportType,
 		int radiusThreshold)
 	{
 		try
 		{
-			String s = new String(
-				Util.readAllBytes(Objects.requireNonNull(ShortestPathPlugin.class.getResourceAsStream(path))),
-				StandardCharsets.UTF_8);
-			addTransportsFromContents(transports, s, transportType, radiusThreshold);
+			byte[] contents = Util.readAllBytes(Objects.requireNonNull(ShortestPathPlugin.class.getResourceAsStream(path)));
+			addTransportsFromContents(transports, new TsvParser(contents), transportType, radiusThreshold);
 		}
 		catch (IOException e)
 		{
@@ -46,10 +41,18 @@ public class TransportLoader
 		TransportType transportType,
 		int radiusThreshold)
 	{
-		List<TransportRecord> records = tsvParser.parse(contents);
+		addTransportsFromContents(transports, new TsvParser(contents), transportType, radiusThreshold);
+	}
 
+	private static void addTransportsFromContents(
+		Map<Integer, Set<Transport>> transports,
+		TsvParser parser,
+		TransportType transportType,
+		int radiusThreshold)
+	{
+		TransportRecord record = new TransportRecord(parser);
 		Set<Transport> newTransports = new HashSet<>();
-		for (TransportRecord record : records)
+		while (record.next())
 		{
 			Transport transport = new Transport(record, transportType);
 			newTransports.add(transport);
@@ -72,9 +75,13 @@ public class TransportLoader
 		 * non-identical transports from origin A to destination A can be skipped
 		 * by specifying a radius threshold to ignore almost identical coordinates.
 		 * Example: fairy ring AIQ -> AIQ
+		 *
+		 * The origin-only and destination-only rows form a PermutationNetwork. Only the
+		 * origin-only rows are added to the map, each leading into the network's hub, so the
+		 * origin x destination permutations are never materialised.
 		 */
-		Set<Transport> transportOrigins = new HashSet<>();
-		Set<Transport> transportDestinations = new HashSet<>();
+		List<Transport> transportOrigins = new ArrayList<>();
+		List<Transport> transportDestinations = new ArrayList<>();
 		for (Transport transport : newTransports)
 		{
 			int origin = transport.getOrigin();
@@ -102,20 +109,15 @@ public class TransportLoader
 				transports.computeIfAbsent(origin, k -> new HashSet<>()).add(transport);
 			}
 		}
+		if (transportOrigins.isEmpty() || transportDestinations.isEmpty())
+		{
+			return;
+		}
+		new PermutationNetwork(transportType, radiusThreshold,
+			transportOrigins.toArray(new Transport[0]), transportDestinations.toArray(new Transport[0]));
 		for (Transport origin : transportOrigins)
 		{
-			for (Transport destination : transportDestinations)
-			{
-				// The radius threshold prevents transport permutations from including (almost)
-				// same origin and destination
-				if (WorldPointUtil.distanceBetween2D(origin.getOrigin(), destination.getDestination()) > radiusThreshold)
-				{
-					Transport combined = new Transport(origin, destination);
-					transports
-						.computeIfAbsent(origin.getOrigin(), k -> new HashSet<>())
-						.add(combined);
-				}
-			}
+			transports.computeIfAbsent(origin.getOrigin(), k -> new HashSet<>()).add(origin);
 		}
 	}
 
@@ -155,6 +157,16 @@ public class TransportLoader
 				{
 					transport.internRequirements(interner);
 				}
+				if (transport.getNetwork() != null)
+				{
+					for (Transport destination : transport.getNetwork().getDestinations())
+					{
+						if (visited.add(destination))
+						{
+							destination.internRequirements(interner);
+						}
+					}
+				}
 			}
 		}
 	}
@@ -0,0 +1,746 @@
+package shortestpath.transport;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.api.Quest;
+import net.runelite.api.Skill;
+import net.runelite.client.RuneLite;
+import shortestpath.Destination;
+import shortestpath.DestinationRequirements;
+import shortestpath.ShortestPathPlugin;
+import shortestpath.leagues.LeagueRegion;
+import shortestpath.transport.parser.FieldParser;
+import shortestpath.transport.parser.ItemRequirementParser;
+import shortestpath.transport.parser.QuestParser;
+import shortestpath.transport.parser.SkillRequirementParser;
+import shortestpath.transport.parser.TransportRecord;
+import shortestpath.transport.parser.TsvParser;
+import shortestpath.transport.parser.VarCheckType;
+import shortestpath.transport.parser.VarRequirement;
+import shortestpath.transport.parser.VarRequirementParser;
+import shortestpath.transport.parser.WorldPointParser;
+import shortestpath.transport.requirement.ItemRequirement;
+import shortestpath.transport.requirement.TransportItems;
+
+/**
+ * The fully built transport set and destination maps, cached as a binary file under the RuneLite
+ * directory so later starts can skip parsing the TSV resources.
+ * <p>
+ * The file is keyed by a hash of the bundled resources and of the compiled code that builds the
+ * transports from them. A snapshot whose hash does not match (or
+ * that cannot be read at all) is ignored, and the caller falls back to parsing. Requirement objects
+ * are written once into shared tables and referenced by index, so the transports read back share
+ * them the same way {@link LoadInterner} does after parsing (issue #491).
+ */
+@Slf4j
+public final class TransportSnapshot
+{
+	public static final File CACHE_FILE = new File(new File(RuneLite.RUNELITE_DIR, "shortest-path"), "transports.bin");
+
+	private static final int MAGIC = 0x53505453; // "SPTS"
+	/**
+	 * Bump whenever the file layout changes. Changes to the way transports are built from the
+	 * resources are caught by the hash of {@link #BUILDER_CLASSES}.
+	 */
+	private static final int FORMAT_VERSION = 2;
+	private static final int NONE = -1;
+	/**
+	 * The classes that build the transports from the resources, hashed along with them so a new
+	 * plugin build that changes how transports are built never reads a stale snapshot.
+	 */
+	private static final Class<?>[] BUILDER_CLASSES = {
+		TransportSnapshot.class,
+		TransportLoader.class,
+		PermutationNetwork.class,
+		LoadInterner.class,
+		Transport.class,
+		TransportType.class,
+		BankPickupRequirements.class,
+		Destination.class,
+		DestinationRequirements.class,
+		FieldParser.class,
+		ItemRequirementParser.class,
+		QuestParser.class,
+		SkillRequirementParser.class,
+		TransportRecord.class,
+		TsvParser.class,
+		VarRequirementParser.class,
+		WorldPointParser.class,
+		ItemRequirement.class,
+		TransportItems.class,
+	};
+
+	@Getter
+	private final byte[] resourceHash;
+	@Getter
+	private final Transport[] transports;
+	@Getter
+	private final Map<String, Set<Integer>> destinations;
+	@Getter
+	private final Map<Integer, DestinationRequirements> bankRequirements;
+
+	public TransportSnapshot(byte[] resourceHash, Transport[] transports,
+		Map<String, Set<Integer>> destinations, Map<Integer, DestinationRequirements> bankRequirements)
+	{
+		this.resourceHash = resourceHash;
+		this.transports = transports;
+		this.destinations = destinations;
+		this.bankRequirements = bankRequirements;
+	}
+
+	/**
+	 * SHA-256 over the format version, every bundled transport and destination resource, the
+	 * constant names of the enums stored by ordinal and the class files of the code that builds the
+	 * transports, along with those of {@code builders} outside this package. Any change to those
+	 * invalidates the cache.
+	 */
+	public static byte[] hashResources(Class<?>... builders)
+	{
+		MessageDigest digest;
+		try
+		{
+			digest = MessageDigest.getInstance("SHA-256");
+		}
+		catch (NoSuchAlgorithmException e)
+		{
+			throw new IllegalStateException(e);
+		}
+
+		updateInt(digest, FORMAT_VERSION);
+		List<String> paths = new ArrayList<>();
+		for (TransportType type : TransportType.values())
+		{
+			if (type.hasResourcePath())
+			{
+				paths.add(type.getResourcePath());
+			}
+		}
+		paths.addAll(Destination.RESOURCE_PATHS);
+		for (String path : paths)
+		{
+			digest.update(path.getBytes(StandardCharsets.UTF_8));
+			try (InputStream in = ShortestPathPlugin.class.getResourceAsStream(path))
+			{
+				if (in == null)
+				{
+					throw new IllegalStateException("Missing resource " + path);
+				}
+				byte[] contents = in.readAllBytes();
+				updateInt(digest, contents.length);
+				digest.update(contents);
+			}
+			catch (IOException e)
+			{
+				throw new RuntimeException(e);
+			}
+		}
+
+		updateNames(digest, TransportType.values());
+		updateNames(digest, Quest.values());
+		updateNames(digest, Skill.values());
+		updateNames(digest, LeagueRegion.values());
+		updateNames(digest, VarRequirement.VarType.values());
+		updateNames(digest, VarCheckType.values());
+		for (Class<?> type : BUILDER_CLASSES)
+		{
+			updateClass(digest, type);
+		}
+		for (Class<?> type : builders)
+		{
+			updateClass(digest, type);
+		}
+		return digest.digest();
+	}
+
+	/**
+	 * Hashes the class file of the type, of its member classes and of its anonymous classes, which
+	 * are numbered from 1 in the order they appear.
+	 */
+	private static void updateClass(MessageDigest digest, Class<?> type)
+	{
+		updateClassFile(digest, type, type.getName());
+		for (Class<?> member : type.getDeclaredClasses())
+		{
+			updateClass(digest, member);
+		}
+		for (int i = 1; updateClassFile(digest, type, type.getName() + "$" + i); i++)
+		{
+			// Until there is no anonymous class with the next number
+		}
+	}
+
+	/**
+	 * @return false if there is no class file with the binary name
+	 */
+	private static boolean updateClassFile(MessageDigest digest, Class<?> type, String binaryName)
+	{
+		String path = "/" + binaryName.replace('.', '/') + ".class";
+		try (InputStream in = type.getResourceAsStream(path))
+		{
+			if (in == null)
+			{
+				return false;
+			}
+			byte[] contents = in.readAllBytes();
+			digest.update(binaryName.getBytes(StandardCharsets.UTF_8));
+			updateInt(digest, contents.length);
+			digest.update(contents);
+			return true;
+		}
+		catch (IOException e)
+		{
+			throw new RuntimeException(e);
+		}
+	}
+
+	private static void updateInt(MessageDigest digest, int value)
+	{
+		digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(value).array());
+	}
+
+	private static void updateNames(MessageDigest digest, Enum<?>[] values)
+	{
+		updateInt(digest, values.length);
+		for (Enum<?> value : values)
+		{
+			digest.update(value.name().getBytes(StandardCharsets.UTF_8));
+			digest.update((byte) 0);
+		}
+	}
+
+	/**
+	 * Reads a snapshot from {@code file}.
+	 *
+	 * @return the snapshot, or {@code null} if the file is missing, was written for other resources,
+	 * or cannot be decoded, in which case the file is deleted so it is not read again
+	 */
+	public static TransportSnapshot read(File file, byte[] expectedHash)
+	{
+		if (!file.isFile())
+		{
+			return null;
+		}
+
+		try
+		{
+			ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+			if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION)
+			{
+				log.debug("Ignoring transport snapshot with an unknown format");
+				return null;
+			}
+			byte[] hash = new byte[readLength(buffer, 1)];
+			buffer.get(hash);
+			if (!Arrays.equals(hash, expectedHash))
+			{
+				log.debug("Ignoring transport snapshot built from different resources");
+				return null;
+			}
+			TransportSnapshot snapshot = new Reader(buffer).read(hash);
+			if (buffer.hasRemaining())
+			{
+				log.debug("Ignoring transport snapshot with trailing data");
+				return null;
+			}
+			return snapshot;
+		}
+		catch (IOException e)
+		{
+			log.warn("Failed to read transport snapshot {}", file, e);
+			return null;
+		}
+		catch (RuntimeException e)
+		{
+			// Any decoding error is a corrupt file, which is parsed again rather than failing the plugin.
+			log.warn("Deleting corrupt transport snapshot {}", file, e);
+			if (!file.delete())
+			{
+				log.warn("Failed to delete corrupt transport snapshot {}", file);
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * Reads a length and checks that the rest of the buffer can hold that many elements.
+	 */
+	private static int readLength(ByteBuffer buffer, int elementBytes)
+	{
+		int length = buffer.getInt();
+		if (length < 0 || length > buffer.remaining() / elementBytes)
+		{
+			throw new IllegalArgumentException("Invalid length " + length);
+		}
+		return length;
+	}
+
+	/**
+	 * Writes this snapshot to {@code file}, replacing any previous snapshot. The file is written to a
+	 * temporary sibling first and then moved into place, so a reader never sees a partial file.
+	 */
+	public void write(File file) throws IOException
+	{
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(1 << 20);
+		try (DataOutputStream out = new DataOutputStream(bytes))
+		{
+			out.writeInt(MAGIC);
+			out.writeInt(FORMAT_VERSION);
+			out.writeInt(resourceHash.length);
+			out.write(resourceHash);
+			new Writer(out).write(this);
+		}
+
+		File dir = file.getParentFile();
+		if (dir != null)
+		{
+			Files.createDirectories(dir.toPath());
+		}
+		File tmp = new File(dir, file.getName() + ".tmp");
+		Files.write(tmp.toPath(), bytes.toByteArray());
+		Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	private static final class Writer
+	{
+		private final DataOutputStream out;
+		private final Map<String, Integer> strings = new HashMap<>();
+		private final Map<TransportItems, Integer> items = new IdentityHashMap<>();
+		private final Map<Set<VarRequirement>, Integer> varSets = new IdentityHashMap<>();
+		private final Map<Set<Quest>, Integer> questSets = new IdentityHashMap<>();
+		private final Map<PermutationNetwork, Integer> networks = new IdentityHashMap<>();
+
+		private Writer(DataOutputStream out)
+		{
+			this.out = out;
+		}
+
+		private void write(TransportSnapshot snapshot) throws IOException
+		{
+			// Assign the table indices first so the tables can be written ahead of the transports.
+			for (Transport transport : snapshot.transports)
+			{
+				indexRequirements(transport);
+				if (transport.getNetwork() != null && networks.putIfAbsent(transport.getNetwork(), networks.size()) == null)
+				{
+					for (Transport destination : transport.getNetwork().getDestinations())
+					{
+						indexRequirements(destination);
+					}
+				}
+			}
+
+			writeTable(strings, this::writeString);
+			writeTable(items, this::writeItems);
+			writeTable(varSets, this::writeVars);
+			writeTable(questSets, this::writeQuests);
+
+			out.writeInt(snapshot.transports.length);
+			for (Transport transport : snapshot.transports)
+			{
+				writeTransport(transport);
+				out.writeInt(indexOf(networks, transport.getNetwork()));
+			}
+
+			// The origin rows reference their network by index; each network stores its destination rows.
+			writeTable(networks, this::writeNetwork);
+
+			out.writeInt(snapshot.destinations.size());
+			for (Map.Entry<String, Set<Integer>> entry : snapshot.destinations.entrySet())
+			{
+				writeString(entry.getKey());
+				out.writeInt(entry.getValue().size());
+				for (int point : entry.getValue())
+				{
+					out.writeInt(point);
+				}
+			}
+
+			out.writeInt(snapshot.bankRequirements.size());
+			for (Map.Entry<Integer, DestinationRequirements> entry : snapshot.bankRequirements.entrySet())
+			{
+				DestinationRequirements requirements = entry.getValue();
+				out.writeInt(entry.getKey());
+				writeSkills(requirements.getSkillLevels());
+				writeQuests(requirements.getQuests());
+				writeVars(requirements.getVarbits());
+				writeVars(requirements.getVarPlayers());
+			}
+		}
+
+		private void indexRequirements(Transport transport)
+		{
+			index(strings, transport.getDisplayInfo());
+			index(strings, transport.getObjectInfo());
+			index(items, transport.getItemRequirements());
+			index(varSets, transport.getVarRequirements());
+			index(questSets, transport.getQuests());
+		}
+
+		private void writeTransport(Transport transport) throws IOException
+		{
+			out.writeInt(transport.getOrigin());
+			out.writeInt(transport.getDestination());
+			out.writeByte(transport.getType().ordinal());
+			writeSkills(transport.getSkillLevels());
+			out.writeInt(indexOf(questSets, transport.getQuests()));
+			out.writeInt(indexOf(items, transport.getItemRequirements()));
+			out.writeInt(indexOf(varSets, transport.getVarRequirements()));
+			out.writeInt(transport.getDuration());
+			out.writeInt(indexOf(strings, transport.getDisplayInfo()));
+			out.writeBoolean(transport.isConsumable());
+			out.writeInt(transport.getMaxWildernessLevel());
+			out.writeInt(indexOf(strings, transport.getObjectInfo()));
+			out.writeByte(transport.getRegionOverride() == null ? NONE : transport.getRegionOverride().ordinal());
+		}
+
+		private void writeNetwork(PermutationNetwork network) throws IOException
+		{
+			out.writeByte(network.getType().ordinal());
+			out.writeInt(network.getRadiusThreshold());
+			out.writeInt(network.getDestinations().length);
+			for (int i = 0; i < network.getDestinations().length; i++)
+			{
+				writeTransport(network.getDestinations()[i]);
+				out.writeInt(network.getAnchor(i));
+			}
+		}
+
+		private static <T> void index(Map<T, Integer> table, T value)
+		{
+			if (value != null)
+			{
+				table.putIfAbsent(value, table.size());
+			}
+		}
+
+		private static <T> int indexOf(Map<T, Integer> table, T value)
+		{
+			return value == null ? NONE : table.get(value);
+		}
+
+		private <T> void writeTable(Map<T, Integer> table, ValueWriter<T> writer) throws IOException
+		{
+			List<T> values = new ArrayList<>(Collections.nCopies(table.size(), null));
+			for (Map.Entry<T, Integer> entry : table.entrySet())
+			{
+				values.set(entry.getValue(), entry.getKey());
+			}
+			out.writeInt(values.size());
+			for (T value : values)
+			{
+				writer.write(value);
+			}
+		}
+
+		private void writeString(String value) throws IOException
+		{
+			byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		}
+
+		private void writeInts(int[] values) throws IOException
+		{
+			if (values == null)
+			{
+				out.writeInt(NONE);
+				return;
+			}
+			out.writeInt(values.length);
+			for (int value : values)
+			{
+				out.writeInt(value);
+			}
+		}
+
+		private void writeSkills(int[] skillLevels) throws IOException
+		{
+			for (int level : skillLevels)
+			{
+				if (level != 0)
+				{
+					writeInts(skillLevels);
+					return;
+				}
+			}
+			// All-zero arrays are written empty and restored as the shared empty skill array.
+			out.writeInt(0);
+		}
+
+		private void writeItems(TransportItems value) throws IOException
+		{
+			out.writeInt(value.size());
+			for (ItemRequirement requirement : value.getRequirements())
+			{
+				writeInts(requirement.getItemIds());
+				writeInts(requirement.getStaffIds());
+				writeInts(requirement.getOffhandIds());
+				out.writeInt(requirement.getQuantity());
+			}
+		}
+
+		private void writeVars(Set<VarRequirement> value) throws IOException
+		{
+			out.writeInt(value.size());
+			for (VarRequirement requirement : value)
+			{
+				out.writeByte(requirement.getVarType().ordinal());
+				out.writeInt(requirement.getId());
+				out.writeInt(requirement.getValue());
+				out.writeByte(requirement.getCheckType().ordinal());
+			}
+		}
+
+		private void writeQuests(Set<Quest> value) throws IOException
+		{
+			out.writeInt(value.size());
+			for (Quest quest : value)
+			{
+				out.writeShort(quest.ordinal());
+			}
+		}
+	}
+
+	@FunctionalInterface
+	private interface ValueWriter<T>
+	{
+		void write(T value) throws IOException;
+	}
+
+	private static final class Reader
+	{
+		private static final TransportType[] TRANSPORT_TYPES = TransportType.values();
+		private static final Quest[] QUESTS = Quest.values();
+		private static final LeagueRegion[] REGIONS = LeagueRegion.values();
+		private static final VarRequirement.VarType[] VAR_TYPES = VarRequirement.VarType.values();
+		private static final VarCheckType[] CHECK_TYPES = VarCheckType.values();
+
+		private final ByteBuffer buffer;
+		private String[] strings;
+		private TransportItems[] items;
+		private List<Set<VarRequirement>> varSets;
+		private List<Set<Quest>> questSets;
+
+		private Reader(ByteBuffer buffer)
+		{
+			this.buffer = buffer;
+		}
+
+		private TransportSnapshot read(byte[] hash)
+		{
+			strings = new String[readLength(buffer, Integer.BYTES)];
+			for (int i = 0; i < strings.length; i++)
+			{
+				strings[i] = readString();
+			}
+			items = new TransportItems[readLength(buffer, Integer.BYTES)];
+			for (int i = 0; i < items.length; i++)
+			{
+				items[i] = readItems();
+			}
+			varSets = new ArrayList<>();
+			for (int i = buffer.getInt(); i > 0; i--)
+			{
+				varSets.add(readVars());
+			}
+			questSets = new ArrayList<>();
+			for (int i = buffer.getInt(); i > 0; i--)
+			{
+				questSets.add(readQuests());
+			}
+
+			Transport[] transports = new Transport[readLength(buffer, Integer.BYTES)];
+			int[] networkIndices = new int[transports.length];
+			for (int i = 0; i < transports.length; i++)
+			{
+				transports[i] = readTransport();
+				networkIndices[i] = buffer.getInt();
+			}
+
+			int networkCount = readLength(buffer, Integer.BYTES);
+			List<List<Transport>> networkOrigins = new ArrayList<>(networkCount);
+			for (int i = 0; i < networkCount; i++)
+			{
+				networkOrigins.add(new ArrayList<>());
+			}
+			for (int i = 0; i < transports.length; i++)
+			{
+				if (networkIndices[i] != NONE)
+				{
+					networkOrigins.get(networkIndices[i]).add(transports[i]);
+				}
+			}
+			for (int i = 0; i < networkCount; i++)
+			{
+				TransportType type = TRANSPORT_TYPES[buffer.get()];
+				int radiusThreshold = buffer.getInt();
+				Transport[] destinations = new Transport[readLength(buffer, Integer.BYTES)];
+				int[] anchors = new int[destinations.length];
+				for (int j = 0; j < destinations.length; j++)
+				{
+					destinations[j] = readTransport();
+					anchors[j] = buffer.getInt();
+				}
+				new PermutationNetwork(type, radiusThreshold, networkOrigins.get(i).toArray(new Transport[0]),
+					destinations, anchors);
+			}
+
+			int destinationCount = readLength(buffer, Integer.BYTES);
+			Map<String, Set<Integer>> destinations = new HashMap<>(destinationCount * 2);
+			for (int i = 0; i < destinationCount; i++)
+			{
+				String key = readString();
+				int[] points = readInts();
+				Set<Integer> set = new HashSet<>(points.length * 2);
+				for (int point : points)
+				{
+					set.add(point);
+				}
+				destinations.put(key, set);
+			}
+
+			int bankCount = readLength(buffer, Integer.BYTES);
+			Map<Integer, DestinationRequirements> bankRequirements = new HashMap<>(bankCount * 2);
+			for (int i = 0; i < bankCount; i++)
+			{
+				int point = buffer.getInt();
+				int[] skillLevels = readInts();
+				if (skillLevels.length == 0)
+				{
+					skillLevels = new int[Skill.values().length + 3];
+				}
+				Set<Quest> quests = readQuests();
+				Set<VarRequirement> varbits = readVars();
+				Set<VarRequirement> varPlayers = readVars();
+				bankRequirements.put(point, new DestinationRequirements(skillLevels, quests, varbits, varPlayers));
+			}
+
+			return new TransportSnapshot(hash, transports, destinations, bankRequirements);
+		}
+
+		private Transport readTransport()
+		{
+			int origin = buffer.getInt();
+			int destination = buffer.getInt();
+			TransportType type = TRANSPORT_TYPES[buffer.get()];
+			int[] skillLevels = readInts();
+			Set<Quest> quests = orEmpty(questSets, buffer.getInt());
+			int itemIndex = buffer.getInt();
+			Set<VarRequirement> vars = orEmpty(varSets, buffer.getInt());
+			int duration = buffer.getInt();
+			int displayIndex = buffer.getInt();
+			boolean isConsumable = buffer.get() != 0;
+			int maxWildernessLevel = buffer.getInt();
+			int objectIndex = buffer.getInt();
+			byte region = buffer.get();
+			return new Transport(origin, destination, type, skillLevels, quests,
+				itemIndex == NONE ? null : items[itemIndex], vars, duration,
+				displayIndex == NONE ? null : strings[displayIndex], isConsumable, maxWildernessLevel,
+				objectIndex == NONE ? null : strings[objectIndex], region == NONE ? null : REGIONS[region]);
+		}
+
+		private static <T> Set<T> orEmpty(List<Set<T>> table, int index)
+		{
+			return index == NONE ? Collections.emptySet() : table.get(index);
+		}
+
+		private String readString()
+		{
+			byte[] bytes = new byte[readLength(buffer, 1)];
+			buffer.get(bytes);
+			return new String(bytes, StandardCharsets.UTF_8);
+		}
+
+		private int[] readInts()
+		{
+			int[] values = readNullableInts();
+			if (values == null)
+			{
+				throw new IllegalArgumentException("Missing required array");
+			}
+			return values;
+		}
+
+		private int[] readNullableInts()
+		{
+			if (buffer.getInt(buffer.position()) == NONE)
+			{
+				buffer.getInt();
+				return null;
+			}
+			int[] values = new int[readLength(buffer, Integer.BYTES)];
+			// Bulk copy through an int view instead of decoding one int at a time.
+			buffer.asIntBuffer().get(values);
+			buffer.position(buffer.position() + values.length * Integer.BYTES);
+			return values;
+		}
+
+		private TransportItems readItems()
+		{
+			List<ItemRequirement> requirements = new ArrayList<>();
+			for (int i = buffer.getInt(); i > 0; i--)
+			{
+				int[] itemIds = readNullableInts();
+				int[] staffIds = readNullableInts();
+				int[] offhandIds = readNullableInts();
+				requirements.add(new ItemRequirement(itemIds, staffIds, offhandIds, buffer.getInt()));
+			}
+			return new TransportItems(requirements);
+		}
+
+		private Set<VarRequirement> readVars()
+		{
+			int size = buffer.getInt();
+			if (size == 0)
+			{
+				return Collections.emptySet();
+			}
+			Set<VarRequirement> vars = new HashSet<>(size * 2);
+			for (int i = 0; i < size; i++)
+			{
+				VarRequirement.VarType varType = VAR_TYPES[buffer.get()];
+				int id = buffer.getInt();
+				int value = buffer.getInt();
+				vars.add(new VarRequirement(varType, id, value, CHECK_TYPES[buffer.get()]));
+			}
+			return vars;
+		}
+
+		private Set<Quest> readQuests()
+		{
+			int size = buffer.getInt();
+			if (size == 0)
+			{
+				return Collections.emptySet();
+			}
+			Set<Quest> quests = EnumSet.noneOf(Quest.class);
+			for (int i = 0; i < size; i++)
+			{
+				quests.add(QUESTS[buffer.getShort()]);
+			}
+			return quests;
+		}
+	}
+}
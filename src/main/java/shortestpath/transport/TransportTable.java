@@ -0,0 +1,223 @@
+package shortestpath.transport;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import shortestpath.WorldPointUtil;
+
+/**
+ * Structure-of-Arrays view of the loaded transports, indexed by an {@code int} transport id.
+ * <p>
+ * The search only needs the origin, destination, duration and a few flags of a transport, so those
+ * are stored as parallel primitive arrays and the hot loop never dereferences a {@link Transport}.
+ * The {@link Transport} objects stay available through {@link #getTransport(int)} as the cold side
+ * table for display info, object info and the requirements, which are only read when refreshing
+ * availability or for display.
+ * <p>
+ * Ids {@code [0, size())} are the transports as passed in. The destination rows of every
+ * {@link PermutationNetwork} follow, one contiguous block per network starting at
+ * {@link #getFirstDestinationId(int)}, so a network-local destination index maps to an id by
+ * addition.
+ */
+public final class TransportTable
+{
+	private static final TransportType[] TYPES = TransportType.values();
+
+	private static final byte FLAG_DELAYED_VISIT = 1;   // bit0
+	private static final byte FLAG_TELEPORT = 1 << 1;   // bit1
+	private static final byte FLAG_CONSUMABLE = 1 << 2; // bit2
+
+	public static final int NO_NETWORK = -1;
+
+	private final int size;
+	private final Transport[] transports;
+	private final int[] origin;
+	private final int[] destination;
+	private final int[] duration;
+	private final int[] maxWildernessLevel;
+	private final byte[] type;
+	private final byte[] flags;
+	/**
+	 * Index of the network a permutation origin row leads into, or {@link #NO_NETWORK}.
+	 */
+	private final int[] network;
+	/**
+	 * The destination the radius threshold of a network destination row is measured against,
+	 * see {@link PermutationNetwork}. Equal to the destination for every other transport.
+	 */
+	private final int[] anchor;
+
+	private final PermutationNetwork[] networks;
+	private final int[] firstDestinationId;
+	private final int[] radiusThreshold;
+
+	public TransportTable(Transport[] transports)
+	{
+		Map<PermutationNetwork, Integer> networkIndices = new IdentityHashMap<>();
+		List<Transport> rows = new ArrayList<>(transports.length);
+		Collections.addAll(rows, transports);
+		for (Transport transport : transports)
+		{
+			if (transport.getNetwork() != null)
+			{
+				networkIndices.putIfAbsent(transport.getNetwork(), networkIndices.size());
+			}
+		}
+
+		this.size = transports.length;
+		this.networks = new PermutationNetwork[networkIndices.size()];
+		this.firstDestinationId = new int[networks.length];
+		this.radiusThreshold = new int[networks.length];
+		for (Map.Entry<PermutationNetwork, Integer> entry : networkIndices.entrySet())
+		{
+			networks[entry.getValue()] = entry.getKey();
+		}
+		for (int i = 0; i < networks.length; i++)
+		{
+			firstDestinationId[i] = rows.size();
+			radiusThreshold[i] = networks[i].getRadiusThreshold();
+			Collections.addAll(rows, networks[i].getDestinations());
+		}
+
+		int count = rows.size();
+		this.transports = rows.toArray(new Transport[0]);
+		this.origin = new int[count];
+		this.destination = new int[count];
+		this.duration = new int[count];
+		this.maxWildernessLevel = new int[count];
+		this.type = new byte[count];
+		this.flags = new byte[count];
+		this.network = new int[count];
+		this.anchor = new int[count];
+		for (int id = 0; id < count; id++)
+		{
+			Transport transport = this.transports[id];
+			origin[id] = transport.getOrigin();
+			destination[id] = transport.getDestination();
+			duration[id] = transport.getDuration();
+			maxWildernessLevel[id] = transport.getMaxWildernessLevel();
+			type[id] = (byte) transport.getType().ordinal();
+			flags[id] = (byte) ((transport.getType().sharesDestinationsWith() != null ? FLAG_DELAYED_VISIT : 0)
+				| (transport.getType().isTeleport() ? FLAG_TELEPORT : 0)
+				| (transport.isConsumable() ? FLAG_CONSUMABLE : 0));
+			network[id] = transport.getNetwork() == null ? NO_NETWORK : networkIndices.get(transport.getNetwork());
+			anchor[id] = transport.getDestination();
+		}
+		for (int i = 0; i < networks.length; i++)
+		{
+			for (int j = 0; j < networks[i].getDestinations().length; j++)
+			{
+				anchor[firstDestinationId[i] + j] = networks[i].getAnchor(j);
+			}
+		}
+	}
+
+	/**
+	 * The number of transports passed in, i.e. excluding the network destination rows.
+	 */
+	public int size()
+	{
+		return size;
+	}
+
+	/**
+	 * The number of ids, i.e. the transports passed in followed by the network destination rows.
+	 */
+	public int getRowCount()
+	{
+		return transports.length;
+	}
+
+	public Transport getTransport(int id)
+	{
+		return transports[id];
+	}
+
+	public int getOrigin(int id)
+	{
+		return origin[id];
+	}
+
+	public int getDestination(int id)
+	{
+		return destination[id];
+	}
+
+	public int getDuration(int id)
+	{
+		return duration[id];
+	}
+
+	public TransportType getType(int id)
+	{
+		return TYPES[type[id]];
+	}
+
+	/**
+	 * Whether the transport shares its destinations with another type and therefore competes in the
+	 * queue instead of being skipped when its destination was already visited.
+	 */
+	public boolean isDelayedVisit(int id)
+	{
+		return (flags[id] & FLAG_DELAYED_VISIT) != 0;
+	}
+
+	public boolean isConsumable(int id)
+	{
+		return (flags[id] & FLAG_CONSUMABLE) != 0;
+	}
+
+	/**
+	 * See {@link Transport#isUsableAtWildernessLevel(int)}.
+	 */
+	public boolean isUsableAtWildernessLevel(int id, int wildernessLevel)
+	{
+		return (flags[id] & FLAG_TELEPORT) == 0 || wildernessLevel <= maxWildernessLevel[id];
+	}
+
+	public int getNetwork(int id)
+	{
+		return network[id];
+	}
+
+	public int getNetworkCount()
+	{
+		return networks.length;
+	}
+
+	public PermutationNetwork getNetworkAt(int networkIndex)
+	{
+		return networks[networkIndex];
+	}
+
+	/**
+	 * The id of the first destination row of the network. Its other destination rows follow in
+	 * the order of {@link PermutationNetwork#getDestinations()}.
+	 */
+	public int getFirstDestinationId(int networkIndex)
+	{
+		return firstDestinationId[networkIndex];
+	}
+
+	/**
+	 * Whether the origin row {@code originId} is connected to the destination row
+	 * {@code destinationId} of the same network. Same as {@link PermutationNetwork#connects}.
+	 */
+	public boolean connects(int originId, int destinationId)
+	{
+		return WorldPointUtil.distanceBetween2D(origin[originId], anchor[destinationId])
+			> radiusThreshold[network[originId]];
+	}
+
+	/**
+	 * Materialises the edge from a network origin row to one of its destination rows as a merged
+	 * transport, for display and path analysis.
+	 */
+	public Transport edge(int originId, int destinationId)
+	{
+		return new Transport(transports[originId], transports[destinationId]);
+	}
+}
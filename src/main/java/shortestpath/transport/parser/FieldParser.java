@@ -1,5 +1,7 @@
 package shortestpath.transport.parser;
 
+import java.nio.charset.StandardCharsets;
+
 /**
  * Interface for parsing string field values into typed objects.
  * Used by TransportRecord to parse TSV field values.
@@ -15,4 +17,19 @@ public interface FieldParser<T>
 	 * @return The parsed value
 	 */
 	T parse(String value);
+
+	/**
+	 * Parses the UTF-8 field {@code data[start, end)} handed out by {@link TsvParser}. The default
+	 * decodes the slice and delegates to {@link #parse(String)}; parsers on the loading hot path
+	 * override it to read the bytes directly.
+	 *
+	 * @param data  The bytes of the whole TSV resource
+	 * @param start The index of the first byte of the field
+	 * @param end   The index after the last byte of the field
+	 * @return The parsed value
+	 */
+	default T parse(byte[] data, int start, int end)
+	{
+		return parse(new String(data, start, end - start, StandardCharsets.UTF_8));
+	}
 }
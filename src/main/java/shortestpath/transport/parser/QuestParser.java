@@ -1,5 +1,6 @@
 package shortestpath.transport.parser;
 
+import java.nio.charset.StandardCharsets;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -18,6 +19,9 @@ import net.runelite.api.Quest;
 public class QuestParser implements FieldParser<Set<Quest>>
 {
 	private static final String DELIM_MULTI = ";";
+	private static final byte SEPARATOR = ';';
+	private static final Quest[] QUESTS = Quest.values();
+	private static final byte[][] QUEST_NAMES = encodeNames();
 
 	@Override
 	public Set<Quest> parse(String value)
@@ -42,4 +46,34 @@ public class QuestParser implements FieldParser<Set<Quest>>
 		}
 		return quests;
 	}
+
+	@Override
+	public Set<Quest> parse(byte[] data, int start, int end)
+	{
+		Set<Quest> quests = new HashSet<>();
+		for (int nameStart = start; nameStart < end; )
+		{
+			int nameEnd = TsvParser.indexOf(data, nameStart, end, SEPARATOR);
+			for (int i = 0; i < QUESTS.length; i++)
+			{
+				if (TsvParser.equals(data, nameStart, nameEnd, QUEST_NAMES[i]))
+				{
+					quests.add(QUESTS[i]);
+					break;
+				}
+			}
+			nameStart = nameEnd + 1;
+		}
+		return quests;
+	}
+
+	private static byte[][] encodeNames()
+	{
+		byte[][] names = new byte[QUESTS.length][];
+		for (int i = 0; i < QUESTS.length; i++)
+		{
+			names[i] = QUESTS[i].getName().getBytes(StandardCharsets.UTF_8);
+		}
+		return names;
+	}
 }
@@ -1,5 +1,7 @@
 package shortestpath.transport.parser;
 
+import java.nio.charset.StandardCharsets;
+
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.Skill;
 
@@ -22,6 +24,10 @@ public class SkillRequirementParser implements FieldParser<int[]>
 {
 	private static final String DELIM_SPACE = " ";
 	private static final String DELIM_MULTI = ";";
+	private static final byte SPACE = ' ';
+	private static final byte SEPARATOR = ';';
+	private static final Skill[] SKILLS = Skill.values();
+	private static final byte[][] SKILL_NAMES = encodeNames();
 
 	@Override
 	public int[] parse(String value)
@@ -85,4 +91,89 @@ public class SkillRequirementParser implements FieldParser<int[]>
 
 		return skillLevels;
 	}
+
+	@Override
+	public int[] parse(byte[] data, int start, int end)
+	{
+		int[] skillLevels = new int[SKILLS.length + 3];
+
+		try
+		{
+			for (int requirementStart = start; requirementStart < end; )
+			{
+				int requirementEnd = TsvParser.indexOf(data, requirementStart, end, SEPARATOR);
+				if (requirementEnd > requirementStart)
+				{
+					parseRequirement(data, requirementStart, requirementEnd, skillLevels);
+				}
+				requirementStart = requirementEnd + 1;
+			}
+		}
+		catch (NumberFormatException e)
+		{
+			log.error("Invalid level and skill: {}", new String(data, start, end - start, StandardCharsets.UTF_8));
+		}
+
+		return skillLevels;
+	}
+
+	private static void parseRequirement(byte[] data, int start, int end, int[] skillLevels)
+	{
+		int space = TsvParser.indexOf(data, start, end, SPACE);
+		if (space == end || TsvParser.indexOf(data, space + 1, end, SPACE) < end)
+		{
+			log.error("Invalid level and skill: '{}'", new String(data, start, end - start, StandardCharsets.UTF_8));
+			return;
+		}
+
+		int level = TsvParser.parseInt(data, start, space);
+		int i = 0;
+		for (; i < SKILLS.length; i++)
+		{
+			if (TsvParser.equals(data, space + 1, end, SKILL_NAMES[i]))
+			{
+				skillLevels[i] = level;
+			}
+		}
+		if (startsWithIgnoreCase(data, space + 1, end, "total"))
+		{
+			skillLevels[i] = level;
+		}
+		i++;
+		if (startsWithIgnoreCase(data, space + 1, end, "combat"))
+		{
+			skillLevels[i] = level;
+		}
+		i++;
+		if (startsWithIgnoreCase(data, space + 1, end, "quest"))
+		{
+			skillLevels[i] = level;
+		}
+	}
+
+	private static boolean startsWithIgnoreCase(byte[] data, int start, int end, String prefix)
+	{
+		if (end - start < prefix.length())
+		{
+			return false;
+		}
+		for (int i = 0; i < prefix.length(); i++)
+		{
+			if (Character.toLowerCase(data[start + i]) != prefix.charAt(i))
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static byte[][] encodeNames()
+	{
+		byte[][] names = new byte[SKILLS.length][];
+		for (int i = 0; i < SKILLS.length; i++)
+		{
+			names[i] = SKILLS[i].getName().getBytes(StandardCharsets.UTF_8);
+		}
+		return names;
+	}
 }
@@ -1,26 +1,73 @@
 package shortestpath.transport.parser;
 
-import java.util.Map;
+import java.util.Set;
 
-import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.api.Quest;
+import shortestpath.transport.Transport;
+import shortestpath.transport.requirement.TransportItems;
 
 /**
- * Represents a single row from a TSV transport file.
+ * A view of the current row of a {@link TsvParser} over a transport file.
  * Provides a clean interface to access field values by name.
+ *
+ * <p>
+ * The standard {@link Fields} are resolved to column indices once per file, and the typed getters
+ * parse the field bytes in place, so iterating the rows does not build per-row maps or strings.
+ * The record follows the parser: it describes whichever row {@link #next()} advanced to last.
+ * </p>
  */
-@Getter
+@Slf4j
 public class TransportRecord
 {
+	private static final WorldPointParser WORLD_POINT_PARSER = new WorldPointParser();
+	private static final FieldParser<int[]> SKILL_PARSER = new SkillRequirementParser();
+	private static final FieldParser<TransportItems> ITEM_PARSER = new ItemRequirementParser();
+	private static final FieldParser<Set<Quest>> QUEST_PARSER = new QuestParser();
+	private static final FieldParser<Set<VarRequirement>> VARBIT_PARSER = VarRequirementParser.forVarbits();
+	private static final FieldParser<Set<VarRequirement>> VARPLAYER_PARSER = VarRequirementParser.forVarPlayers();
+
+	private final TsvParser parser;
+	private final int origin;
+	private final int destination;
+	private final int skills;
+	private final int items;
+	private final int quests;
+	private final int duration;
+	private final int displayInfo;
+	private final int consumable;
+	private final int wildernessLevel;
+	private final int objectInfo;
+	private final int varbits;
+	private final int varPlayers;
+	private final int regionOverride;
+
+	public TransportRecord(TsvParser parser)
+	{
+		this.parser = parser;
+		this.origin = parser.columnIndex(Fields.ORIGIN);
+		this.destination = parser.columnIndex(Fields.DESTINATION);
+		this.skills = parser.columnIndex(Fields.SKILLS);
+		this.items = parser.columnIndex(Fields.ITEMS);
+		this.quests = parser.columnIndex(Fields.QUESTS);
+		this.duration = parser.columnIndex(Fields.DURATION);
+		this.displayInfo = parser.columnIndex(Fields.DISPLAY_INFO);
+		this.consumable = parser.columnIndex(Fields.CONSUMABLE);
+		this.wildernessLevel = parser.columnIndex(Fields.WILDERNESS_LEVEL);
+		this.objectInfo = parser.columnIndex(Fields.OBJECT_INFO);
+		this.varbits = parser.columnIndex(Fields.VARBITS);
+		this.varPlayers = parser.columnIndex(Fields.VAR_PLAYERS);
+		this.regionOverride = parser.columnIndex(Fields.REGION_OVERRIDE);
+	}
 
 	/**
-	 * -- GETTER --
-	 * Gets the underlying field map.
+	 * Advances to the next data row of the file.
+	 *
+	 * @return false once there are no more rows
 	 */
-	private final Map<String, String> fields;
-
-	public TransportRecord(Map<String, String> fields)
+	public boolean next()
 	{
-		this.fields = Map.copyOf(fields);
+		return parser.next();
 	}
 
 	/**
@@ -28,7 +75,7 @@ public class TransportRecord
 	 */
 	public String get(String fieldName)
 	{
-		return fields.get(fieldName);
+		return parser.getString(parser.columnIndex(fieldName));
 	}
 
 	/**
@@ -36,8 +83,7 @@ public class TransportRecord
 	 */
 	public boolean has(String fieldName)
 	{
-		String value = fields.get(fieldName);
-		return value != null && !value.isEmpty();
+		return parser.has(parser.columnIndex(fieldName));
 	}
 
 	/**
@@ -45,55 +91,71 @@ public class TransportRecord
 	 */
 	public boolean hasKey(String fieldName)
 	{
-		return fields.containsKey(fieldName);
+		return parser.hasField(parser.columnIndex(fieldName));
+	}
+
+	/**
+	 * Checks if the origin field exists; an empty origin is a location permutation.
+	 */
+	public boolean hasOrigin()
+	{
+		return parser.hasField(origin);
 	}
 
 	/**
-	 * Gets the origin field value.
+	 * Checks if the destination field exists; an empty destination is a location permutation.
 	 */
-	public String getOrigin()
+	public boolean hasDestination()
 	{
-		return get(Fields.ORIGIN);
+		return parser.hasField(destination);
 	}
 
 	/**
-	 * Gets the destination field value.
+	 * Gets the packed origin.
 	 */
-	public String getDestination()
+	public int getOrigin()
 	{
-		return get(Fields.DESTINATION);
+		return parsePoint(origin);
 	}
 
 	/**
-	 * Gets the skills field value.
+	 * Gets the packed destination.
 	 */
-	public String getSkills()
+	public int getDestination()
 	{
-		return get(Fields.SKILLS);
+		return parsePoint(destination);
 	}
 
 	/**
-	 * Gets the items field value.
+	 * Gets the skill levels, or null if the field is empty.
 	 */
-	public String getItems()
+	public int[] getSkills()
 	{
-		return get(Fields.ITEMS);
+		return parser.has(skills) ? parser.parse(skills, SKILL_PARSER) : null;
 	}
 
 	/**
-	 * Gets the quests field value.
+	 * Gets the item requirements, or null if the field is empty.
 	 */
-	public String getQuests()
+	public TransportItems getItems()
 	{
-		return get(Fields.QUESTS);
+		return parser.has(items) ? parser.parse(items, ITEM_PARSER) : null;
 	}
 
 	/**
-	 * Gets the duration field value.
+	 * Gets the quests, or null if the field is empty.
 	 */
-	public String getDuration()
+	public Set<Quest> getQuests()
 	{
-		return get(Fields.DURATION);
+		return parser.has(quests) ? parser.parse(quests, QUEST_PARSER) : null;
+	}
+
+	/**
+	 * Gets the duration in ticks, or 0 if the field is empty or invalid.
+	 */
+	public int getDuration()
+	{
+		return parseInt(duration, 0, "Invalid tick duration: {}");
 	}
 
 	/**
@@ -101,23 +163,24 @@ public class TransportRecord
 	 */
 	public String getDisplayInfo()
 	{
-		return get(Fields.DISPLAY_INFO);
+		return parser.has(displayInfo) ? parser.getString(displayInfo) : null;
 	}
 
 	/**
-	 * Gets the consumable field value.
+	 * Gets whether the transport is consumable.
 	 */
-	public String getConsumable()
+	public boolean getConsumable()
 	{
-		return get(Fields.CONSUMABLE);
+		String value = parser.has(consumable) ? parser.getString(consumable) : null;
+		return "T".equals(value) || "yes".equalsIgnoreCase(value);
 	}
 
 	/**
-	 * Gets the wilderness level field value.
+	 * Gets the maximum wilderness level, or -1 if the field is empty or invalid.
 	 */
-	public String getWildernessLevel()
+	public int getWildernessLevel()
 	{
-		return get(Fields.WILDERNESS_LEVEL);
+		return parseInt(wildernessLevel, -1, "Invalid wilderness level: {}");
 	}
 
 	/**
@@ -125,23 +188,23 @@ public class TransportRecord
 	 */
 	public String getObjectInfo()
 	{
-		return get(Fields.OBJECT_INFO);
+		return parser.has(objectInfo) ? parser.getString(objectInfo) : null;
 	}
 
 	/**
-	 * Gets the varbits field value.
+	 * Gets the varbit requirements, or null if the field is empty.
 	 */
-	public String getVarbits()
+	public Set<VarRequirement> getVarbits()
 	{
-		return get(Fields.VARBITS);
+		return parser.has(varbits) ? parser.parse(varbits, VARBIT_PARSER) : null;
 	}
 
 	/**
-	 * Gets the var players field value.
+	 * Gets the var player requirements, or null if the field is empty.
 	 */
-	public String getVarPlayers()
+	public Set<VarRequirement> getVarPlayers()
 	{
-		return get(Fields.VAR_PLAYERS);
+		return parser.has(varPlayers) ? parser.parse(varPlayers, VARPLAYER_PARSER) : null;
 	}
 
 	/**
@@ -149,7 +212,31 @@ public class TransportRecord
 	 */
 	public String getRegionOverride()
 	{
-		return get(Fields.REGION_OVERRIDE);
+		return parser.has(regionOverride) ? parser.getString(regionOverride) : null;
+	}
+
+	private int parsePoint(int column)
+	{
+		return parser.has(column)
+			? WORLD_POINT_PARSER.parsePacked(parser.getData(), parser.getFieldStart(column), parser.getFieldEnd(column))
+			: Transport.LOCATION_PERMUTATION;
+	}
+
+	private int parseInt(int column, int defaultValue, String error)
+	{
+		if (!parser.has(column))
+		{
+			return defaultValue;
+		}
+		try
+		{
+			return parser.parseInt(column);
+		}
+		catch (NumberFormatException e)
+		{
+			log.error(error, parser.getString(column));
+			return defaultValue;
+		}
 	}
 
 	/**
@@ -1,94 +1,330 @@
 package shortestpath.transport.parser;
 
-import java.util.ArrayList;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
-import java.util.Scanner;
 
 /**
- * Parses TSV file contents into TransportRecord objects.
+ * Streaming parser over the raw UTF-8 bytes of a TSV resource.
  *
  * <p>
  * TSV files should have a header line (optionally starting with #)
  * followed by data lines. Empty lines and lines starting with # are ignored.
  * </p>
+ * <p>
+ * The header columns are resolved to indices once. {@link #next()} then advances over the data
+ * rows, recording where each field starts and ends in the shared byte array, and fields are handed
+ * out by column index as slices of that array. Nothing is allocated per row unless a field is
+ * turned into a {@link String} or parsed into an object.
+ * </p>
  */
 public class TsvParser
 {
-	private static final String DELIM_COLUMN = "\t";
-	private static final String PREFIX_COMMENT = "#";
+	private static final byte DELIM_COLUMN = '\t';
+	private static final byte PREFIX_COMMENT = '#';
+	private static final byte LINE_FEED = '\n';
+	private static final byte CARRIAGE_RETURN = '\r';
+	private static final byte SPACE = ' ';
+
+	private final byte[] data;
+	private final String[] columns;
+	// By column name; a repeated name maps to its first column.
+	private final Map<String, Integer> columnIndices;
+	private final int[] fieldStart;
+	private final int[] fieldEnd;
+	private int fieldCount;
+	private int position;
+
+	public TsvParser(byte[] data)
+	{
+		this.data = data;
+		this.columns = parseHeaderLine();
+		this.columnIndices = new HashMap<>(columns.length * 2);
+		for (int i = columns.length - 1; i >= 0; i--)
+		{
+			columnIndices.put(columns[i], i);
+		}
+		this.fieldStart = new int[columns.length];
+		this.fieldEnd = new int[columns.length];
+	}
+
+	public TsvParser(String contents)
+	{
+		this(contents.getBytes(StandardCharsets.UTF_8));
+	}
 
 	/**
-	 * Parses TSV content into a list of TransportRecords.
-	 * The first line must be a header line (optionally starting with #).
+	 * Parses the header line, stripping the comment prefix if present.
 	 */
-	public List<TransportRecord> parse(String contents)
+	private String[] parseHeaderLine()
 	{
-		List<TransportRecord> records = new ArrayList<>();
-		Scanner scanner = new Scanner(contents);
+		if (data.length == 0)
+		{
+			return new String[0];
+		}
+		int start = 0;
+		int end = lineEnd(0);
+		position = nextLine(end);
+		if (start < end && data[start] == PREFIX_COMMENT)
+		{
+			start++;
+			if (start < end && data[start] == SPACE)
+			{
+				start++;
+			}
+		}
+		end = trimLineBreak(start, end);
 
-		if (!scanner.hasNextLine())
+		int count = 1;
+		for (int i = start; i < end; i++)
 		{
-			scanner.close();
-			return records;
+			if (data[i] == DELIM_COLUMN)
+			{
+				count++;
+			}
 		}
+		String[] headers = new String[count];
+		int column = 0;
+		int fieldBegin = start;
+		for (int i = start; i <= end; i++)
+		{
+			if (i == end || data[i] == DELIM_COLUMN)
+			{
+				headers[column++] = new String(data, fieldBegin, i - fieldBegin, StandardCharsets.UTF_8).trim();
+				fieldBegin = i + 1;
+			}
+		}
+		return headers;
+	}
 
-		// Parse header line
-		String[] headers = parseHeaderLine(scanner.nextLine());
+	/**
+	 * The header column names, in column order.
+	 */
+	public String[] getColumns()
+	{
+		return columns.clone();
+	}
 
-		// Parse data lines
-		while (scanner.hasNextLine())
+	/**
+	 * The index of the named column, or -1 if the header does not have it.
+	 */
+	public int columnIndex(String name)
+	{
+		return columnIndices.getOrDefault(name, -1);
+	}
+
+	/**
+	 * Advances to the next data row, skipping comment and blank lines.
+	 *
+	 * @return false once the end of the data has been reached
+	 */
+	public boolean next()
+	{
+		while (position < data.length)
 		{
-			String line = scanner.nextLine();
+			int start = position;
+			int end = lineEnd(start);
+			position = nextLine(end);
+			end = trimLineBreak(start, end);
 
-			if (line.startsWith(PREFIX_COMMENT) || line.isBlank())
+			if ((start < end && data[start] == PREFIX_COMMENT) || isBlank(start, end))
 			{
 				continue;
 			}
 
-			TransportRecord record = parseLine(line, headers);
-			records.add(record);
+			fieldCount = 0;
+			int fieldBegin = start;
+			for (int i = start; i <= end && fieldCount < columns.length; i++)
+			{
+				if (i == end || data[i] == DELIM_COLUMN)
+				{
+					fieldStart[fieldCount] = fieldBegin;
+					fieldEnd[fieldCount] = i;
+					fieldCount++;
+					fieldBegin = i + 1;
+				}
+			}
+			return true;
 		}
+		return false;
+	}
 
-		scanner.close();
-		return records;
+	/**
+	 * Checks if the current row has a field for the column (may be empty).
+	 */
+	public boolean hasField(int column)
+	{
+		return column >= 0 && column < fieldCount;
 	}
 
 	/**
-	 * Parses the header line, stripping the comment prefix if present.
+	 * Checks if the current row has a non-empty field for the column.
+	 */
+	public boolean has(int column)
+	{
+		return hasField(column) && fieldStart[column] < fieldEnd[column];
+	}
+
+	/**
+	 * The bytes of the whole resource, which the field slices index into.
+	 */
+	public byte[] getData()
+	{
+		return data;
+	}
+
+	/**
+	 * The index of the first byte of the field of the current row. Only valid if
+	 * {@link #hasField(int)}.
+	 */
+	public int getFieldStart(int column)
+	{
+		return fieldStart[column];
+	}
+
+	/**
+	 * The index after the last byte of the field of the current row. Only valid if
+	 * {@link #hasField(int)}.
 	 */
-	private String[] parseHeaderLine(String headerLine)
+	public int getFieldEnd(int column)
 	{
-		String normalized = headerLine;
-		if (normalized.startsWith(PREFIX_COMMENT + " "))
+		return fieldEnd[column];
+	}
+
+	/**
+	 * Decodes the field of the current row, or null if the row has no field for the column.
+	 */
+	public String getString(int column)
+	{
+		if (!hasField(column))
+		{
+			return null;
+		}
+		return new String(data, fieldStart[column], fieldEnd[column] - fieldStart[column], StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Parses the field of the current row as a slice of the underlying bytes. A missing field is
+	 * passed to the parser as {@code null}.
+	 */
+	public <T> T parse(int column, FieldParser<T> parser)
+	{
+		if (!hasField(column))
+		{
+			return parser.parse(null);
+		}
+		return parser.parse(data, fieldStart[column], fieldEnd[column]);
+	}
+
+	/**
+	 * Parses the field of the current row as a decimal integer without decoding it.
+	 *
+	 * @throws NumberFormatException if the row has no such field or it is not an integer
+	 */
+	public int parseInt(int column)
+	{
+		if (!hasField(column))
+		{
+			throw new NumberFormatException("Missing column: " + column);
+		}
+		return parseInt(data, fieldStart[column], fieldEnd[column]);
+	}
+
+	/**
+	 * Parses {@code data[start, end)} as a decimal integer, like {@link Integer#parseInt(String)}.
+	 */
+	public static int parseInt(byte[] data, int start, int end)
+	{
+		if (start >= end)
+		{
+			throw new NumberFormatException("Empty number");
+		}
+		boolean negative = false;
+		int i = start;
+		if (data[i] == '-' || data[i] == '+')
+		{
+			negative = data[i] == '-';
+			if (++i == end)
+			{
+				throw numberFormatException(data, start, end);
+			}
+		}
+		long value = 0;
+		for (; i < end; i++)
 		{
-			normalized = normalized.substring(2);
+			int digit = data[i] - '0';
+			if (digit < 0 || digit > 9)
+			{
+				throw numberFormatException(data, start, end);
+			}
+			value = value * 10 + digit;
+			if (value > (long) Integer.MAX_VALUE + 1)
+			{
+				throw numberFormatException(data, start, end);
+			}
 		}
-		else if (normalized.startsWith(PREFIX_COMMENT))
+		value = negative ? -value : value;
+		if (value > Integer.MAX_VALUE)
 		{
-			normalized = normalized.substring(1);
+			throw numberFormatException(data, start, end);
 		}
-		return normalized.split(DELIM_COLUMN);
+		return (int) value;
 	}
 
 	/**
-	 * Parses a single data line into a TransportRecord.
+	 * Whether {@code data[start, end)} holds exactly the UTF-8 encoding {@code expected}.
 	 */
-	private TransportRecord parseLine(String line, String[] headers)
+	public static boolean equals(byte[] data, int start, int end, byte[] expected)
 	{
-		// Use -1 limit to preserve trailing empty strings
-		String[] fields = line.split(DELIM_COLUMN, -1);
-		Map<String, String> fieldMap = new HashMap<>();
+		return Arrays.equals(data, start, end, expected, 0, expected.length);
+	}
 
-		for (int i = 0; i < headers.length; i++)
+	/**
+	 * The index of the first {@code b} in {@code data[start, end)}, or {@code end} if there is none.
+	 */
+	public static int indexOf(byte[] data, int start, int end, byte b)
+	{
+		for (int i = start; i < end; i++)
 		{
-			if (i < fields.length)
+			if (data[i] == b)
 			{
-				fieldMap.put(headers[i], fields[i]);
+				return i;
 			}
 		}
+		return end;
+	}
+
+	private static NumberFormatException numberFormatException(byte[] data, int start, int end)
+	{
+		return new NumberFormatException("For input string: \""
+			+ new String(data, start, end - start, StandardCharsets.UTF_8) + "\"");
+	}
 
-		return new TransportRecord(fieldMap);
+	private int lineEnd(int start)
+	{
+		return indexOf(data, start, data.length, LINE_FEED);
+	}
+
+	private int nextLine(int lineEnd)
+	{
+		return lineEnd < data.length ? lineEnd + 1 : data.length;
+	}
+
+	private int trimLineBreak(int start, int end)
+	{
+		return end > start && data[end - 1] == CARRIAGE_RETURN ? end - 1 : end;
+	}
+
+	private boolean isBlank(int start, int end)
+	{
+		for (int i = start; i < end; i++)
+		{
+			if (!Character.isWhitespace(data[i]))
+			{
+				return false;
+			}
+		}
+		return true;
 	}
 }
@@ -1,5 +1,6 @@
 package shortestpath.transport.parser;
 
+import java.nio.charset.StandardCharsets;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.regex.Pattern;
@@ -24,6 +25,8 @@ import lombok.extern.slf4j.Slf4j;
 public class VarRequirementParser implements FieldParser<Set<VarRequirement>>
 {
 	private static final String DELIM_MULTI = ";";
+	private static final byte SEPARATOR = ';';
+	private static final VarCheckType[] CHECK_TYPES = VarCheckType.values();
 
 	private final VarRequirement.VarType varType;
 
@@ -83,6 +86,50 @@ public class VarRequirementParser implements FieldParser<Set<VarRequirement>>
 		return result;
 	}
 
+	@Override
+	public Set<VarRequirement> parse(byte[] data, int start, int end)
+	{
+		Set<VarRequirement> result = new HashSet<>();
+		try
+		{
+			for (int requirementStart = start; requirementStart < end; )
+			{
+				int requirementEnd = TsvParser.indexOf(data, requirementStart, end, SEPARATOR);
+				if (requirementEnd > requirementStart)
+				{
+					VarRequirement parsed = parseRequirement(data, requirementStart, requirementEnd);
+					if (parsed != null)
+					{
+						result.add(parsed);
+					}
+				}
+				requirementStart = requirementEnd + 1;
+			}
+		}
+		catch (NumberFormatException e)
+		{
+			log.error("Invalid var requirement: {}", new String(data, start, end - start, StandardCharsets.UTF_8));
+		}
+		return result;
+	}
+
+	private VarRequirement parseRequirement(byte[] data, int start, int end)
+	{
+		for (VarCheckType checkType : CHECK_TYPES)
+		{
+			byte code = (byte) checkType.getCode().charAt(0);
+			int codeIndex = TsvParser.indexOf(data, start, end, code);
+			if (codeIndex < end - 1 && TsvParser.indexOf(data, codeIndex + 1, end, code) == end)
+			{
+				int id = TsvParser.parseInt(data, start, codeIndex);
+				int val = TsvParser.parseInt(data, codeIndex + 1, end);
+				return new VarRequirement(varType, id, val, checkType);
+			}
+		}
+		log.error("Invalid var requirement: '{}'", new String(data, start, end - start, StandardCharsets.UTF_8));
+		return null;
+	}
+
 	private VarRequirement parseRequirement(String requirement)
 	{
 		for (VarCheckType checkType : VarCheckType.values())
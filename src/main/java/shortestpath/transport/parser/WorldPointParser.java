@@ -16,6 +16,7 @@ import shortestpath.transport.Transport;
 public class WorldPointParser implements FieldParser<Integer>
 {
 	private static final String DELIM_SPACE = " ";
+	private static final byte SPACE = ' ';
 
 	@Override
 	public Integer parse(String value)
@@ -30,4 +31,35 @@ public class WorldPointParser implements FieldParser<Integer>
 			Integer.parseInt(parts[1]),
 			Integer.parseInt(parts[2])) : Transport.LOCATION_PERMUTATION;
 	}
+
+	@Override
+	public Integer parse(byte[] data, int start, int end)
+	{
+		return parsePacked(data, start, end);
+	}
+
+	/**
+	 * Same as {@link #parse(String)} on the UTF-8 field {@code data[start, end)}, without decoding
+	 * or boxing it. Like the split there, trailing spaces are ignored, a value without exactly three
+	 * parts is a location permutation, and an empty or non-numeric part throws.
+	 *
+	 * @throws NumberFormatException if one of the three parts is not an integer
+	 */
+	public int parsePacked(byte[] data, int start, int end)
+	{
+		while (end > start && data[end - 1] == SPACE)
+		{
+			end--;
+		}
+		int firstSpace = TsvParser.indexOf(data, start, end, SPACE);
+		int secondSpace = TsvParser.indexOf(data, firstSpace + 1, end, SPACE);
+		if (start == end || secondSpace >= end || TsvParser.indexOf(data, secondSpace + 1, end, SPACE) < end)
+		{
+			return Transport.LOCATION_PERMUTATION;
+		}
+		return WorldPointUtil.packWorldPoint(
+			TsvParser.parseInt(data, start, firstSpace),
+			TsvParser.parseInt(data, firstSpace + 1, secondSpace),
+			TsvParser.parseInt(data, secondSpace + 1, end));
+	}
 }
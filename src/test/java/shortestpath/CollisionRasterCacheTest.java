@@ -0,0 +1,87 @@
+package shortestpath;
+
+import java.awt.image.BufferedImage;
+import net.runelite.api.Client;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import org.junit.Test;
+import static org.mockito.Mockito.mock;
+import shortestpath.pathfinder.CollisionDelta;
+import shortestpath.pathfinder.CollisionMap;
+import shortestpath.pathfinder.TestPathfinderConfig;
+
+public class CollisionRasterCacheTest
+{
+	private static final int COLOUR = 0x80FF0000;
+	// Lumbridge, with walls and open ground
+	private static final int REGION_X = 3200 >> 6;
+	private static final int REGION_Y = 3200 >> 6;
+
+	private final CollisionMap map = new TestPathfinderConfig(mock(Client.class), new TestShortestPathConfig()).getMap();
+
+	@Test
+	public void testPixelsMatchBlockedTiles()
+	{
+		BufferedImage image = new CollisionRasterCache(4).get(map, COLOUR, REGION_X, REGION_Y, 0);
+		assertNotNull(image);
+		for (int row = 0; row < CollisionRasterCache.REGION_SIZE; row++)
+		{
+			for (int column = 0; column < CollisionRasterCache.REGION_SIZE; column++)
+			{
+				int x = (REGION_X << 6) + column;
+				int y = (REGION_Y << 6) + CollisionRasterCache.REGION_SIZE - 1 - row;
+				assertEquals(map.isBlocked(x, y, 0) ? COLOUR : 0, image.getRGB(column, row));
+			}
+		}
+	}
+
+	@Test
+	public void testImagesAreKeptUntilTheColourChanges()
+	{
+		CollisionRasterCache cache = new CollisionRasterCache(1);
+		BufferedImage image = cache.get(map, COLOUR, REGION_X, REGION_Y, 0);
+		assertSame(image, cache.get(map, COLOUR, REGION_X, REGION_Y, 0));
+		assertNotSame(image, cache.get(map, 0xFF00FF00, REGION_X, REGION_Y, 0));
+
+		// The least recently drawn region of an earlier frame is evicted
+		cache.beginFrame();
+		cache.get(map, 0xFF00FF00, REGION_X + 1, REGION_Y, 0);
+		assertEquals(1, cache.size());
+	}
+
+	@Test
+	public void testFrameWithMoreRegionsThanTheCapacityKeepsThem()
+	{
+		CollisionRasterCache cache = new CollisionRasterCache(4);
+		BufferedImage[] drawn = new BufferedImage[6];
+		cache.beginFrame();
+		for (int i = 0; i < drawn.length; i++)
+		{
+			drawn[i] = cache.get(map, COLOUR, REGION_X + i, REGION_Y, 0);
+		}
+
+		cache.beginFrame();
+		for (int i = 0; i < drawn.length; i++)
+		{
+			assertSame(drawn[i], cache.get(map, COLOUR, REGION_X + i, REGION_Y, 0));
+		}
+		assertEquals(drawn.length, cache.size());
+	}
+
+	@Test
+	public void testSceneChangeOnlyRendersItsRegionsAgain()
+	{
+		int[][][] openScene = new int[1][104][104];
+		CollisionMap scene = new CollisionMap(map.getCollisionData(),
+			CollisionDelta.fromScene(map.getCollisionData(), 1, 3168, 3168, openScene));
+		CollisionRasterCache cache = new CollisionRasterCache(4);
+		BufferedImage inScene = cache.get(map, COLOUR, REGION_X, REGION_Y, 0);
+		BufferedImage elsewhere = cache.get(map, COLOUR, REGION_X - 2, REGION_Y, 0);
+		assertNotNull(elsewhere);
+
+		assertNotSame(inScene, cache.get(scene, COLOUR, REGION_X, REGION_Y, 0));
+		assertSame(elsewhere, cache.get(scene, COLOUR, REGION_X - 2, REGION_Y, 0));
+	}
+}
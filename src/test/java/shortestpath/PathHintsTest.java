@@ -0,0 +1,75 @@
+package shortestpath;
+
+import java.util.Set;
+import net.runelite.api.Client;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+import static org.mockito.Mockito.mock;
+import shortestpath.pathfinder.Pathfinder;
+import shortestpath.pathfinder.PathfinderConfig;
+import shortestpath.pathfinder.TestPathfinderConfig;
+
+public class PathHintsTest
+{
+	private static final int START = WorldPointUtil.packWorldPoint(3200, 3200, 0);
+	private static final Set<Integer> TARGET = Set.of(WorldPointUtil.packWorldPoint(3205, 3200, 0));
+
+	private final Client client = mock(Client.class);
+	private final PathfinderConfig config = new TestPathfinderConfig(client, new TestShortestPathConfig());
+
+	private Pathfinder search()
+	{
+		Pathfinder pathfinder = new Pathfinder(config, START, TARGET);
+		pathfinder.run();
+		return pathfinder;
+	}
+
+	// isFor reads neither the client nor the plugin.
+	private PathHints hints(Pathfinder pathfinder, int itemsVersion, int searchVersion)
+	{
+		return new PathHints(client, null, pathfinder, itemsVersion, searchVersion);
+	}
+
+	@Test
+	public void testHintsAreKeptForTheSamePathAndVersions()
+	{
+		Pathfinder pathfinder = search();
+		PathHints hints = hints(pathfinder, 1, 1);
+
+		assertSame(pathfinder.getPath(), pathfinder.getPath());
+		assertTrue(hints.isFor(pathfinder, 1, 1));
+		assertTrue(hints.isFor(pathfinder, 1, 1));
+	}
+
+	@Test
+	public void testAnotherPathfinderInvalidatesHints()
+	{
+		PathHints hints = hints(search(), 1, 1);
+
+		assertFalse(hints.isFor(search(), 1, 1));
+	}
+
+	@Test
+	public void testItemsOrSearchVersionInvalidatesHints()
+	{
+		Pathfinder pathfinder = search();
+		PathHints hints = hints(pathfinder, 1, 1);
+
+		assertFalse(hints.isFor(pathfinder, 2, 1));
+		assertFalse(hints.isFor(pathfinder, 1, 2));
+	}
+
+	@Test
+	public void testNewPathOfTheSamePathfinderInvalidatesHints()
+	{
+		Pathfinder pathfinder = new Pathfinder(config, START, TARGET);
+		// Made while the search has no path yet, as the overlay may do while it runs.
+		PathHints hints = hints(pathfinder, 1, 1);
+		assertTrue(hints.isFor(pathfinder, 1, 1));
+
+		pathfinder.run();
+		assertFalse(hints.isFor(pathfinder, 1, 1));
+	}
+}
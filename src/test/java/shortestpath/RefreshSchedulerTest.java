@@ -0,0 +1,60 @@
+package shortestpath;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RefreshSchedulerTest
+{
+	private final AtomicInteger refreshes = new AtomicInteger();
+	private final AtomicInteger restarts = new AtomicInteger();
+	private final RefreshScheduler scheduler = new RefreshScheduler(refreshes::incrementAndGet, restarts::incrementAndGet);
+
+	private void tick(int clientTicks)
+	{
+		for (int i = 0; i < clientTicks; i++)
+		{
+			scheduler.onClientTick();
+		}
+	}
+
+	@Test
+	public void burstRunsOneRestart()
+	{
+		scheduler.request(false);
+		scheduler.request(true);
+		scheduler.request(true);
+		tick(RefreshScheduler.WINDOW_CLIENT_TICKS - 1);
+		Assert.assertEquals(0, refreshes.get() + restarts.get());
+
+		tick(RefreshScheduler.WINDOW_CLIENT_TICKS * 2);
+		Assert.assertEquals(0, refreshes.get());
+		Assert.assertEquals(1, restarts.get());
+		Assert.assertEquals(2, scheduler.getCoalescedEvents());
+	}
+
+	@Test
+	public void refreshOnlyWithoutRestartRequest()
+	{
+		scheduler.request(false);
+		scheduler.request(false);
+		tick(RefreshScheduler.WINDOW_CLIENT_TICKS);
+		Assert.assertEquals(1, refreshes.get());
+		Assert.assertEquals(0, restarts.get());
+
+		scheduler.request(false);
+		tick(RefreshScheduler.WINDOW_CLIENT_TICKS);
+		Assert.assertEquals(2, refreshes.get());
+		Assert.assertEquals(1, scheduler.getCoalescedEvents());
+	}
+
+	@Test
+	public void directRestartDropsPendingRequests()
+	{
+		scheduler.request(true);
+		scheduler.restarted();
+		tick(RefreshScheduler.WINDOW_CLIENT_TICKS);
+		Assert.assertEquals(0, refreshes.get() + restarts.get());
+		Assert.assertEquals(1, scheduler.getCoalescedEvents());
+	}
+}
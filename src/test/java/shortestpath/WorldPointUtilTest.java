@@ -50,6 +50,15 @@ public class WorldPointUtilTest
 		assertEquals(plane & 0x3, WorldPointUtil.unpackWorldPlane(packed));
 	}
 
+	@Test
+	public void regionIdMatchesWorldPoint()
+	{
+		for (WorldPoint p : new WorldPoint[]{new WorldPoint(3200, 3200, 0), new WorldPoint(3263, 3135, 2), new WorldPoint(0, 0, 0)})
+		{
+			assertEquals(p.getRegionID(), WorldPointUtil.regionId(p.getX(), p.getY()));
+		}
+	}
+
 	@Test
 	public void dxdyOffsetsCorrectly()
 	{
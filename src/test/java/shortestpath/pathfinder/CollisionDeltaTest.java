@@ -0,0 +1,79 @@
+package shortestpath.pathfinder;
+
+import net.runelite.api.CollisionDataFlag;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class CollisionDeltaTest
+{
+	private static final int SCENE_SIZE = 104;
+	private static final int BASE_X = 3168;
+	private static final int BASE_Y = 3168;
+
+	private static int[][][] scene(int flag)
+	{
+		int[][][] flags = new int[1][SCENE_SIZE][SCENE_SIZE];
+		for (int x = 0; x < SCENE_SIZE; x++)
+		{
+			for (int y = 0; y < SCENE_SIZE; y++)
+			{
+				flags[0][x][y] = flag;
+			}
+		}
+		return flags;
+	}
+
+	@Test
+	public void openSceneOpensEdgesClosedInStaticMap()
+	{
+		SplitFlagMap base = SplitFlagMap.fromResources();
+		CollisionDelta delta = CollisionDelta.fromScene(base, 1, BASE_X, BASE_Y, scene(0));
+		CollisionMap map = new CollisionMap(base, delta);
+
+		int opened = 0;
+		for (int x = BASE_X + 1; x < BASE_X + SCENE_SIZE - 7; x++)
+		{
+			for (int y = BASE_Y + 1; y < BASE_Y + SCENE_SIZE - 7; y++)
+			{
+				assertTrue(map.n(x, y, 0));
+				assertTrue(map.e(x, y, 0));
+				if (!base.get(x, y, 0, 0))
+				{
+					opened++;
+				}
+			}
+		}
+		assertTrue(opened > 0);
+		assertEquals(1, delta.getVersion());
+	}
+
+	@Test
+	public void blockedSceneDoesNotCloseStaticEdges()
+	{
+		SplitFlagMap base = SplitFlagMap.fromResources();
+		CollisionDelta delta = CollisionDelta.fromScene(base, 1, BASE_X, BASE_Y, scene(CollisionDataFlag.BLOCK_MOVEMENT_FULL));
+		CollisionMap map = new CollisionMap(base, delta);
+
+		for (int x = BASE_X; x < BASE_X + SCENE_SIZE; x++)
+		{
+			for (int y = BASE_Y; y < BASE_Y + SCENE_SIZE; y++)
+			{
+				assertEquals(base.get(x, y, 0, 0), map.n(x, y, 0));
+				assertEquals(base.get(x, y, 0, 1), map.e(x, y, 0));
+			}
+		}
+	}
+
+	@Test
+	public void tilesOutsideSceneUseStaticMap()
+	{
+		SplitFlagMap base = SplitFlagMap.fromResources();
+		CollisionDelta delta = CollisionDelta.fromScene(base, 1, BASE_X, BASE_Y, scene(0));
+
+		assertFalse(delta.covers(BASE_X - 1, BASE_Y + 10));
+		assertFalse(delta.covers(BASE_X + SCENE_SIZE, BASE_Y + 10));
+		assertFalse(CollisionDelta.EMPTY.covers(BASE_X + 10, BASE_Y + 10));
+	}
+}
@@ -0,0 +1,76 @@
+package shortestpath.pathfinder;
+
+import net.runelite.api.gameval.ItemID;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+import shortestpath.transport.requirement.TransportItems;
+
+public class CompiledItemsTest
+{
+	private static final int AIR_RUNE = 556;
+	private static final int LAW_RUNE = 563;
+	private static final int STAFF_OF_AIR = 1381;
+
+	@Test
+	public void testBankOnlyCountsTowardsBankedState()
+	{
+		ItemSnapshot items = new ItemSnapshot();
+		items.put(LAW_RUNE, 1, ItemSnapshot.BOTH);
+		items.put(AIR_RUNE, 5, ItemSnapshot.WITH_BANK);
+		CompiledItems compiled = new CompiledItems(new TransportItems(
+			new int[][]{{LAW_RUNE}, {AIR_RUNE}},
+			new int[][]{null, null},
+			new int[][]{null, null},
+			new int[]{1, 5}));
+
+		assertEquals(ItemSnapshot.WITH_BANK, compiled.evaluate(items, 10000));
+	}
+
+	@Test
+	public void testStaffStandsInForOneRequirementOnly()
+	{
+		ItemSnapshot items = new ItemSnapshot();
+		items.put(STAFF_OF_AIR, 1, ItemSnapshot.BOTH);
+		CompiledItems compiled = new CompiledItems(new TransportItems(
+			new int[][]{{AIR_RUNE}, {AIR_RUNE}},
+			new int[][]{{STAFF_OF_AIR}, {STAFF_OF_AIR}},
+			new int[][]{null, null},
+			new int[]{1, 1}));
+
+		assertEquals(0, compiled.evaluate(items, 10000));
+
+		items.put(AIR_RUNE, 1, ItemSnapshot.WITH_BANK);
+		assertEquals(ItemSnapshot.WITH_BANK, compiled.evaluate(items, 10000));
+	}
+
+	@Test
+	public void testCurrencyAboveThresholdFails()
+	{
+		ItemSnapshot items = new ItemSnapshot();
+		items.put(ItemID.COINS, 5000, ItemSnapshot.BOTH);
+		CompiledItems compiled = new CompiledItems(new TransportItems(
+			new int[][]{{ItemID.COINS}},
+			new int[][]{null},
+			new int[][]{null},
+			new int[]{2000}));
+
+		assertEquals(ItemSnapshot.BOTH, compiled.evaluate(items, 10000));
+		assertEquals(0, compiled.evaluate(items, 1000));
+	}
+
+	@Test
+	public void testLaterSourceOverwritesQuantity()
+	{
+		ItemSnapshot items = new ItemSnapshot();
+		for (int itemId = 500; itemId < 700; itemId++)
+		{
+			items.put(itemId, 10, ItemSnapshot.BOTH);
+		}
+		items.put(AIR_RUNE, 3, ItemSnapshot.WITH_BANK);
+
+		assertEquals(10, items.getWithoutBank(AIR_RUNE));
+		assertEquals(3, items.getWithBank(AIR_RUNE));
+		assertEquals(0, items.getWithBank(1000));
+		assertEquals(ItemSnapshot.BOTH, items.holdsAny(new int[]{1000, 699}));
+	}
+}
@@ -2,6 +2,8 @@ package shortestpath.pathfinder;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import org.junit.Test;
@@ -86,7 +88,7 @@ public class NodeGraphTest
 		int travelTime = 6;
 		int additionalCost = 50;
 		int differentialCost = 4;
-		int transport = graph.createTransport(destination, prev, travelTime, additionalCost, false, true, differentialCost);
+		int transport = graph.createTransport(destination, prev, 0, travelTime, additionalCost, false, true, differentialCost);
 
 		// No walking-distance term for transports, unlike a walked tile.
 		assertEquals(graph.cost(prev) + travelTime + additionalCost, graph.cost(transport));
@@ -102,7 +104,7 @@ public class NodeGraphTest
 	{
 		NodeGraph graph = new NodeGraph(16);
 		int start = graph.createStart(WorldPointUtil.packWorldPoint(3200, 3200, 0));
-		int transport = graph.createTransport(WorldPointUtil.packWorldPoint(2800, 3400, 0), start, 6, 0, true, false, 0);
+		int transport = graph.createTransport(WorldPointUtil.packWorldPoint(2800, 3400, 0), start, 0, 6, 0, true, false, 0);
 
 		assertTrue(graph.isTransport(transport));
 		assertFalse(graph.isDelayedVisit(transport));
@@ -121,18 +123,45 @@ public class NodeGraphTest
 		int start = graph.createStart(a);
 		int tile = graph.createTile(b, start, false);
 		int abstractNode = graph.createAbstract(AbstractNodeKind.GLOBAL_TELEPORTS_NORMAL, tile, false);
-		int teleportDest = graph.createTransport(c, abstractNode, 6, 0, false, false, 0);
+		int teleportDest = graph.createTransport(c, abstractNode, 1, 6, 0, false, false, 0);
 
 		var steps = graph.getPathSteps(teleportDest);
 		assertEquals(3, steps.size()); // start, tile, teleportDest (abstract is skipped)
 		assertEquals(a, steps.get(0).getPackedPosition());
 		assertEquals(b, steps.get(1).getPackedPosition());
 		assertEquals(c, steps.get(2).getPackedPosition());
+		assertEquals(NodeGraph.NO_TRANSPORT, steps.get(1).getTransportId());
+		assertEquals(1, steps.get(2).getTransportId());
+		assertEquals(1, graph.transportId(teleportDest));
 
 		assertEquals(c, graph.getClosestTilePosition(teleportDest));
 		assertEquals(b, graph.getClosestTilePosition(abstractNode));
 	}
 
+	@Test
+	public void packedPathSharesStepsWithThePreviousPath()
+	{
+		NodeGraph graph = new NodeGraph(16);
+		int a = WorldPointUtil.packWorldPoint(3200, 3200, 0);
+		int b = WorldPointUtil.packWorldPoint(3201, 3200, 0);
+		int c = WorldPointUtil.packWorldPoint(3202, 3200, 0);
+		int d = WorldPointUtil.packWorldPoint(3202, 3201, 0);
+		int start = graph.createStart(a);
+		int tile = graph.createTile(b, start, true);
+		int shorter = graph.createTile(c, tile, false);
+		int longer = graph.createTile(d, shorter, false);
+
+		PackedPath first = graph.getPackedPath(shorter, PackedPath.EMPTY);
+		PathStep made = first.get(1);
+		PackedPath second = graph.getPackedPath(longer, first);
+
+		assertEquals(4, second.size());
+		assertSame(made, second.get(1));
+		assertTrue(second.isBankVisited(1));
+		assertEquals(d, second.getPackedPosition(3));
+		assertNotEquals(first.getVersion(), second.getVersion());
+	}
+
 	@Test
 	public void releaseMakesChainWalksReturnEmpty()
 	{
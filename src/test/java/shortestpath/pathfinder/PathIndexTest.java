@@ -0,0 +1,61 @@
+package shortestpath.pathfinder;
+
+import java.util.Random;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+import shortestpath.WorldPointUtil;
+
+public class PathIndexTest
+{
+	@Test
+	public void testMatchesLinearScan()
+	{
+		Random random = new Random(491);
+		int[] points = new int[500];
+		int x = 3200;
+		int y = 3200;
+		for (int i = 0; i < points.length; i++)
+		{
+			x += random.nextInt(3) - 1;
+			y += random.nextInt(3) - 1;
+			points[i] = WorldPointUtil.packWorldPoint(x, y, i < 400 ? 0 : 1);
+		}
+		PathIndex index = new PathIndex(points);
+
+		for (int i = 0; i < 2000; i++)
+		{
+			int location = WorldPointUtil.packWorldPoint(3150 + random.nextInt(100), 3150 + random.nextInt(100), random.nextInt(3));
+			int distance = random.nextInt(40);
+			int closest = -1;
+			int closestDistance = Integer.MAX_VALUE;
+			boolean within = false;
+			for (int j = 0; j < points.length; j++)
+			{
+				int d = WorldPointUtil.distanceBetween(location, points[j]);
+				within |= d < distance;
+				if (d < closestDistance)
+				{
+					closest = j;
+					closestDistance = d;
+				}
+			}
+			assertEquals(within, index.isWithin(location, distance));
+			assertEquals(closest, index.closestIndex(location));
+		}
+	}
+
+	@Test
+	public void testOtherPlaneIsNeverNear()
+	{
+		PathIndex index = new PathIndex(new int[]{WorldPointUtil.packWorldPoint(3200, 3200, 0)});
+		int above = WorldPointUtil.packWorldPoint(3200, 3200, 1);
+
+		assertFalse(index.isWithin(above, 20000));
+		assertEquals(-1, index.closestIndex(above));
+		assertTrue(index.isWithin(WorldPointUtil.packWorldPoint(3209, 3191, 0), 10));
+		assertFalse(index.isWithin(WorldPointUtil.packWorldPoint(3210, 3200, 0), 10));
+		assertFalse(PathIndex.EMPTY.isWithin(above, 10));
+	}
+}
@@ -0,0 +1,26 @@
+package shortestpath.pathfinder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import org.junit.Test;
+import shortestpath.transport.TransportSnapshot;
+
+public class PathfinderConfigSnapshotTest
+{
+	@Test
+	public void testCorruptCacheIsParsedAndRewritten() throws IOException
+	{
+		File file = new File(Files.createTempDirectory("shortest-path").toFile(), "transports.bin");
+		int transports = PathfinderConfig.loadSnapshot(file, Runnable::run).join().getTransports().length;
+		byte[] bytes = Files.readAllBytes(file.toPath());
+		Files.write(file.toPath(), Arrays.copyOf(bytes, bytes.length - 1));
+
+		TransportSnapshot loaded = PathfinderConfig.loadSnapshot(file, Runnable::run).join();
+		assertEquals(transports, loaded.getTransports().length);
+		assertNotNull(TransportSnapshot.read(file, TransportSnapshot.hashResources(PathfinderConfig.class)));
+	}
+}
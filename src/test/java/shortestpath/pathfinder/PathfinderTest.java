@@ -37,6 +37,7 @@ import shortestpath.ShortestPathConfig;
 import shortestpath.ShortestPathPlugin;
 import shortestpath.TeleportationItem;
 import shortestpath.WorldPointUtil;
+import shortestpath.transport.PermutationNetwork;
 import shortestpath.transport.Transport;
 import shortestpath.transport.TransportLoader;
 import shortestpath.transport.TransportType;
@@ -46,7 +47,7 @@ import shortestpath.transport.requirement.TransportItems;
 @RunWith(MockitoJUnitRunner.class)
 public class PathfinderTest
 {
-	private static final Map<Integer, Set<Transport>> transports = TransportLoader.loadAllFromResources();
+	private static final Map<Integer, Set<Transport>> transports = PermutationNetwork.materialise(TransportLoader.loadAllFromResources());
 	@Mock
 	Client client;
 	@Mock
@@ -193,6 +194,39 @@ public class PathfinderTest
 		testAllTransportsAvailableWithSinglePath(TransportType.FAIRY_RING);
 	}
 
+	@Test
+	public void testFinishedPathCarriesItsTransports()
+	{
+		when(config.useFairyRings()).thenReturn(true);
+		setupInventory(new Item(ItemID.DRAMEN_STAFF, 1));
+		when(client.getVarbitValue(VarbitID.FAIRY2_QUEENCURE_QUEST)).thenReturn(100);
+		setupConfig(QuestState.FINISHED, 99, TeleportationItem.NONE);
+		Transport fairyRing = findSampleTransport(TransportType.FAIRY_RING);
+
+		// A fairy ring edge goes through the network hub, so its origin is resolved when the search finishes
+		List<PathStep> path = runPathfinder(fairyRing.getOrigin(), fairyRing.getDestination()).getPath();
+		assertEquals(2, path.size());
+		assertEquals(NodeGraph.NO_TRANSPORT, path.get(0).getTransportId());
+		assertTrue(path.get(1).isAnnotated());
+		Set<Transport> edge = path.get(1).getTransports();
+		assertFalse(edge.isEmpty());
+		for (Transport usable : edge)
+		{
+			assertEquals(fairyRing.getDestination(), usable.getDestination());
+		}
+		assertTrue(edge.stream().anyMatch(taken -> taken.getType() == TransportType.FAIRY_RING
+			&& taken.getOrigin() == fairyRing.getOrigin()));
+
+		// Walked steps have no transport
+		int start = WorldPointUtil.packWorldPoint(3200, 3200, 0);
+		for (PathStep step : runPathfinder(start, WorldPointUtil.packWorldPoint(3205, 3200, 0)).getPath())
+		{
+			assertEquals(NodeGraph.NO_TRANSPORT, step.getTransportId());
+			assertTrue(step.isAnnotated());
+			assertTrue(step.getTransports().isEmpty());
+		}
+	}
+
 	@Test
 	public void testLunarStaffFairyRings()
 	{
@@ -1045,7 +1079,7 @@ public class PathfinderTest
 		setupInventory();
 		setupConfig(QuestState.FINISHED, 99, TeleportationItem.NONE);
 
-		assertFalse("No transports should be present that require a pickaxe", hasTransportWithRequiredItem(pathfinderConfig.getTransports(), ItemVariations.PICKAXE.getIds()));
+		assertFalse("No transports should be present that require a pickaxe", hasTransportWithRequiredItem(activeTransportList(), ItemVariations.PICKAXE.getIds()));
 	}
 
 	@Test
@@ -1056,7 +1090,7 @@ public class PathfinderTest
 		setupConfig(QuestState.FINISHED, 50, TeleportationItem.NONE); // transport in data requires 50 Mining
 
 		assertTrue("Transports requiring a pickaxe should be present",
-			hasTransportWithRequiredItem(pathfinderConfig.getTransports(), ItemVariations.PICKAXE.getIds()));
+			hasTransportWithRequiredItem(activeTransportList(), ItemVariations.PICKAXE.getIds()));
 	}
 
 	@Test
@@ -1066,7 +1100,7 @@ public class PathfinderTest
 		setupInventory();
 		setupConfig(QuestState.FINISHED, 99, TeleportationItem.NONE);
 
-		assertFalse("No transports should be present that require an axe", hasTransportWithRequiredItem(pathfinderConfig.getTransports(), ItemVariations.AXE.getIds()));
+		assertFalse("No transports should be present that require an axe", hasTransportWithRequiredItem(activeTransportList(), ItemVariations.AXE.getIds()));
 	}
 
 	@Test
@@ -1077,7 +1111,7 @@ public class PathfinderTest
 		setupConfig(QuestState.FINISHED, 99, TeleportationItem.NONE);
 
 		assertTrue("Transports requiring an axe should be present",
-			hasTransportWithRequiredItem(pathfinderConfig.getTransports(), ItemVariations.AXE.getIds()));
+			hasTransportWithRequiredItem(activeTransportList(), ItemVariations.AXE.getIds()));
 	}
 
 	@Test
@@ -1581,16 +1615,12 @@ public class PathfinderTest
 		setupConfig(questState, skillLevel, useTeleportationItems);
 
 		int counter = 0;
-		PrimitiveIntHashMap<Transport[]> activeTransports = pathfinderConfig.getTransports();
-		for (int origin : activeTransports.keys())
+		for (Transport transport : activeTransportList())
 		{
-			for (Transport transport : activeTransports.get(origin))
+			if (transportType.equals(transport.getType()))
 			{
-				if (transportType.equals(transport.getType()))
-				{
-					counter++;
-					assertEquals(transport.toString(), expectedLength, calculateTransportLength(transport));
-				}
+				counter++;
+				assertEquals(transport.toString(), expectedLength, calculateTransportLength(transport));
 			}
 		}
 
@@ -1751,41 +1781,38 @@ public class PathfinderTest
 
 	private List<Transport> activeTransportList()
 	{
-		PrimitiveIntHashMap<Transport[]> active = pathfinderConfig.getTransports();
+		PrimitiveIntHashMap<int[]> active = pathfinderConfig.getTransports();
 		List<Transport> all = new ArrayList<>();
 		for (int origin : active.keys())
 		{
-			all.addAll(Arrays.asList(active.get(origin)));
+			all.addAll(Arrays.asList(pathfinderConfig.getTransportsAt(origin)));
 		}
 		return all;
 	}
 
-	private boolean hasTransportWithRequiredItem(PrimitiveIntHashMap<Transport[]> transports, int[] variationIds)
+	private boolean hasTransportWithRequiredItem(List<Transport> transports, int[] variationIds)
 	{
-		for (int origin : transports.keys())
+		for (Transport t : transports)
 		{
-			for (Transport t : transports.get(origin))
+			TransportItems items = t.getItemRequirements();
+			if (items == null)
 			{
-				TransportItems items = t.getItemRequirements();
-				if (items == null)
+				continue;
+			}
+			int[][] reqs = items.getItems();
+			for (int[] inner : reqs)
+			{
+				if (inner == null)
 				{
 					continue;
 				}
-				int[][] reqs = items.getItems();
-				for (int[] inner : reqs)
+				for (int id : inner)
 				{
-					if (inner == null)
-					{
-						continue;
-					}
-					for (int id : inner)
+					for (int vid : variationIds)
 					{
-						for (int vid : variationIds)
+						if (id == vid)
 						{
-							if (id == vid)
-							{
-								return true;
-							}
+							return true;
 						}
 					}
 				}
@@ -1903,7 +1930,7 @@ public class PathfinderTest
 	private Set<Transport> transportsForStep(int origin, boolean bankVisited)
 	{
 		Set<Transport> stepTransports = new java.util.HashSet<>(Arrays.asList(
-			pathfinderConfig.getTransportsPacked(bankVisited).getOrDefault(origin, TransportAvailability.EMPTY_TRANSPORTS)));
+			pathfinderConfig.getTransportAvailability(bankVisited).getTransportsFrom(origin)));
 		stepTransports.addAll(Arrays.asList(pathfinderConfig.getUsableTeleports(bankVisited)));
 		return stepTransports;
 	}
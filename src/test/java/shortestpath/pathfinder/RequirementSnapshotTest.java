@@ -0,0 +1,74 @@
+package shortestpath.pathfinder;
+
+import java.util.Set;
+import net.runelite.api.Client;
+import net.runelite.api.Quest;
+import net.runelite.api.QuestState;
+import net.runelite.api.Skill;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import shortestpath.TestShortestPathConfig;
+import shortestpath.transport.Transport;
+import shortestpath.transport.TransportType;
+import shortestpath.transport.parser.VarCheckType;
+import shortestpath.transport.parser.VarRequirement;
+
+public class RequirementSnapshotTest
+{
+	private static Transport transport(String skills, Set<Quest> quests, VarRequirement... vars)
+	{
+		return new Transport.TransportBuilder()
+			.type(TransportType.TRANSPORT)
+			.skillLevels(skills)
+			.quests(quests)
+			.varRequirements(Set.of(vars))
+			.build();
+	}
+
+	@Test
+	public void testEachDependencyIsReadOnce()
+	{
+		Client client = mock(Client.class);
+		when(client.getVarbitValue(1234)).thenReturn(2);
+		when(client.getVarpValue(99)).thenReturn(7);
+		when(client.getBoostedSkillLevel(Skill.AGILITY)).thenReturn(70);
+		TestPathfinderConfig config = new TestPathfinderConfig(client, new TestShortestPathConfig(),
+			QuestState.FINISHED, false, false);
+
+		RequirementSnapshot snapshot = new RequirementSnapshot.Builder()
+			.add(transport("70 Agility", Set.of(Quest.LOST_CITY), VarRequirement.varbit(1234, 2, VarCheckType.EQUAL)))
+			.add(transport("60 Agility", Set.of(Quest.LOST_CITY), VarRequirement.varbit(1234, 1, VarCheckType.GREATER),
+				VarRequirement.varPlayer(99, 5, VarCheckType.GREATER)))
+			.build()
+			.read(client, config);
+
+		verify(client, times(1)).getVarbitValue(1234);
+		verify(client, times(1)).getVarpValue(99);
+		assertEquals(1, snapshot.getQuestCount());
+		assertEquals(1, snapshot.getVarbitCount());
+		assertEquals(1, snapshot.getVarPlayerCount());
+		assertEquals(70, snapshot.getSkillLevel(Skill.AGILITY.ordinal()));
+		assertEquals(0, snapshot.getSkillLevel(Skill.ATTACK.ordinal()));
+
+		assertTrue(snapshot.isQuestFinished(Quest.LOST_CITY));
+		assertTrue(snapshot.check(VarRequirement.varbit(1234, 2, VarCheckType.EQUAL)));
+		assertTrue(snapshot.check(VarRequirement.varPlayer(99, 5, VarCheckType.GREATER)));
+		assertEquals(2, snapshot.getVarbitValue(1234));
+	}
+
+	@Test
+	public void testUnindexedVarsNeverPass()
+	{
+		RequirementSnapshot snapshot = new RequirementSnapshot.Builder().build();
+
+		assertFalse(snapshot.check(VarRequirement.varbit(1, 1, VarCheckType.SMALLER)));
+		assertFalse(snapshot.check(VarRequirement.varPlayer(1, 1, VarCheckType.SMALLER)));
+		assertEquals(0, snapshot.getVarbitValue(1));
+	}
+}
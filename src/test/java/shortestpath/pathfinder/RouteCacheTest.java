@@ -0,0 +1,98 @@
+package shortestpath.pathfinder;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Set;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+import shortestpath.WorldPointUtil;
+
+public class RouteCacheTest
+{
+	private static final int SCENE_SIZE = 104;
+	private static final int BASE_X = 3168;
+	private static final int BASE_Y = 3168;
+	private static final RouteCache.Route ROUTE = route(2, 1, 2);
+
+	private static RouteCache.Route route(int reachedTarget, int... positions)
+	{
+		BitSet bankVisited = new BitSet();
+		bankVisited.set(1);
+		int[] transportIds = new int[positions.length];
+		Arrays.fill(transportIds, NodeGraph.NO_TRANSPORT);
+		PackedPath path = new PackedPath(positions, bankVisited, transportIds, null, null, new PathStep[positions.length]);
+		return new RouteCache.Route(path, 1, reachedTarget, reachedTarget, PathTerminationReason.TARGET_REACHED,
+			CollisionDelta.EMPTY);
+	}
+
+	@Test
+	public void testTargetOrderDoesNotMatter()
+	{
+		RouteCache cache = new RouteCache(4);
+		cache.put(1, 0, Set.of(2, 3), ROUTE);
+
+		RouteCache.Route route = cache.get(1, CollisionDelta.EMPTY, 0, Set.of(3, 2));
+		assertNotNull(route);
+		assertEquals(2, route.getPath().size());
+		assertTrue(route.getPath().get(1).isBankVisited());
+	}
+
+	@Test
+	public void testLeastRecentlyUsedIsEvicted()
+	{
+		RouteCache cache = new RouteCache(2);
+		cache.put(1, 0, Set.of(1), ROUTE);
+		cache.put(1, 0, Set.of(2), ROUTE);
+		cache.get(1, CollisionDelta.EMPTY, 0, Set.of(1));
+		cache.put(1, 0, Set.of(3), ROUTE);
+
+		assertEquals(2, cache.size());
+		assertNotNull(cache.get(1, CollisionDelta.EMPTY, 0, Set.of(1)));
+		assertNull(cache.get(1, CollisionDelta.EMPTY, 0, Set.of(2)));
+	}
+
+	@Test
+	public void testNewFingerprintDropsRoutes()
+	{
+		RouteCache cache = new RouteCache(4);
+		cache.put(1, 0, Set.of(1), ROUTE);
+
+		assertNull(cache.get(2, CollisionDelta.EMPTY, 0, Set.of(1)));
+		assertEquals(0, cache.size());
+		cache.put(2, 0, Set.of(1), ROUTE);
+		assertNull(cache.get(1, CollisionDelta.EMPTY, 0, Set.of(1)));
+		assertEquals(0, cache.getHitRate(), 0);
+	}
+
+	@Test
+	public void testCollisionChangeDropsOnlyRoutesOnChangedEdges()
+	{
+		SplitFlagMap base = SplitFlagMap.fromResources();
+		CollisionDelta scene = CollisionDelta.fromScene(base, 1, BASE_X, BASE_Y, new int[1][SCENE_SIZE][SCENE_SIZE]);
+		int opened = WorldPointUtil.UNDEFINED;
+		for (int x = BASE_X + 1; x < BASE_X + SCENE_SIZE - 7 && opened == WorldPointUtil.UNDEFINED; x++)
+		{
+			for (int y = BASE_Y + 1; y < BASE_Y + SCENE_SIZE - 7 && opened == WorldPointUtil.UNDEFINED; y++)
+			{
+				if (!base.get(x, y, 0, 0))
+				{
+					opened = WorldPointUtil.packWorldPoint(x, y, 0);
+				}
+			}
+		}
+		int elsewhere = WorldPointUtil.packWorldPoint(BASE_X - 100, BASE_Y - 100, 0);
+
+		RouteCache cache = new RouteCache(4);
+		cache.put(1, 0, Set.of(1), route(elsewhere, elsewhere, elsewhere + 1));
+		cache.put(1, 0, Set.of(2), route(opened, elsewhere, opened));
+		cache.put(1, 0, Set.of(3), route(WorldPointUtil.UNDEFINED, elsewhere, elsewhere + 1));
+
+		assertNotNull(cache.get(1, scene, 0, Set.of(1)));
+		assertNull(cache.get(1, scene, 0, Set.of(2)));
+		assertNull(cache.get(1, scene, 0, Set.of(3)));
+		assertEquals(1, cache.size());
+	}
+}
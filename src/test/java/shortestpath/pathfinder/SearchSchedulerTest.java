@@ -0,0 +1,250 @@
+package shortestpath.pathfinder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import net.runelite.api.Client;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.mockito.Mockito.mock;
+import shortestpath.TestShortestPathConfig;
+import shortestpath.WorldPointUtil;
+import shortestpath.transport.TransportTable;
+import shortestpath.transport.TransportType;
+
+public class SearchSchedulerTest
+{
+	private static final int START = WorldPointUtil.packWorldPoint(3200, 3200, 0);
+	private static final Set<Integer> NEAR = Set.of(WorldPointUtil.packWorldPoint(3202, 3200, 0));
+	private static final Set<Integer> FAR = Set.of(WorldPointUtil.packWorldPoint(3205, 3200, 0));
+
+	// Holds back the transport evaluation of the refresh, which every search waits for before it starts.
+	private final List<Runnable> heldEvaluations = new ArrayList<>();
+	private TestShortestPathConfig settings;
+	private PathfinderConfig config;
+	private SearchScheduler scheduler;
+
+	@Before
+	public void before()
+	{
+		settings = new TestShortestPathConfig();
+		config = new TestPathfinderConfig(mock(Client.class), settings);
+		config.setTransportExecutor(heldEvaluations::add);
+		config.refresh();
+		scheduler = new SearchScheduler(1, Executors.defaultThreadFactory());
+	}
+
+	@After
+	public void after()
+	{
+		scheduler.shutdownNow();
+	}
+
+	private void releaseEvaluations()
+	{
+		heldEvaluations.forEach(Runnable::run);
+	}
+
+	@Test
+	public void testSameRequestSharesOneSearch()
+	{
+		Pathfinder first = scheduler.submit(SearchScheduler.Priority.QUERY, config, START, NEAR, null);
+		Pathfinder second = scheduler.submit(SearchScheduler.Priority.QUERY, config, START, NEAR, null);
+		Pathfinder other = scheduler.submit(SearchScheduler.Priority.QUERY, config, START, FAR, null);
+
+		assertSame(first, second);
+		assertNotSame(first, other);
+		assertEquals(1, scheduler.getCoalescedRequests());
+		releaseEvaluations();
+	}
+
+	@Test
+	public void testQueriesRunInSubmissionOrder() throws InterruptedException
+	{
+		CountDownLatch finished = new CountDownLatch(3);
+		List<String> order = Collections.synchronizedList(new ArrayList<>());
+		// Occupies the only shared worker until the evaluation is released.
+		scheduler.submit(SearchScheduler.Priority.QUERY, config, START, NEAR, finished::countDown);
+		scheduler.submit(SearchScheduler.Priority.QUERY, config, START, FAR, () ->
+		{
+			order.add("first");
+			finished.countDown();
+		});
+		scheduler.submit(SearchScheduler.Priority.QUERY, config, START, FAR, Map.of("calculationCutoff", 1000), query ->
+		{
+			order.add("second");
+			finished.countDown();
+		});
+		assertEquals(2, scheduler.getQueueDepth());
+
+		releaseEvaluations();
+		assertTrue(finished.await(30, TimeUnit.SECONDS));
+		assertEquals(List.of("first", "second"), order);
+	}
+
+	@Test
+	public void testDisplaySearchDoesNotWaitForOtherSearches() throws InterruptedException
+	{
+		CountDownLatch displayed = new CountDownLatch(1);
+		CountDownLatch queried = new CountDownLatch(1);
+		AtomicBoolean displayedWhileQuerying = new AtomicBoolean();
+		// Holds the only shared worker until the display search has finished, or for 30 seconds.
+		scheduler.submit(SearchScheduler.Priority.QUERY, config, START, NEAR, Map.of(), query ->
+		{
+			try
+			{
+				displayedWhileQuerying.set(displayed.await(30, TimeUnit.SECONDS));
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+			}
+			queried.countDown();
+		});
+		scheduler.submit(SearchScheduler.Priority.QUERY, config, START, FAR, null);
+		Pathfinder display = scheduler.submit(SearchScheduler.Priority.DISPLAY, config, START, FAR, displayed::countDown);
+
+		releaseEvaluations();
+		assertTrue(queried.await(60, TimeUnit.SECONDS));
+		assertTrue(displayedWhileQuerying.get());
+		assertTrue(display.isDone());
+	}
+
+	@Test
+	public void testNewDisplaySearchReplacesPreviousOne() throws InterruptedException
+	{
+		CountDownLatch finished = new CountDownLatch(1);
+		Pathfinder replaced = scheduler.submit(SearchScheduler.Priority.DISPLAY, config, START, NEAR, null);
+		Pathfinder latest = scheduler.submit(SearchScheduler.Priority.DISPLAY, config, START, FAR, finished::countDown);
+
+		releaseEvaluations();
+		assertTrue(finished.await(30, TimeUnit.SECONDS));
+		assertTrue(latest.isDone());
+		assertFalse(replaced.isDone());
+	}
+
+	@Test
+	public void testSharedSearchCallsBackEveryRequest() throws InterruptedException
+	{
+		CountDownLatch finished = new CountDownLatch(2);
+		List<String> ids = Collections.synchronizedList(new ArrayList<>());
+		Pathfinder first = scheduler.submit(SearchScheduler.Priority.QUERY, config, START, NEAR, Map.of(), query ->
+		{
+			ids.add("first");
+			finished.countDown();
+		});
+		Pathfinder second = scheduler.submit(SearchScheduler.Priority.QUERY, config, START, NEAR, Map.of(), query ->
+		{
+			ids.add("second");
+			finished.countDown();
+		});
+		assertSame(first, second);
+
+		releaseEvaluations();
+		assertTrue(finished.await(30, TimeUnit.SECONDS));
+		assertEquals(Set.of("first", "second"), Set.copyOf(ids));
+	}
+
+	@Test
+	public void testOverridesDoNotShareSearch() throws InterruptedException
+	{
+		CountDownLatch finished = new CountDownLatch(2);
+		Pathfinder plain = scheduler.submit(SearchScheduler.Priority.QUERY, config, START, FAR, Map.of(),
+			query -> finished.countDown());
+		Pathfinder shortCutoff = scheduler.submit(SearchScheduler.Priority.QUERY, config, START, FAR,
+			Map.of("calculationCutoff", 1), query -> finished.countDown());
+		assertNotSame(plain, shortCutoff);
+
+		releaseEvaluations();
+		assertTrue(finished.await(30, TimeUnit.SECONDS));
+		assertTrue(plain.getResult().isReached());
+		assertEquals(5, plain.getResult().getCost());
+	}
+
+	@Test
+	public void testCostOverrideAlsoOverridesDifferentialCost()
+	{
+		releaseEvaluations();
+		SearchSnapshot snapshot = config.getSearchSnapshot();
+		TransportTable table = snapshot.getTransportAvailability(false).getTable();
+		int whistle = -1;
+		for (int id = 0; id < table.size() && whistle < 0; id++)
+		{
+			if (table.getType(id) == TransportType.QUETZAL_WHISTLE)
+			{
+				whistle = id;
+			}
+		}
+		assertTrue(whistle >= 0);
+
+		int overridden = settings.costQuetzalWhistle() + 7;
+		SearchSnapshot query = snapshot.withOverrides(Map.of("costQuetzalWhistle", overridden));
+		assertEquals(overridden, query.getDifferentialCost(whistle));
+		assertNotEquals(snapshot.getFingerprint(), query.getFingerprint());
+	}
+
+	@Test
+	public void testUnsupportedOverridesAreNamed()
+	{
+		assertEquals(Map.of(), SearchSnapshot.unsupportedOverrides(
+			Map.of("calculationCutoff", 1, "avoidWilderness", false, "costQuetzalWhistle", 3)));
+
+		Map<String, Object> overrides = new LinkedHashMap<>();
+		overrides.put("calculationCutoff", 1);
+		overrides.put("useFairyRings", false);
+		overrides.put("costQuetzalWhistle", 3L);
+		overrides.put("avoidWilderness", "true");
+		Map<Object, Object> unsupported = SearchSnapshot.unsupportedOverrides(overrides);
+		assertEquals(List.of("useFairyRings", "costQuetzalWhistle", "avoidWilderness"), List.copyOf(unsupported.keySet()));
+		assertEquals(3L, unsupported.get("costQuetzalWhistle"));
+	}
+
+	@Test
+	public void testQueuedSearchRunsOnTheRefreshItWasSubmittedAfter() throws InterruptedException
+	{
+		CountDownLatch finished = new CountDownLatch(1);
+		Pathfinder queued = scheduler.submit(SearchScheduler.Priority.QUERY, config, START, NEAR, finished::countDown);
+		CompletableFuture<SearchSnapshot> submittedAfter = config.getPendingSearchSnapshot();
+		settings.setCalculationCutoffValue(settings.calculationCutoff() + 1);
+		config.refresh();
+
+		releaseEvaluations();
+		assertTrue(finished.await(30, TimeUnit.SECONDS));
+		assertNotEquals(config.getSearchSnapshot().getFingerprint(), submittedAfter.join().getFingerprint());
+		assertEquals(RouteCache.fingerprint(submittedAfter.join().getFingerprint(), config.getCollisionVersion()),
+			queued.getConfigFingerprint());
+	}
+
+	@Test
+	public void testRepeatedRequestIsAnsweredFromCache() throws InterruptedException
+	{
+		CountDownLatch finished = new CountDownLatch(1);
+		Pathfinder searched = scheduler.submit(SearchScheduler.Priority.QUERY, config, START, FAR, finished::countDown);
+		releaseEvaluations();
+		assertTrue(finished.await(30, TimeUnit.SECONDS));
+
+		List<Pathfinder> answered = new ArrayList<>();
+		Pathfinder cached = scheduler.submit(SearchScheduler.Priority.DISPLAY, config, START, FAR, Map.of(), answered::add);
+		assertNotSame(searched, cached);
+		assertEquals(List.of(cached), answered);
+		assertTrue(cached.isDone());
+		assertEquals(searched.getResult().getCost(), cached.getResult().getCost());
+		assertEquals(searched.getPath().size(), cached.getPath().size());
+		assertEquals(0.5, scheduler.getRouteCache().getHitRate(), 0);
+	}
+}
@@ -0,0 +1,60 @@
+package shortestpath.pathfinder;
+
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.Objects;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import static net.runelite.api.Constants.REGION_SIZE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import org.junit.Test;
+import shortestpath.ShortestPathPlugin;
+import shortestpath.Util;
+
+public class SplitFlagMapTest
+{
+	@Test
+	public void deduplicatedRegionsMatchRawCollisionData() throws IOException
+	{
+		SplitFlagMap map = SplitFlagMap.fromResources();
+
+		try (ZipInputStream in = new ZipInputStream(Objects.requireNonNull(ShortestPathPlugin.class.getResourceAsStream("/collision-map.zip"))))
+		{
+			ZipEntry entry;
+			while ((entry = in.getNextEntry()) != null)
+			{
+				String[] n = entry.getName().split("_");
+				final int baseX = Integer.parseInt(n[0]) * REGION_SIZE;
+				final int baseY = Integer.parseInt(n[1]) * REGION_SIZE;
+				final BitSet bits = BitSet.valueOf(Util.readAllBytes(in));
+				final int planeCount = (bits.size() + REGION_SIZE * REGION_SIZE * 2 - 1) / (REGION_SIZE * REGION_SIZE * 2);
+
+				for (int z = 0; z < planeCount; z++)
+				{
+					for (int y = 0; y < REGION_SIZE; y++)
+					{
+						for (int x = 0; x < REGION_SIZE; x++)
+						{
+							for (int flag = 0; flag < 2; flag++)
+							{
+								final int bit = ((z * REGION_SIZE + y) * REGION_SIZE + x) * 2 + flag;
+								assertEquals(entry.getName() + " " + x + "," + y + "," + z + " flag " + flag,
+									bits.get(bit), map.get(baseX + x, baseY + y, z, flag));
+							}
+						}
+					}
+				}
+				assertFalse(map.get(baseX, baseY, planeCount, 0));
+			}
+		}
+	}
+
+	@Test
+	public void negativePlaneHasNoFlags()
+	{
+		SplitFlagMap map = SplitFlagMap.fromResources();
+
+		assertFalse(map.get(3200, 3200, -1, 0));
+	}
+}
@@ -0,0 +1,127 @@
+package shortestpath.pathfinder;
+
+import net.runelite.api.Client;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+import static org.mockito.Mockito.mock;
+import shortestpath.PrimitiveIntHashMap;
+import shortestpath.TestShortestPathConfig;
+import shortestpath.WorldPointUtil;
+import shortestpath.transport.Transport;
+import shortestpath.transport.TransportTable;
+
+public class TransportAvailabilityTest
+{
+	private static TransportAvailability buildAll()
+	{
+		PathfinderConfig pathfinderConfig = new TestPathfinderConfig(mock(Client.class), new TestShortestPathConfig());
+		TransportTable table = pathfinderConfig.getTransportAvailability(false).getTable();
+		TransportAvailability.Builder builder = new TransportAvailability.Builder(table);
+		for (int id = 0; id < table.size(); id++)
+		{
+			builder.add(id);
+		}
+		return builder.build();
+	}
+
+	private static int regionOf(int origin)
+	{
+		return WorldPointUtil.regionId(WorldPointUtil.unpackWorldX(origin), WorldPointUtil.unpackWorldY(origin));
+	}
+
+	private static boolean isIndexed(TransportAvailability availability, int origin)
+	{
+		for (int indexedOrigin : availability.getDisplayOriginsInRegion(regionOf(origin)))
+		{
+			if (indexedOrigin == origin)
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static void assertIndexedByRegion(TransportAvailability availability)
+	{
+		PrimitiveIntHashMap<int[]> display = availability.getDisplayTransports();
+		int expected = 0;
+		for (int origin : display.keys())
+		{
+			if (origin == Transport.UNDEFINED_ORIGIN)
+			{
+				continue;
+			}
+			expected++;
+			assertTrue(isIndexed(availability, origin));
+		}
+		assertTrue(expected > 0);
+
+		int indexed = 0;
+		for (int regionX = 0; regionX < 128; regionX++)
+		{
+			for (int regionY = 0; regionY < 256; regionY++)
+			{
+				indexed += availability.getDisplayOriginsInRegion(WorldPointUtil.regionId(regionX << 6, regionY << 6)).length;
+			}
+		}
+		assertEquals(expected, indexed);
+	}
+
+	@Test
+	public void testDisplayOriginsAreIndexedByRegion()
+	{
+		assertIndexedByRegion(buildAll());
+	}
+
+	@Test
+	public void testPatchOnlyIndexesTheRegionsOfReplacedOrigins()
+	{
+		TransportAvailability availability = buildAll();
+		int removed = WorldPointUtil.UNDEFINED;
+		for (int origin : availability.getDisplayTransports().keys())
+		{
+			if (origin != Transport.UNDEFINED_ORIGIN && TransportAvailability.isPatchable(origin))
+			{
+				removed = origin;
+				break;
+			}
+		}
+		// A tile next to the removed origin that has no transports of its own.
+		int added = removed + 1;
+		while (availability.getDisplayTransports().get(added) != null)
+		{
+			added++;
+		}
+		int untouched = WorldPointUtil.UNDEFINED;
+		for (int origin : availability.getDisplayTransports().keys())
+		{
+			if (origin != Transport.UNDEFINED_ORIGIN && regionOf(origin) != regionOf(removed)
+				&& regionOf(origin) != regionOf(added))
+			{
+				untouched = origin;
+				break;
+			}
+		}
+
+		int[][] hubDestinations = new int[availability.getTable().getNetworkCount()][];
+		for (int network = 0; network < hubDestinations.length; network++)
+		{
+			hubDestinations[network] = availability.getHubDestinations(network);
+		}
+		PrimitiveIntHashMap<int[]> replaced = new PrimitiveIntHashMap<>(2);
+		replaced.put(removed, TransportAvailability.NO_TRANSPORT_IDS);
+		replaced.put(added, availability.getTransportIds(removed));
+		TransportAvailability patched = availability.withTransportIds(replaced, availability.getUsableTeleportIds(),
+			hubDestinations);
+
+		assertIndexedByRegion(patched);
+		assertFalse(isIndexed(patched, removed));
+		assertTrue(isIndexed(patched, added));
+		assertTrue(isIndexed(availability, removed));
+		assertSame(availability.getDisplayOriginsInRegion(regionOf(untouched)),
+			patched.getDisplayOriginsInRegion(regionOf(untouched)));
+	}
+}
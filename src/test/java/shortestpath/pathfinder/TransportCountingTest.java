@@ -4,13 +4,14 @@ import java.util.Map;
 import java.util.Set;
 import static org.junit.Assert.assertEquals;
 import org.junit.Test;
+import shortestpath.transport.PermutationNetwork;
 import shortestpath.transport.Transport;
 import shortestpath.transport.TransportLoader;
 import shortestpath.transport.TransportType;
 
 public class TransportCountingTest
 {
-	private static final Map<Integer, Set<Transport>> transports = TransportLoader.loadAllFromResources();
+	private static final Map<Integer, Set<Transport>> transports = PermutationNetwork.materialise(TransportLoader.loadAllFromResources());
 
 	@Test
 	public void testNumberOfCharterShips()
@@ -0,0 +1,270 @@
+package shortestpath.pathfinder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import net.runelite.api.Client;
+import net.runelite.api.GameState;
+import net.runelite.api.Item;
+import net.runelite.api.ItemContainer;
+import net.runelite.api.Quest;
+import net.runelite.api.QuestState;
+import net.runelite.api.Skill;
+import net.runelite.api.gameval.InventoryID;
+import net.runelite.api.gameval.ItemID;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import shortestpath.TeleportationItem;
+import shortestpath.TestShortestPathConfig;
+import shortestpath.transport.Transport;
+import shortestpath.transport.TransportTable;
+import shortestpath.transport.parser.VarRequirement;
+
+public class TransportDependenciesTest
+{
+	@Test
+	public void testMarksOnlyDependants()
+	{
+		PathfinderConfig pathfinderConfig = new TestPathfinderConfig(mock(Client.class), new TestShortestPathConfig());
+		TransportTable table = pathfinderConfig.getTransportAvailability(false).getTable();
+		TransportDependencies dependencies = new TransportDependencies.Builder(table)
+			.addTransports(new CompiledItems[table.getRowCount()])
+			.build();
+
+		dependencies.mark(TransportDependencies.SKILL, Skill.AGILITY.ordinal());
+		assertTrue(dependencies.getDirty().cardinality() > 0);
+		for (int id = dependencies.getDirty().nextSetBit(0); id >= 0; id = dependencies.getDirty().nextSetBit(id + 1))
+		{
+			assertTrue(table.getTransport(id).getSkillLevels()[Skill.AGILITY.ordinal()] > 0);
+		}
+
+		dependencies.clearDirty();
+		dependencies.mark(TransportDependencies.ITEM, ItemID.LAWRUNE);
+		assertEquals(0, dependencies.getDirty().cardinality());
+	}
+
+	@Test
+	public void testIncrementalRefreshMatchesFullRefresh()
+	{
+		Client client = mockClient();
+		ItemContainer inventory = client.getItemContainer(InventoryID.INV);
+		TestShortestPathConfig config = new TestShortestPathConfig();
+		config.setUseTeleportationItemsValue(TeleportationItem.INVENTORY);
+
+		PathfinderConfig incremental = new TestPathfinderConfig(client, config);
+		incremental.refresh();
+		int teleportsBefore = incremental.getTransportAvailability(false).getUsableTeleportIds().length;
+		long fingerprintBefore = incremental.getSearchSnapshot().getFingerprint();
+
+		doReturn(new Item[]{
+			new Item(ItemID.LAWRUNE, 10),
+			new Item(ItemID.AIRRUNE, 50),
+			new Item(ItemID.FIRERUNE, 50)
+		}).when(inventory).getItems();
+		incremental.refresh();
+		PathfinderConfig full = new TestPathfinderConfig(client, config);
+		full.refresh();
+
+		assertTrue(incremental.getTransportAvailability(false).getUsableTeleportIds().length > teleportsBefore);
+		assertNotEquals(fingerprintBefore, incremental.getSearchSnapshot().getFingerprint());
+		assertSameTransports(full, incremental);
+	}
+
+	@Test
+	public void testRandomIncrementalRefreshesMatchFullRefreshes()
+	{
+		TransportTable table = new TestPathfinderConfig(mock(Client.class), new TestShortestPathConfig())
+			.getTransportAvailability(false).getTable();
+		List<VarRequirement> varbitRequirements = new ArrayList<>();
+		List<VarRequirement> varPlayerRequirements = new ArrayList<>();
+		Set<Quest> questSet = EnumSet.noneOf(Quest.class);
+		Set<Integer> itemSet = new TreeSet<>();
+		for (int id = 0; id < table.getRowCount(); id++)
+		{
+			Transport transport = table.getTransport(id);
+			for (VarRequirement requirement : transport.getVarRequirements())
+			{
+				(requirement.isVarbit() ? varbitRequirements : varPlayerRequirements).add(requirement);
+			}
+			questSet.addAll(transport.getQuests());
+			if (transport.getItemRequirements() != null)
+			{
+				for (int[] alternatives : transport.getItemRequirements().getItems())
+				{
+					for (int itemId : alternatives)
+					{
+						itemSet.add(itemId);
+					}
+				}
+			}
+		}
+		List<Quest> quests = new ArrayList<>(questSet);
+		List<Integer> itemIds = new ArrayList<>(itemSet);
+
+		Map<Integer, Integer> varbits = new HashMap<>();
+		Map<Integer, Integer> varPlayers = new HashMap<>();
+		Map<Skill, Integer> levels = new EnumMap<>(Skill.class);
+		Map<Quest, QuestState> questStates = new EnumMap<>(Quest.class);
+		Client client = mockClient();
+		ItemContainer inventory = client.getItemContainer(InventoryID.INV);
+		when(client.getVarbitValue(anyInt())).thenAnswer(call -> varbits.getOrDefault(call.<Integer>getArgument(0), 0));
+		when(client.getVarpValue(anyInt())).thenAnswer(call -> varPlayers.getOrDefault(call.<Integer>getArgument(0), 0));
+		when(client.getBoostedSkillLevel(any(Skill.class))).thenAnswer(call -> levels.getOrDefault(call.<Skill>getArgument(0), 1));
+		TestShortestPathConfig config = new TestShortestPathConfig();
+		ItemContainer bank = mock(ItemContainer.class);
+		doReturn(new Item[0]).when(bank).getItems();
+
+		Random random = new Random(491);
+		PathfinderConfig incremental = withQuestStates(client, config, questStates);
+		incremental.bank = bank;
+		incremental.refresh();
+		for (int round = 0; round < 60; round++)
+		{
+			for (int change = random.nextInt(3); change >= 0; change--)
+			{
+				switch (random.nextInt(7))
+				{
+					case 0:
+						VarRequirement varbit = varbitRequirements.get(random.nextInt(varbitRequirements.size()));
+						varbits.put(varbit.getId(), Math.max(0, varbit.getValue() + random.nextInt(3) - 1));
+						break;
+					case 1:
+						VarRequirement varPlayer = varPlayerRequirements.get(random.nextInt(varPlayerRequirements.size()));
+						varPlayers.put(varPlayer.getId(), Math.max(0, varPlayer.getValue() + random.nextInt(3) - 1));
+						break;
+					case 2:
+						questStates.put(quests.get(random.nextInt(quests.size())),
+							QuestState.values()[random.nextInt(QuestState.values().length)]);
+						break;
+					case 3:
+						levels.put(Skill.values()[random.nextInt(Skill.values().length)], 1 + random.nextInt(99));
+						break;
+					case 4:
+						doReturn(randomItems(random, itemIds)).when(inventory).getItems();
+						break;
+					case 5:
+						bank = mock(ItemContainer.class);
+						doReturn(randomItems(random, itemIds)).when(bank).getItems();
+						incremental.bank = bank;
+						break;
+					default:
+						config.setUseTeleportationItemsValue(TeleportationItem.values()[random.nextInt(TeleportationItem.values().length)]);
+						config.setIncludeBankPathValue(random.nextBoolean());
+						break;
+				}
+			}
+			incremental.refresh();
+			PathfinderConfig full = withQuestStates(client, config, questStates);
+			full.bank = bank;
+			full.refresh();
+			assertSameTransports(full, incremental);
+		}
+	}
+
+	private static PathfinderConfig withQuestStates(Client client, TestShortestPathConfig config,
+		Map<Quest, QuestState> questStates)
+	{
+		return new TestPathfinderConfig(client, config, QuestState.NOT_STARTED, false, false)
+		{
+			@Override
+			public QuestState getQuestState(Quest quest)
+			{
+				return questStates.getOrDefault(quest, QuestState.NOT_STARTED);
+			}
+		};
+	}
+
+	private static Item[] randomItems(Random random, List<Integer> itemIds)
+	{
+		Item[] items = new Item[random.nextInt(12)];
+		for (int i = 0; i < items.length; i++)
+		{
+			items[i] = new Item(itemIds.get(random.nextInt(itemIds.size())), 1 + random.nextInt(100));
+		}
+		return items;
+	}
+
+	private static void assertSameTransports(PathfinderConfig full, PathfinderConfig incremental)
+	{
+		assertEquals(full.getSearchSnapshot().getFingerprint(), incremental.getSearchSnapshot().getFingerprint());
+		for (boolean bankVisited : new boolean[]{false, true})
+		{
+			TransportAvailability expected = full.getTransportAvailability(bankVisited);
+			TransportAvailability actual = incremental.getTransportAvailability(bankVisited);
+			assertArrayEquals(expected.getUsableTeleportIds(), actual.getUsableTeleportIds());
+			assertEquals(expected.getFingerprint(), actual.getFingerprint());
+			int[] origins = expected.getDisplayTransports().keys();
+			Arrays.sort(origins);
+			int[] actualOrigins = actual.getDisplayTransports().keys();
+			Arrays.sort(actualOrigins);
+			assertArrayEquals(origins, actualOrigins);
+			for (int origin : origins)
+			{
+				assertArrayEquals(expected.getTransportIds(origin), actual.getTransportIds(origin));
+			}
+			for (int network = 0; network < expected.getTable().getNetworkCount(); network++)
+			{
+				assertArrayEquals(expected.getHubDestinations(network), actual.getHubDestinations(network));
+			}
+		}
+	}
+
+	@Test
+	public void testBackgroundRefreshMatchesInlineRefresh()
+	{
+		Client client = mockClient();
+		TestShortestPathConfig config = new TestShortestPathConfig();
+		PathfinderConfig inline = new TestPathfinderConfig(client, config);
+		inline.refresh();
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try
+		{
+			PathfinderConfig background = new TestPathfinderConfig(client, config);
+			background.setTransportExecutor(executor);
+			background.refresh();
+			background.awaitTransportRefresh();
+
+			for (boolean bankVisited : new boolean[]{false, true})
+			{
+				assertArrayEquals(inline.getTransportAvailability(bankVisited).getUsableTeleportIds(),
+					background.getTransportAvailability(bankVisited).getUsableTeleportIds());
+				assertEquals(inline.getTransportAvailability(bankVisited).getDisplayTransports().size(),
+					background.getTransportAvailability(bankVisited).getDisplayTransports().size());
+			}
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+	}
+
+	private static Client mockClient()
+	{
+		Client client = mock(Client.class);
+		ItemContainer inventory = mock(ItemContainer.class);
+		when(client.getGameState()).thenReturn(GameState.LOGGED_IN);
+		when(client.getClientThread()).thenReturn(Thread.currentThread());
+		when(client.getBoostedSkillLevel(any(Skill.class))).thenReturn(99);
+		doReturn(inventory).when(client).getItemContainer(InventoryID.INV);
+		doReturn(new Item[0]).when(inventory).getItems();
+		return client;
+	}
+}
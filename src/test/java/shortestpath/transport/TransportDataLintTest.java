@@ -22,7 +22,7 @@ public class TransportDataLintTest
 	public void testNoDuplicateOriginDestinationPairs()
 	{
 		// Load all transport data from resources
-		HashMap<Integer, Set<Transport>> transports = TransportLoader.loadAllFromResources();
+		Map<Integer, Set<Transport>> transports = PermutationNetwork.materialise(TransportLoader.loadAllFromResources());
 
 		// Track all origin-destination-type combinations to check for exact duplicates
 		Set<String> transportSignatures = new HashSet<>();
@@ -109,4 +109,42 @@ public class TransportDataLintTest
 		System.out.printf("Successfully validated %d unique transport signatures across all transport data files.\n",
 			transportSignatures.size());
 	}
+
+	@Test
+	public void testNetworkDestinationRowsDeclareNoItems()
+	{
+		// The hub checks the items and the consumable cost of the origin row only, where the merged
+		// transport used to hold the items of both rows.
+		Set<PermutationNetwork> networks = new HashSet<>();
+		for (Set<Transport> transports : TransportLoader.loadAllFromResources().values())
+		{
+			for (Transport transport : transports)
+			{
+				if (transport.getNetwork() != null)
+				{
+					networks.add(transport.getNetwork());
+				}
+			}
+		}
+		Assert.assertFalse(networks.isEmpty());
+
+		List<String> declaringItems = new ArrayList<>();
+		for (PermutationNetwork network : networks)
+		{
+			for (Transport destination : network.getDestinations())
+			{
+				if (destination.getItemRequirements() != null || destination.isConsumable())
+				{
+					declaringItems.add(String.format("%s -> %s '%s' Consumable:%s Items:%s",
+						network.getType(), WorldPointUtil.unpackWorldX(destination.getDestination()) + " "
+							+ WorldPointUtil.unpackWorldY(destination.getDestination()) + " "
+							+ WorldPointUtil.unpackWorldPlane(destination.getDestination()),
+						destination.getDisplayInfo() != null ? destination.getDisplayInfo() : "",
+						destination.isConsumable(), destination.getItemRequirements()));
+				}
+			}
+		}
+		Assert.assertTrue("Permutation network destination rows with Items or Consumable:\n"
+			+ String.join("\n", declaringItems), declaringItems.isEmpty());
+	}
 }
@@ -27,6 +27,13 @@ public class TransportLoaderTest
 		transports = new HashMap<>();
 	}
 
+	// Helper method to load a permutation network and materialise its origin/destination pairs
+	private void addPermutationsFromContents(String contents, TransportType transportType, int radiusThreshold)
+	{
+		TransportLoader.addTransportsFromContents(transports, contents, transportType, radiusThreshold);
+		transports = PermutationNetwork.materialise(transports);
+	}
+
 	// Helper method to get the first transport from a set
 	private Transport getFirstTransport(Set<Transport> transportSet)
 	{
@@ -162,7 +169,7 @@ public class TransportLoaderTest
 			"\t3300 3300 0\tAIQ\n" +
 			"\t3400 3400 0\tBJR\n";
 
-		TransportLoader.addTransportsFromContents(transports, contents, TransportType.FAIRY_RING, 0);
+		addPermutationsFromContents(contents, TransportType.FAIRY_RING, 0);
 
 		// Should create permutations: AIQ->AIQ, AIQ->BJR, BJR->AIQ, BJR->BJR
 		// AIQ->AIQ and BJR->BJR should be filtered out by distance check (same
@@ -215,6 +222,31 @@ public class TransportLoaderTest
 		Assert.assertTrue("Origin2 should go to 3400,3400,0", origin2ToDestinationB);
 	}
 
+	@Test
+	public void testPermutationOriginsLeadIntoNetwork()
+	{
+		String contents = "# Origin\tDestination\tDisplay info\n" +
+			"3100 3100 0\t\tAIQ\n" +
+			"3200 3200 0\t\tBJR\n" +
+			"\t3300 3300 0\tAIQ\n" +
+			"\t3400 3400 0\tBJR\n" +
+			"\t3500 3500 0\tCKS\n";
+
+		TransportLoader.addTransportsFromContents(transports, contents, TransportType.FAIRY_RING, 0);
+
+		// Only the origin rows are stored, the pairs are not materialised
+		Assert.assertEquals("Only the two origins should be keyed", 2, transports.size());
+		Transport origin = getFirstTransport(transports.get(WorldPointUtil.packWorldPoint(3100, 3100, 0)));
+		Assert.assertEquals("Origin row should lead into the hub", Transport.LOCATION_PERMUTATION, origin.getDestination());
+
+		PermutationNetwork network = origin.getNetwork();
+		Assert.assertNotNull("Origin row should belong to a network", network);
+		Assert.assertEquals(TransportType.FAIRY_RING, network.getType());
+		Assert.assertEquals(2, network.getOrigins().length);
+		Assert.assertEquals(3, network.getDestinations().length);
+		Assert.assertEquals(3, network.edgesFrom(origin).length);
+	}
+
 	@Test
 	public void testPermutationTransportsWithRadius()
 	{
@@ -225,7 +257,7 @@ public class TransportLoaderTest
 			"\t3101 3101 0\tLocation1\n" + // Very close to first origin
 			"\t3400 3400 0\tLocation2\n";
 
-		TransportLoader.addTransportsFromContents(transports, contents, TransportType.SPIRIT_TREE, 5);
+		addPermutationsFromContents(contents, TransportType.SPIRIT_TREE, 5);
 
 		int origin1 = WorldPointUtil.packWorldPoint(3100, 3100, 0);
 		int origin2 = WorldPointUtil.packWorldPoint(3200, 3200, 0);
@@ -910,7 +942,7 @@ public class TransportLoaderTest
 			"\t3400 3400 0\tLocation2\n";
 
 		// Test with radius threshold of 5
-		TransportLoader.addTransportsFromContents(transports, contents, TransportType.SPIRIT_TREE, 5);
+		addPermutationsFromContents(contents, TransportType.SPIRIT_TREE, 5);
 
 		int origin1 = WorldPointUtil.packWorldPoint(3100, 3100, 0);
 		int origin2 = WorldPointUtil.packWorldPoint(3200, 3200, 0);
@@ -982,7 +1014,7 @@ public class TransportLoaderTest
 			"\t3400 3400 0\tLocation2\n";
 
 		// Test with radius threshold of 0 (no filtering)
-		TransportLoader.addTransportsFromContents(transports, contents, TransportType.FAIRY_RING, 0);
+		addPermutationsFromContents(contents, TransportType.FAIRY_RING, 0);
 
 		int origin1 = WorldPointUtil.packWorldPoint(3100, 3100, 0);
 		int origin2 = WorldPointUtil.packWorldPoint(3200, 3200, 0);
@@ -1033,7 +1065,7 @@ public class TransportLoaderTest
 			"3100 3100 0\t\tLocation1\n" +
 			"\t3100 3100 0\tLocation1\n"; // Exact same coordinates
 
-		TransportLoader.addTransportsFromContents(transports, contents, TransportType.FAIRY_RING, 0);
+		addPermutationsFromContents(contents, TransportType.FAIRY_RING, 0);
 
 		// Should not create transport from location to itself
 		Assert.assertTrue("Should not create transport to same location", transports.isEmpty());
@@ -1049,7 +1081,7 @@ public class TransportLoaderTest
 			"\t3400 3400 0\tLocation2\n"; // Distance much larger
 
 		// Test with large radius threshold
-		TransportLoader.addTransportsFromContents(transports, contents, TransportType.SPIRIT_TREE, 100);
+		addPermutationsFromContents(contents, TransportType.SPIRIT_TREE, 100);
 
 		int origin1 = WorldPointUtil.packWorldPoint(3100, 3100, 0);
 		int origin2 = WorldPointUtil.packWorldPoint(3200, 3200, 0);
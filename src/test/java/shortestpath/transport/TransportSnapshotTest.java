@@ -0,0 +1,158 @@
+package shortestpath.transport;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import shortestpath.Destination;
+import shortestpath.DestinationRequirements;
+
+public class TransportSnapshotTest
+{
+	private File file;
+	private byte[] hash;
+	private TransportSnapshot parsed;
+
+	@Before
+	public void setUp() throws IOException
+	{
+		file = new File(Files.createTempDirectory("shortest-path").toFile(), "transports.bin");
+		hash = TransportSnapshot.hashResources();
+
+		Map<Integer, Set<Transport>> loaded = TransportLoader.loadAllFromResources();
+		Transport[] transports = loaded.values().stream().flatMap(Set::stream).toArray(Transport[]::new);
+		parsed = new TransportSnapshot(hash, transports,
+			Destination.loadAllFromResources(), Destination.loadBankRequirementsFromResources());
+	}
+
+	@Test
+	public void testRoundTripMatchesParsedResources() throws IOException
+	{
+		parsed.write(file);
+		TransportSnapshot read = TransportSnapshot.read(file, hash);
+
+		Assert.assertNotNull(read);
+		Assert.assertEquals(parsed.getTransports().length, read.getTransports().length);
+		for (int i = 0; i < parsed.getTransports().length; i++)
+		{
+			Transport expected = parsed.getTransports()[i];
+			Transport actual = read.getTransports()[i];
+			assertSameTransport(expected, actual);
+			Assert.assertEquals(expected.getNetwork() == null, actual.getNetwork() == null);
+			if (expected.getNetwork() != null)
+			{
+				PermutationNetwork expectedNetwork = expected.getNetwork();
+				PermutationNetwork actualNetwork = actual.getNetwork();
+				Assert.assertEquals(expectedNetwork.getType(), actualNetwork.getType());
+				Assert.assertEquals(expectedNetwork.getRadiusThreshold(), actualNetwork.getRadiusThreshold());
+				Assert.assertEquals(expectedNetwork.getOrigins().length, actualNetwork.getOrigins().length);
+				Assert.assertEquals(expectedNetwork.getDestinations().length, actualNetwork.getDestinations().length);
+				for (int j = 0; j < expectedNetwork.getDestinations().length; j++)
+				{
+					assertSameTransport(expectedNetwork.getDestinations()[j], actualNetwork.getDestinations()[j]);
+					Assert.assertEquals(expectedNetwork.getAnchor(j), actualNetwork.getAnchor(j));
+				}
+			}
+		}
+
+		Assert.assertEquals(parsed.getDestinations(), read.getDestinations());
+		Assert.assertEquals(parsed.getBankRequirements().keySet(), read.getBankRequirements().keySet());
+		for (Map.Entry<Integer, DestinationRequirements> entry : parsed.getBankRequirements().entrySet())
+		{
+			DestinationRequirements actual = read.getBankRequirements().get(entry.getKey());
+			Assert.assertArrayEquals(entry.getValue().getSkillLevels(), actual.getSkillLevels());
+			Assert.assertEquals(entry.getValue().getQuests(), actual.getQuests());
+			Assert.assertEquals(entry.getValue().getVarbits(), actual.getVarbits());
+			Assert.assertEquals(entry.getValue().getVarPlayers(), actual.getVarPlayers());
+		}
+	}
+
+	private static void assertSameTransport(Transport expected, Transport actual)
+	{
+		Assert.assertEquals(expected.getOrigin(), actual.getOrigin());
+		Assert.assertEquals(expected.getDestination(), actual.getDestination());
+		Assert.assertEquals(expected.getType(), actual.getType());
+		Assert.assertArrayEquals(expected.getSkillLevels(), actual.getSkillLevels());
+		Assert.assertEquals(expected.getQuests(), actual.getQuests());
+		Assert.assertEquals(expected.getItemRequirements(), actual.getItemRequirements());
+		Assert.assertEquals(expected.getVarRequirements(), actual.getVarRequirements());
+		Assert.assertEquals(expected.getDuration(), actual.getDuration());
+		Assert.assertEquals(expected.getDisplayInfo(), actual.getDisplayInfo());
+		Assert.assertEquals(expected.isConsumable(), actual.isConsumable());
+		Assert.assertEquals(expected.getMaxWildernessLevel(), actual.getMaxWildernessLevel());
+		Assert.assertEquals(expected.getObjectInfo(), actual.getObjectInfo());
+		Assert.assertEquals(expected.getRegionOverride(), actual.getRegionOverride());
+	}
+
+	@Test
+	public void testSharedRequirementsStayShared() throws IOException
+	{
+		parsed.write(file);
+		TransportSnapshot read = TransportSnapshot.read(file, hash);
+
+		Assert.assertNotNull(read);
+		Map<Object, Object> canonical = new HashMap<>();
+		for (Transport transport : read.getTransports())
+		{
+			if (transport.getItemRequirements() != null)
+			{
+				Object shared = canonical.computeIfAbsent(transport.getItemRequirements(), k -> k);
+				Assert.assertSame(shared, transport.getItemRequirements());
+			}
+		}
+	}
+
+	@Test
+	public void testHashMismatchFallsBack() throws IOException
+	{
+		parsed.write(file);
+		byte[] otherHash = hash.clone();
+		otherHash[0] ^= 1;
+
+		Assert.assertNull(TransportSnapshot.read(file, otherHash));
+	}
+
+	@Test
+	public void testHashCoversTheBuilderCode()
+	{
+		Assert.assertArrayEquals(hash, TransportSnapshot.hashResources());
+		Assert.assertFalse(Arrays.equals(hash, TransportSnapshot.hashResources(TransportTable.class)));
+	}
+
+	@Test
+	public void testTruncatedSnapshotFallsBack() throws IOException
+	{
+		parsed.write(file);
+		byte[] bytes = Files.readAllBytes(file.toPath());
+		Files.write(file.toPath(), Arrays.copyOf(bytes, bytes.length / 2));
+
+		Assert.assertNull(TransportSnapshot.read(file, hash));
+		Assert.assertFalse(file.exists());
+	}
+
+	@Test
+	public void testCorruptLengthFallsBack() throws IOException
+	{
+		parsed.write(file);
+		// The string table size follows the magic, the version and the length-prefixed hash.
+		ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+		bytes.putInt(3 * Integer.BYTES + hash.length, -2);
+		Files.write(file.toPath(), bytes.array());
+
+		Assert.assertNull(TransportSnapshot.read(file, hash));
+		Assert.assertFalse(file.exists());
+	}
+
+	@Test
+	public void testMissingSnapshotFallsBack()
+	{
+		Assert.assertNull(TransportSnapshot.read(file, hash));
+	}
+}
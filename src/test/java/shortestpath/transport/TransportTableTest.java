@@ -0,0 +1,80 @@
+package shortestpath.transport;
+
+import java.util.Map;
+import java.util.Set;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TransportTableTest
+{
+	private Transport[] transports;
+	private TransportTable table;
+
+	@Before
+	public void setUp()
+	{
+		Map<Integer, Set<Transport>> loaded = TransportLoader.loadAllFromResources();
+		transports = loaded.values().stream().flatMap(Set::stream).toArray(Transport[]::new);
+		table = new TransportTable(transports);
+	}
+
+	@Test
+	public void testColumnsMatchTransports()
+	{
+		Assert.assertEquals(transports.length, table.size());
+		for (int id = 0; id < table.size(); id++)
+		{
+			Transport transport = transports[id];
+			Assert.assertSame(transport, table.getTransport(id));
+			Assert.assertEquals(transport.getOrigin(), table.getOrigin(id));
+			Assert.assertEquals(transport.getDestination(), table.getDestination(id));
+			Assert.assertEquals(transport.getDuration(), table.getDuration(id));
+			Assert.assertEquals(transport.getType(), table.getType(id));
+			Assert.assertEquals(transport.isConsumable(), table.isConsumable(id));
+			Assert.assertEquals(transport.getType().sharesDestinationsWith() != null, table.isDelayedVisit(id));
+			for (int wildernessLevel : new int[]{0, 20, 30, 56})
+			{
+				Assert.assertEquals(transport.isUsableAtWildernessLevel(wildernessLevel),
+					table.isUsableAtWildernessLevel(id, wildernessLevel));
+			}
+			Assert.assertEquals(transport.getNetwork() == null, table.getNetwork(id) == TransportTable.NO_NETWORK);
+		}
+	}
+
+	@Test
+	public void testNetworkDestinationsFollowTheTransports()
+	{
+		Assert.assertTrue("Resources should contain permutation networks", table.getNetworkCount() > 0);
+		int expectedId = table.size();
+		for (int network = 0; network < table.getNetworkCount(); network++)
+		{
+			Transport[] destinations = table.getNetworkAt(network).getDestinations();
+			Assert.assertEquals(expectedId, table.getFirstDestinationId(network));
+			for (int i = 0; i < destinations.length; i++)
+			{
+				Assert.assertSame(destinations[i], table.getTransport(expectedId + i));
+			}
+			expectedId += destinations.length;
+		}
+	}
+
+	@Test
+	public void testConnectsMatchesNetwork()
+	{
+		for (int id = 0; id < table.size(); id++)
+		{
+			int network = table.getNetwork(id);
+			if (network == TransportTable.NO_NETWORK)
+			{
+				continue;
+			}
+			PermutationNetwork permutationNetwork = table.getNetworkAt(network);
+			int firstId = table.getFirstDestinationId(network);
+			for (int i = 0; i < permutationNetwork.getDestinations().length; i++)
+			{
+				Assert.assertEquals(permutationNetwork.connects(table.getTransport(id), i), table.connects(id, firstId + i));
+			}
+		}
+	}
+}
@@ -0,0 +1,132 @@
+package shortestpath.transport.parser;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import org.junit.Assert;
+import org.junit.Test;
+import shortestpath.WorldPointUtil;
+import shortestpath.transport.Transport;
+
+public class TsvParserTest
+{
+	@Test
+	public void testHeaderColumnsResolveToIndices()
+	{
+		TsvParser parser = new TsvParser("# Origin\tDestination\tDuration\n");
+
+		Assert.assertArrayEquals(new String[]{"Origin", "Destination", "Duration"}, parser.getColumns());
+		Assert.assertEquals(2, parser.columnIndex("Duration"));
+		Assert.assertEquals(-1, parser.columnIndex("Skills"));
+		Assert.assertFalse(parser.next());
+	}
+
+	@Test
+	public void testSkipsCommentAndBlankLines()
+	{
+		TsvParser parser = new TsvParser("#Origin\tDuration\r\n" +
+			"# a comment\r\n" +
+			"\r\n" +
+			"  \t \r\n" +
+			"3200 3200 0\t5\r\n");
+
+		Assert.assertTrue(parser.next());
+		Assert.assertEquals("3200 3200 0", parser.getString(0));
+		Assert.assertEquals(5, parser.parseInt(1));
+		Assert.assertFalse(parser.next());
+	}
+
+	@Test
+	public void testMissingAndEmptyFields()
+	{
+		TsvParser parser = new TsvParser("# Origin\tDestination\tDuration\n" +
+			"\t3300 3300 0\n");
+
+		Assert.assertTrue(parser.next());
+		Assert.assertTrue(parser.hasField(0));
+		Assert.assertFalse(parser.has(0));
+		Assert.assertTrue(parser.has(1));
+		Assert.assertFalse(parser.hasField(2));
+		Assert.assertNull(parser.getString(2));
+		Assert.assertFalse(parser.hasField(-1));
+	}
+
+	@Test
+	public void testParseInt()
+	{
+		byte[] data = "12\t-7\t+3\tx1\t".getBytes(StandardCharsets.UTF_8);
+
+		Assert.assertEquals(12, TsvParser.parseInt(data, 0, 2));
+		Assert.assertEquals(-7, TsvParser.parseInt(data, 3, 5));
+		Assert.assertEquals(3, TsvParser.parseInt(data, 6, 8));
+		assertInvalidNumber(data, 9, 11);
+		assertInvalidNumber(data, 12, 12);
+		assertInvalidNumber("2147483648".getBytes(StandardCharsets.UTF_8), 0, 10);
+	}
+
+	@Test
+	public void testSliceParsersMatchStringParsers()
+	{
+		TsvParser parser = new TsvParser("# Origin\tSkills\tQuests\tVarbits\n" +
+			"3200 3200 0\t70 Agility;50 Strength\tDragon Slayer I\t1234=1;5678>10\n");
+		Assert.assertTrue(parser.next());
+
+		WorldPointParser worldPointParser = new WorldPointParser();
+		Assert.assertEquals(WorldPointUtil.packWorldPoint(3200, 3200, 0),
+			worldPointParser.parsePacked(parser.getData(), parser.getFieldStart(0), parser.getFieldEnd(0)));
+		Assert.assertEquals(Transport.LOCATION_PERMUTATION,
+			worldPointParser.parsePacked(parser.getData(), parser.getFieldStart(0), parser.getFieldStart(0)));
+
+		SkillRequirementParser skillParser = new SkillRequirementParser();
+		Assert.assertArrayEquals(skillParser.parse(parser.getString(1)), parser.parse(1, skillParser));
+
+		QuestParser questParser = new QuestParser();
+		Assert.assertEquals(questParser.parse(parser.getString(2)), parser.parse(2, questParser));
+
+		VarRequirementParser varbitParser = VarRequirementParser.forVarbits();
+		Set<VarRequirement> varbits = parser.parse(3, varbitParser);
+		Assert.assertEquals(2, varbits.size());
+		Assert.assertEquals(varbitParser.parse(parser.getString(3)), varbits);
+	}
+
+	@Test
+	public void testWorldPointSlicesParseLikeStrings()
+	{
+		WorldPointParser parser = new WorldPointParser();
+		for (String value : new String[]{"3200 3200 0", "3200 3200 0  ", "3200 3200", "3200 3200 0 1", "3200", "   ",
+			" 3200 3200", "3200  3200", "3200 x 0"})
+		{
+			byte[] data = value.getBytes(StandardCharsets.UTF_8);
+			Object expected;
+			Object actual;
+			try
+			{
+				expected = parser.parse(value);
+			}
+			catch (NumberFormatException e)
+			{
+				expected = NumberFormatException.class;
+			}
+			try
+			{
+				actual = parser.parsePacked(data, 0, data.length);
+			}
+			catch (NumberFormatException e)
+			{
+				actual = NumberFormatException.class;
+			}
+			Assert.assertEquals(value, expected, actual);
+		}
+	}
+
+	private static void assertInvalidNumber(byte[] data, int start, int end)
+	{
+		try
+		{
+			TsvParser.parseInt(data, start, end);
+			Assert.fail("Expected NumberFormatException");
+		}
+		catch (NumberFormatException expected)
+		{
+		}
+	}
+}